@@ -0,0 +1,123 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide las operaciones de {@link MascotaDAOImpl} sobre una base SQLite en
+ * un archivo temporal, llena con un catálogo sintético de varios tamaños.
+ * Cada tamaño se ejecuta en su propia JVM, así que el singleton
+ * {@link ConexionBD} apunta siempre a la base de ese tamaño.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MascotaDAOImplBenchmark {
+
+    private static final int FAMILIAS = 500;
+
+    @Param({"1000", "10000", "100000"})
+    public int mascotas;
+
+    private File archivo;
+    private MascotaDAO dao;
+    private int siguienteConsulta;
+    private int siguienteInsercion;
+
+    @Setup
+    public void preparar() throws Exception {
+        archivo = Files.createTempFile("veterinaria_bench", ".db").toFile();
+        System.setProperty(ConexionBD.PROPIEDAD_URL_BD, "jdbc:sqlite:" + archivo.getAbsolutePath());
+        dao = new MascotaDAOImpl();
+
+        List<Mascota> lote = new ArrayList<>();
+        for (int i = 0; i < mascotas; i++) {
+            lote.add(crearMascota("Apodo" + i, i));
+            if (lote.size() == 10000) {
+                dao.insertarMascotasEnLote(lote);
+                lote.clear();
+            }
+        }
+        dao.insertarMascotasEnLote(lote);
+    }
+
+    @TearDown(Level.Iteration)
+    public void borrarInsertadas() throws Exception {
+        try (Statement st = ConexionBD.getInstance().getConnection().createStatement()) {
+            st.execute("DELETE FROM mascotas WHERE apodo LIKE 'N%'");
+        }
+    }
+
+    @TearDown
+    public void liberar() throws Exception {
+        ConexionBD.getInstance().cerrarConexion();
+        archivo.delete();
+    }
+
+    /**
+     * Genera una mascota sintética con valores categóricos repartidos uniformemente
+     */
+    static Mascota crearMascota(String apodo, int i) {
+        Clasificacion[] clasificaciones = Clasificacion.values();
+        TipoAlimento[] tipos = TipoAlimento.values();
+        return new Mascota("Nombre" + (i % 211), apodo, clasificaciones[i % clasificaciones.length],
+                "Familia" + (i % FAMILIAS), "Genero" + (i % 97), "especie" + (i % 89), tipos[i % tipos.length]);
+    }
+
+    @Benchmark
+    public Mascota agregarMascota() throws Exception {
+        Mascota mascota = crearMascota("N" + siguienteInsercion, siguienteInsercion++);
+        dao.agregarMascota(mascota);
+        return mascota;
+    }
+
+    @Benchmark
+    public Mascota consultarPorApodo() throws Exception {
+        siguienteConsulta = (siguienteConsulta + 1) % mascotas;
+        return dao.consultarPorApodo("Apodo" + siguienteConsulta);
+    }
+
+    @Benchmark
+    public List<Mascota> consultarPorClasificacion() throws Exception {
+        return dao.consultarPorClasificacion(Clasificacion.AVE);
+    }
+
+    @Benchmark
+    public List<Mascota> consultarPorFamilia() throws Exception {
+        return dao.consultarPorFamilia("Familia42");
+    }
+
+    @Benchmark
+    public List<Mascota> consultarPorTipoAlimento() throws Exception {
+        return dao.consultarPorTipoAlimento(TipoAlimento.OMNIVORO);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Mascota> obtenerTodasLasMascotas() throws Exception {
+        return dao.obtenerTodasLasMascotas();
+    }
+}
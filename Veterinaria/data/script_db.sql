@@ -12,6 +12,42 @@ CREATE TABLE IF NOT EXISTS mascotas (
     tipo_alimento TEXT NOT NULL           -- Tipo de alimento principal (LACTEOS, CARNES, etc.)
 );
 
+-- Crear la tabla de mascotas pendientes (importadas con datos faltantes)
+CREATE TABLE IF NOT EXISTS mascotas_pendientes (
+    id INTEGER PRIMARY KEY AUTOINCREMENT, -- Identificador de la fila
+    firma TEXT NOT NULL UNIQUE,           -- Datos originales unidos, para no repetir pendientes al reimportar
+    estado TEXT NOT NULL DEFAULT 'PENDIENTE', -- PENDIENTE, IMPORTADA o DESCARTADA
+    nombre_comun TEXT,                    -- Los datos pueden faltar (NULL) hasta completarse
+    apodo TEXT,
+    clasificacion TEXT,
+    familia TEXT,
+    genero TEXT,
+    especie TEXT,
+    tipo_alimento TEXT
+);
+CREATE INDEX IF NOT EXISTS idx_pendientes_estado ON mascotas_pendientes (estado, id);
+
+-- Crear la tabla de metadatos (huella de los archivos ya importados, entre otros)
+CREATE TABLE IF NOT EXISTS metadatos (
+    clave TEXT PRIMARY KEY,               -- Por ejemplo huella:data/mascotas.properties
+    valor TEXT NOT NULL
+);
+
+-- Crear la tabla de cambios de mascotas, que respalda al bus de cambios (-Dveterinaria.busCambios=true)
+-- Al activar el bus se borran los cambios de más de -Dveterinaria.busCambios.retencionDias días (7 por defecto), salvo el último
+CREATE TABLE IF NOT EXISTS cambios_mascotas (
+    secuencia INTEGER PRIMARY KEY,        -- Orden de confirmación del cambio
+    tipo TEXT NOT NULL,                   -- INSERTADA, MODIFICADA o ELIMINADA
+    apodo TEXT NOT NULL,                  -- Mascota afectada
+    instante INTEGER NOT NULL,            -- Milisegundos desde la época
+    nombre_comun TEXT,                    -- Estado de la mascota tras el cambio, copiado de la tabla mascotas;
+    clasificacion TEXT,                   -- vacío en las bajas
+    familia TEXT,
+    genero TEXT,
+    especie TEXT,
+    tipo_alimento TEXT
+);
+
 -- Comentarios sobre la estructura:
 -- - nombre_comun: Nombre común por el que se conoce la mascota
 -- - apodo: Nombre personal único de la mascota, usado como clave primaria
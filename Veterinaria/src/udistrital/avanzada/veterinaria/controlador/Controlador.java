@@ -2,34 +2,91 @@ package udistrital.avanzada.veterinaria.controlador;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
-import java.util.List;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import udistrital.avanzada.veterinaria.modelo.ArchivoAccesoAleatorio;
+import udistrital.avanzada.veterinaria.modelo.BusCambios;
+import udistrital.avanzada.veterinaria.modelo.CambioMascota;
 import udistrital.avanzada.veterinaria.modelo.Clasificacion;
+import udistrital.avanzada.veterinaria.modelo.ConexionBD;
+import udistrital.avanzada.veterinaria.modelo.CriterioListado;
+import udistrital.avanzada.veterinaria.modelo.FormatoBinarioMascotas;
+import udistrital.avanzada.veterinaria.modelo.Histograma;
 import udistrital.avanzada.veterinaria.modelo.Mascota;
 import udistrital.avanzada.veterinaria.modelo.MascotaDAO;
 import udistrital.avanzada.veterinaria.modelo.MascotaDAOImpl;
+import udistrital.avanzada.veterinaria.modelo.MascotaDAOMedido;
+import udistrital.avanzada.veterinaria.modelo.MascotaQuery;
+import udistrital.avanzada.veterinaria.modelo.MascotaPendienteDAO;
+import udistrital.avanzada.veterinaria.modelo.MascotaPendienteDAOImpl;
+import udistrital.avanzada.veterinaria.modelo.RegistroMetricas;
 import udistrital.avanzada.veterinaria.modelo.ServicioMascota;
 import udistrital.avanzada.veterinaria.modelo.TipoAlimento;
+import udistrital.avanzada.veterinaria.vista.ModeloTablaMascotas;
 import udistrital.avanzada.veterinaria.vista.VentanaCompletarDatos;
+import udistrital.avanzada.veterinaria.vista.VentanaPendientes;
 import udistrital.avanzada.veterinaria.vista.VentanaPrincipal;
 
 /**
  * Controlador principal de la aplicación de gestión de mascotas exóticas.
  * Implementa el patrón MVC como intermediario entre la Vista y el Modelo.
  * Maneja todos los eventos de la interfaz de usuario y coordina las operaciones
- * de negocio utilizando el DAO.
+ * de negocio utilizando el DAO. Las llamadas al DAO se ejecutan fuera del hilo
+ * de eventos de Swing con un EjecutorAsincrono. El catálogo completo y las
+ * consultas por categoría se muestran paginados, ordenados y filtrados en la
+ * base de datos. Tras adicionar, modificar o eliminar una mascota no se
+ * vuelve a cargar el listado: ServicioMascota publica un CambioMascota y la
+ * tabla actualiza solo la fila afectada.
  * 
  * @author Sistema Veterinaria
  * @version 1.0
  */
 public class Controlador implements ActionListener {
     
+    /**
+     * Canal de las operaciones que reemplazan el contenido de la tabla
+     */
+    private static final String CANAL_TABLA = "tabla";
+    
+    /**
+     * Campos del archivo IDPYBA; el tipo de alimento es transient en Mascota
+     */
+    private static final EnumSet<FormatoBinarioMascotas.Campo> CAMPOS_SERIALIZADOS =
+            EnumSet.complementOf(EnumSet.of(FormatoBinarioMascotas.Campo.TIPO_ALIMENTO));
+    
+    /**
+     * Archivo donde se vuelcan las métricas de la sesión al salir
+     */
+    private static final String ARCHIVO_METRICAS = "data/metricas.txt";
+    
+    /**
+     * Propiedad del sistema que activa la captura de cambios de mascotas
+     * en un BusCambios respaldado por la tabla cambios_mascotas
+     */
+    public static final String PROPIEDAD_BUS_CAMBIOS = "veterinaria.busCambios";
+    
+    private static final Histograma SERIALIZACION = RegistroMetricas.global().histograma("exportacion.serializar");
+    private static final Histograma ESTADO_FINAL = RegistroMetricas.global().histograma("exportacion.accesoAleatorio");
+    
     private VentanaPrincipal vista;
     private MascotaDAO mascotaDAO;
+    private MascotaDAOImpl mascotaDAOImpl;
     private ServicioMascota servicioMascota;
+    private MascotaPendienteDAO pendienteDAO;
+    private ControladorPendientes controladorPendientes;
+    private VentanaPendientes ventanaPendientes;
+    private EjecutorAsincrono ejecutor;
+    private CriterioListado criterio = CriterioListado.POR_DEFECTO;
+    private MascotaQuery consulta;
+    private int columnaOrden = 1;
+    private boolean ascendente = true;
     
     /**
      * Constructor que inicializa el controlador con la vista y el DAO
@@ -38,14 +95,41 @@ public class Controlador implements ActionListener {
      */
     public Controlador(VentanaPrincipal vista) {
         this.vista = vista;
-        this.mascotaDAO = new MascotaDAOImpl();
-        this.servicioMascota = new ServicioMascota(mascotaDAO);
+        this.mascotaDAOImpl = new MascotaDAOImpl();
+        this.mascotaDAO = new MascotaDAOMedido(mascotaDAOImpl);
+        this.pendienteDAO = new MascotaPendienteDAOImpl();
+        this.servicioMascota = new ServicioMascota(mascotaDAO, pendienteDAO);
+        
+        // Una sola operación a la vez: ConexionBD comparte una única conexión
+        this.ejecutor = new EjecutorAsincrono(1, vista::mostrarOcupado);
+        RegistroMetricas.global().registrarEnJmx();
+        
+        // Las páginas de la tabla esperan su turno como las demás operaciones
+        vista.getModeloTabla().setCargador(ejecutor.getCargador());
+        vista.getModeloTabla().setManejadorErrores(this::mostrarError);
+        
+        // Aplicar a la tabla, fila a fila, las altas, modificaciones y bajas
+        servicioMascota.agregarEscucha(cambio -> SwingUtilities.invokeLater(() -> aplicarCambio(cambio)));
         
         // Registrar este controlador como listener de todos los botones
         vista.registrarActionListener(this);
         
+        // Ordenar al pulsar el encabezado de una columna
+        vista.getTablaMascotas().getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int columna = vista.getTablaMascotas().columnAtPoint(e.getPoint());
+                if (columna >= 0) {
+                    ejecutor.medirEnEdt("Ordenar", () -> ordenarPorColumna(columna));
+                }
+            }
+        });
+        
         // Cargar todas las mascotas al iniciar
         cargarTodasLasMascotas();
+        
+        // Avisar si quedaron mascotas incompletas de importaciones anteriores
+        avisarPendientes();
     }
     
     /**
@@ -56,42 +140,68 @@ public class Controlador implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
         String comando = e.getActionCommand();
-        
-        try {
-            switch (comando) {
-                case "Adicionar":
-                    adicionarMascota();
-                    break;
-                case "Consultar":
-                    consultarMascotas();
-                    break;
-                case "Modificar":
-                    modificarMascota();
-                    break;
-                case "Eliminar":
-                    eliminarMascota();
-                    break;
-                case "Limpiar":
-                    limpiarCampos();
-                    break;
-                case "Serializar a IDPYBA":
-                    serializarMascotas();
-                    break;
-                case "Salir":
-                    salirAplicacion();
-                    break;
-                default:
-                    vista.mostrarMensaje("Acción no reconocida: " + comando);
-            }
-        } catch (Exception ex) {
-            vista.mostrarMensaje("Error: " + ex.getMessage());
+        ejecutor.medirEnEdt(comando, () -> despacharComando(comando));
+    }
+    
+    /**
+     * Obtiene el ejecutor asíncrono, para consultar el tiempo que cada
+     * acción ocupa el hilo de eventos
+     * 
+     * @return El ejecutor usado por el controlador
+     */
+    public EjecutorAsincrono getEjecutor() {
+        return ejecutor;
+    }
+    
+    /**
+     * Ejecuta la acción correspondiente a un comando
+     * 
+     * @param comando El comando de acción del botón
+     */
+    private void despacharComando(String comando) {
+        switch (comando) {
+            case "Adicionar":
+                adicionarMascota();
+                break;
+            case "Consultar":
+                consultarMascotas();
+                break;
+            case "Modificar":
+                modificarMascota();
+                break;
+            case "Eliminar":
+                eliminarMascota();
+                break;
+            case "Limpiar":
+                limpiarCampos();
+                break;
+            case "Serializar a IDPYBA":
+                serializarMascotas();
+                break;
+            case "Pendientes":
+                abrirPendientes();
+                break;
+            case "Salir":
+                salirAplicacion();
+                break;
+            default:
+                vista.mostrarMensaje("Acción no reconocida: " + comando);
         }
     }
     
+    /**
+     * Muestra el error de una operación en segundo plano
+     * 
+     * @param error La causa del error
+     */
+    private void mostrarError(Throwable error) {
+        vista.mostrarMensaje("Error: " + error.getMessage());
+    }
+    
     /**
      * Adiciona una nueva mascota a la base de datos
      */
-    private void adicionarMascota() throws Exception {
+    private void adicionarMascota() {
         // Validar que todos los campos estén llenos
         if (!validarCamposObligatorios()) {
             vista.mostrarMensaje("Por favor, complete todos los campos obligatorios");
@@ -101,57 +211,50 @@ public class Controlador implements ActionListener {
         // Crear objeto Mascota con los datos de la vista
         Mascota mascota = crearMascotaDesdeVista();
         
-        // Verificar si la mascota ya existe
-        if (mascotaDAO.existeMascota(mascota)) {
-            vista.mostrarMensaje("Ya existe una mascota con el apodo: " + mascota.getApodo());
-            return;
-        }
-        
-        // Agregar la mascota a la base de datos
-        mascotaDAO.agregarMascota(mascota);
-        vista.mostrarMensaje("Mascota agregada exitosamente");
-        
-        // Actualizar la tabla y limpiar campos
-        cargarTodasLasMascotas();
-        vista.limpiarCampos();
+        // Agregar la mascota si no existe otra con su apodo
+        ejecutor.ejecutar("Adicionar", () -> servicioMascota.agregarMascota(mascota), agregada -> {
+            if (!agregada) {
+                vista.mostrarMensaje("Ya existe una mascota con el apodo: " + mascota.getApodo());
+                return;
+            }
+            vista.mostrarMensaje("Mascota agregada exitosamente");
+            vista.limpiarCampos();
+        }, this::mostrarError);
     }
     
     /**
-     * Consulta mascotas según los criterios especificados
+     * Consulta las mascotas que cumplen a la vez todos los criterios
+     * indicados; los campos vacíos no filtran. El resultado se pagina y
+     * ordena en la base de datos con una sola consulta
      */
-    private void consultarMascotas() throws Exception {
-        List<Mascota> mascotas = null;
+    private void consultarMascotas() {
+        // Leer los criterios en el hilo de eventos
+        String apodo = vista.getConsultaApodo();
+        Clasificacion clasificacion = vista.getConsultaClasificacion();
+        String familia = vista.getConsultaFamilia();
+        TipoAlimento tipoAlimento = vista.getConsultaTipoAlimento();
         
-        // Determinar el tipo de consulta basado en los campos llenos
-        if (!vista.getConsultaApodo().isEmpty()) {
-            Mascota mascota = mascotaDAO.consultarPorApodo(vista.getConsultaApodo());
-            if (mascota != null) {
-                mascotas = List.of(mascota);
-            } else {
-                mascotas = List.of(); // Lista vacía
-            }
-        } else if (vista.getConsultaClasificacion() != null && 
-                   vista.getConsultaClasificacion() != Clasificacion.values()[0]) {
-            mascotas = mascotaDAO.consultarPorClasificacion(vista.getConsultaClasificacion());
-        } else if (!vista.getConsultaFamilia().isEmpty()) {
-            mascotas = mascotaDAO.consultarPorFamilia(vista.getConsultaFamilia());
-        } else if (vista.getConsultaTipoAlimento() != null && 
-                   vista.getConsultaTipoAlimento() != TipoAlimento.values()[0]) {
-            mascotas = mascotaDAO.consultarPorTipoAlimento(vista.getConsultaTipoAlimento());
-        } else {
+        // El primer valor de cada lista desplegable equivale a no filtrar
+        MascotaQuery nueva = MascotaQuery.TODAS
+                .conApodo(apodo)
+                .conClasificacion(clasificacion != Clasificacion.values()[0] ? clasificacion : null)
+                .conFamilia(familia)
+                .conTipoAlimento(tipoAlimento != TipoAlimento.values()[0] ? tipoAlimento : null)
+                .ordenadaPor(CriterioListado.COLUMNAS.get(columnaOrden), ascendente);
+        Consumer<Integer> alTerminar =
+                total -> vista.mostrarMensaje("Consulta realizada. Se encontraron " + total + " mascotas");
+        if (!nueva.isFiltrada()) {
             // Si no hay criterios específicos, mostrar todas
-            mascotas = mascotaDAO.obtenerTodasLasMascotas();
+            mostrarListado(criterio.filtradoPor(null, null), "Consultar", alTerminar, this::mostrarError);
+            return;
         }
-        
-        // Actualizar la tabla con los resultados
-        vista.actualizarTabla(mascotas);
-        vista.mostrarMensaje("Consulta realizada. Se encontraron " + mascotas.size() + " mascotas");
+        mostrarConsulta(nueva, "Consultar", alTerminar, this::mostrarError);
     }
     
     /**
      * Modifica una mascota existente
      */
-    private void modificarMascota() throws Exception {
+    private void modificarMascota() {
         Mascota mascotaSeleccionada = vista.getMascotaSeleccionada();
         
         if (mascotaSeleccionada == null) {
@@ -175,17 +278,18 @@ public class Controlador implements ActionListener {
         }
         
         // Actualizar la mascota en la base de datos
-        mascotaDAO.modificarMascota(mascotaActualizada);
-        vista.mostrarMensaje("Mascota modificada exitosamente");
-        
-        // Actualizar la tabla
-        cargarTodasLasMascotas();
+        ejecutor.ejecutar("Modificar", () -> {
+            servicioMascota.modificarMascota(mascotaActualizada);
+            return null;
+        }, sinResultado -> {
+            vista.mostrarMensaje("Mascota modificada exitosamente");
+        }, this::mostrarError);
     }
     
     /**
      * Elimina una mascota de la base de datos
      */
-    private void eliminarMascota() throws Exception {
+    private void eliminarMascota() {
         Mascota mascotaSeleccionada = vista.getMascotaSeleccionada();
         
         if (mascotaSeleccionada == null) {
@@ -194,12 +298,13 @@ public class Controlador implements ActionListener {
         }
         
         // Eliminar la mascota de la base de datos
-        mascotaDAO.eliminarMascota(mascotaSeleccionada.getApodo());
-        vista.mostrarMensaje("Mascota eliminada exitosamente");
-        
-        // Actualizar la tabla y limpiar campos
-        cargarTodasLasMascotas();
-        vista.limpiarCampos();
+        ejecutor.ejecutar("Eliminar", () -> {
+            servicioMascota.eliminarMascota(mascotaSeleccionada.getApodo());
+            return null;
+        }, sinResultado -> {
+            vista.mostrarMensaje("Mascota eliminada exitosamente");
+            vista.limpiarCampos();
+        }, this::mostrarError);
     }
     
     /**
@@ -213,55 +318,271 @@ public class Controlador implements ActionListener {
     /**
      * Serializa todas las mascotas a un archivo
      */
-    private void serializarMascotas() throws Exception {
-        List<Mascota> mascotas = mascotaDAO.obtenerTodasLasMascotas();
-        
-        if (mascotas.isEmpty()) {
-            vista.mostrarMensaje("No hay mascotas para serializar");
-            return;
+    private void serializarMascotas() {
+        ejecutor.ejecutar("Serializar", () -> {
+            if (mascotaDAO.obtenerPaginaMascotas(null, 1).isEmpty()) {
+                return "No hay mascotas para serializar";
+            }
+            
+            // Las mascotas se escriben una a una a medida que se leen, sin el tipo de alimento
+            long inicio = System.nanoTime();
+            try (FormatoBinarioMascotas.Escritor escritor = FormatoBinarioMascotas.escritor(
+                    new FileOutputStream("data/idpyba_data.ser"), CAMPOS_SERIALIZADOS)) {
+                mascotaDAO.recorrerMascotas(mascota -> {
+                    try {
+                        escritor.escribir(mascota);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return "Mascotas serializadas exitosamente en data/idpyba_data.ser";
+            } catch (IOException | UncheckedIOException e) {
+                throw new Exception("Error al serializar mascotas: " + e.getMessage());
+            } finally {
+                SERIALIZACION.registrarDesde(inicio);
+            }
+        }, vista::mostrarMensaje, this::mostrarError);
+    }
+    
+    /**
+     * Importa en segundo plano los archivos de mascotas que cambiaron desde
+     * la última importación, mostrando el avance en la ventana, y recarga la
+     * tabla al terminar. La tabla muestra mientras tanto las mascotas que ya
+     * estaban en la base de datos. Si la propiedad
+     * {@value #PROPIEDAD_BUS_CAMBIOS} vale true, antes de importar se activa
+     * la captura de cambios, de modo que también la importación llega al bus
+     * 
+     * @param metrica Métrica del arranque, donde se registra el fin de la importación
+     */
+    public void cargarMascotasIniciales(MetricaArranque metrica) {
+        ejecutor.ejecutar("Importación inicial", () -> {
+            if (Boolean.getBoolean(PROPIEDAD_BUS_CAMBIOS)) {
+                activarBusCambios();
+            }
+            return servicioMascota.cargarMascotasIniciales(
+                    avance -> SwingUtilities.invokeLater(() -> vista.mostrarMensaje(
+                            String.format("Importando mascotas: %d leídas (%.0f%%)", avance.getLeidas(),
+                                    avance.getPorcentaje()))));
+        }, resumen -> {
+            metrica.marcar("Importación inicial");
+            if (resumen == null) {
+                return;
+            }
+            vista.mostrarMensaje("Mascotas importadas: " + resumen.getInsertadas());
+            cargarTodasLasMascotas();
+            avisarPendientes();
+        }, error -> vista.mostrarMensaje("Error al importar las mascotas iniciales: " + error.getMessage()));
+    }
+    
+    /**
+     * Activa la captura de cambios; si falla, la aplicación sigue sin ella
+     */
+    private void activarBusCambios() {
+        try {
+            BusCambios bus = mascotaDAOImpl.activarBusCambios(BusCambios.CAPACIDAD_POR_DEFECTO);
+            System.out.println("Captura de cambios activa desde la secuencia " + bus.getUltimaPublicada());
+        } catch (Exception e) {
+            System.err.println("No se pudo activar la captura de cambios: " + e.getMessage());
         }
-        
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream("data/idpyba_data.ser"))) {
-            oos.writeObject(mascotas);
-            vista.mostrarMensaje("Mascotas serializadas exitosamente en data/idpyba_data.ser");
-        } catch (IOException e) {
-            throw new Exception("Error al serializar mascotas: " + e.getMessage());
+    }
+    
+    /**
+     * Obtiene el bus de cambios de mascotas, para suscribirse a él
+     * 
+     * @return El bus, o null si la captura de cambios no está activa
+     */
+    public BusCambios getBusCambios() {
+        return mascotaDAOImpl.getBusCambios();
+    }
+    
+    /**
+     * Cuenta en segundo plano las mascotas pendientes y avisa si hay alguna
+     */
+    private void avisarPendientes() {
+        ejecutor.ejecutar("Contar pendientes", pendienteDAO::contarPendientes, total -> {
+            if (total > 0) {
+                vista.mostrarMensaje("Hay " + total + " mascotas pendientes de completar. Pulse Pendientes para revisarlas");
+            }
+        }, this::mostrarError);
+    }
+    
+    /**
+     * Abre la lista de trabajo de mascotas pendientes, creándola la primera vez
+     */
+    private void abrirPendientes() {
+        if (ventanaPendientes == null) {
+            ventanaPendientes = new VentanaPendientes(vista);
+            controladorPendientes = new ControladorPendientes(ventanaPendientes, pendienteDAO, ejecutor, () -> {
+                servicioMascota.invalidarEstadisticas();
+                cargarTodasLasMascotas();
+            });
+        }
+        if (!ventanaPendientes.isVisible()) {
+            controladorPendientes.cargar();
+            ventanaPendientes.setVisible(true);
         }
+        ventanaPendientes.toFront();
     }
     
     /**
-     * Guarda el estado final y cierra la aplicación
+     * Guarda el estado final, vuelca las métricas de la sesión, cierra la
+     * conexión tras escribir las consultas lentas pendientes y cierra la aplicación
      */
-    private void salirAplicacion() throws Exception {
-        List<Mascota> mascotas = mascotaDAO.obtenerTodasLasMascotas();
-        
-        try (RandomAccessFile raf = new RandomAccessFile("data/estado_final.raf", "rw")) {
-            // Escribir el número de mascotas
-            raf.writeInt(mascotas.size());
-            
-            // Escribir cada mascota
-            for (Mascota mascota : mascotas) {
-                escribirMascotaEnRAF(raf, mascota);
+    private void salirAplicacion() {
+        ejecutor.ejecutar("Salir", () -> {
+            guardarEstadoFinal();
+            try {
+                RegistroMetricas.global().volcar(ARCHIVO_METRICAS);
+            } catch (IOException e) {
+                System.err.println("No se pudieron guardar las métricas: " + e.getMessage());
             }
-            
+            ConexionBD.getInstance().cerrarConexion();
+            return null;
+        }, sinResultado -> {
             vista.mostrarMensaje("Estado guardado en data/estado_final.raf");
-        } catch (IOException e) {
+            
+            // Cerrar la aplicación
+            System.exit(0);
+        }, this::mostrarError);
+    }
+    
+    /**
+     * Escribe el estado final de la base de datos en el archivo de acceso aleatorio
+     * 
+     * @throws Exception Si ocurre un error al leer las mascotas o al escribir el archivo
+     */
+    private void guardarEstadoFinal() throws Exception {
+        // Las mascotas llegan ordenadas por apodo, lo que permite buscar por apodo en el archivo
+        long inicio = System.nanoTime();
+        try (ArchivoAccesoAleatorio.Escritor escritor = ArchivoAccesoAleatorio.crear("data/estado_final.raf")) {
+            mascotaDAO.recorrerMascotas(mascota -> {
+                try {
+                    escritor.agregar(mascota);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
             throw new Exception("Error al guardar estado final: " + e.getMessage());
+        } finally {
+            ESTADO_FINAL.registrarDesde(inicio);
         }
-        
-        // Cerrar la aplicación
-        System.exit(0);
     }
     
     /**
      * Carga todas las mascotas en la tabla
      */
     private void cargarTodasLasMascotas() {
-        try {
-            List<Mascota> mascotas = mascotaDAO.obtenerTodasLasMascotas();
-            vista.actualizarTabla(mascotas);
-        } catch (Exception e) {
-            vista.mostrarMensaje("Error al cargar mascotas: " + e.getMessage());
+        mostrarListado(criterio.filtradoPor(null, null), "Cargar mascotas", total -> { },
+                error -> vista.mostrarMensaje("Error al cargar mascotas: " + error.getMessage()));
+    }
+    
+    /**
+     * Muestra en la tabla un listado paginado. Solo se cuentan las filas en
+     * segundo plano; la tabla pide luego las páginas que va mostrando
+     * 
+     * @param nuevo Orden y filtro del listado
+     * @param accion Nombre de la acción, usado en las mediciones
+     * @param alTerminar Recibe el número de mascotas del listado
+     * @param alFallar Recibe la causa del error
+     */
+    private void mostrarListado(CriterioListado nuevo, String accion, Consumer<Integer> alTerminar,
+            Consumer<Throwable> alFallar) {
+        criterio = nuevo;
+        consulta = null;
+        ejecutor.ejecutarUltima(CANAL_TABLA, accion, () -> mascotaDAO.contarMascotas(nuevo), total -> {
+            vista.getModeloTabla().setFuente(
+                    (desde, cantidad, anterior) -> mascotaDAO.obtenerVentanaMascotas(nuevo, desde, cantidad, anterior),
+                    total);
+            alTerminar.accept(total);
+        }, alFallar);
+    }
+    
+    /**
+     * Muestra en la tabla, paginado, el resultado de una consulta con varios
+     * criterios. Las páginas se piden por desplazamiento: los resultados
+     * filtrados suelen ser pocos comparados con el catálogo
+     * 
+     * @param nueva Criterios y orden de la consulta
+     * @param accion Nombre de la acción, usado en las mediciones
+     * @param alTerminar Recibe el número de mascotas encontradas
+     * @param alFallar Recibe la causa del error
+     */
+    private void mostrarConsulta(MascotaQuery nueva, String accion, Consumer<Integer> alTerminar,
+            Consumer<Throwable> alFallar) {
+        consulta = nueva;
+        ejecutor.ejecutarUltima(CANAL_TABLA, accion, () -> mascotaDAO.contarMascotas(nueva), total -> {
+            vista.getModeloTabla().setFuente(
+                    (desde, cantidad, anterior) -> mascotaDAO.consultarMascotas(nueva.paginada(desde, cantidad)),
+                    total);
+            alTerminar.accept(total);
+        }, alFallar);
+    }
+    
+    /**
+     * Aplica a la tabla un cambio publicado por ServicioMascota. En un
+     * listado paginado la mascota entra o sale según cumpla el filtro o la
+     * consulta mostrados y se ubica con su orden; en una lista fija solo se
+     * actualizan o quitan las filas que ya estaban
+     * 
+     * @param cambio Cambio a aplicar
+     */
+    private void aplicarCambio(CambioMascota cambio) {
+        ModeloTablaMascotas modelo = vista.getModeloTabla();
+        Mascota anterior = cambio.getAnterior();
+        Mascota actual = cambio.getActual();
+        if (modelo.isModoLista()) {
+            if (cambio.getTipo() == CambioMascota.Tipo.MODIFICADA) {
+                modelo.reemplazar(actual);
+            } else if (anterior != null) {
+                modelo.eliminar(anterior, null);
+            }
+            return;
+        }
+        if (anterior == null && cambio.getTipo() != CambioMascota.Tipo.INSERTADA) {
+            // Sin el estado previo no se sabe dónde estaba la fila
+            if (consulta != null) {
+                mostrarConsulta(consulta, "Actualizar", total -> { }, this::mostrarError);
+            } else {
+                mostrarListado(criterio, "Actualizar", total -> { }, this::mostrarError);
+            }
+            return;
+        }
+        Comparator<Mascota> orden = consulta != null ? consulta.comparador() : criterio.comparador();
+        boolean estaba = anterior != null && (consulta != null ? consulta.cumple(anterior) : criterio.cumple(anterior));
+        boolean esta = actual != null && (consulta != null ? consulta.cumple(actual) : criterio.cumple(actual));
+        if (estaba && esta && orden.compare(anterior, actual) == 0) {
+            modelo.reemplazar(actual);
+            return;
+        }
+        if (estaba) {
+            modelo.eliminar(anterior, orden);
+        }
+        if (esta) {
+            modelo.insertar(actual, orden);
+        }
+    }
+    
+    /**
+     * Ordena la tabla por una columna; pulsar de nuevo la misma columna
+     * invierte el sentido. Los listados paginados se reordenan en la base de
+     * datos y las listas fijas, en memoria
+     * 
+     * @param columna Índice de la columna pulsada en la vista
+     */
+    private void ordenarPorColumna(int columna) {
+        int columnaModelo = vista.getTablaMascotas().convertColumnIndexToModel(columna);
+        ascendente = columnaModelo != columnaOrden || !ascendente;
+        columnaOrden = columnaModelo;
+        if (vista.getModeloTabla().isModoLista()) {
+            vista.getModeloTabla().ordenarLista(
+                    criterio.ordenadoPor(CriterioListado.COLUMNAS.get(columnaOrden), ascendente).comparador());
+        } else if (consulta != null) {
+            mostrarConsulta(consulta.ordenadaPor(CriterioListado.COLUMNAS.get(columnaOrden), ascendente), "Ordenar",
+                    total -> { }, this::mostrarError);
+        } else {
+            mostrarListado(criterio.ordenadoPor(CriterioListado.COLUMNAS.get(columnaOrden), ascendente), "Ordenar",
+                    total -> { }, this::mostrarError);
         }
     }
     
@@ -294,39 +615,4 @@ public class Controlador implements ActionListener {
         mascota.setTipoAlimentoPrincipal(vista.getTipoAlimento());
         return mascota;
     }
-    
-    /**
-     * Escribe una mascota en un RandomAccessFile
-     * 
-     * @param raf El RandomAccessFile donde escribir
-     * @param mascota La mascota a escribir
-     * @throws IOException Si ocurre un error de escritura
-     */
-    private void escribirMascotaEnRAF(RandomAccessFile raf, Mascota mascota) throws IOException {
-        // Escribir cada campo con su longitud
-        escribirStringRAF(raf, mascota.getNombreComun());
-        escribirStringRAF(raf, mascota.getApodo());
-        escribirStringRAF(raf, mascota.getClasificacion().name());
-        escribirStringRAF(raf, mascota.getFamilia());
-        escribirStringRAF(raf, mascota.getGenero());
-        escribirStringRAF(raf, mascota.getEspecie());
-        escribirStringRAF(raf, mascota.getTipoAlimentoPrincipal().name());
-    }
-    
-    /**
-     * Escribe una cadena en un RandomAccessFile con su longitud
-     * 
-     * @param raf El RandomAccessFile donde escribir
-     * @param str La cadena a escribir
-     * @throws IOException Si ocurre un error de escritura
-     */
-    private void escribirStringRAF(RandomAccessFile raf, String str) throws IOException {
-        if (str == null) {
-            raf.writeInt(0);
-        } else {
-            byte[] bytes = str.getBytes("UTF-8");
-            raf.writeInt(bytes.length);
-            raf.write(bytes);
-        }
-    }
 }
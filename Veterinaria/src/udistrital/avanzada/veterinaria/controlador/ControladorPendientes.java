@@ -0,0 +1,259 @@
+package udistrital.avanzada.veterinaria.controlador;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JFrame;
+import udistrital.avanzada.veterinaria.modelo.Mascota;
+import udistrital.avanzada.veterinaria.modelo.MascotaPendiente;
+import udistrital.avanzada.veterinaria.modelo.MascotaPendienteDAO;
+import udistrital.avanzada.veterinaria.modelo.ResultadoLote;
+import udistrital.avanzada.veterinaria.vista.ModeloTablaPendientes;
+import udistrital.avanzada.veterinaria.vista.VentanaCompletarDatos;
+import udistrital.avanzada.veterinaria.vista.VentanaPendientes;
+
+/**
+ * Controlador de la lista de trabajo de mascotas pendientes. Las ediciones
+ * se hacen en el modelo de la tabla y se envían a la base de datos como
+ * copias, en el mismo EjecutorAsincrono del controlador principal, que
+ * serializa el acceso a la única conexión.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class ControladorPendientes implements ActionListener {
+
+    private VentanaPendientes vista;
+    private MascotaPendienteDAO pendienteDAO;
+    private EjecutorAsincrono ejecutor;
+    private Runnable alImportar;
+
+    /**
+     * Constructor que inicializa el controlador de pendientes
+     *
+     * @param vista La ventana de pendientes
+     * @param pendienteDAO El DAO de la tabla de pendientes
+     * @param ejecutor El ejecutor del controlador principal
+     * @param alImportar Se ejecuta en el EDT tras pasar pendientes al catálogo
+     */
+    public ControladorPendientes(VentanaPendientes vista, MascotaPendienteDAO pendienteDAO,
+            EjecutorAsincrono ejecutor, Runnable alImportar) {
+        this.vista = vista;
+        this.pendienteDAO = pendienteDAO;
+        this.ejecutor = ejecutor;
+        this.alImportar = alImportar;
+
+        // Registrar este controlador como listener de todos los botones
+        vista.registrarActionListener(this);
+    }
+
+    /**
+     * Maneja todos los eventos de los botones de la ventana de pendientes
+     *
+     * @param e El evento de acción
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        String comando = e.getActionCommand();
+        ejecutor.medirEnEdt(comando, () -> despacharComando(comando));
+    }
+
+    /**
+     * Ejecuta la acción correspondiente a un comando
+     *
+     * @param comando El comando de acción del botón
+     */
+    private void despacharComando(String comando) {
+        switch (comando) {
+            case "Aplicar a seleccionadas":
+                aplicarASeleccionadas();
+                break;
+            case "Completar seleccionada":
+                completarSeleccionada();
+                break;
+            case "Guardar cambios":
+                guardarCambios();
+                break;
+            case "Importar completas":
+                importarCompletas();
+                break;
+            case "Descartar seleccionadas":
+                descartarSeleccionadas();
+                break;
+            case "Recargar pendientes":
+                recargar();
+                break;
+            default:
+                vista.mostrarMensaje("Acción no reconocida: " + comando);
+        }
+    }
+
+    /**
+     * Carga las pendientes en la tabla, descartando las ediciones sin guardar
+     */
+    public void cargar() {
+        ejecutor.ejecutar("Cargar pendientes", pendienteDAO::listarPendientes, pendientes -> {
+            vista.getModeloTabla().setPendientes(pendientes);
+            vista.mostrarMensaje(pendientes.isEmpty()
+                    ? "No hay mascotas pendientes"
+                    : pendientes.size() + " mascotas pendientes de completar");
+        }, this::mostrarError);
+    }
+
+    /**
+     * Muestra el error de una operación en segundo plano
+     *
+     * @param error La causa del error
+     */
+    private void mostrarError(Throwable error) {
+        vista.mostrarMensaje("Error: " + error.getMessage());
+    }
+
+    /**
+     * Asigna el valor elegido a la columna elegida de todas las filas seleccionadas
+     */
+    private void aplicarASeleccionadas() {
+        int[] filas = vista.getFilasSeleccionadas();
+        if (filas.length == 0) {
+            vista.mostrarMensaje("Por favor, seleccione las mascotas a las que asignar el valor");
+            return;
+        }
+
+        vista.getModeloTabla().asignar(filas, vista.getColumnaBloque(), vista.getValorBloque());
+        vista.mostrarMensaje("Valor asignado a " + filas.length + " mascotas. Guarde los cambios para conservarlo");
+    }
+
+    /**
+     * Completa la fila seleccionada en el formulario de datos de mascota
+     */
+    private void completarSeleccionada() {
+        int[] filas = vista.getFilasSeleccionadas();
+        if (filas.length != 1) {
+            vista.mostrarMensaje("Por favor, seleccione una sola mascota para completar");
+            return;
+        }
+
+        // El formulario modifica la mascota recibida; se le pasa una copia por si se cancela
+        ModeloTablaPendientes modelo = vista.getModeloTabla();
+        Mascota copia = modelo.getPendiente(filas[0]).copiar().getMascota();
+        VentanaCompletarDatos ventanaCompletar = new VentanaCompletarDatos((JFrame) vista.getOwner(), copia);
+        ventanaCompletar.setVisible(true);
+
+        Mascota mascotaCompletada = ventanaCompletar.getMascotaCompletada();
+        if (mascotaCompletada != null) {
+            modelo.reemplazar(filas[0], mascotaCompletada);
+            vista.mostrarMensaje("Mascota completada. Guarde los cambios o impórtela al catálogo");
+        }
+    }
+
+    /**
+     * Guarda en la base de datos las pendientes editadas
+     */
+    private void guardarCambios() {
+        vista.terminarEdicion();
+        List<MascotaPendiente> modificadas = vista.getModeloTabla().getModificadas();
+        if (modificadas.isEmpty()) {
+            vista.mostrarMensaje("No hay cambios por guardar");
+            return;
+        }
+
+        List<MascotaPendiente> copias = copiar(modificadas);
+        ejecutor.ejecutar("Guardar pendientes", () -> {
+            pendienteDAO.actualizarPendientes(copias);
+            return null;
+        }, sinResultado -> {
+            vista.getModeloTabla().marcarGuardadas(modificadas);
+            vista.mostrarMensaje("Cambios guardados en " + modificadas.size() + " mascotas pendientes");
+        }, this::mostrarError);
+    }
+
+    /**
+     * Guarda las ediciones y pasa al catálogo las pendientes que ya están
+     * completas. Las de apodo repetido siguen en la lista
+     */
+    private void importarCompletas() {
+        vista.terminarEdicion();
+        ModeloTablaPendientes modelo = vista.getModeloTabla();
+        List<MascotaPendiente> completas = modelo.getCompletas();
+        if (completas.isEmpty()) {
+            vista.mostrarMensaje("Ninguna mascota pendiente tiene todos los datos");
+            return;
+        }
+
+        List<MascotaPendiente> modificadas = modelo.getModificadas();
+        List<MascotaPendiente> copiasModificadas = copiar(modificadas);
+        List<MascotaPendiente> copiasCompletas = copiar(completas);
+        ejecutor.ejecutar("Importar pendientes", () -> {
+            // Las incompletas editadas también se conservan
+            pendienteDAO.actualizarPendientes(copiasModificadas);
+            return pendienteDAO.completarPendientes(copiasCompletas);
+        }, resultado -> {
+            modelo.marcarGuardadas(modificadas);
+            List<MascotaPendiente> importadas = new ArrayList<>();
+            for (int i = 0; i < completas.size(); i++) {
+                if (resultado.getEstado(i) != ResultadoLote.Estado.DUPLICADA) {
+                    importadas.add(completas.get(i));
+                }
+            }
+            modelo.quitar(importadas);
+            String mensaje = "Mascotas importadas al catálogo: " + importadas.size();
+            if (resultado.getDuplicadas() > 0) {
+                mensaje += ". " + resultado.getDuplicadas() + " tienen un apodo que ya existe y siguen pendientes";
+            }
+            vista.mostrarMensaje(mensaje);
+            alImportar.run();
+        }, this::mostrarError);
+    }
+
+    /**
+     * Descarta las pendientes seleccionadas sin pasarlas al catálogo
+     */
+    private void descartarSeleccionadas() {
+        int[] filas = vista.getFilasSeleccionadas();
+        if (filas.length == 0) {
+            vista.mostrarMensaje("Por favor, seleccione las mascotas a descartar");
+            return;
+        }
+        if (!vista.confirmar("¿Descartar " + filas.length + " mascotas pendientes?")) {
+            return;
+        }
+
+        List<MascotaPendiente> descartadas = vista.getModeloTabla().getPendientes(filas);
+        List<MascotaPendiente> copias = copiar(descartadas);
+        ejecutor.ejecutar("Descartar pendientes", () -> {
+            pendienteDAO.descartarPendientes(copias);
+            return null;
+        }, sinResultado -> {
+            vista.getModeloTabla().quitar(descartadas);
+            vista.mostrarMensaje("Mascotas pendientes descartadas: " + descartadas.size());
+        }, this::mostrarError);
+    }
+
+    /**
+     * Vuelve a cargar las pendientes, confirmando antes si hay ediciones sin guardar
+     */
+    private void recargar() {
+        vista.terminarEdicion();
+        if (!vista.getModeloTabla().getModificadas().isEmpty()
+                && !vista.confirmar("Hay cambios sin guardar. ¿Recargar de todos modos?")) {
+            return;
+        }
+        cargar();
+    }
+
+    /**
+     * Copia las pendientes para enviarlas a la base de datos mientras la
+     * tabla se sigue editando en el EDT
+     *
+     * @param pendientes Las pendientes a copiar
+     * @return Lista de copias
+     */
+    private List<MascotaPendiente> copiar(List<MascotaPendiente> pendientes) {
+        List<MascotaPendiente> copias = new ArrayList<>(pendientes.size());
+        for (MascotaPendiente pendiente : pendientes) {
+            copias.add(pendiente.copiar());
+        }
+        return copias;
+    }
+}
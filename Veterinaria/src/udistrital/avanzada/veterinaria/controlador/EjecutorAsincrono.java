@@ -0,0 +1,259 @@
+package udistrital.avanzada.veterinaria.controlador;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import udistrital.avanzada.veterinaria.modelo.Histograma;
+import udistrital.avanzada.veterinaria.modelo.RegistroMetricas;
+
+/**
+ * Ejecuta fuera del hilo de eventos de Swing (EDT) las operaciones de datos
+ * que disparan los controladores y devuelve sus resultados al EDT con
+ * {@link SwingUtilities#invokeLater(Runnable)}.
+ *
+ * Cada operación corre en su propio hilo virtual. Las operaciones de un
+ * mismo canal se reemplazan: al lanzar una nueva se cancela la anterior y
+ * su resultado se descarta. Mientras haya operaciones pendientes se
+ * notifica al indicador de ocupado.
+ *
+ * Además mide el tiempo que cada acción ocupa el EDT, tanto al despacharse
+ * como al aplicar su resultado, para verificar que no supere un cuadro
+ * ({@value #PRESUPUESTO_EDT_MS} ms). Ese tiempo y la duración de cada tarea
+ * en segundo plano se registran también en el registro global de métricas,
+ * como {@code edt.<acción>} y {@code tarea.<acción>}.
+ *
+ * Los métodos públicos, salvo las consultas de mediciones, deben llamarse
+ * desde el EDT. Con SQLite debe limitarse a una operación concurrente,
+ * porque {@code ConexionBD} comparte una única conexión.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class EjecutorAsincrono {
+
+    /**
+     * Tiempo máximo, en milisegundos, que una acción debería ocupar el EDT.
+     */
+    public static final long PRESUPUESTO_EDT_MS = 16;
+
+    private final ExecutorService ejecutor;
+    private final Semaphore permisos;
+    private final Consumer<Boolean> indicadorOcupado;
+    private final Map<String, CompletableFuture<?>> ultimaPorCanal = new HashMap<>();
+    private final Map<String, MedicionEdt> mediciones = new ConcurrentHashMap<>();
+    private final Map<String, Histograma> duraciones = new ConcurrentHashMap<>();
+    private int pendientes;
+
+    /**
+     * Crea el ejecutor.
+     *
+     * @param maximoConcurrentes Número máximo de operaciones ejecutándose a la vez
+     * @param indicadorOcupado Recibe true al empezar a haber operaciones pendientes
+     * y false cuando terminan todas; se invoca en el EDT
+     */
+    public EjecutorAsincrono(int maximoConcurrentes, Consumer<Boolean> indicadorOcupado) {
+        this.ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.permisos = new Semaphore(maximoConcurrentes, true);
+        this.indicadorOcupado = indicadorOcupado;
+    }
+
+    /**
+     * Ejecuta una tarea en segundo plano.
+     *
+     * @param accion Nombre de la acción, usado en las mediciones
+     * @param tarea Trabajo a realizar fuera del EDT
+     * @param alTerminar Recibe el resultado en el EDT
+     * @param alFallar Recibe la causa del error en el EDT
+     * @return Futuro con el resultado de la tarea
+     */
+    public <T> CompletableFuture<T> ejecutar(String accion, Callable<T> tarea,
+            Consumer<T> alTerminar, Consumer<Throwable> alFallar) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        if (pendientes++ == 0) {
+            indicadorOcupado.accept(true);
+        }
+        Histograma duracion = duraciones.computeIfAbsent(accion,
+                a -> RegistroMetricas.global().histograma("tarea." + a));
+        ejecutor.execute(() -> correr(futuro, tarea, duracion));
+        futuro.whenComplete((resultado, error) -> SwingUtilities.invokeLater(() -> medirEnEdt(accion, () -> {
+            if (--pendientes == 0) {
+                indicadorOcupado.accept(false);
+            }
+            if (futuro.isCancelled()) {
+                return; // Reemplazada por una operación más reciente
+            }
+            if (error != null) {
+                alFallar.accept(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                alTerminar.accept(resultado);
+            }
+        })));
+        return futuro;
+    }
+
+    /**
+     * Ejecuta una tarea en segundo plano cancelando la anterior del mismo
+     * canal, de modo que solo se aplique el resultado más reciente.
+     *
+     * @param canal Grupo de operaciones que se reemplazan entre sí
+     * @param accion Nombre de la acción, usado en las mediciones
+     * @param tarea Trabajo a realizar fuera del EDT
+     * @param alTerminar Recibe el resultado en el EDT
+     * @param alFallar Recibe la causa del error en el EDT
+     * @return Futuro con el resultado de la tarea
+     */
+    public <T> CompletableFuture<T> ejecutarUltima(String canal, String accion, Callable<T> tarea,
+            Consumer<T> alTerminar, Consumer<Throwable> alFallar) {
+        CompletableFuture<?> anterior = ultimaPorCanal.get(canal);
+        if (anterior != null) {
+            anterior.cancel(false);
+        }
+        CompletableFuture<T> futuro = ejecutar(accion, tarea, alTerminar, alFallar);
+        ultimaPorCanal.put(canal, futuro);
+        return futuro;
+    }
+
+    /**
+     * Obtiene un ejecutor para cargas breves, como las páginas de una tabla,
+     * que comparten el límite de operaciones concurrentes pero no notifican
+     * al indicador de ocupado ni devuelven su resultado al EDT
+     *
+     * @return Ejecutor de tareas en segundo plano
+     */
+    public Executor getCargador() {
+        return tarea -> ejecutor.execute(() -> correr(new CompletableFuture<Void>(), () -> {
+            tarea.run();
+            return null;
+        }, null));
+    }
+
+    /**
+     * Ejecuta en el hilo actual, normalmente el EDT, midiendo su duración
+     * en las estadísticas de la acción.
+     *
+     * @param accion Nombre de la acción
+     * @param cuerpo Trabajo a medir
+     */
+    public void medirEnEdt(String accion, Runnable cuerpo) {
+        long inicio = System.nanoTime();
+        try {
+            cuerpo.run();
+        } finally {
+            mediciones.computeIfAbsent(accion, MedicionEdt::new).registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * @return Mediciones del EDT por acción; puede consultarse desde cualquier hilo
+     */
+    public Map<String, MedicionEdt> getMediciones() {
+        return new TreeMap<>(mediciones);
+    }
+
+    /**
+     * Detiene el ejecutor; las tareas en curso terminan pero no se aceptan nuevas.
+     */
+    public void cerrar() {
+        ejecutor.shutdown();
+    }
+
+    private <T> void correr(CompletableFuture<T> futuro, Callable<T> tarea, Histograma duracion) {
+        try {
+            permisos.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.completeExceptionally(e);
+            return;
+        }
+        try {
+            // Si fue reemplazada mientras esperaba turno, no se ejecuta
+            if (!futuro.isDone()) {
+                long inicio = System.nanoTime();
+                try {
+                    futuro.complete(tarea.call());
+                } finally {
+                    if (duracion != null) {
+                        duracion.registrarDesde(inicio);
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            futuro.completeExceptionally(t);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Estadísticas del tiempo que una acción ocupa el EDT.
+     */
+    public static final class MedicionEdt {
+        private final AtomicLong ejecuciones = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maximoNanos = new AtomicLong();
+        private final AtomicLong excedidas = new AtomicLong();
+        private final Histograma histograma;
+
+        MedicionEdt(String accion) {
+            histograma = RegistroMetricas.global().histograma("edt." + accion);
+        }
+
+        void registrar(long nanos) {
+            histograma.registrar(nanos);
+            ejecuciones.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maximoNanos.accumulateAndGet(nanos, Math::max);
+            if (nanos > TimeUnit.MILLISECONDS.toNanos(PRESUPUESTO_EDT_MS)) {
+                excedidas.incrementAndGet();
+            }
+        }
+
+        /**
+         * @return Número de veces que la acción ocupó el EDT
+         */
+        public long getEjecuciones() {
+            return ejecuciones.get();
+        }
+
+        /**
+         * @return Tiempo promedio en el EDT, en milisegundos
+         */
+        public double getPromedioMs() {
+            long n = ejecuciones.get();
+            return n == 0 ? 0 : totalNanos.get() / 1_000_000.0 / n;
+        }
+
+        /**
+         * @return Tiempo máximo en el EDT, en milisegundos
+         */
+        public double getMaximoMs() {
+            return maximoNanos.get() / 1_000_000.0;
+        }
+
+        /**
+         * @return Número de veces que se superó el presupuesto de un cuadro
+         */
+        public long getExcedidas() {
+            return excedidas.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ejecuciones=%d, promedio=%.2f ms, maximo=%.2f ms, excedidas=%d",
+                    getEjecuciones(), getPromedioMs(), getMaximoMs(), getExcedidas());
+        }
+    }
+}
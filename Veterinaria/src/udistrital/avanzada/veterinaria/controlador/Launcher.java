@@ -1,115 +1,106 @@
 package udistrital.avanzada.veterinaria.controlador;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import udistrital.avanzada.veterinaria.modelo.Mascota;
-import udistrital.avanzada.veterinaria.modelo.MascotaDAO;
+import javax.swing.SwingUtilities;
 import udistrital.avanzada.veterinaria.modelo.MascotaDAOImpl;
+import udistrital.avanzada.veterinaria.modelo.MascotaDAOMedido;
 import udistrital.avanzada.veterinaria.modelo.ServicioMascota;
-import udistrital.avanzada.veterinaria.vista.VentanaCompletarDatos;
 import udistrital.avanzada.veterinaria.vista.VentanaPrincipal;
 
 /**
  * Clase principal que inicia la aplicación de gestión de mascotas exóticas.
  * Implementa el principio de responsabilidad única (SRP) al encargarse únicamente
  * de la inicialización del programa y coordinación de componentes.
- * 
+ *
+ * Por defecto la ventana se muestra primero y la base de datos se prepara y
+ * las mascotas se importan en segundo plano. Con la propiedad del sistema
+ * {@value #PROPIEDAD_ARRANQUE_COMPLETO} en true se importa antes de mostrar
+ * la ventana, como referencia para comparar tiempos de arranque.
+ *
  * @author Sistema Veterinaria
  * @version 1.0
  */
 public class Launcher {
-    
+
+    /**
+     * Propiedad del sistema que activa la importación antes de mostrar la ventana
+     */
+    public static final String PROPIEDAD_ARRANQUE_COMPLETO = "veterinaria.arranque.completo";
+
     /**
      * Método principal que inicia la aplicación
-     * 
+     *
      * @param args Argumentos de línea de comandos (no utilizados)
      */
     public static void main(String[] args) {
+        MetricaArranque metrica = new MetricaArranque();
+        boolean arranqueCompleto = Boolean.getBoolean(PROPIEDAD_ARRANQUE_COMPLETO);
         try {
-            // Inicializar componentes del modelo
-            MascotaDAO mascotaDAO = new MascotaDAOImpl();
-            ServicioMascota servicioMascota = new ServicioMascota(mascotaDAO);
-            
-            // Cargar y procesar mascotas iniciales
-            cargarMascotasIniciales(servicioMascota);
-            
-            // Inicializar y mostrar la interfaz principal
-            inicializarInterfaz(mascotaDAO);
-            
+            if (arranqueCompleto) {
+                // Importar antes de mostrar la ventana
+                cargarMascotasIniciales();
+                metrica.marcar("Importación inicial");
+            }
         } catch (Exception e) {
-            System.err.println("Error al iniciar la aplicación: " + e.getMessage());
-            e.printStackTrace();
-            javax.swing.JOptionPane.showMessageDialog(null, 
-                "Error al iniciar la aplicación: " + e.getMessage(), 
-                "Error", 
-                javax.swing.JOptionPane.ERROR_MESSAGE);
+            mostrarErrorInicio(e);
+            return;
         }
+
+        // La interfaz se crea en el hilo de eventos; la importación queda en segundo plano
+        SwingUtilities.invokeLater(() -> {
+            try {
+                inicializarInterfaz(metrica, !arranqueCompleto);
+            } catch (Exception e) {
+                mostrarErrorInicio(e);
+            }
+        });
     }
-    
+
     /**
-     * Carga las mascotas iniciales desde el archivo de propiedades
-     * 
-     * @param servicioMascota El servicio para manejar mascotas
-     * @throws IOException Si ocurre un error al leer el archivo
+     * Importa las mascotas iniciales antes de mostrar la ventana. Las
+     * incompletas se guardan como pendientes
+     *
+     * @throws IOException Si ocurre un error al leer los archivos
      */
-    private static void cargarMascotasIniciales(ServicioMascota servicioMascota) throws IOException {
-        // Cargar mascotas desde archivo
-        List<Mascota> mascotas = servicioMascota.cargarMascotasDesdeArchivo();
-        
-        // Procesar mascotas incompletas
-        List<Mascota> mascotasCompletas = servicioMascota.procesarMascotasIncompletas(mascotas);
-        
-        // Completar datos incompletos si es necesario
-        mascotasCompletas = completarDatosIncompletos(mascotasCompletas, servicioMascota);
-        
-        // Insertar en base de datos
-        servicioMascota.insertarMascotasEnBD(mascotasCompletas);
+    private static void cargarMascotasIniciales() throws IOException {
+        new ServicioMascota(new MascotaDAOMedido(new MascotaDAOImpl())).cargarMascotasIniciales(null);
     }
-    
-    /**
-     * Completa los datos incompletos de las mascotas usando la interfaz gráfica
-     * 
-     * @param mascotas Lista de mascotas a procesar
-     * @param servicioMascota El servicio para verificar datos incompletos
-     * @return Lista de mascotas con datos completos
-     */
-    private static List<Mascota> completarDatosIncompletos(List<Mascota> mascotas, ServicioMascota servicioMascota) {
-        List<Mascota> mascotasCompletas = new ArrayList<>();
-        
-        for (Mascota mascota : mascotas) {
-            if (servicioMascota.tieneDatosIncompletos(mascota)) {
-                // Mostrar ventana para completar datos
-                VentanaCompletarDatos ventanaCompletar = new VentanaCompletarDatos(null, mascota);
-                ventanaCompletar.setVisible(true);
-                
-                Mascota mascotaCompletada = ventanaCompletar.getMascotaCompletada();
-                if (mascotaCompletada != null) {
-                    mascotasCompletas.add(mascotaCompletada);
-                }
-            } else {
-                mascotasCompletas.add(mascota);
-            }
-        }
-        
-        return mascotasCompletas;
-    }
-    
+
     /**
      * Inicializa y muestra la interfaz principal de la aplicación
-     * 
-     * @param mascotaDAO El DAO para operaciones de base de datos
+     *
+     * @param metrica Métrica del arranque, que registra el primer cuadro de la ventana
+     * @param importar true para importar las mascotas en segundo plano tras mostrar la ventana
      */
-    private static void inicializarInterfaz(MascotaDAO mascotaDAO) {
+    private static void inicializarInterfaz(MetricaArranque metrica, boolean importar) {
         // Crear la ventana principal
         VentanaPrincipal ventana = new VentanaPrincipal();
-        
+        metrica.observarPrimerCuadro(ventana);
+
         // Crear el controlador
         Controlador controlador = new Controlador(ventana);
-        
+
         // Mostrar la ventana
         ventana.setVisible(true);
-        
+
+        if (importar) {
+            controlador.cargarMascotasIniciales(metrica);
+        }
+
         System.out.println("Aplicación iniciada correctamente");
     }
+
+    /**
+     * Informa un error que impidió iniciar la aplicación
+     *
+     * @param e La causa del error
+     */
+    private static void mostrarErrorInicio(Exception e) {
+        System.err.println("Error al iniciar la aplicación: " + e.getMessage());
+        e.printStackTrace();
+        javax.swing.JOptionPane.showMessageDialog(null,
+            "Error al iniciar la aplicación: " + e.getMessage(),
+            "Error",
+            javax.swing.JOptionPane.ERROR_MESSAGE);
+    }
 }
@@ -0,0 +1,337 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Lector de solo lectura del archivo de acceso aleatorio que escribe
+ * {@link ArchivoAccesoAleatorio}, proyectado en memoria.
+ *
+ * Los campos se leen directamente de la proyección, sin llamadas al sistema
+ * ni copias intermedias, y los textos se decodifican solo cuando se piden.
+ * El archivo se proyecta en ventanas de 1 GB que se solapan en 1 MB, más que
+ * el tamaño máximo de un registro, de modo que cada registro y cada entrada
+ * de la tabla quedan enteros dentro de la ventana en que empiezan.
+ *
+ * El canal se cierra al terminar de proyectar; la proyección sigue siendo
+ * válida hasta que el recolector libera el lector. En Windows el archivo
+ * no puede reemplazarse mientras tanto.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class ArchivoMapeado {
+
+    private static final int BITS_VENTANA = 30;
+    private static final long MASCARA_VENTANA = (1L << BITS_VENTANA) - 1;
+    private static final int SOLAPE = 1 << 20;
+    private static final int MINIMO_POR_SEGMENTO = 4096;
+
+    private final ByteBuffer[] ventanas;
+    private final int registros;
+    private final long inicioTabla;
+    private final boolean ordenado;
+
+    /**
+     * Proyecta un archivo existente
+     *
+     * @param nombreArchivo Ruta del archivo
+     * @throws IOException Si no se puede abrir o no tiene el formato esperado
+     */
+    public ArchivoMapeado(String nombreArchivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(nombreArchivo), StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < ArchivoAccesoAleatorio.TAMANO_CABECERA) {
+                throw new IOException("El archivo no es un archivo de acceso aleatorio de mascotas: " + nombreArchivo);
+            }
+            ventanas = new ByteBuffer[(int) ((tamano - 1) >>> BITS_VENTANA) + 1];
+            for (int i = 0; i < ventanas.length; i++) {
+                long inicio = (long) i << BITS_VENTANA;
+                long longitud = Math.min(tamano - inicio, (1L << BITS_VENTANA) + SOLAPE);
+                ventanas[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, longitud);
+            }
+        }
+        ByteBuffer cabecera = ventanas[0];
+        if (cabecera.getInt(0) != ArchivoAccesoAleatorio.MAGICO) {
+            throw new IOException("El archivo no es un archivo de acceso aleatorio de mascotas: " + nombreArchivo);
+        }
+        short version = cabecera.getShort(4);
+        if (version != ArchivoAccesoAleatorio.VERSION) {
+            throw new IOException("Versión de archivo no soportada: " + version);
+        }
+        ordenado = (cabecera.getShort(6) & ArchivoAccesoAleatorio.ORDENADO_POR_APODO) != 0;
+        registros = cabecera.getInt(8);
+        inicioTabla = cabecera.getLong(16);
+    }
+
+    /**
+     * @return Número de registros del archivo
+     */
+    public int getNumeroRegistros() {
+        return registros;
+    }
+
+    /**
+     * @return true si los registros están ordenados por apodo
+     */
+    public boolean isOrdenadoPorApodo() {
+        return ordenado;
+    }
+
+    /**
+     * Obtiene una vista sobre un registro, cuyos textos se decodifican al pedirlos
+     *
+     * @param n Número de registro, desde 0
+     * @return Vista del registro
+     */
+    public Registro registro(int n) {
+        Registro registro = new Registro();
+        registro.ubicar(n);
+        return registro;
+    }
+
+    /**
+     * Lee el registro indicado con todos sus campos
+     *
+     * @param n Número de registro, desde 0
+     * @return Mascota del registro
+     */
+    public Mascota leerMascota(int n) {
+        return registro(n).aMascota();
+    }
+
+    /**
+     * Busca una mascota por su apodo. Si los registros están ordenados la
+     * búsqueda es binaria y solo decodifica el apodo de cada registro visitado
+     *
+     * @param apodo Apodo a buscar
+     * @return Mascota encontrada, o null si no existe
+     */
+    public Mascota buscarPorApodo(String apodo) {
+        Registro registro = new Registro();
+        if (!ordenado) {
+            for (int n = 0; n < registros; n++) {
+                if (registro.ubicar(n).getApodo().equals(apodo)) {
+                    return registro.aMascota();
+                }
+            }
+            return null;
+        }
+        int bajo = 0;
+        int alto = registros - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int comparacion = registro.ubicar(medio).getApodo().compareTo(apodo);
+            if (comparacion < 0) {
+                bajo = medio + 1;
+            } else if (comparacion > 0) {
+                alto = medio - 1;
+            } else {
+                return registro.aMascota();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recorre los registros en orden. La vista que recibe la acción se
+     * reutiliza, así que solo es válida durante la llamada
+     *
+     * @param accion Acción a ejecutar con cada registro
+     */
+    public void recorrer(Consumer<Registro> accion) {
+        Registro registro = new Registro();
+        for (int n = 0; n < registros; n++) {
+            accion.accept(registro.ubicar(n));
+        }
+    }
+
+    /**
+     * Recorre los registros repartidos en segmentos que se leen en paralelo.
+     * La acción debe poder ejecutarse desde varios hilos a la vez y no
+     * recibe los registros en orden
+     *
+     * @param accion Acción a ejecutar con cada registro
+     */
+    public void recorrerEnParalelo(Consumer<Registro> accion) {
+        contar(registro -> {
+            accion.accept(registro);
+            return true;
+        });
+    }
+
+    /**
+     * Cuenta en paralelo los registros que cumplen un filtro. Como los
+     * textos se decodifican al pedirlos, un filtro sobre la clasificación o
+     * el tipo de alimento no decodifica ningún texto
+     *
+     * @param filtro Filtro a evaluar sobre cada registro
+     * @return Número de registros que lo cumplen
+     */
+    public long contar(Predicate<Registro> filtro) {
+        int segmentos = Math.max(1, Math.min(registros / MINIMO_POR_SEGMENTO,
+                Runtime.getRuntime().availableProcessors() * 4));
+        return IntStream.range(0, segmentos).parallel().mapToLong(segmento -> {
+            int desde = (int) ((long) registros * segmento / segmentos);
+            int hasta = (int) ((long) registros * (segmento + 1) / segmentos);
+            Registro registro = new Registro();
+            long cumplen = 0;
+            for (int n = desde; n < hasta; n++) {
+                if (filtro.test(registro.ubicar(n))) {
+                    cumplen++;
+                }
+            }
+            return cumplen;
+        }).sum();
+    }
+
+    /**
+     * Decodifica un texto en UTF modificado, como lo escribe writeUTF
+     */
+    private static String decodificar(ByteBuffer datos, int posicion) {
+        int longitud = datos.getShort(posicion) & 0xFFFF;
+        int inicio = posicion + 2;
+        char[] caracteres = new char[longitud];
+        int n = 0;
+        for (int i = 0; i < longitud; ) {
+            int a = datos.get(inicio + i) & 0xFF;
+            if (a < 0x80) {
+                caracteres[n++] = (char) a;
+                i++;
+            } else if ((a & 0xE0) == 0xC0) {
+                int b = datos.get(inicio + i + 1);
+                caracteres[n++] = (char) (((a & 0x1F) << 6) | (b & 0x3F));
+                i += 2;
+            } else {
+                int b = datos.get(inicio + i + 1);
+                int c = datos.get(inicio + i + 2);
+                caracteres[n++] = (char) (((a & 0x0F) << 12) | ((b & 0x3F) << 6) | (c & 0x3F));
+                i += 3;
+            }
+        }
+        return new String(caracteres, 0, n);
+    }
+
+    /**
+     * Vista sobre un registro del archivo. Los enumerados se leen de
+     * posiciones fijas; cada texto se localiza saltando los anteriores por
+     * su longitud y se decodifica en cada llamada
+     */
+    public final class Registro {
+        private final ByteBuffer[] datos = new ByteBuffer[ventanas.length];
+        private ByteBuffer ventana;
+        private int cuerpo;
+        private int numero;
+
+        private Registro() {
+            // Cada vista usa sus propias copias para poder leer desde varios hilos
+            for (int i = 0; i < ventanas.length; i++) {
+                datos[i] = ventanas[i].duplicate();
+            }
+        }
+
+        private Registro ubicar(int n) {
+            if (n < 0 || n >= registros) {
+                throw new IndexOutOfBoundsException("Registro " + n + " de " + registros);
+            }
+            long entrada = inicioTabla + 8L * n;
+            long posicion = datos[(int) (entrada >>> BITS_VENTANA)].getLong((int) (entrada & MASCARA_VENTANA));
+            ventana = datos[(int) (posicion >>> BITS_VENTANA)];
+            cuerpo = (int) (posicion & MASCARA_VENTANA) + 4;
+            numero = n;
+            return this;
+        }
+
+        /**
+         * @return Número del registro
+         */
+        public int getNumero() {
+            return numero;
+        }
+
+        /**
+         * @return Clasificación de la mascota
+         */
+        public Clasificacion getClasificacion() {
+            return Clasificacion.values()[ventana.get(cuerpo) & 0xFF];
+        }
+
+        /**
+         * @return Tipo de alimento principal de la mascota
+         */
+        public TipoAlimento getTipoAlimentoPrincipal() {
+            return TipoAlimento.values()[ventana.get(cuerpo + 1) & 0xFF];
+        }
+
+        /**
+         * @return Apodo de la mascota
+         */
+        public String getApodo() {
+            return texto(0);
+        }
+
+        /**
+         * @return Nombre común de la mascota
+         */
+        public String getNombreComun() {
+            return texto(1);
+        }
+
+        /**
+         * @return Familia de la mascota
+         */
+        public String getFamilia() {
+            return texto(2);
+        }
+
+        /**
+         * @return Género de la mascota
+         */
+        public String getGenero() {
+            return texto(3);
+        }
+
+        /**
+         * @return Especie de la mascota
+         */
+        public String getEspecie() {
+            return texto(4);
+        }
+
+        /**
+         * @return Mascota con todos los campos del registro
+         */
+        public Mascota aMascota() {
+            Mascota mascota = new Mascota();
+            mascota.setClasificacion(getClasificacion());
+            mascota.setTipoAlimentoPrincipal(getTipoAlimentoPrincipal());
+            int posicion = cuerpo + 2;
+            String[] textos = new String[5];
+            for (int i = 0; i < textos.length; i++) {
+                textos[i] = decodificar(ventana, posicion);
+                posicion += 2 + (ventana.getShort(posicion) & 0xFFFF);
+            }
+            mascota.setApodo(textos[0]);
+            mascota.setNombreComun(textos[1]);
+            mascota.setFamilia(textos[2]);
+            mascota.setGenero(textos[3]);
+            mascota.setEspecie(textos[4]);
+            return mascota;
+        }
+
+        private String texto(int campo) {
+            // Los textos empiezan tras los ordinales
+            int posicion = cuerpo + 2;
+            for (int i = 0; i < campo; i++) {
+                posicion += 2 + (ventana.getShort(posicion) & 0xFFFF);
+            }
+            return decodificar(ventana, posicion);
+        }
+    }
+}
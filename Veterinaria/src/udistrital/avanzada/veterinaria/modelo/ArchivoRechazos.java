@@ -0,0 +1,79 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Archivo de rechazos de una importación, compartido por los hilos que la
+ * realizan. Se crea con la primera entrada rechazada; cada una va precedida
+ * de un comentario con el motivo, de modo que el archivo puede corregirse e
+ * importarse.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+final class ArchivoRechazos {
+
+    private final File archivo;
+    private Writer salida;
+    private IOException error;
+
+    /**
+     * Prepara el archivo, borrando el de una importación anterior
+     *
+     * @param nombreArchivo Ruta del archivo de rechazos
+     */
+    ArchivoRechazos(String nombreArchivo) {
+        this.archivo = new File(nombreArchivo);
+        archivo.delete();
+    }
+
+    /**
+     * Escribe una entrada rechazada. Si falla, el error se guarda y se lanza
+     * en {@link #verificar()}, ya que los hilos de la importación no pueden
+     * lanzarlo
+     *
+     * @param motivo Motivo del rechazo
+     * @param entrada Texto de la entrada
+     */
+    synchronized void escribir(String motivo, String entrada) {
+        if (error != null) {
+            return;
+        }
+        try {
+            if (salida == null) {
+                salida = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(archivo), StandardCharsets.UTF_8));
+                salida.write("# Entradas rechazadas; corríjalas y vuelva a importar este archivo\n");
+            }
+            salida.write("# " + motivo + "\n");
+            salida.write(entrada);
+            salida.write('\n');
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    /**
+     * @throws IOException El primer error de escritura, si lo hubo
+     */
+    synchronized void verificar() throws IOException {
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * @throws IOException Si no se puede cerrar el archivo
+     */
+    synchronized void cerrar() throws IOException {
+        if (salida != null) {
+            salida.close();
+        }
+    }
+}
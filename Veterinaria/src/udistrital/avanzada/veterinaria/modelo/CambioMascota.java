@@ -0,0 +1,72 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+/**
+ * Cambio de una mascota que ServicioMascota publica tras cada alta,
+ * modificación o baja, para que la tabla actualice solo la fila afectada
+ * en lugar de volver a cargar el listado
+ * 
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public final class CambioMascota {
+    
+    /**
+     * Tipo de cambio
+     */
+    public enum Tipo {
+        INSERTADA, MODIFICADA, ELIMINADA
+    }
+    
+    private final Tipo tipo;
+    private final String apodo;
+    private final Mascota anterior;
+    private final Mascota actual;
+    
+    /**
+     * Crea un cambio
+     * 
+     * @param tipo Tipo de cambio
+     * @param apodo Apodo de la mascota, que la identifica
+     * @param anterior Estado previo; null en un alta o si no se pudo leer
+     * @param actual Estado resultante; null en una baja
+     */
+    public CambioMascota(Tipo tipo, String apodo, Mascota anterior, Mascota actual) {
+        this.tipo = tipo;
+        this.apodo = apodo;
+        this.anterior = anterior;
+        this.actual = actual;
+    }
+    
+    /**
+     * @return Tipo de cambio
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+    
+    /**
+     * @return Apodo de la mascota
+     */
+    public String getApodo() {
+        return apodo;
+    }
+    
+    /**
+     * @return Estado previo; null en un alta o si no se pudo leer
+     */
+    public Mascota getAnterior() {
+        return anterior;
+    }
+    
+    /**
+     * @return Estado resultante; null en una baja
+     */
+    public Mascota getActual() {
+        return actual;
+    }
+    
+    @Override
+    public String toString() {
+        return "CambioMascota{" + tipo + ", " + apodo + '}';
+    }
+}
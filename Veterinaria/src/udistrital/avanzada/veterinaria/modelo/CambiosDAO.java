@@ -0,0 +1,59 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Interfaz que define las operaciones sobre la tabla de cambios de
+ * mascotas, que respalda al {@link BusCambios}: cada fila guarda la
+ * secuencia, el tipo de cambio, el apodo de la mascota afectada y el
+ * estado que dejó el cambio, vacío en las bajas.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public interface CambiosDAO {
+
+    /**
+     * Consulta la mayor secuencia registrada
+     *
+     * @return La mayor secuencia, o 0 si la tabla está vacía
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    long ultimaSecuencia() throws Exception;
+
+    /**
+     * Registra cambios con la conexión de la escritura que los produjo,
+     * dentro de su transacción, junto con el estado de cada mascota en la
+     * tabla mascotas
+     *
+     * @param conn Conexión del llamador, con la transacción abierta
+     * @param eventos Cambios con sus secuencias reservadas
+     * @throws SQLException Si no se pudieron registrar; el llamador revierte la transacción
+     */
+    void registrar(Connection conn, List<EventoCambio> eventos) throws SQLException;
+
+    /**
+     * Lee los cambios con secuencia en (desde, hasta], en orden de
+     * secuencia, con el estado que dejó cada uno
+     *
+     * @param desde Secuencia anterior a la primera a leer
+     * @param hasta Última secuencia a leer
+     * @param maximo Número máximo de cambios a leer
+     * @return Los cambios leídos
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    List<EventoCambio> leer(long desde, long hasta, int maximo) throws Exception;
+
+    /**
+     * Borra los cambios registrados antes de un instante, salvo el último,
+     * que conserva la secuencia entre reinicios. Una suscripción que se
+     * reanude desde una secuencia borrada salta los cambios que faltan
+     *
+     * @param antesDe Instante, en milisegundos desde la época, anterior al cual se borran los cambios
+     * @return Número de cambios borrados
+     * @throws Exception Si ocurre un error al borrar
+     */
+    int depurar(long antesDe) throws Exception;
+}
@@ -0,0 +1,128 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación de la interfaz CambiosDAO sobre la tabla cambios_mascotas
+ * de SQLite. Al registrar un cambio se copia el estado de la mascota desde
+ * la tabla mascotas, en la misma transacción, de modo que quien se pone al
+ * día recibe cada cambio con el estado que produjo y no el actual.
+ *
+ * Las lecturas usan una conexión aparte: las hace el hilo de una
+ * suscripción, y cerrar la conexión compartida desharía la transacción
+ * que otra operación tuviera abierta.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class CambiosDAOImpl implements CambiosDAO {
+
+    private ConexionBD conexionBD;
+
+    /**
+     * Constructor que inicializa la conexión a la base de datos
+     */
+    public CambiosDAOImpl() {
+        this.conexionBD = ConexionBD.getInstance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long ultimaSecuencia() throws Exception {
+        String sql = "SELECT MAX(secuencia) FROM cambios_mascotas";
+
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new Exception("Error al consultar la tabla de cambios: " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registrar(Connection conn, List<EventoCambio> eventos) throws SQLException {
+        // Una sola fila de la tabla derivada: el LEFT JOIN registra el cambio aunque la mascota ya no exista
+        String sql = "INSERT INTO cambios_mascotas (secuencia, tipo, apodo, instante, nombre_comun, clasificacion, familia, genero, especie, tipo_alimento) "
+                + "SELECT ?, ?, ?, ?, m.nombre_comun, m.clasificacion, m.familia, m.genero, m.especie, m.tipo_alimento "
+                + "FROM (SELECT 1 AS fila) c LEFT JOIN mascotas m ON m.apodo = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (EventoCambio evento : eventos) {
+                pstmt.setLong(1, evento.getSecuencia());
+                pstmt.setString(2, evento.getTipo().name());
+                pstmt.setString(3, evento.getApodo());
+                pstmt.setLong(4, evento.getInstante());
+                pstmt.setString(5, evento.getApodo());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EventoCambio> leer(long desde, long hasta, int maximo) throws Exception {
+        String sql = "SELECT secuencia, tipo, apodo, instante, nombre_comun, clasificacion, familia, genero, especie, tipo_alimento "
+                + "FROM cambios_mascotas WHERE secuencia > ? AND secuencia <= ? ORDER BY secuencia LIMIT ?";
+        List<EventoCambio> eventos = new ArrayList<>();
+
+        try (Connection conn = conexionBD.abrirConexionAparte();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, desde);
+            pstmt.setLong(2, hasta);
+            pstmt.setInt(3, maximo);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String apodo = rs.getString("apodo");
+                    Mascota mascota = null;
+                    if (rs.getString("nombre_comun") != null) {
+                        mascota = new Mascota();
+                        mascota.setNombreComun(rs.getString("nombre_comun"));
+                        mascota.setApodo(apodo);
+                        mascota.setClasificacion(Clasificacion.valueOf(rs.getString("clasificacion")));
+                        mascota.setFamilia(rs.getString("familia"));
+                        mascota.setGenero(rs.getString("genero"));
+                        mascota.setEspecie(rs.getString("especie"));
+                        mascota.setTipoAlimentoPrincipal(TipoAlimento.valueOf(rs.getString("tipo_alimento")));
+                    }
+                    eventos.add(new EventoCambio(rs.getLong("secuencia"),
+                            EventoCambio.Tipo.valueOf(rs.getString("tipo")), apodo, mascota, rs.getLong("instante")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error al leer la tabla de cambios: " + e.getMessage());
+        }
+
+        return eventos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int depurar(long antesDe) throws Exception {
+        String sql = "DELETE FROM cambios_mascotas WHERE instante < ? "
+                + "AND secuencia < (SELECT MAX(secuencia) FROM cambios_mascotas)";
+
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, antesDe);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new Exception("Error al depurar la tabla de cambios: " + e.getMessage());
+        }
+    }
+}
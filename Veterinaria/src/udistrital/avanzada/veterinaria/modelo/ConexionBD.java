@@ -1,13 +1,30 @@
 package udistrital.avanzada.veterinaria.modelo;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 /**
  * Clase singleton que gestiona la conexión única a la base de datos SQLite.
  * Implementa el patrón Singleton para asegurar una única instancia de conexión.
+ * La base de datos se abre y el esquema se crea en el primer uso de la
+ * conexión, no al obtener la instancia, para no retrasar la primera ventana.
+ *
+ * La conexión entregada es un envoltorio: su {@code close()} la deja
+ * abierta, de modo que los DAO pueden seguir usándola en try-with-resources,
+ * y {@code prepareStatement(String)} reutiliza las sentencias ya preparadas
+ * mediante una {@link CacheSentencias}. La conexión física se cierra con
+ * {@link #cerrarConexion()}.
+ *
+ * Las sentencias creadas sobre el envoltorio se miden con un
+ * {@link RegistroConsultasLentas}, que anota en {@value #ARCHIVO_CONSULTAS_LENTAS}
+ * las que superan el umbral de {@value RegistroConsultasLentas#PROPIEDAD_UMBRAL}.
  * 
  * @author Sistema Veterinaria
  * @version 1.0
@@ -16,13 +33,41 @@ public class ConexionBD {
     
     private static ConexionBD instancia;
     private Connection conexion;
+    private Connection envoltorio;
+    private CacheSentencias cacheSentencias;
+    private final CacheSentencias.Estadisticas estadisticasSentencias = new CacheSentencias.Estadisticas();
+    private final RegistroConsultasLentas consultasLentas;
+    private boolean esquemaListo;
     private static final String URL_BD = "jdbc:sqlite:data/veterinaria.db";
+    private static final String ARCHIVO_CONSULTAS_LENTAS = "data/consultas_lentas.log";
     
     /**
-     * Constructor privado para implementar el patrón Singleton
+     * Propiedad del sistema con la URL de otra base de datos, usada por
+     * ejemplo en los benchmarks; si no se define se usa data/veterinaria.db
+     */
+    public static final String PROPIEDAD_URL_BD = "veterinaria.bd.url";
+    
+    /**
+     * Constructor privado para implementar el patrón Singleton. Publica
+     * los contadores de la caché de sentencias como medidores y prepara el
+     * registro de consultas lentas, salvo que su umbral sea negativo; los
+     * planes se consultan con una conexión aparte para no competir con la
+     * de la aplicación
      */
     private ConexionBD() {
-        inicializarBaseDatos();
+        RegistroMetricas registro = RegistroMetricas.global();
+        registro.medidor("sentencias.aciertos", estadisticasSentencias::getAciertos);
+        registro.medidor("sentencias.fallos", estadisticasSentencias::getFallos);
+        registro.medidor("sentencias.desalojos", estadisticasSentencias::getDesalojos);
+        long umbralMs = RegistroConsultasLentas.umbralConfiguradoMs();
+        if (umbralMs >= 0) {
+            consultasLentas = new RegistroConsultasLentas(ARCHIVO_CONSULTAS_LENTAS, umbralMs, "EXPLAIN QUERY PLAN ",
+                    () -> DriverManager.getConnection(System.getProperty(PROPIEDAD_URL_BD, URL_BD)));
+            registro.medidor("consultas.lentas", consultasLentas::getTotalLentas);
+            registro.medidor("consultas.lentasDescartadas", consultasLentas::getTotalDescartadas);
+        } else {
+            consultasLentas = null;
+        }
     }
     
     /**
@@ -40,18 +85,120 @@ public class ConexionBD {
     /**
      * Obtiene la conexión a la base de datos
      * 
-     * @return La conexión a la base de datos
+     * @return La conexión a la base de datos; cerrarla no cierra la conexión física
      * @throws SQLException Si ocurre un error al conectar
      */
-    public Connection getConnection() throws SQLException {
+    public synchronized Connection getConnection() throws SQLException {
+        if (!esquemaListo) {
+            inicializarBaseDatos();
+        }
         if (conexion == null || conexion.isClosed()) {
-            conexion = DriverManager.getConnection(URL_BD);
+            conexion = DriverManager.getConnection(System.getProperty(PROPIEDAD_URL_BD, URL_BD));
+            envoltorio = null;
         }
-        return conexion;
+        if (envoltorio == null) {
+            if (cacheSentencias != null) {
+                cacheSentencias.cerrar();
+            }
+            cacheSentencias = new CacheSentencias(conexion, CacheSentencias.CAPACIDAD_POR_DEFECTO,
+                    estadisticasSentencias);
+            envoltorio = envolver(conexion, cacheSentencias, consultasLentas);
+        }
+        return envoltorio;
+    }
+    
+    /**
+     * Abre una conexión física nueva, sin caché de sentencias ni registro
+     * de consultas lentas, para lecturas que se hacen fuera de las
+     * operaciones de la aplicación y no deben compartir su transacción
+     *
+     * @return Una conexión nueva, que el llamador debe cerrar
+     * @throws SQLException Si ocurre un error al conectar
+     */
+    public synchronized Connection abrirConexionAparte() throws SQLException {
+        if (!esquemaListo) {
+            inicializarBaseDatos();
+        }
+        return DriverManager.getConnection(System.getProperty(PROPIEDAD_URL_BD, URL_BD));
+    }
+    
+    /**
+     * Obtiene las estadísticas de la caché de sentencias preparadas
+     * 
+     * @return Aciertos, fallos y desalojos desde el inicio de la aplicación
+     */
+    public CacheSentencias.Estadisticas getEstadisticasSentencias() {
+        return estadisticasSentencias;
     }
     
     /**
-     * Inicializa la base de datos y crea la tabla si no existe
+     * Obtiene el registro de consultas lentas
+     * 
+     * @return El registro, o null si está desactivado
+     */
+    public RegistroConsultasLentas getConsultasLentas() {
+        return consultasLentas;
+    }
+    
+    /**
+     * Crea el envoltorio de la conexión física: {@code close()} solo deshace
+     * la transacción que haya quedado abierta, {@code prepareStatement(String)}
+     * pasa por la caché de sentencias y, si hay registro de consultas lentas,
+     * toda sentencia creada se mide
+     */
+    private static Connection envolver(Connection fisica, CacheSentencias cache,
+            RegistroConsultasLentas consultasLentas) {
+        InvocationHandler manejador = (proxy, metodo, args) -> {
+            switch (metodo.getName()) {
+                case "close":
+                    if (!fisica.isClosed() && !fisica.getAutoCommit()) {
+                        fisica.rollback();
+                        fisica.setAutoCommit(true);
+                    }
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionBD[" + fisica + "]";
+                case "prepareStatement":
+                    if (args.length == 1) {
+                        PreparedStatement ps = cache.preparar((String) args[0]);
+                        return consultasLentas == null ? ps : consultasLentas.medir(ps, (String) args[0]);
+                    }
+                    // Las demás variantes no se guardan en la caché
+                    return delegar(fisica, consultasLentas, metodo, args);
+                default:
+                    return delegar(fisica, consultasLentas, metodo, args);
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, manejador);
+    }
+    
+    /**
+     * Invoca el método en la conexión física y, si hay registro de consultas
+     * lentas, mide la sentencia que cree
+     */
+    private static Object delegar(Connection fisica, RegistroConsultasLentas consultasLentas, Method metodo,
+            Object[] args) throws Throwable {
+        Object resultado;
+        try {
+            resultado = metodo.invoke(fisica, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (consultasLentas != null && resultado instanceof Statement) {
+            return consultasLentas.medir((Statement) resultado,
+                    args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+        }
+        return resultado;
+    }
+    
+    /**
+     * Inicializa la base de datos y crea las tablas si no existen; se llama
+     * una sola vez, al pedir la conexión por primera vez
      */
     private void inicializarBaseDatos() {
         try {
@@ -62,10 +209,14 @@ public class ConexionBD {
             }
             
             // Conectar a la base de datos
-            conexion = DriverManager.getConnection(URL_BD);
+            conexion = DriverManager.getConnection(System.getProperty(PROPIEDAD_URL_BD, URL_BD));
             
-            // Crear la tabla mascotas si no existe
+            // Crear las tablas si no existen
             crearTablaMascotas();
+            crearTablaPendientes();
+            crearTablaMetadatos();
+            crearTablaCambios();
+            esquemaListo = true;
             
         } catch (SQLException e) {
             System.err.println("Error al inicializar la base de datos: " + e.getMessage());
@@ -94,9 +245,89 @@ public class ConexionBD {
     }
     
     /**
-     * Cierra la conexión a la base de datos
+     * Crea la tabla de mascotas importadas con datos faltantes, que esperan
+     * a completarse desde la lista de trabajo
      */
-    public void cerrarConexion() {
+    private void crearTablaPendientes() {
+        String sql = "CREATE TABLE IF NOT EXISTS mascotas_pendientes (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "firma TEXT NOT NULL UNIQUE, " +
+                    "estado TEXT NOT NULL DEFAULT 'PENDIENTE', " +
+                    "nombre_comun TEXT, " +
+                    "apodo TEXT, " +
+                    "clasificacion TEXT, " +
+                    "familia TEXT, " +
+                    "genero TEXT, " +
+                    "especie TEXT, " +
+                    "tipo_alimento TEXT" +
+                    ")";
+        
+        try (Statement stmt = conexion.createStatement()) {
+            stmt.execute(sql);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_pendientes_estado ON mascotas_pendientes (estado, id)");
+        } catch (SQLException e) {
+            System.err.println("Error al crear la tabla mascotas_pendientes: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Crea la tabla de metadatos: pares clave-valor que se conservan entre
+     * ejecuciones, como la huella de los archivos ya importados
+     */
+    private void crearTablaMetadatos() {
+        String sql = "CREATE TABLE IF NOT EXISTS metadatos (" +
+                    "clave TEXT PRIMARY KEY, " +
+                    "valor TEXT NOT NULL" +
+                    ")";
+        
+        try (Statement stmt = conexion.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            System.err.println("Error al crear la tabla metadatos: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Crea la tabla de cambios de mascotas, que respalda al BusCambios
+     * para ponerse al día tras un reinicio
+     */
+    private void crearTablaCambios() {
+        String sql = "CREATE TABLE IF NOT EXISTS cambios_mascotas (" +
+                    "secuencia INTEGER PRIMARY KEY, " +
+                    "tipo TEXT NOT NULL, " +
+                    "apodo TEXT NOT NULL, " +
+                    "instante INTEGER NOT NULL, " +
+                    "nombre_comun TEXT, " +
+                    "clasificacion TEXT, " +
+                    "familia TEXT, " +
+                    "genero TEXT, " +
+                    "especie TEXT, " +
+                    "tipo_alimento TEXT" +
+                    ")";
+    
+        try (Statement stmt = conexion.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            System.err.println("Error al crear la tabla cambios_mascotas: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Cierra la conexión a la base de datos, después de esperar hasta un
+     * segundo a que se escriban las consultas lentas pendientes. La
+     * siguiente conexión vuelve a comprobar el esquema, por si
+     * {@value #PROPIEDAD_URL_BD} apunta ahora a otra base de datos
+     */
+    public synchronized void cerrarConexion() {
+        if (consultasLentas != null) {
+            consultasLentas.vaciar(1000);
+        }
+        if (cacheSentencias != null) {
+            cacheSentencias.cerrar();
+            cacheSentencias = null;
+        }
+        envoltorio = null;
+        esquemaListo = false;
         try {
             if (conexion != null && !conexion.isClosed()) {
                 conexion.close();
@@ -0,0 +1,170 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Orden y filtro con que se lista el catálogo de mascotas por ventanas.
+ * Las columnas se validan contra una lista fija, de modo que pueden
+ * concatenarse en la sentencia SQL sin riesgo de inyección.
+ * El orden siempre se desempata por apodo, que identifica a cada mascota.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public final class CriterioListado {
+
+    /**
+     * Columnas de la tabla mascotas, en el orden en que se muestran
+     */
+    public static final List<String> COLUMNAS = Arrays.asList("nombre_comun", "apodo", "clasificacion",
+            "familia", "genero", "especie", "tipo_alimento");
+
+    /**
+     * Catálogo completo ordenado por apodo, igual que obtenerTodasLasMascotas
+     */
+    public static final CriterioListado POR_DEFECTO = new CriterioListado("apodo", true, null, null);
+
+    private final String columnaOrden;
+    private final boolean ascendente;
+    private final String columnaFiltro;
+    private final String valorFiltro;
+
+    /**
+     * Crea un criterio de listado
+     *
+     * @param columnaOrden Columna por la que se ordena
+     * @param ascendente true para orden ascendente
+     * @param columnaFiltro Columna filtrada, o null para no filtrar
+     * @param valorFiltro Valor exacto buscado en la columna filtrada
+     */
+    public CriterioListado(String columnaOrden, boolean ascendente, String columnaFiltro, String valorFiltro) {
+        this.columnaOrden = validar(columnaOrden);
+        this.ascendente = ascendente;
+        this.columnaFiltro = columnaFiltro == null ? null : validar(columnaFiltro);
+        this.valorFiltro = valorFiltro;
+    }
+
+    /**
+     * @param columna Columna por la que ordenar
+     * @param ascendente true para orden ascendente
+     * @return Copia de este criterio con otro orden
+     */
+    public CriterioListado ordenadoPor(String columna, boolean ascendente) {
+        return new CriterioListado(columna, ascendente, columnaFiltro, valorFiltro);
+    }
+
+    /**
+     * @param columna Columna a filtrar, o null para quitar el filtro
+     * @param valor Valor exacto buscado; para los enumerados, su nombre
+     * @return Copia de este criterio con otro filtro
+     */
+    public CriterioListado filtradoPor(String columna, String valor) {
+        return new CriterioListado(columnaOrden, ascendente, columna, valor);
+    }
+
+    /**
+     * @return Columna por la que se ordena
+     */
+    public String getColumnaOrden() {
+        return columnaOrden;
+    }
+
+    /**
+     * @return true si el orden es ascendente
+     */
+    public boolean isAscendente() {
+        return ascendente;
+    }
+
+    /**
+     * @return Columna filtrada, o null si no se filtra
+     */
+    public String getColumnaFiltro() {
+        return columnaFiltro;
+    }
+
+    /**
+     * @return Valor buscado en la columna filtrada
+     */
+    public String getValorFiltro() {
+        return valorFiltro;
+    }
+
+    /**
+     * @return Condición WHERE del filtro, sin la palabra WHERE, o null si no filtra
+     */
+    String condicionFiltro() {
+        return columnaFiltro == null ? null : columnaFiltro + " = ?";
+    }
+
+    /**
+     * @return Cláusula ORDER BY completa, desempatada por apodo
+     */
+    String clausulaOrden() {
+        String sentido = ascendente ? " ASC" : " DESC";
+        return " ORDER BY " + columnaOrden + sentido + ", apodo" + sentido;
+    }
+
+    /**
+     * @return Condición que selecciona las filas posteriores a un cursor, con
+     * tres parámetros: valor de orden, valor de orden y apodo
+     */
+    String condicionCursor() {
+        String mayor = ascendente ? " > ?" : " < ?";
+        return "(" + columnaOrden + mayor + " OR (" + columnaOrden + " = ? AND apodo" + mayor + "))";
+    }
+
+    /**
+     * Obtiene de una mascota el valor de la columna de orden, tal como se
+     * guarda en la base de datos, para usarla como cursor
+     *
+     * @param mascota Mascota de la que leer el valor
+     * @return Valor de la columna de orden
+     */
+    String valorOrden(Mascota mascota) {
+        return valor(mascota, columnaOrden);
+    }
+
+    /**
+     * Indica si una mascota cumple el filtro, con la misma comparación
+     * exacta que hace la base de datos
+     *
+     * @param mascota Mascota a evaluar
+     * @return true si la mascota pertenece al listado
+     */
+    public boolean cumple(Mascota mascota) {
+        return columnaFiltro == null || Objects.equals(valor(mascota, columnaFiltro), valorFiltro);
+    }
+
+    /**
+     * @return Comparador con el mismo orden que la cláusula ORDER BY, desempatado por apodo
+     */
+    public Comparator<Mascota> comparador() {
+        Comparator<String> texto = Comparator.nullsFirst(Comparator.naturalOrder());
+        Comparator<Mascota> comparador = Comparator.comparing(this::valorOrden, texto)
+                .thenComparing(Mascota::getApodo, texto);
+        return ascendente ? comparador : comparador.reversed();
+    }
+
+    private static String valor(Mascota mascota, String columna) {
+        switch (columna) {
+            case "nombre_comun": return mascota.getNombreComun();
+            case "apodo": return mascota.getApodo();
+            case "clasificacion": return mascota.getClasificacion().name();
+            case "familia": return mascota.getFamilia();
+            case "genero": return mascota.getGenero();
+            case "especie": return mascota.getEspecie();
+            default: return mascota.getTipoAlimentoPrincipal().name();
+        }
+    }
+
+    private static String validar(String columna) {
+        if (!COLUMNAS.contains(columna)) {
+            throw new IllegalArgumentException("Columna no válida: " + columna);
+        }
+        return columna;
+    }
+}
@@ -18,23 +18,13 @@ import udistrital.avanzada.veterinaria.modelo.modelo.EstudianteVO;
 
 public class EstudianteDAO {
 
-    private Connection con;
-    private Statement st;
-    private ResultSet rs;
-
     public EstudianteDAO() {
-        con = null;
-        st = null;
-        rs = null;
     }
 public void insertarDatos(EstudianteVO estudiante) {
-        try {
-            con = Conexion.getConexion();
-            st = con.createStatement();
-            String insercion = "INSERT INTO estudiantes VALUES('" + estudiante.getCodigo() + "','" + estudiante.getNombre() + "'," + estudiante.getEdad() + ")";
+        String insercion = "INSERT INTO estudiantes VALUES('" + estudiante.getCodigo() + "','" + estudiante.getNombre() + "'," + estudiante.getEdad() + ")";
+        try (Connection con = Conexion.getConexion();
+             Statement st = con.createStatement()) {
             st.executeUpdate(insercion);
-            st.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
             System.out.print("No se pudo realizar la insercion");
         }
@@ -42,18 +32,15 @@ public void insertarDatos(EstudianteVO estudiante) {
 public EstudianteVO consultarEstudiante(String codigo) {
         EstudianteVO estudiante = null;
         String consulta = "SELECT * FROM estudiantes where Código='" + codigo+"'";
-        try {
-            con = (Connection) Conexion.getConexion();
-            st = con.createStatement();
-            rs = st.executeQuery(consulta);
+        try (Connection con = Conexion.getConexion();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(consulta)) {
             if (rs.next()) {
                 estudiante = new EstudianteVO();
                 estudiante.setCodigo(rs.getString("Código"));
                 estudiante.setNombre(rs.getString("Nombre"));
                 estudiante.setEdad(rs.getInt("Edad"));
             }
-            st.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
             System.out.println("No se pudo realizar la consulta");
         }
@@ -62,10 +49,9 @@ public EstudianteVO consultarEstudiante(String codigo) {
 public ArrayList<EstudianteVO> listaDeEstudiantes() {
         ArrayList<EstudianteVO> misEstudiantes = new ArrayList<EstudianteVO>();
         String consulta = "SELECT * FROM estudiantes";
-        try {
-            con = Conexion.getConexion();
-            st = con.createStatement();
-            rs = st.executeQuery(consulta);
+        try (Connection con = Conexion.getConexion();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(consulta)) {
             while (rs.next()) {
                 EstudianteVO estudiante = new EstudianteVO();
                 estudiante.setCodigo(rs.getString("Código"));
@@ -73,8 +59,6 @@ public ArrayList<EstudianteVO> listaDeEstudiantes() {
                 estudiante.setEdad(rs.getInt("Edad"));
                 misEstudiantes.add(estudiante);
             }
-            st.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
             System.out.println("No se pudo realizar la consulta");
         }
@@ -83,18 +67,15 @@ public ArrayList<EstudianteVO> listaDeEstudiantes() {
 public EstudianteVO consultarLetra(String nombre) {
         EstudianteVO estudiante = null;
         String consulta = "SELECT * FROM estudiantes where  Nombre like '" + nombre+"%'";
-        try {
-            con = (Connection) Conexion.getConexion();
-            st = con.createStatement();
-            rs = st.executeQuery(consulta);
+        try (Connection con = Conexion.getConexion();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(consulta)) {
             if (rs.next()) {
                 estudiante = new EstudianteVO();
                 estudiante.setCodigo(rs.getString("Código"));
                 estudiante.setNombre(rs.getString("Nombre"));
                 estudiante.setEdad(rs.getInt("Edad"));
             }
-            st.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
             System.out.println("No se pudo realizar la consulta");
         }
@@ -102,12 +83,9 @@ public EstudianteVO consultarLetra(String nombre) {
     }
  public boolean eliminarEstudiante(String codigo) {
         String consulta = "DELETE FROM Estudiantes where Código='" + codigo + "'";
-        try {
-            con = Conexion.getConexion();
-            st = con.createStatement();
+        try (Connection con = Conexion.getConexion();
+             Statement st = con.createStatement()) {
             st.executeUpdate(consulta);
-            st.close();
-            Conexion.desconectar();
             return true;
         } catch (SQLException ex) {
             System.out.println("No se pudo realizar la eliminacion");
@@ -117,12 +95,9 @@ public EstudianteVO consultarLetra(String nombre) {
  public boolean modificarEstudiante(String codigo) {
         //Update estudiantes set nombre='Maria Perez' where codigo=202210200031
         String consulta = "update Estudiantes set edad=" + 45 + " where Código='" + codigo + "'";
-        try {
-            con = Conexion.getConexion();
-            st = con.createStatement();
+        try (Connection con = Conexion.getConexion();
+             Statement st = con.createStatement()) {
             st.executeUpdate(consulta);
-            st.close();
-            Conexion.desconectar();
             return true;
         } catch (SQLException ex) {
             System.out.println("No se pudo realizar la modifcacion");
@@ -130,5 +105,3 @@ public EstudianteVO consultarLetra(String nombre) {
         return false;
     }
 }
-
-
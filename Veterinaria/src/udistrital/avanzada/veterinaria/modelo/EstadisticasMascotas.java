@@ -0,0 +1,143 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Número de mascotas por cada valor de una columna, cargado una vez con un
+ * GROUP BY y mantenido después de forma incremental con cada alta,
+ * modificación y baja, de modo que las consultas de estadísticas se
+ * responden en memoria sin recorrer la tabla.
+ *
+ * Los valores se comparan exactamente, como la intercalación BINARY de
+ * SQLite. Los métodos están sincronizados; el servicio además toma el
+ * monitor de esta instancia alrededor de cada escritura para que la base
+ * de datos y los conteos cambien juntos.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class EstadisticasMascotas {
+
+    private final Map<String, HashMap<String, Integer>> columnas = new HashMap<>();
+
+    /**
+     * Carga los conteos de una columna calculados por la base de datos,
+     * reemplazando los que hubiera
+     *
+     * @param columna Columna de {@link CriterioListado#COLUMNAS}
+     * @param conteos Número de mascotas por valor
+     */
+    public synchronized void cargar(String columna, Map<String, Integer> conteos) {
+        if (!CriterioListado.COLUMNAS.contains(columna)) {
+            throw new IllegalArgumentException("Columna no válida: " + columna);
+        }
+        columnas.put(columna, new HashMap<>(conteos));
+    }
+
+    /**
+     * @param columna Columna a verificar
+     * @return true si los conteos de la columna están cargados
+     */
+    public synchronized boolean isCargada(String columna) {
+        return columnas.containsKey(columna);
+    }
+
+    /**
+     * @return true si hay al menos una columna cargada que mantener
+     */
+    public synchronized boolean isCargada() {
+        return !columnas.isEmpty();
+    }
+
+    /**
+     * Suma una mascota nueva a los conteos cargados
+     *
+     * @param mascota Mascota agregada
+     */
+    public synchronized void registrada(Mascota mascota) {
+        for (Map.Entry<String, HashMap<String, Integer>> entrada : columnas.entrySet()) {
+            entrada.getValue().merge(valor(mascota, entrada.getKey()), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Resta una mascota eliminada de los conteos cargados; los valores que
+     * quedan sin mascotas desaparecen
+     *
+     * @param anterior Estado de la mascota antes de eliminarla
+     */
+    public synchronized void eliminada(Mascota anterior) {
+        for (Map.Entry<String, HashMap<String, Integer>> entrada : columnas.entrySet()) {
+            entrada.getValue().computeIfPresent(valor(anterior, entrada.getKey()),
+                    (valor, cantidad) -> cantidad > 1 ? cantidad - 1 : null);
+        }
+    }
+
+    /**
+     * Aplica la modificación de una mascota: resta su estado anterior y suma el nuevo
+     *
+     * @param anterior Estado previo de la mascota
+     * @param actualizada Estado resultante
+     */
+    public synchronized void modificada(Mascota anterior, Mascota actualizada) {
+        eliminada(anterior);
+        registrada(actualizada);
+    }
+
+    /**
+     * Descarta todos los conteos; se vuelven a cargar en la siguiente
+     * consulta. Se usa tras cambios masivos como una importación
+     */
+    public synchronized void invalidar() {
+        columnas.clear();
+    }
+
+    /**
+     * Obtiene los conteos de una columna ordenados por valor
+     *
+     * @param columna Columna a consultar
+     * @return Copia de los conteos, o null si la columna no está cargada
+     */
+    public synchronized Map<String, Integer> obtener(String columna) {
+        HashMap<String, Integer> conteos = columnas.get(columna);
+        return conteos == null ? null : new TreeMap<>(conteos);
+    }
+
+    /**
+     * Obtiene en tiempo constante el número de mascotas con un valor
+     *
+     * @param columna Columna a consultar
+     * @param valor Valor a contar
+     * @return Número de mascotas, o -1 si la columna no está cargada
+     */
+    public synchronized int obtener(String columna, String valor) {
+        HashMap<String, Integer> conteos = columnas.get(columna);
+        return conteos == null ? -1 : conteos.getOrDefault(valor, 0);
+    }
+
+    /**
+     * Valor de la mascota en la columna indicada, tal como se guarda en la tabla
+     */
+    static String valor(Mascota mascota, String columna) {
+        switch (columna) {
+            case "nombre_comun":
+                return mascota.getNombreComun();
+            case "apodo":
+                return mascota.getApodo();
+            case "clasificacion":
+                return mascota.getClasificacion().name();
+            case "familia":
+                return mascota.getFamilia();
+            case "genero":
+                return mascota.getGenero();
+            case "especie":
+                return mascota.getEspecie();
+            case "tipo_alimento":
+                return mascota.getTipoAlimentoPrincipal().name();
+            default:
+                throw new IllegalArgumentException("Columna no válida: " + columna);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+/**
+ * Estado de una etapa de {@link ImportadorParalelo} en un momento dado:
+ * cuántos elementos ha procesado, a qué ritmo y cuántos esperan en su cola
+ * de entrada. Una cola llena indica que la etapa es el cuello de botella;
+ * una vacía, que espera a la anterior.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public final class EtapaImportacion {
+
+    private final String nombre;
+    private final int hilos;
+    private final long procesados;
+    private final double porSegundo;
+    private final int enCola;
+    private final int capacidadCola;
+
+    EtapaImportacion(String nombre, int hilos, long procesados, long milisegundos, int enCola,
+            int capacidadCola) {
+        this.nombre = nombre;
+        this.hilos = hilos;
+        this.procesados = procesados;
+        this.porSegundo = milisegundos == 0 ? 0 : procesados * 1000.0 / milisegundos;
+        this.enCola = enCola;
+        this.capacidadCola = capacidadCola;
+    }
+
+    /**
+     * @return Nombre de la etapa
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return Hilos que ejecutan la etapa
+     */
+    public int getHilos() {
+        return hilos;
+    }
+
+    /**
+     * @return Mascotas o entradas procesadas por la etapa
+     */
+    public long getProcesados() {
+        return procesados;
+    }
+
+    /**
+     * @return Elementos procesados por segundo desde el inicio de la importación
+     */
+    public double getPorSegundo() {
+        return porSegundo;
+    }
+
+    /**
+     * @return Elementos que esperan en la cola de entrada de la etapa
+     */
+    public int getEnCola() {
+        return enCola;
+    }
+
+    /**
+     * @return Capacidad de la cola de entrada de la etapa
+     */
+    public int getCapacidadCola() {
+        return capacidadCola;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d hilos): %d procesados, %.0f/s, cola %d/%d", nombre, hilos, procesados,
+                porSegundo, enCola, capacidadCola);
+    }
+}
@@ -0,0 +1,397 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Formato binario compacto y versionado para exportar mascotas en flujo,
+ * sin la sobrecarga de descriptores de clase de la serialización de Java.
+ *
+ * Formato:
+ * <pre>
+ * cabecera:  int mágico, byte versión, varint con la máscara de campos escritos
+ * registros: byte 1 seguido de los campos escritos, en el orden de {@link Campo}
+ * fin:       byte 0
+ * </pre>
+ *
+ * La clasificación y el tipo de alimento se escriben como su ordinal más
+ * uno, en varint, con 0 para null. Los textos son UTF-8 precedidos de su
+ * longitud más uno, con 0 para null. La familia, el género y la especie
+ * usan un diccionario que se construye al escribir: la primera aparición
+ * de un valor se escribe completa y las siguientes como su número en el
+ * diccionario. El diccionario tiene un tamaño máximo, de modo que la
+ * memoria usada no depende del número de mascotas.
+ *
+ * Como los ordinales dependen del orden de los enumerados, agregar o
+ * reordenar constantes exige subir la versión.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public final class FormatoBinarioMascotas {
+
+    /**
+     * Identifica el formato; corresponde a los bytes "VMAS"
+     */
+    public static final int MAGICO = 0x564D4153;
+
+    /**
+     * Versión del formato escrita por esta clase
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Campos de una mascota, en el orden en que se escriben
+     */
+    public enum Campo {
+        NOMBRE_COMUN, APODO, CLASIFICACION, FAMILIA, GENERO, ESPECIE, TIPO_ALIMENTO
+    }
+
+    static final int MAXIMO_DICCIONARIO = 65536;
+
+    private static final int REGISTRO = 1;
+    private static final int FIN = 0;
+
+    // Prefijos de un texto categórico; a partir de DICCIONARIO, número de entrada
+    private static final int NULO = 0;
+    private static final int LITERAL = 1;
+    private static final int LITERAL_NUEVO = 2;
+    private static final int DICCIONARIO = 3;
+
+    private FormatoBinarioMascotas() {
+    }
+
+    /**
+     * Crea un escritor que escribe en el flujo indicado
+     *
+     * @param salida Flujo de destino; se cierra al cerrar el escritor
+     * @param campos Campos a escribir; los demás nunca se leen de las mascotas
+     * @return Escritor con la cabecera ya escrita
+     * @throws IOException Si ocurre un error de escritura
+     */
+    public static Escritor escritor(OutputStream salida, Set<Campo> campos) throws IOException {
+        return new Escritor(salida, campos);
+    }
+
+    /**
+     * Crea un lector que lee del flujo indicado
+     *
+     * @param entrada Flujo de origen; se cierra al cerrar el lector
+     * @param campos Campos a leer; los demás se saltan y quedan con su valor por defecto
+     * @return Lector con la cabecera ya validada
+     * @throws IOException Si el flujo no tiene el formato esperado
+     */
+    public static Lector lector(InputStream entrada, Set<Campo> campos) throws IOException {
+        return new Lector(entrada, campos);
+    }
+
+    private static int mascara(Set<Campo> campos) {
+        int mascara = 0;
+        for (Campo campo : campos) {
+            mascara |= 1 << campo.ordinal();
+        }
+        return mascara;
+    }
+
+    /**
+     * Escribe mascotas una a una. Solo se leen de cada mascota los campos
+     * elegidos, de modo que no hace falta copiarlas para excluir campos
+     */
+    public static final class Escritor implements Closeable {
+        private final OutputStream salida;
+        private final Campo[] campos;
+        private final HashMap<String, Integer> diccionario = new HashMap<>();
+        private long escritas;
+
+        private Escritor(OutputStream salida, Set<Campo> campos) throws IOException {
+            this.salida = new BufferedOutputStream(salida, 65536);
+            // Siempre en el orden de Campo, que es el que sigue el lector
+            this.campos = EnumSet.allOf(Campo.class).stream().filter(campos::contains).toArray(Campo[]::new);
+            try {
+                escribirEntero(MAGICO);
+                this.salida.write(VERSION);
+                escribirVarint(mascara(campos));
+            } catch (IOException e) {
+                this.salida.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Escribe una mascota como siguiente registro
+         *
+         * @param mascota Mascota a escribir
+         * @throws IOException Si ocurre un error de escritura
+         */
+        public void escribir(Mascota mascota) throws IOException {
+            salida.write(REGISTRO);
+            for (Campo campo : campos) {
+                switch (campo) {
+                    case NOMBRE_COMUN: escribirTexto(mascota.getNombreComun()); break;
+                    case APODO: escribirTexto(mascota.getApodo()); break;
+                    case CLASIFICACION: escribirEnumerado(mascota.getClasificacion()); break;
+                    case FAMILIA: escribirCategorico(mascota.getFamilia()); break;
+                    case GENERO: escribirCategorico(mascota.getGenero()); break;
+                    case ESPECIE: escribirCategorico(mascota.getEspecie()); break;
+                    default: escribirEnumerado(mascota.getTipoAlimentoPrincipal()); break;
+                }
+            }
+            escritas++;
+        }
+
+        /**
+         * @return Número de mascotas escritas
+         */
+        public long getEscritas() {
+            return escritas;
+        }
+
+        /**
+         * Escribe la marca de fin y cierra el flujo
+         *
+         * @throws IOException Si ocurre un error de escritura
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                salida.write(FIN);
+            } finally {
+                salida.close();
+            }
+        }
+
+        private void escribirEnumerado(Enum<?> valor) throws IOException {
+            escribirVarint(valor == null ? 0 : valor.ordinal() + 1);
+        }
+
+        private void escribirCategorico(String texto) throws IOException {
+            if (texto == null) {
+                escribirVarint(NULO);
+                return;
+            }
+            Integer entrada = diccionario.get(texto);
+            if (entrada != null) {
+                escribirVarint(DICCIONARIO + entrada);
+            } else if (diccionario.size() < MAXIMO_DICCIONARIO) {
+                diccionario.put(texto, diccionario.size());
+                escribirVarint(LITERAL_NUEVO);
+                escribirBytes(texto.getBytes(StandardCharsets.UTF_8));
+            } else {
+                escribirVarint(LITERAL);
+                escribirBytes(texto.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void escribirTexto(String texto) throws IOException {
+            if (texto == null) {
+                escribirVarint(0);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            escribirVarint(bytes.length + 1);
+            salida.write(bytes);
+        }
+
+        private void escribirBytes(byte[] bytes) throws IOException {
+            escribirVarint(bytes.length);
+            salida.write(bytes);
+        }
+
+        private void escribirEntero(int valor) throws IOException {
+            salida.write(valor >>> 24);
+            salida.write(valor >>> 16);
+            salida.write(valor >>> 8);
+            salida.write(valor);
+        }
+
+        private void escribirVarint(long valor) throws IOException {
+            while ((valor & ~0x7FL) != 0) {
+                salida.write((int) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            salida.write((int) valor);
+        }
+    }
+
+    /**
+     * Lee mascotas una a una. Los campos no elegidos se saltan sin
+     * decodificarlos y quedan en null en las mascotas leídas, igual
+     * que los campos que el escritor no incluyó
+     */
+    public static final class Lector implements Closeable {
+        private final InputStream entrada;
+        private final int escritos;
+        private final int leidos;
+        private final ArrayList<String> diccionario = new ArrayList<>();
+        private boolean terminado;
+
+        private Lector(InputStream entrada, Set<Campo> campos) throws IOException {
+            this.entrada = new BufferedInputStream(entrada, 65536);
+            try {
+                if (leerEntero() != MAGICO) {
+                    throw new IOException("El flujo no contiene mascotas en formato binario");
+                }
+                int version = leerByte();
+                if (version != VERSION) {
+                    throw new IOException("Versión de formato no soportada: " + version);
+                }
+                this.escritos = (int) leerVarint();
+            } catch (IOException e) {
+                this.entrada.close();
+                throw e;
+            }
+            this.leidos = escritos & mascara(campos);
+        }
+
+        /**
+         * @return Campos que contiene el flujo
+         */
+        public Set<Campo> getCamposEscritos() {
+            EnumSet<Campo> campos = EnumSet.noneOf(Campo.class);
+            for (Campo campo : Campo.values()) {
+                if ((escritos & (1 << campo.ordinal())) != 0) {
+                    campos.add(campo);
+                }
+            }
+            return campos;
+        }
+
+        /**
+         * Lee la siguiente mascota
+         *
+         * @return Mascota leída, o null al llegar al final
+         * @throws IOException Si ocurre un error de lectura o el flujo está truncado
+         */
+        public Mascota leer() throws IOException {
+            if (terminado || leerByte() == FIN) {
+                terminado = true;
+                return null;
+            }
+            Mascota mascota = new Mascota();
+            for (Campo campo : Campo.values()) {
+                int bit = 1 << campo.ordinal();
+                if ((escritos & bit) == 0) {
+                    continue;
+                }
+                boolean leer = (leidos & bit) != 0;
+                switch (campo) {
+                    case NOMBRE_COMUN: mascota.setNombreComun(leerTexto(leer)); break;
+                    case APODO: mascota.setApodo(leerTexto(leer)); break;
+                    case CLASIFICACION:
+                        Clasificacion clasificacion = leerEnumerado(Clasificacion.values());
+                        mascota.setClasificacion(leer ? clasificacion : null);
+                        break;
+                    case FAMILIA: mascota.setFamilia(leerCategorico(leer)); break;
+                    case GENERO: mascota.setGenero(leerCategorico(leer)); break;
+                    case ESPECIE: mascota.setEspecie(leerCategorico(leer)); break;
+                    default:
+                        TipoAlimento tipo = leerEnumerado(TipoAlimento.values());
+                        mascota.setTipoAlimentoPrincipal(leer ? tipo : null);
+                        break;
+                }
+            }
+            return mascota;
+        }
+
+        @Override
+        public void close() throws IOException {
+            entrada.close();
+        }
+
+        private <E extends Enum<E>> E leerEnumerado(E[] valores) throws IOException {
+            int valor = (int) leerVarint();
+            if (valor > valores.length) {
+                throw new IOException("Ordinal fuera de rango: " + (valor - 1));
+            }
+            return valor == 0 ? null : valores[valor - 1];
+        }
+
+        /**
+         * Los valores nuevos se agregan al diccionario aunque el campo no se lea
+         */
+        private String leerCategorico(boolean leer) throws IOException {
+            long prefijo = leerVarint();
+            if (prefijo == NULO) {
+                return null;
+            }
+            if (prefijo >= DICCIONARIO) {
+                return leer ? diccionario.get((int) (prefijo - DICCIONARIO)) : null;
+            }
+            String texto = new String(leerBytes((int) leerVarint()), StandardCharsets.UTF_8);
+            if (prefijo == LITERAL_NUEVO) {
+                diccionario.add(texto);
+            }
+            return leer ? texto : null;
+        }
+
+        private String leerTexto(boolean leer) throws IOException {
+            int longitud = (int) leerVarint();
+            if (longitud == 0) {
+                return null;
+            }
+            if (!leer) {
+                saltar(longitud - 1);
+                return null;
+            }
+            return new String(leerBytes(longitud - 1), StandardCharsets.UTF_8);
+        }
+
+        private byte[] leerBytes(int longitud) throws IOException {
+            byte[] bytes = new byte[longitud];
+            int leidosBytes = 0;
+            while (leidosBytes < longitud) {
+                int n = entrada.read(bytes, leidosBytes, longitud - leidosBytes);
+                if (n < 0) {
+                    throw new EOFException("Flujo de mascotas truncado");
+                }
+                leidosBytes += n;
+            }
+            return bytes;
+        }
+
+        private void saltar(long longitud) throws IOException {
+            while (longitud > 0) {
+                long saltados = entrada.skip(longitud);
+                if (saltados <= 0) {
+                    leerByte();
+                    saltados = 1;
+                }
+                longitud -= saltados;
+            }
+        }
+
+        private int leerByte() throws IOException {
+            int b = entrada.read();
+            if (b < 0) {
+                throw new EOFException("Flujo de mascotas truncado");
+            }
+            return b;
+        }
+
+        private int leerEntero() throws IOException {
+            return (leerByte() << 24) | (leerByte() << 16) | (leerByte() << 8) | leerByte();
+        }
+
+        private long leerVarint() throws IOException {
+            long valor = 0;
+            for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+                int b = leerByte();
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                if ((b & 0x80) == 0) {
+                    return valor;
+                }
+            }
+            throw new IOException("Varint mal formado");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas log-lineales, al
+ * estilo de HdrHistogram: cada potencia de dos se divide en
+ * {@value #SUBCUBETAS} cubetas iguales, de modo que cualquier percentil se
+ * obtiene con un error relativo de a lo sumo 1/32 (3,1 %) y memoria fija.
+ * <p>
+ * Registrar un valor no toma bloqueos ni crea objetos: incrementa una
+ * posición de un {@link AtomicLongArray}, suma en un {@link LongAdder} y
+ * solo intenta un CAS sobre el mínimo o el máximo cuando el valor los
+ * supera. Las instantáneas se calculan leyendo las cubetas sin detener a
+ * los hilos que registran, por lo que pueden mezclar registros en curso.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public final class Histograma {
+
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    private final String nombre;
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong minimo = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Crea un histograma vacío.
+     *
+     * @param nombre Nombre de la operación medida
+     */
+    public Histograma(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * @return Nombre de la operación medida
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Registra una duración.
+     *
+     * @param nanos Duración en nanosegundos; los valores negativos cuentan como 0
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(nanos, 0);
+        cubetas.incrementAndGet(indice(valor));
+        suma.add(valor);
+        long actual;
+        while (valor < (actual = minimo.get()) && !minimo.compareAndSet(actual, valor)) {
+            // Otro hilo cambió el mínimo; se vuelve a comparar
+        }
+        while (valor > (actual = maximo.get()) && !maximo.compareAndSet(actual, valor)) {
+            // Otro hilo cambió el máximo; se vuelve a comparar
+        }
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde un instante tomado con
+     * {@link System#nanoTime()}.
+     *
+     * @param inicioNanos Instante de inicio de la operación
+     */
+    public void registrarDesde(long inicioNanos) {
+        registrar(System.nanoTime() - inicioNanos);
+    }
+
+    /**
+     * @return Número de valores registrados
+     */
+    public long getCantidad() {
+        long cantidad = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            cantidad += cubetas.get(i);
+        }
+        return cantidad;
+    }
+
+    /**
+     * Calcula el resumen del histograma en este momento.
+     *
+     * @return Cantidad, promedio, percentiles 50, 99 y 99,9 y extremos
+     */
+    public ResumenOperacion instantanea() {
+        long[] conteos = new long[CUBETAS];
+        long cantidad = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            conteos[i] = cubetas.get(i);
+            cantidad += conteos[i];
+        }
+        if (cantidad == 0) {
+            return new ResumenOperacion(nombre, 0, 0, 0, 0, 0, 0, 0);
+        }
+        long max = maximo.get();
+        return new ResumenOperacion(nombre, cantidad, milisegundos(suma.sum()) / cantidad,
+                milisegundos(Math.min(minimo.get(), max)), milisegundos(percentil(conteos, cantidad, 0.5, max)),
+                milisegundos(percentil(conteos, cantidad, 0.99, max)),
+                milisegundos(percentil(conteos, cantidad, 0.999, max)), milisegundos(max));
+    }
+
+    /**
+     * Valor del percentil: el límite superior de la cubeta donde cae, sin
+     * superar el máximo registrado.
+     */
+    private static long percentil(long[] conteos, long cantidad, double fraccion, long maximo) {
+        long objetivo = Math.max(1, (long) Math.ceil(fraccion * cantidad));
+        long acumulado = 0;
+        for (int i = 0; i < conteos.length; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo);
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Cubeta de un valor: los menores que {@value #SUBCUBETAS} tienen una
+     * cubeta propia; el resto se ubica por su bit más alto y los
+     * {@value #BITS_SUBCUBETA} bits siguientes.
+     */
+    static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        int mantisa = (int) (valor >>> desplazamiento) & (SUBCUBETAS - 1);
+        return (desplazamiento + 1) * SUBCUBETAS + mantisa;
+    }
+
+    /**
+     * Mayor valor que cae en una cubeta.
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        long inferior = (long) (SUBCUBETAS + indice % SUBCUBETAS) << desplazamiento;
+        return inferior + (1L << desplazamiento) - 1;
+    }
+
+    private static double milisegundos(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,297 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Importa mascotas desde un archivo properties en flujo, en memoria
+ * constante. Cada entrada tiene la forma
+ * <pre>
+ * AnimalX=NombreComun, Apodo, Clasificacion, Familia, Genero, Especie, TipoAlimento
+ * </pre>
+ * La clave solo identifica la entrada en el archivo.
+ *
+ * El hilo que llama lee y valida las entradas y las agrupa en lotes, que
+ * pasan por una cola acotada a un hilo que los inserta con
+ * {@link MascotaDAO#insertarMascotasEnLote(List, int)}; si la base de datos
+ * va más lenta que la lectura, la cola llena detiene la lectura. Las
+ * mascotas con datos faltantes no se insertan: se entregan a quien llama
+ * para completarlas. Las entradas mal formadas, y las de lotes que la base
+ * de datos rechaza, se escriben con el motivo en un archivo de rechazos con
+ * el mismo formato, para corregirlas y volver a importarlas.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class ImportadorMascotas {
+
+    public static final int CAPACIDAD_COLA_POR_DEFECTO = 4;
+    public static final int INTERVALO_PROGRESO_POR_DEFECTO = 10000;
+
+    static final int CAMPOS = 7;
+    private static final List<Mascota> FIN = new ArrayList<>();
+
+    private final MascotaDAO mascotaDAO;
+    private final int tamanoLote;
+    private final int capacidadCola;
+    private final int intervaloProgreso;
+
+    /**
+     * Crea un importador con el tamaño de lote y la cola por defecto
+     *
+     * @param mascotaDAO DAO con el que insertar las mascotas
+     */
+    public ImportadorMascotas(MascotaDAO mascotaDAO) {
+        this(mascotaDAO, MascotaDAO.TAMANO_LOTE_POR_DEFECTO, CAPACIDAD_COLA_POR_DEFECTO,
+                INTERVALO_PROGRESO_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un importador
+     *
+     * @param mascotaDAO DAO con el que insertar las mascotas
+     * @param tamanoLote Mascotas por lote; cada lote se inserta en una transacción
+     * @param capacidadCola Lotes que pueden esperar a ser insertados
+     * @param intervaloProgreso Entradas leídas entre dos informes de progreso
+     */
+    public ImportadorMascotas(MascotaDAO mascotaDAO, int tamanoLote, int capacidadCola, int intervaloProgreso) {
+        if (tamanoLote <= 0 || capacidadCola <= 0 || intervaloProgreso <= 0) {
+            throw new IllegalArgumentException("El lote, la cola y el intervalo de progreso deben ser positivos");
+        }
+        this.mascotaDAO = mascotaDAO;
+        this.tamanoLote = tamanoLote;
+        this.capacidadCola = capacidadCola;
+        this.intervaloProgreso = intervaloProgreso;
+    }
+
+    /**
+     * Importa un archivo. El archivo de rechazos se reemplaza, y solo se
+     * crea si hay entradas rechazadas.
+     *
+     * @param nombreArchivo Archivo properties a importar
+     * @param nombreRechazos Archivo donde escribir las entradas rechazadas
+     * @param incompletas Recibe, desde el hilo que llama, las mascotas con datos
+     * faltantes; si es null, esas entradas también se rechazan
+     * @param progreso Recibe el estado de la importación cada cierto número
+     * de entradas y al terminar, desde el hilo que llama; puede ser null
+     * @return Resumen final de la importación
+     * @throws IOException Si no se puede leer el archivo o escribir los rechazos
+     */
+    public ResumenImportacion importar(String nombreArchivo, String nombreRechazos, Consumer<Mascota> incompletas,
+            Consumer<ResumenImportacion> progreso) throws IOException {
+        Importacion importacion = new Importacion(nombreRechazos);
+        try (LectorPropiedades lector = new LectorPropiedades(nombreArchivo)) {
+            importacion.lector = lector;
+            Thread insertor = new Thread(importacion::insertar, "importador-mascotas");
+            insertor.setDaemon(true);
+            insertor.start();
+            try {
+                importacion.leer(incompletas, progreso);
+            } finally {
+                importacion.terminar(insertor);
+            }
+            ResumenImportacion resumen = importacion.resumen(true);
+            if (progreso != null) {
+                progreso.accept(resumen);
+            }
+            return resumen;
+        } finally {
+            importacion.rechazos.cerrar();
+        }
+    }
+
+    /**
+     * Convierte el valor de una entrada en mascota. Los campos vacíos o que
+     * faltan quedan en null para completarlos después.
+     *
+     * @param tokenizador Tokenizador con el valor de la entrada ya separado
+     * @return Mascota de la entrada, posiblemente incompleta
+     * @throws IllegalArgumentException Con el motivo, si la entrada está mal formada
+     */
+    static Mascota convertir(TokenizadorCSV tokenizador) {
+        if (tokenizador.getNumeroCampos() < 0) {
+            throw new IllegalArgumentException("comillas sin cerrar");
+        }
+        Mascota mascota = new Mascota();
+        mascota.setNombreComun(texto(tokenizador, 0));
+        mascota.setApodo(texto(tokenizador, 1));
+        if (!tokenizador.estaVacio(2)) {
+            try {
+                mascota.setClasificacion(Clasificacion.valueOf(tokenizador.campo(2).toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("clasificación no válida: " + tokenizador.campo(2));
+            }
+        }
+        mascota.setFamilia(texto(tokenizador, 3));
+        mascota.setGenero(texto(tokenizador, 4));
+        mascota.setEspecie(texto(tokenizador, 5));
+        if (!tokenizador.estaVacio(6)) {
+            try {
+                mascota.setTipoAlimentoPrincipal(TipoAlimento.valueOf(tokenizador.campo(6).toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("tipo de alimento no válido: " + tokenizador.campo(6));
+            }
+        }
+        return mascota;
+    }
+
+    private static String texto(TokenizadorCSV tokenizador, int i) {
+        return tokenizador.estaVacio(i) ? null : tokenizador.campo(i);
+    }
+
+    /**
+     * @return true si la mascota tiene todos los datos para insertarla
+     */
+    static boolean estaCompleta(Mascota mascota) {
+        return mascota.getNombreComun() != null && mascota.getApodo() != null
+                && mascota.getClasificacion() != null && mascota.getFamilia() != null
+                && mascota.getGenero() != null && mascota.getEspecie() != null
+                && mascota.getTipoAlimentoPrincipal() != null;
+    }
+
+    /**
+     * Escribe una mascota como entrada del archivo, para los lotes que falla
+     * la base de datos, de los que ya no se conserva el texto original
+     */
+    static String formatear(Mascota mascota) {
+        return "Animal." + mascota.getApodo() + "=" + mascota.getNombreComun() + ", " + mascota.getApodo() + ", "
+                + mascota.getClasificacion() + ", " + mascota.getFamilia() + ", " + mascota.getGenero() + ", "
+                + mascota.getEspecie() + ", " + mascota.getTipoAlimentoPrincipal();
+    }
+
+    /**
+     * Estado de una llamada a {@link #importar}, compartido entre el hilo
+     * que lee y el que inserta
+     */
+    private final class Importacion {
+        private final BlockingQueue<List<Mascota>> cola = new ArrayBlockingQueue<>(capacidadCola);
+        private final ArchivoRechazos rechazos;
+        private final long inicio = System.currentTimeMillis();
+        private final AtomicLong insertadas = new AtomicLong();
+        private final AtomicLong duplicadas = new AtomicLong();
+        private final AtomicLong fallidas = new AtomicLong();
+        private long leidas;
+        private long incompletas;
+        private long rechazadas;
+        private LectorPropiedades lector;
+
+        private Importacion(String nombreRechazos) {
+            this.rechazos = new ArchivoRechazos(nombreRechazos);
+        }
+
+        private void leer(Consumer<Mascota> receptorIncompletas, Consumer<ResumenImportacion> progreso)
+                throws IOException {
+            TokenizadorCSV tokenizador = new TokenizadorCSV();
+            List<Mascota> lote = new ArrayList<>(tamanoLote);
+            while (lector.siguiente()) {
+                leidas++;
+                try {
+                    if (lector.getError() != null) {
+                        throw new IllegalArgumentException(lector.getError());
+                    }
+                    tokenizador.tokenizar(lector.getValor(), CAMPOS);
+                    Mascota mascota = convertir(tokenizador);
+                    if (estaCompleta(mascota)) {
+                        lote.add(mascota);
+                    } else if (receptorIncompletas != null) {
+                        incompletas++;
+                        receptorIncompletas.accept(mascota);
+                    } else {
+                        throw new IllegalArgumentException("datos incompletos");
+                    }
+                } catch (IllegalArgumentException e) {
+                    rechazadas++;
+                    rechazos.escribir("línea " + lector.getNumeroLinea() + ": " + e.getMessage(),
+                            lector.getTextoOriginal());
+                }
+                if (lote.size() == tamanoLote) {
+                    encolar(lote);
+                    lote = new ArrayList<>(tamanoLote);
+                }
+                if (progreso != null && leidas % intervaloProgreso == 0) {
+                    progreso.accept(resumen(false));
+                }
+            }
+            if (!lote.isEmpty()) {
+                encolar(lote);
+            }
+        }
+
+        private void encolar(List<Mascota> lote) throws IOException {
+            try {
+                cola.put(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Importación interrumpida");
+            }
+        }
+
+        /**
+         * Cuerpo del hilo insertor: inserta lotes hasta recibir {@link #FIN}
+         */
+        private void insertar() {
+            while (true) {
+                List<Mascota> lote;
+                try {
+                    lote = cola.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (lote == FIN) {
+                    return;
+                }
+                ResultadoLote resultado;
+                try {
+                    resultado = mascotaDAO.insertarMascotasEnLote(lote, tamanoLote);
+                } catch (Exception e) {
+                    System.err.println("Error al insertar lote de mascotas: " + e.getMessage());
+                    resultado = null;
+                }
+                if (resultado != null && resultado.esExitoso()) {
+                    insertadas.addAndGet(resultado.getInsertadas() + resultado.getSinInformacion());
+                    duplicadas.addAndGet(resultado.getDuplicadas());
+                } else {
+                    // La transacción del lote se revirtió completa
+                    fallidas.addAndGet(lote.size());
+                    for (Mascota mascota : lote) {
+                        rechazos.escribir("error de base de datos al insertar el lote", formatear(mascota));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Envía la marca de fin y espera a que se inserten los lotes pendientes
+         */
+        private void terminar(Thread insertor) throws IOException {
+            boolean interrumpido = false;
+            while (true) {
+                try {
+                    cola.put(FIN);
+                    insertor.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+            rechazos.verificar();
+        }
+
+        private ResumenImportacion resumen(boolean terminada) {
+            return new ResumenImportacion(leidas, insertadas.get(), duplicadas.get(), incompletas, rechazadas,
+                    fallidas.get(), lector.getBytesLeidos(), lector.getBytesTotales(),
+                    System.currentTimeMillis() - inicio, terminada, Collections.emptyList());
+        }
+    }
+}
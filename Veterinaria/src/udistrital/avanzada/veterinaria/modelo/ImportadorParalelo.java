@@ -0,0 +1,592 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Importa varios archivos properties a la vez, con el formato de
+ * {@link ImportadorMascotas}, en cuatro etapas unidas por colas acotadas:
+ * <ol>
+ * <li>lectura: un {@link ForkJoinPool} lee los archivos en paralelo y
+ * agrupa las entradas en bloques;</li>
+ * <li>validación: tareas del mismo pool separan y validan los bloques en
+ * paralelo;</li>
+ * <li>deduplicación: un hilo descarta las mascotas cuyo apodo ya apareció
+ * en cualquiera de los archivos y agrupa el resto en lotes;</li>
+ * <li>inserción: un hilo inserta los lotes con
+ * {@link MascotaDAO#insertarMascotasEnLote(List, int)}.</li>
+ * </ol>
+ * Cuando una etapa va más lenta que la anterior, su cola se llena y la
+ * anterior se detiene, de modo que la memoria usada no depende del tamaño de
+ * los archivos, salvo por los apodos vistos. Los apodos se comparan en
+ * memoria, sin consultar la base de datos por cada mascota; los que ya
+ * existían en ella se descartan en la inserción.
+ *
+ * Entre archivos que repiten un apodo se inserta la primera mascota que
+ * llega a la deduplicación, que depende del orden de lectura.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class ImportadorParalelo {
+
+    public static final int CAPACIDAD_COLA_POR_DEFECTO = 8;
+    public static final int TAMANO_BLOQUE_POR_DEFECTO = 1000;
+    public static final long INTERVALO_PROGRESO_POR_DEFECTO = 1000;
+
+    private static final Bloque FIN_BLOQUES = new Bloque(null, 0);
+    private static final List<Mascota> FIN = new ArrayList<>();
+
+    private final MascotaDAO mascotaDAO;
+    private final int paralelismo;
+    private final int tamanoLote;
+    private final int tamanoBloque;
+    private final int capacidadCola;
+    private final long intervaloProgreso;
+
+    /**
+     * Crea un importador que usa todos los procesadores, con los tamaños
+     * de lote, bloque y cola por defecto
+     *
+     * @param mascotaDAO DAO con el que insertar las mascotas
+     */
+    public ImportadorParalelo(MascotaDAO mascotaDAO) {
+        this(mascotaDAO, Runtime.getRuntime().availableProcessors(), MascotaDAO.TAMANO_LOTE_POR_DEFECTO,
+                TAMANO_BLOQUE_POR_DEFECTO, CAPACIDAD_COLA_POR_DEFECTO, INTERVALO_PROGRESO_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un importador
+     *
+     * @param mascotaDAO DAO con el que insertar las mascotas
+     * @param paralelismo Hilos del pool que lee y valida los archivos
+     * @param tamanoLote Mascotas por lote; cada lote se inserta en una transacción
+     * @param tamanoBloque Entradas que la lectura entrega juntas a la validación
+     * @param capacidadCola Bloques o lotes que puede retener cada cola entre etapas
+     * @param intervaloProgreso Milisegundos entre dos informes de progreso
+     */
+    public ImportadorParalelo(MascotaDAO mascotaDAO, int paralelismo, int tamanoLote, int tamanoBloque,
+            int capacidadCola, long intervaloProgreso) {
+        if (paralelismo <= 0 || tamanoLote <= 0 || tamanoBloque <= 0 || capacidadCola <= 0
+                || intervaloProgreso <= 0) {
+            throw new IllegalArgumentException(
+                    "El paralelismo, el lote, el bloque, la cola y el intervalo de progreso deben ser positivos");
+        }
+        this.mascotaDAO = mascotaDAO;
+        this.paralelismo = paralelismo;
+        this.tamanoLote = tamanoLote;
+        this.tamanoBloque = tamanoBloque;
+        this.capacidadCola = capacidadCola;
+        this.intervaloProgreso = intervaloProgreso;
+    }
+
+    /**
+     * Importa los archivos. El archivo de rechazos se reemplaza, y solo se
+     * crea si hay entradas rechazadas; cada rechazo indica su archivo y
+     * línea. Un archivo que no se puede leer no detiene a los demás: el
+     * error se lanza al terminar.
+     *
+     * @param nombresArchivos Archivos properties a importar
+     * @param nombreRechazos Archivo donde escribir las entradas rechazadas
+     * @param incompletas Recibe las mascotas con datos faltantes desde los hilos
+     * de validación, así que debe ser seguro para varios hilos; si es null,
+     * esas entradas también se rechazan
+     * @param progreso Recibe el estado de la importación y de cada etapa
+     * periódicamente, desde otro hilo, y al terminar; puede ser null
+     * @return Resumen final de la importación
+     * @throws IOException Si no se puede leer algún archivo o escribir los rechazos
+     */
+    public ResumenImportacion importar(List<String> nombresArchivos, String nombreRechazos,
+            Consumer<Mascota> incompletas, Consumer<ResumenImportacion> progreso) throws IOException {
+        Importacion importacion = new Importacion(nombresArchivos, nombreRechazos, incompletas);
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        ScheduledExecutorService monitor = null;
+        try {
+            if (progreso != null) {
+                monitor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                    Thread hilo = new Thread(tarea, "importador-progreso");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+                monitor.scheduleAtFixedRate(() -> progreso.accept(importacion.resumen(false)),
+                        intervaloProgreso, intervaloProgreso, TimeUnit.MILLISECONDS);
+            }
+            importacion.ejecutar(pool);
+        } finally {
+            pool.shutdown();
+            if (monitor != null) {
+                monitor.shutdownNow();
+            }
+            importacion.rechazos.cerrar();
+        }
+        importacion.rechazos.verificar();
+        importacion.verificar();
+        ResumenImportacion resumen = importacion.resumen(true);
+        if (progreso != null) {
+            progreso.accept(resumen);
+        }
+        return resumen;
+    }
+
+    /**
+     * Pone un elemento en una cola; dentro del pool avisa del bloqueo para
+     * que otro hilo ocupe su lugar mientras espera
+     */
+    private static <T> void poner(BlockingQueue<T> cola, T elemento) throws InterruptedException {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            private boolean puesto;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                if (!puesto) {
+                    cola.put(elemento);
+                    puesto = true;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return puesto || (puesto = cola.offer(elemento));
+            }
+        });
+    }
+
+    /**
+     * Toma un elemento de una cola; dentro del pool avisa del bloqueo para
+     * que otro hilo ocupe su lugar mientras espera
+     */
+    private static <T> T tomar(BlockingQueue<T> cola) throws InterruptedException {
+        class Toma implements ForkJoinPool.ManagedBlocker {
+            private T elemento;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                if (elemento == null) {
+                    elemento = cola.take();
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return elemento != null || (elemento = cola.poll()) != null;
+            }
+        }
+        Toma toma = new Toma();
+        ForkJoinPool.managedBlock(toma);
+        return toma.elemento;
+    }
+
+    /**
+     * Entradas consecutivas de un archivo, tal como se leyeron
+     */
+    private static final class Bloque {
+        private final String archivo;
+        private final int[] lineas;
+        private final String[] valores;
+        private final String[] originales;
+        private final String[] errores;
+        private int tamano;
+
+        private Bloque(String archivo, int capacidad) {
+            this.archivo = archivo;
+            this.lineas = new int[capacidad];
+            this.valores = new String[capacidad];
+            this.originales = new String[capacidad];
+            this.errores = new String[capacidad];
+        }
+
+        private void agregar(LectorPropiedades lector) {
+            lineas[tamano] = lector.getNumeroLinea();
+            valores[tamano] = lector.getValor().toString();
+            originales[tamano] = lector.getTextoOriginal();
+            errores[tamano] = lector.getError();
+            tamano++;
+        }
+
+        private boolean estaLleno() {
+            return tamano == valores.length;
+        }
+    }
+
+    /**
+     * Estado de una llamada a {@link #importar}, compartido por las etapas
+     */
+    private final class Importacion {
+        private final List<String> archivos;
+        private final ArchivoRechazos rechazos;
+        private final Consumer<Mascota> receptorIncompletas;
+        private final BlockingQueue<Bloque> colaEntradas = new ArrayBlockingQueue<>(capacidadCola);
+        private final BlockingQueue<List<Mascota>> colaValidadas = new ArrayBlockingQueue<>(capacidadCola);
+        private final BlockingQueue<List<Mascota>> colaLotes = new ArrayBlockingQueue<>(capacidadCola);
+        private final List<Throwable> errores = Collections.synchronizedList(new ArrayList<>());
+        private final long inicio = System.currentTimeMillis();
+        private final long bytesTotales;
+        private final AtomicInteger archivosPendientes;
+        private final AtomicLong bytesLeidos = new AtomicLong();
+        private final AtomicLong leidas = new AtomicLong();
+        private final AtomicLong validadas = new AtomicLong();
+        private final AtomicLong incompletas = new AtomicLong();
+        private final AtomicLong rechazadas = new AtomicLong();
+        private final AtomicLong deduplicadas = new AtomicLong();
+        private final AtomicLong repetidas = new AtomicLong();
+        private final AtomicLong enviadas = new AtomicLong();
+        private final AtomicLong insertadas = new AtomicLong();
+        private final AtomicLong duplicadas = new AtomicLong();
+        private final AtomicLong fallidas = new AtomicLong();
+
+        private Importacion(List<String> archivos, String nombreRechazos, Consumer<Mascota> incompletas) {
+            this.archivos = new ArrayList<>(archivos);
+            this.rechazos = new ArchivoRechazos(nombreRechazos);
+            this.receptorIncompletas = incompletas;
+            this.archivosPendientes = new AtomicInteger(this.archivos.size());
+            long total = 0;
+            for (String archivo : this.archivos) {
+                total += new File(archivo).length();
+            }
+            this.bytesTotales = total;
+        }
+
+        /**
+         * Arranca las etapas y espera a que todas terminen, cerrando cada
+         * cola cuando la etapa que la llena ha terminado
+         */
+        private void ejecutar(ForkJoinPool pool) {
+            Thread deduplicador = iniciar(this::deduplicar, "importador-deduplicacion");
+            Thread insertor = iniciar(this::insertar, "importador-insercion");
+            List<ForkJoinTask<?>> validadores = new ArrayList<>(paralelismo);
+            for (int i = 0; i < paralelismo; i++) {
+                validadores.add(pool.submit(this::validar));
+            }
+            boolean interrumpido = false;
+            try {
+                pool.invoke(new Lectura(0, archivos.size()));
+            } finally {
+                for (int i = 0; i < paralelismo; i++) {
+                    interrumpido |= ponerSiempre(colaEntradas, FIN_BLOQUES);
+                }
+                for (ForkJoinTask<?> validador : validadores) {
+                    validador.quietlyJoin();
+                }
+                interrumpido |= ponerSiempre(colaValidadas, FIN);
+                interrumpido |= esperar(deduplicador);
+                interrumpido |= esperar(insertor);
+                if (interrumpido) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Etapa de lectura: divide los archivos hasta leer uno por tarea
+         */
+        private final class Lectura extends RecursiveAction {
+            private final int desde;
+            private final int hasta;
+
+            private Lectura(int desde, int hasta) {
+                this.desde = desde;
+                this.hasta = hasta;
+            }
+
+            @Override
+            protected void compute() {
+                if (hasta - desde == 1) {
+                    leer(archivos.get(desde));
+                } else if (hasta - desde > 1) {
+                    int mitad = (desde + hasta) >>> 1;
+                    invokeAll(new Lectura(desde, mitad), new Lectura(mitad, hasta));
+                }
+            }
+        }
+
+        private void leer(String nombreArchivo) {
+            String nombre = new File(nombreArchivo).getName();
+            long contados = 0;
+            try (LectorPropiedades lector = new LectorPropiedades(nombreArchivo)) {
+                Bloque bloque = new Bloque(nombre, tamanoBloque);
+                while (lector.siguiente()) {
+                    bloque.agregar(lector);
+                    if (bloque.estaLleno()) {
+                        contados = entregar(bloque, lector, contados);
+                        bloque = new Bloque(nombre, tamanoBloque);
+                    }
+                }
+                if (bloque.tamano > 0) {
+                    contados = entregar(bloque, lector, contados);
+                }
+                bytesLeidos.addAndGet(lector.getBytesTotales() - contados);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errores.add(new InterruptedIOException("Importación interrumpida leyendo " + nombre));
+            } catch (IOException e) {
+                errores.add(new IOException("Error al leer " + nombre + ": " + e.getMessage(), e));
+            } finally {
+                archivosPendientes.decrementAndGet();
+            }
+        }
+
+        private long entregar(Bloque bloque, LectorPropiedades lector, long contados) throws InterruptedException {
+            long leidosArchivo = Math.min(lector.getBytesLeidos(), lector.getBytesTotales());
+            bytesLeidos.addAndGet(leidosArchivo - contados);
+            leidas.addAndGet(bloque.tamano);
+            poner(colaEntradas, bloque);
+            return leidosArchivo;
+        }
+
+        /**
+         * Etapa de validación: la ejecutan varias tareas del pool, cada una
+         * con su tokenizador
+         */
+        private void validar() {
+            TokenizadorCSV tokenizador = new TokenizadorCSV();
+            try {
+                while (true) {
+                    Bloque bloque = tomar(colaEntradas);
+                    if (bloque == FIN_BLOQUES) {
+                        return;
+                    }
+                    try {
+                        List<Mascota> validas = validarBloque(bloque, tokenizador);
+                        if (!validas.isEmpty()) {
+                            poner(colaValidadas, validas);
+                        }
+                    } catch (RuntimeException | Error e) {
+                        // Se sigue consumiendo para no bloquear la lectura
+                        errores.add(e);
+                    }
+                    validadas.addAndGet(bloque.tamano);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errores.add(new InterruptedIOException("Importación interrumpida"));
+            }
+        }
+
+        private List<Mascota> validarBloque(Bloque bloque, TokenizadorCSV tokenizador) {
+            List<Mascota> validas = new ArrayList<>(bloque.tamano);
+            for (int i = 0; i < bloque.tamano; i++) {
+                try {
+                    if (bloque.errores[i] != null) {
+                        throw new IllegalArgumentException(bloque.errores[i]);
+                    }
+                    tokenizador.tokenizar(bloque.valores[i], ImportadorMascotas.CAMPOS);
+                    Mascota mascota = ImportadorMascotas.convertir(tokenizador);
+                    if (ImportadorMascotas.estaCompleta(mascota)) {
+                        validas.add(mascota);
+                    } else if (receptorIncompletas != null) {
+                        incompletas.incrementAndGet();
+                        receptorIncompletas.accept(mascota);
+                    } else {
+                        throw new IllegalArgumentException("datos incompletos");
+                    }
+                } catch (IllegalArgumentException e) {
+                    rechazadas.incrementAndGet();
+                    rechazos.escribir(bloque.archivo + ", línea " + bloque.lineas[i] + ": " + e.getMessage(),
+                            bloque.originales[i]);
+                }
+            }
+            return validas;
+        }
+
+        /**
+         * Etapa de deduplicación: un solo hilo, así que el conjunto de
+         * apodos no necesita sincronización
+         */
+        private void deduplicar() {
+            Set<String> apodos = new HashSet<>();
+            List<Mascota> lote = new ArrayList<>(tamanoLote);
+            try {
+                while (true) {
+                    List<Mascota> validas = tomar(colaValidadas);
+                    if (validas == FIN) {
+                        break;
+                    }
+                    for (Mascota mascota : validas) {
+                        if (!apodos.add(mascota.getApodo())) {
+                            repetidas.incrementAndGet();
+                            continue;
+                        }
+                        lote.add(mascota);
+                        if (lote.size() == tamanoLote) {
+                            poner(colaLotes, lote);
+                            lote = new ArrayList<>(tamanoLote);
+                        }
+                    }
+                    deduplicadas.addAndGet(validas.size());
+                }
+                if (!lote.isEmpty()) {
+                    poner(colaLotes, lote);
+                }
+            } catch (InterruptedException e) {
+                errores.add(new InterruptedIOException("Importación interrumpida"));
+                descartarHasta(colaValidadas, FIN);
+            } catch (RuntimeException | Error e) {
+                errores.add(e);
+                descartarHasta(colaValidadas, FIN);
+            } finally {
+                if (ponerSiempre(colaLotes, FIN)) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Etapa de inserción: un solo hilo, una transacción por lote
+         */
+        private void insertar() {
+            try {
+                insertarLotes();
+            } catch (RuntimeException | Error e) {
+                errores.add(e);
+                descartarHasta(colaLotes, FIN);
+            }
+        }
+
+        private void insertarLotes() {
+            while (true) {
+                List<Mascota> lote;
+                try {
+                    lote = tomar(colaLotes);
+                } catch (InterruptedException e) {
+                    errores.add(new InterruptedIOException("Importación interrumpida"));
+                    descartarHasta(colaLotes, FIN);
+                    return;
+                }
+                if (lote == FIN) {
+                    return;
+                }
+                ResultadoLote resultado;
+                try {
+                    resultado = mascotaDAO.insertarMascotasEnLote(lote, tamanoLote);
+                } catch (Exception e) {
+                    System.err.println("Error al insertar lote de mascotas: " + e.getMessage());
+                    resultado = null;
+                }
+                if (resultado != null && resultado.esExitoso()) {
+                    insertadas.addAndGet(resultado.getInsertadas() + resultado.getSinInformacion());
+                    duplicadas.addAndGet(resultado.getDuplicadas());
+                } else {
+                    // La transacción del lote se revirtió completa
+                    fallidas.addAndGet(lote.size());
+                    for (Mascota mascota : lote) {
+                        rechazos.escribir("error de base de datos al insertar el lote",
+                                ImportadorMascotas.formatear(mascota));
+                    }
+                }
+                enviadas.addAndGet(lote.size());
+            }
+        }
+
+        /**
+         * @throws IOException El primer error de lectura o de las etapas, con los demás como suprimidos
+         */
+        private void verificar() throws IOException {
+            if (errores.isEmpty()) {
+                return;
+            }
+            Throwable primero = errores.get(0);
+            IOException error = primero instanceof IOException ? (IOException) primero
+                    : new IOException("Error en la importación: " + primero, primero);
+            for (Throwable otro : errores.subList(1, errores.size())) {
+                error.addSuppressed(otro);
+            }
+            throw error;
+        }
+
+        private ResumenImportacion resumen(boolean terminada) {
+            long milisegundos = System.currentTimeMillis() - inicio;
+            List<EtapaImportacion> etapas = Arrays.asList(
+                    new EtapaImportacion("lectura", Math.min(paralelismo, archivos.size()), leidas.get(),
+                            milisegundos, archivosPendientes.get(), archivos.size()),
+                    new EtapaImportacion("validación", paralelismo, validadas.get(), milisegundos,
+                            colaEntradas.size(), capacidadCola),
+                    new EtapaImportacion("deduplicación", 1, deduplicadas.get(), milisegundos,
+                            colaValidadas.size(), capacidadCola),
+                    new EtapaImportacion("inserción", 1, enviadas.get(), milisegundos,
+                            colaLotes.size(), capacidadCola));
+            return new ResumenImportacion(leidas.get(), insertadas.get(), repetidas.get() + duplicadas.get(),
+                    incompletas.get(), rechazadas.get(), fallidas.get(), bytesLeidos.get(), bytesTotales,
+                    milisegundos, terminada, etapas);
+        }
+    }
+
+    private static Thread iniciar(Runnable etapa, String nombre) {
+        Thread hilo = new Thread(etapa, nombre);
+        hilo.setDaemon(true);
+        hilo.start();
+        return hilo;
+    }
+
+    /**
+     * Vacía una cola hasta la marca de fin, para que una etapa que falló no
+     * detenga a las anteriores
+     */
+    private static <T> void descartarHasta(BlockingQueue<T> cola, T fin) {
+        boolean interrumpido = false;
+        while (true) {
+            try {
+                if (cola.take() == fin) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pone un elemento aunque el hilo sea interrumpido, para que las etapas
+     * siguientes siempre reciban la marca de fin
+     *
+     * @return true si el hilo fue interrumpido mientras esperaba
+     */
+    private static <T> boolean ponerSiempre(BlockingQueue<T> cola, T elemento) {
+        boolean interrumpido = false;
+        while (true) {
+            try {
+                poner(cola, elemento);
+                return interrumpido;
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+    }
+
+    /**
+     * @return true si el hilo fue interrumpido mientras esperaba
+     */
+    private static boolean esperar(Thread hilo) {
+        boolean interrumpido = false;
+        while (true) {
+            try {
+                hilo.join();
+                return interrumpido;
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lee un archivo properties entrada por entrada, sin cargarlo completo en
+ * un {@link java.util.Properties}. Sigue las reglas de
+ * {@link java.util.Properties#load(Reader)}: comentarios con # o !, clave
+ * separada por =, : o espacio, líneas continuadas con \ y secuencias de
+ * escape, incluidas las \\uXXXX. El archivo se lee en UTF-8.
+ *
+ * A diferencia de Properties, las entradas se entregan en el orden del
+ * archivo y las claves repetidas no se reemplazan. La clave, el valor y el
+ * texto original se acumulan en buffers que se reutilizan en cada entrada.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class LectorPropiedades implements Closeable {
+
+    private final EntradaContada entrada;
+    private final Reader lector;
+    private final long bytesTotales;
+    private final char[] bloque = new char[8192];
+    private int posicion;
+    private int limite;
+    private boolean finArchivo;
+    private boolean saltarSalto;
+    private int lineasFisicas;
+    private int numeroLinea;
+    private String error;
+
+    private final StringBuilder fisica = new StringBuilder(256);
+    private final StringBuilder logica = new StringBuilder(256);
+    private final StringBuilder original = new StringBuilder(256);
+    private final StringBuilder clave = new StringBuilder(64);
+    private final StringBuilder valor = new StringBuilder(256);
+
+    /**
+     * Abre un archivo properties.
+     *
+     * @param nombreArchivo Ruta del archivo
+     * @throws IOException Si no se puede abrir
+     */
+    public LectorPropiedades(String nombreArchivo) throws IOException {
+        FileInputStream archivo = new FileInputStream(nombreArchivo);
+        this.bytesTotales = archivo.getChannel().size();
+        this.entrada = new EntradaContada(archivo);
+        this.lector = new InputStreamReader(entrada, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Avanza a la siguiente entrada, saltando comentarios y líneas en blanco.
+     *
+     * @return true si hay una entrada, false al llegar al final del archivo
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public boolean siguiente() throws IOException {
+        while (leerLineaFisica()) {
+            int inicio = saltarEspacios(fisica, 0);
+            if (inicio == fisica.length()) {
+                continue;
+            }
+            char primero = fisica.charAt(inicio);
+            if (primero == '#' || primero == '!') {
+                continue;
+            }
+            numeroLinea = lineasFisicas;
+            logica.setLength(0);
+            original.setLength(0);
+            original.append(fisica);
+            logica.append(fisica, inicio, fisica.length());
+            while (terminaEnContinuacion(logica) && leerLineaFisica()) {
+                logica.setLength(logica.length() - 1);
+                logica.append(fisica, saltarEspacios(fisica, 0), fisica.length());
+                original.append('\n').append(fisica);
+            }
+            if (terminaEnContinuacion(logica)) {
+                logica.setLength(logica.length() - 1);
+            }
+            separar();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return Clave de la entrada actual, válida hasta la siguiente llamada a {@link #siguiente()}
+     */
+    public CharSequence getClave() {
+        return clave;
+    }
+
+    /**
+     * @return Valor de la entrada actual, válido hasta la siguiente llamada a {@link #siguiente()}
+     */
+    public CharSequence getValor() {
+        return valor;
+    }
+
+    /**
+     * @return Texto de la entrada tal como aparece en el archivo, con sus líneas continuadas
+     */
+    public String getTextoOriginal() {
+        return original.toString();
+    }
+
+    /**
+     * @return Descripción del error de formato de la entrada actual, o null si es válida
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return Número de la primera línea de la entrada actual, desde 1
+     */
+    public int getNumeroLinea() {
+        return numeroLinea;
+    }
+
+    /**
+     * @return Bytes leídos del archivo hasta ahora; el lector lee por bloques,
+     * así que puede ir por delante de la entrada actual
+     */
+    public long getBytesLeidos() {
+        return entrada.leidos;
+    }
+
+    /**
+     * @return Tamaño del archivo en bytes
+     */
+    public long getBytesTotales() {
+        return bytesTotales;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lector.close();
+    }
+
+    /**
+     * Separa la línea lógica en clave y valor, resolviendo los escapes.
+     */
+    private void separar() {
+        clave.setLength(0);
+        valor.setLength(0);
+        error = null;
+        int i = 0;
+        int longitud = logica.length();
+        while (i < longitud) {
+            char c = logica.charAt(i);
+            if (c == '\\' && i + 1 < longitud) {
+                i = escape(logica, i + 1, clave);
+                if (i < 0) {
+                    error = "secuencia \\uXXXX mal formada en la clave";
+                    return;
+                }
+                continue;
+            }
+            if (c == '=' || c == ':' || esEspacio(c)) {
+                break;
+            }
+            clave.append(c);
+            i++;
+        }
+        i = saltarEspacios(logica, i);
+        if (i < longitud && (logica.charAt(i) == '=' || logica.charAt(i) == ':')) {
+            i = saltarEspacios(logica, i + 1);
+        }
+        while (i < longitud) {
+            char c = logica.charAt(i);
+            if (c == '\\' && i + 1 < longitud) {
+                i = escape(logica, i + 1, valor);
+                if (i < 0) {
+                    error = "secuencia \\uXXXX mal formada en el valor";
+                    return;
+                }
+            } else {
+                valor.append(c);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Resuelve la secuencia de escape que empieza en la posición indicada,
+     * justo después de la barra.
+     *
+     * @return Posición siguiente a la secuencia, o -1 si está mal formada
+     */
+    private static int escape(CharSequence texto, int i, StringBuilder destino) {
+        char c = texto.charAt(i);
+        switch (c) {
+            case 't': destino.append('\t'); return i + 1;
+            case 'n': destino.append('\n'); return i + 1;
+            case 'r': destino.append('\r'); return i + 1;
+            case 'f': destino.append('\f'); return i + 1;
+            case 'u':
+                if (i + 4 >= texto.length()) {
+                    return -1;
+                }
+                int codigo = 0;
+                for (int j = i + 1; j <= i + 4; j++) {
+                    int digito = Character.digit(texto.charAt(j), 16);
+                    if (digito < 0) {
+                        return -1;
+                    }
+                    codigo = (codigo << 4) | digito;
+                }
+                destino.append((char) codigo);
+                return i + 5;
+            default: destino.append(c); return i + 1;
+        }
+    }
+
+    /**
+     * Una línea continúa en la siguiente si termina en un número impar de barras.
+     */
+    private static boolean terminaEnContinuacion(CharSequence linea) {
+        int barras = 0;
+        for (int i = linea.length() - 1; i >= 0 && linea.charAt(i) == '\\'; i--) {
+            barras++;
+        }
+        return (barras & 1) == 1;
+    }
+
+    private static int saltarEspacios(CharSequence texto, int i) {
+        while (i < texto.length() && esEspacio(texto.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean esEspacio(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    /**
+     * Lee la siguiente línea física en {@link #fisica}, sin el salto de línea.
+     * Acepta saltos \n, \r y \r\n.
+     */
+    private boolean leerLineaFisica() throws IOException {
+        fisica.setLength(0);
+        while (true) {
+            if (posicion == limite) {
+                if (finArchivo) {
+                    return false;
+                }
+                limite = lector.read(bloque);
+                posicion = 0;
+                if (limite <= 0) {
+                    limite = 0;
+                    finArchivo = true;
+                    if (fisica.length() == 0) {
+                        return false;
+                    }
+                    lineasFisicas++;
+                    return true;
+                }
+            }
+            if (saltarSalto) {
+                saltarSalto = false;
+                if (bloque[posicion] == '\n') {
+                    posicion++;
+                    continue;
+                }
+            }
+            int inicio = posicion;
+            while (posicion < limite && bloque[posicion] != '\n' && bloque[posicion] != '\r') {
+                posicion++;
+            }
+            fisica.append(bloque, inicio, posicion - inicio);
+            if (posicion < limite) {
+                saltarSalto = bloque[posicion] == '\r';
+                posicion++;
+                lineasFisicas++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Cuenta los bytes leídos del archivo para informar el progreso.
+     */
+    private static final class EntradaContada extends FilterInputStream {
+        private volatile long leidos;
+
+        private EntradaContada(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                leidos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int desde, int cantidad) throws IOException {
+            int n = super.read(b, desde, cantidad);
+            if (n > 0) {
+                leidos += n;
+            }
+            return n;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package udistrital.avanzada.veterinaria.modelo;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interfaz que define las operaciones de acceso a datos para la entidad Mascota.
@@ -11,6 +14,16 @@ import java.util.List;
  */
 public interface MascotaDAO {
     
+    /**
+     * Número de filas enviadas por cada ejecución de lote por defecto
+     */
+    int TAMANO_LOTE_POR_DEFECTO = 500;
+    
+    /**
+     * Número de filas leídas por cada viaje a la base de datos al recorrer el catálogo
+     */
+    int TAMANO_FETCH_POR_DEFECTO = 1000;
+    
     /**
      * Agrega una nueva mascota a la base de datos
      * 
@@ -19,6 +32,29 @@ public interface MascotaDAO {
      */
     void agregarMascota(Mascota mascota) throws Exception;
     
+    /**
+     * Agrega varias mascotas en una sola transacción usando lotes JDBC.
+     * Las mascotas cuyo apodo ya existe se ignoran en la base de datos,
+     * sin consultar su existencia previamente.
+     * 
+     * @param mascotas Las mascotas a agregar
+     * @param tamanoLote Número de filas enviadas por cada ejecución de lote
+     * @return Resultado con el estado de cada fila, en el orden de la lista
+     * @throws Exception Si ocurre un error; en ese caso no se inserta ninguna fila
+     */
+    ResultadoLote insertarMascotasEnLote(List<Mascota> mascotas, int tamanoLote) throws Exception;
+    
+    /**
+     * Agrega varias mascotas usando el tamaño de lote por defecto
+     * 
+     * @param mascotas Las mascotas a agregar
+     * @return Resultado con el estado de cada fila, en el orden de la lista
+     * @throws Exception Si ocurre un error; en ese caso no se inserta ninguna fila
+     */
+    default ResultadoLote insertarMascotasEnLote(List<Mascota> mascotas) throws Exception {
+        return insertarMascotasEnLote(mascotas, TAMANO_LOTE_POR_DEFECTO);
+    }
+    
     /**
      * Consulta una mascota por su apodo
      * 
@@ -63,6 +99,105 @@ public interface MascotaDAO {
      */
     List<Mascota> obtenerTodasLasMascotas() throws Exception;
     
+    /**
+     * Obtiene una página del catálogo ordenado por apodo, continuando después
+     * del apodo indicado (paginación por conjunto de claves)
+     * 
+     * @param despuesDeApodo Apodo de la última mascota ya leída, o null para la primera página
+     * @param tamano Número máximo de mascotas de la página
+     * @return Mascotas de la página; vacía al llegar al final
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    List<Mascota> obtenerPaginaMascotas(String despuesDeApodo, int tamano) throws Exception;
+    
+    /**
+     * Cuenta las mascotas que cumplen el filtro de un criterio de listado
+     * 
+     * @param criterio Criterio con el filtro a aplicar
+     * @return Número de mascotas
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    int contarMascotas(CriterioListado criterio) throws Exception;
+    
+    /**
+     * Obtiene una ventana del listado definido por un criterio, ordenado y
+     * filtrado en la base de datos. Si se conoce la fila anterior a la ventana
+     * se continúa desde ella por cursor; si no, se salta hasta la posición
+     * 
+     * @param criterio Orden y filtro del listado
+     * @param desde Posición de la primera fila de la ventana
+     * @param cantidad Número máximo de filas
+     * @param anterior Fila en la posición desde - 1, o null si no se conoce
+     * @return Mascotas de la ventana
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    List<Mascota> obtenerVentanaMascotas(CriterioListado criterio, int desde, int cantidad, Mascota anterior)
+            throws Exception;
+    
+    /**
+     * Consulta las mascotas que cumplen todos los criterios de una consulta,
+     * con una única sentencia parametrizada que filtra, ordena y pagina en
+     * la base de datos
+     * 
+     * @param consulta Criterios, orden y página
+     * @return Mascotas resultantes
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    List<Mascota> consultarMascotas(MascotaQuery consulta) throws Exception;
+    
+    /**
+     * Cuenta las mascotas que cumplen los filtros de una consulta, sin tener
+     * en cuenta su página
+     * 
+     * @param consulta Criterios a aplicar
+     * @return Número de mascotas
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    int contarMascotas(MascotaQuery consulta) throws Exception;
+    
+    /**
+     * Cuenta las mascotas de cada valor de una columna con un GROUP BY en
+     * la base de datos
+     * 
+     * @param columna Columna por la que agrupar, de {@link CriterioListado#COLUMNAS}
+     * @return Número de mascotas por valor, ordenado por valor
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    Map<String, Integer> contarPorGrupo(String columna) throws Exception;
+    
+    /**
+     * Recorre todas las mascotas ordenadas por apodo, entregándolas una a una
+     * sin acumularlas en memoria
+     * 
+     * @param accion Acción a aplicar a cada mascota
+     * @param tamanoFetch Número de filas leídas por cada viaje a la base de datos
+     * @return Número de mascotas recorridas
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    long recorrerMascotas(Consumer<Mascota> accion, int tamanoFetch) throws Exception;
+    
+    /**
+     * Recorre todas las mascotas con el tamaño de fetch por defecto
+     * 
+     * @param accion Acción a aplicar a cada mascota
+     * @return Número de mascotas recorridas
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    default long recorrerMascotas(Consumer<Mascota> accion) throws Exception {
+        return recorrerMascotas(accion, TAMANO_FETCH_POR_DEFECTO);
+    }
+    
+    /**
+     * Abre un flujo perezoso sobre todas las mascotas ordenadas por apodo.
+     * El flujo mantiene abierta la consulta hasta cerrarse, por lo que debe
+     * usarse dentro de un try-with-resources
+     * 
+     * @param tamanoFetch Número de filas leídas por cada viaje a la base de datos
+     * @return Flujo de mascotas
+     * @throws Exception Si ocurre un error al abrir la consulta
+     */
+    Stream<Mascota> streamMascotas(int tamanoFetch) throws Exception;
+    
     /**
      * Modifica los datos de una mascota existente
      * 
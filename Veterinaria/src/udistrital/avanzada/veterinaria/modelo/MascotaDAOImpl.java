@@ -5,25 +5,94 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementación de la interfaz MascotaDAO que maneja las operaciones CRUD
  * para la entidad Mascota utilizando SQLite como base de datos.
  * Utiliza PreparedStatement para prevenir inyección SQL.
  * 
+ * Si se activa un {@link BusCambios} con {@link #activarBusCambios(int)},
+ * cada alta, modificación o baja se registra en la tabla cambios_mascotas
+ * dentro de la misma transacción que la escritura y, una vez confirmada,
+ * se publica en el bus; si la transacción se revierte, la secuencia
+ * reservada se descarta.
+ * 
  * @author Sistema Veterinaria
  * @version 1.0
  */
 public class MascotaDAOImpl implements MascotaDAO {
     
+    /**
+     * Propiedad del sistema con los días que se conservan los cambios en
+     * la tabla cambios_mascotas, por ejemplo {@code -Dveterinaria.busCambios.retencionDias=30}
+     */
+    public static final String PROPIEDAD_RETENCION_DIAS = "veterinaria.busCambios.retencionDias";
+    
+    /**
+     * Días que se conservan los cambios si no se define la propiedad
+     */
+    public static final int RETENCION_DIAS_POR_DEFECTO = 7;
+    
     private ConexionBD conexionBD;
+    private CambiosDAO cambiosDAO;
+    private volatile BusCambios busCambios;
     
     /**
      * Constructor que inicializa la conexión a la base de datos
      */
     public MascotaDAOImpl() {
         this.conexionBD = ConexionBD.getInstance();
+        this.cambiosDAO = new CambiosDAOImpl();
+    }
+    
+    /**
+     * Activa la captura de cambios: borra los cambios más antiguos que la
+     * retención ({@value #PROPIEDAD_RETENCION_DIAS}), crea un bus que
+     * continúa la secuencia de la tabla de cambios y lo alimenta con las
+     * escrituras siguientes. Si ya estaba activa devuelve el bus existente
+     * 
+     * @param capacidad Secuencias que el bus conserva en memoria
+     * @return El bus de cambios
+     * @throws Exception Si no se pudo consultar la tabla de cambios
+     */
+    public synchronized BusCambios activarBusCambios(int capacidad) throws Exception {
+        if (busCambios == null) {
+            long retencionDias = Long.getLong(PROPIEDAD_RETENCION_DIAS, RETENCION_DIAS_POR_DEFECTO);
+            try {
+                cambiosDAO.depurar(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retencionDias));
+            } catch (Exception e) {
+                // Sin depurar, la tabla solo crece; la captura de cambios sigue funcionando
+                System.err.println(e.getMessage());
+            }
+            busCambios = new BusCambios((desde, hasta, maximo) -> {
+                try {
+                    return cambiosDAO.leer(desde, hasta, maximo);
+                } catch (Exception e) {
+                    System.err.println(e.getMessage());
+                    return null;
+                }
+            }, cambiosDAO.ultimaSecuencia(), capacidad);
+        }
+        return busCambios;
+    }
+    
+    /**
+     * Obtiene el bus de cambios
+     * 
+     * @return El bus, o null si la captura de cambios no está activa
+     */
+    public BusCambios getBusCambios() {
+        return busCambios;
     }
     
     /**
@@ -44,12 +113,73 @@ public class MascotaDAOImpl implements MascotaDAO {
             pstmt.setString(6, mascota.getEspecie());
             pstmt.setString(7, mascota.getTipoAlimentoPrincipal().name());
             
-            pstmt.executeUpdate();
+            escribirFila(conn, pstmt, new EventoCambio(EventoCambio.Tipo.INSERTADA, mascota.getApodo(), mascota));
         } catch (SQLException e) {
             throw new Exception("Error al agregar mascota: " + e.getMessage());
         }
     }
     
+    /**
+     * {@inheritDoc}
+     * Usa {@code INSERT OR IGNORE} para resolver los duplicados en SQLite.
+     * Con el bus de cambios activo, se registra un cambio por cada fila
+     * insertada, no por las duplicadas.
+     */
+    @Override
+    public ResultadoLote insertarMascotasEnLote(List<Mascota> mascotas, int tamanoLote) throws Exception {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo: " + tamanoLote);
+        }
+        String sql = "INSERT OR IGNORE INTO mascotas (nombre_comun, apodo, clasificacion, familia, genero, especie, tipo_alimento) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        ResultadoLote resultado = new ResultadoLote(mascotas.size());
+        if (mascotas.isEmpty()) {
+            return resultado;
+        }
+        BusCambios bus = busCambios;
+        List<EventoCambio> eventos = Collections.emptyList();
+        boolean confirmado = false;
+        
+        try (Connection conn = conexionBD.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int inicioLote = 0;
+                for (int i = 0; i < mascotas.size(); i++) {
+                    Mascota mascota = mascotas.get(i);
+                    pstmt.setString(1, mascota.getNombreComun());
+                    pstmt.setString(2, mascota.getApodo());
+                    pstmt.setString(3, mascota.getClasificacion().name());
+                    pstmt.setString(4, mascota.getFamilia());
+                    pstmt.setString(5, mascota.getGenero());
+                    pstmt.setString(6, mascota.getEspecie());
+                    pstmt.setString(7, mascota.getTipoAlimentoPrincipal().name());
+                    pstmt.addBatch();
+                    if (i + 1 - inicioLote == tamanoLote || i == mascotas.size() - 1) {
+                        resultado.registrar(inicioLote, pstmt.executeBatch());
+                        inicioLote = i + 1;
+                    }
+                }
+                if (bus != null) {
+                    eventos = reservarCambios(bus, cambiosInsercion(mascotas, resultado));
+                    cambiosDAO.registrar(conn, eventos);
+                }
+                conn.commit();
+                confirmado = true;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                resultado.marcarFallido();
+                throw e;
+            } finally {
+                restaurarAutoCommit(conn, confirmado);
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error al agregar mascotas en lote: " + e.getMessage());
+        } finally {
+            cerrarCambios(bus, eventos, confirmado);
+        }
+        
+        return resultado;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -174,6 +304,246 @@ public class MascotaDAOImpl implements MascotaDAO {
         return mascotas;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> obtenerPaginaMascotas(String despuesDeApodo, int tamano) throws Exception {
+        String sql = despuesDeApodo == null
+                ? "SELECT * FROM mascotas ORDER BY apodo LIMIT ?"
+                : "SELECT * FROM mascotas WHERE apodo > ? ORDER BY apodo LIMIT ?";
+        List<Mascota> mascotas = new ArrayList<>();
+        
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            if (despuesDeApodo == null) {
+                pstmt.setInt(1, tamano);
+            } else {
+                pstmt.setString(1, despuesDeApodo);
+                pstmt.setInt(2, tamano);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                mascotas.add(mapearResultSetAMascota(rs));
+            }
+            
+        } catch (SQLException e) {
+            throw new Exception("Error al obtener la página de mascotas: " + e.getMessage());
+        }
+        
+        return mascotas;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int contarMascotas(CriterioListado criterio) throws Exception {
+        String condicion = criterio.condicionFiltro();
+        String sql = "SELECT COUNT(*) FROM mascotas" + (condicion == null ? "" : " WHERE " + condicion);
+        
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            if (condicion != null) {
+                pstmt.setString(1, criterio.getValorFiltro());
+            }
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+            
+        } catch (SQLException e) {
+            throw new Exception("Error al contar las mascotas: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> obtenerVentanaMascotas(CriterioListado criterio, int desde, int cantidad, Mascota anterior)
+            throws Exception {
+        boolean porCursor = anterior != null;
+        String condicion = criterio.condicionFiltro();
+        StringBuilder sql = new StringBuilder("SELECT * FROM mascotas");
+        if (condicion != null || porCursor) {
+            sql.append(" WHERE ");
+            if (condicion != null) {
+                sql.append(condicion);
+                if (porCursor) {
+                    sql.append(" AND ");
+                }
+            }
+            if (porCursor) {
+                sql.append(criterio.condicionCursor());
+            }
+        }
+        sql.append(criterio.clausulaOrden()).append(porCursor ? " LIMIT ?" : " LIMIT ? OFFSET ?");
+        List<Mascota> mascotas = new ArrayList<>();
+        
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            int i = 1;
+            if (condicion != null) {
+                pstmt.setString(i++, criterio.getValorFiltro());
+            }
+            if (porCursor) {
+                String valor = criterio.valorOrden(anterior);
+                pstmt.setString(i++, valor);
+                pstmt.setString(i++, valor);
+                pstmt.setString(i++, anterior.getApodo());
+            }
+            pstmt.setInt(i++, cantidad);
+            if (!porCursor) {
+                pstmt.setInt(i, desde);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                mascotas.add(mapearResultSetAMascota(rs));
+            }
+            
+        } catch (SQLException e) {
+            throw new Exception("Error al obtener la ventana de mascotas: " + e.getMessage());
+        }
+        
+        return mascotas;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> consultarMascotas(MascotaQuery consulta) throws Exception {
+        List<Object> parametros = new ArrayList<>();
+        String sql = consulta.sql(parametros);
+        List<Mascota> mascotas = new ArrayList<>();
+        
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            asignarParametros(pstmt, parametros);
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                mascotas.add(mapearResultSetAMascota(rs));
+            }
+            
+        } catch (SQLException e) {
+            throw new Exception("Error al consultar las mascotas: " + e.getMessage());
+        }
+        
+        return mascotas;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int contarMascotas(MascotaQuery consulta) throws Exception {
+        List<Object> parametros = new ArrayList<>();
+        String sql = consulta.sqlConteo(parametros);
+        
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            asignarParametros(pstmt, parametros);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+            
+        } catch (SQLException e) {
+            throw new Exception("Error al contar las mascotas: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Integer> contarPorGrupo(String columna) throws Exception {
+        if (!CriterioListado.COLUMNAS.contains(columna)) {
+            throw new IllegalArgumentException("Columna no válida: " + columna);
+        }
+        String sql = "SELECT " + columna + ", COUNT(*) FROM mascotas GROUP BY " + columna + " ORDER BY " + columna;
+        Map<String, Integer> conteos = new LinkedHashMap<>();
+        
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                conteos.put(rs.getString(1), rs.getInt(2));
+            }
+            
+        } catch (SQLException e) {
+            throw new Exception("Error al agrupar las mascotas: " + e.getMessage());
+        }
+        
+        return conteos;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long recorrerMascotas(Consumer<Mascota> accion, int tamanoFetch) throws Exception {
+        long recorridas = 0;
+        
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = prepararRecorrido(conn, tamanoFetch);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                accion.accept(mapearResultSetAMascota(rs));
+                recorridas++;
+            }
+            
+        } catch (SQLException e) {
+            throw new Exception("Error al recorrer las mascotas: " + e.getMessage());
+        }
+        
+        return recorridas;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * Si falla la lectura de una fila durante el recorrido se lanza
+     * IllegalStateException.
+     */
+    @Override
+    public Stream<Mascota> streamMascotas(int tamanoFetch) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        try {
+            conn = conexionBD.getConnection();
+            pstmt = prepararRecorrido(conn, tamanoFetch);
+            ResultSet rs = pstmt.executeQuery();
+            Spliterator<Mascota> filas = new Spliterators.AbstractSpliterator<Mascota>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Mascota> accion) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        accion.accept(mapearResultSetAMascota(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Error al recorrer las mascotas: " + e.getMessage(), e);
+                    }
+                }
+            };
+            Connection conexion = conn;
+            PreparedStatement sentencia = pstmt;
+            return StreamSupport.stream(filas, false).onClose(() -> cerrarRecorrido(rs, sentencia, conexion));
+        } catch (SQLException e) {
+            cerrarRecorrido(null, pstmt, conn);
+            throw new Exception("Error al recorrer las mascotas: " + e.getMessage());
+        }
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -192,7 +562,8 @@ public class MascotaDAOImpl implements MascotaDAO {
             pstmt.setString(6, mascota.getTipoAlimentoPrincipal().name());
             pstmt.setString(7, mascota.getApodo());
             
-            int filasAfectadas = pstmt.executeUpdate();
+            int filasAfectadas = escribirFila(conn, pstmt,
+                    new EventoCambio(EventoCambio.Tipo.MODIFICADA, mascota.getApodo(), mascota));
             if (filasAfectadas == 0) {
                 throw new Exception("No se encontró la mascota con apodo: " + mascota.getApodo());
             }
@@ -214,7 +585,7 @@ public class MascotaDAOImpl implements MascotaDAO {
             
             pstmt.setString(1, apodo);
             
-            int filasAfectadas = pstmt.executeUpdate();
+            int filasAfectadas = escribirFila(conn, pstmt, new EventoCambio(EventoCambio.Tipo.ELIMINADA, apodo, null));
             if (filasAfectadas == 0) {
                 throw new Exception("No se encontró la mascota con apodo: " + apodo);
             }
@@ -248,6 +619,189 @@ public class MascotaDAOImpl implements MascotaDAO {
         return false;
     }
     
+    /**
+     * Ejecuta la escritura de una fila. Con el bus de cambios activo, la
+     * ejecuta en una transacción junto con el registro de su cambio, si
+     * afectó alguna fila, y publica el cambio tras confirmarla
+     * 
+     * @param conn La conexión de la sentencia
+     * @param pstmt La sentencia, con sus parámetros asignados
+     * @param evento Cambio que produce la escritura, aún sin secuencia
+     * @return Número de filas afectadas
+     * @throws SQLException Si ocurre un error al escribir; la transacción se revierte
+     */
+    private int escribirFila(Connection conn, PreparedStatement pstmt, EventoCambio evento) throws SQLException {
+        BusCambios bus = busCambios;
+        if (bus == null) {
+            return pstmt.executeUpdate();
+        }
+        List<EventoCambio> eventos = Collections.emptyList();
+        boolean confirmado = false;
+        try {
+            conn.setAutoCommit(false);
+            try {
+                int filasAfectadas = pstmt.executeUpdate();
+                if (filasAfectadas > 0) {
+                    eventos = reservarCambios(bus, List.of(evento));
+                    cambiosDAO.registrar(conn, eventos);
+                }
+                conn.commit();
+                confirmado = true;
+                return filasAfectadas;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                restaurarAutoCommit(conn, confirmado);
+            }
+        } finally {
+            cerrarCambios(bus, eventos, confirmado);
+        }
+    }
+    
+    /**
+     * Devuelve la conexión al modo autocommit tras una transacción. Si la
+     * transacción ya se confirmó, un fallo aquí no la deshace: se informa
+     * sin propagarlo, para no dar por fallida una escritura que quedó
+     * guardada; al cerrar la conexión se vuelve a intentar
+     * 
+     * @param conn La conexión de la transacción
+     * @param confirmado Si la transacción se confirmó
+     * @throws SQLException Si falla y la transacción no se confirmó
+     */
+    private void restaurarAutoCommit(Connection conn, boolean confirmado) throws SQLException {
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            if (!confirmado) {
+                throw e;
+            }
+            System.err.println("Error al restaurar el autocommit tras confirmar: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reserva en el bus secuencias consecutivas para unos cambios
+     * 
+     * @param bus El bus de cambios
+     * @param cambios Cambios aún sin secuencia
+     * @return Los cambios con sus secuencias
+     */
+    private List<EventoCambio> reservarCambios(BusCambios bus, List<EventoCambio> cambios) {
+        if (cambios.isEmpty()) {
+            return cambios;
+        }
+        long primera = bus.reservar(cambios.size());
+        List<EventoCambio> eventos = new ArrayList<>(cambios.size());
+        for (int i = 0; i < cambios.size(); i++) {
+            eventos.add(cambios.get(i).conSecuencia(primera + i));
+        }
+        return eventos;
+    }
+    
+    /**
+     * Publica los cambios de una transacción confirmada o descarta sus
+     * secuencias si se revirtió; sin esto las suscripciones no pasarían de
+     * la primera secuencia pendiente
+     */
+    private void cerrarCambios(BusCambios bus, List<EventoCambio> eventos, boolean confirmado) {
+        if (bus == null || eventos.isEmpty()) {
+            return;
+        }
+        if (confirmado) {
+            bus.publicar(eventos);
+        } else {
+            bus.descartar(eventos);
+        }
+    }
+    
+    /**
+     * Describe los cambios de una inserción por lotes: uno por cada fila
+     * insertada y, sin estado, uno por cada fila de la que el driver no
+     * informó si se insertó
+     * 
+     * @param mascotas Las mascotas enviadas
+     * @param resultado El resultado de cada fila
+     * @return Los cambios, aún sin secuencia
+     */
+    private List<EventoCambio> cambiosInsercion(List<Mascota> mascotas, ResultadoLote resultado) {
+        List<EventoCambio> cambios = new ArrayList<>();
+        for (int i = 0; i < mascotas.size(); i++) {
+            Mascota mascota = mascotas.get(i);
+            ResultadoLote.Estado estado = resultado.getEstado(i);
+            if (estado == ResultadoLote.Estado.INSERTADA) {
+                cambios.add(new EventoCambio(EventoCambio.Tipo.INSERTADA, mascota.getApodo(), mascota));
+            } else if (estado == ResultadoLote.Estado.SIN_INFORMACION) {
+                cambios.add(new EventoCambio(EventoCambio.Tipo.INSERTADA, mascota.getApodo(), null));
+            }
+        }
+        return cambios;
+    }
+    
+    /**
+     * Prepara la consulta del catálogo completo para leerse por tramos
+     * 
+     * @param conn La conexión a usar
+     * @param tamanoFetch Número de filas leídas por cada viaje a la base de datos
+     * @return La sentencia preparada
+     * @throws SQLException Si ocurre un error al preparar la consulta
+     */
+    private PreparedStatement prepararRecorrido(Connection conn, int tamanoFetch) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM mascotas ORDER BY apodo",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(tamanoFetch);
+        return pstmt;
+    }
+    
+    /**
+     * Asigna en orden los parámetros de una consulta compilada
+     * 
+     * @param pstmt La sentencia a completar
+     * @param parametros Valores de los parámetros
+     * @throws SQLException Si ocurre un error al asignarlos
+     */
+    private void asignarParametros(PreparedStatement pstmt, List<Object> parametros) throws SQLException {
+        for (int i = 0; i < parametros.size(); i++) {
+            pstmt.setObject(i + 1, parametros.get(i));
+        }
+    }
+    
+    /**
+     * Cierra los recursos de un recorrido, en orden inverso a su apertura
+     */
+    private void cerrarRecorrido(ResultSet rs, PreparedStatement pstmt, Connection conn) {
+        SQLException error = cerrar(rs, null);
+        error = cerrar(pstmt, error);
+        error = cerrar(conn, error);
+        if (error != null) {
+            System.err.println("Error al cerrar el recorrido de mascotas: " + error.getMessage());
+        }
+    }
+    
+    /**
+     * Cierra un recurso, si existe, acumulando su error como suprimido del
+     * primero, igual que un try-with-resources
+     * 
+     * @param recurso Recurso a cerrar, o null
+     * @param error Primer error de los recursos ya cerrados, o null
+     * @return El primer error, o null si no hubo ninguno
+     */
+    private static SQLException cerrar(AutoCloseable recurso, SQLException error) {
+        if (recurso == null) {
+            return error;
+        }
+        try {
+            recurso.close();
+        } catch (Exception e) {
+            SQLException actual = e instanceof SQLException ? (SQLException) e : new SQLException(e);
+            if (error == null) {
+                return actual;
+            }
+            error.addSuppressed(actual);
+        }
+        return error;
+    }
+    
     /**
      * Mapea un ResultSet a un objeto Mascota
      * 
@@ -0,0 +1,290 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Decorador de MascotaDAO que mide la duración de cada operación en el
+ * histograma {@code dao.<método>} del registro global de métricas.
+ * 
+ * Cada método toma el tiempo alrededor del DAO decorado; los histogramas se
+ * obtienen una sola vez, así que medir no bloquea ni crea objetos. Los
+ * métodos por defecto de la interfaz se miden a través de la versión
+ * completa que invocan. En streamMascotas se mide solo la apertura de la
+ * consulta, porque el recorrido lo hace el llamador
+ * 
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class MascotaDAOMedido implements MascotaDAO {
+    
+    private static final Histograma AGREGAR_MASCOTA = medir("agregarMascota");
+    private static final Histograma INSERTAR_MASCOTAS_EN_LOTE = medir("insertarMascotasEnLote");
+    private static final Histograma CONSULTAR_POR_APODO = medir("consultarPorApodo");
+    private static final Histograma CONSULTAR_POR_CLASIFICACION = medir("consultarPorClasificacion");
+    private static final Histograma CONSULTAR_POR_FAMILIA = medir("consultarPorFamilia");
+    private static final Histograma CONSULTAR_POR_TIPO_ALIMENTO = medir("consultarPorTipoAlimento");
+    private static final Histograma OBTENER_TODAS_LAS_MASCOTAS = medir("obtenerTodasLasMascotas");
+    private static final Histograma OBTENER_PAGINA_MASCOTAS = medir("obtenerPaginaMascotas");
+    private static final Histograma CONTAR_MASCOTAS = medir("contarMascotas");
+    private static final Histograma OBTENER_VENTANA_MASCOTAS = medir("obtenerVentanaMascotas");
+    private static final Histograma CONSULTAR_MASCOTAS = medir("consultarMascotas");
+    private static final Histograma CONTAR_POR_GRUPO = medir("contarPorGrupo");
+    private static final Histograma RECORRER_MASCOTAS = medir("recorrerMascotas");
+    private static final Histograma STREAM_MASCOTAS = medir("streamMascotas");
+    private static final Histograma MODIFICAR_MASCOTA = medir("modificarMascota");
+    private static final Histograma ELIMINAR_MASCOTA = medir("eliminarMascota");
+    private static final Histograma EXISTE_MASCOTA = medir("existeMascota");
+    
+    private final MascotaDAO delegado;
+    
+    /**
+     * Constructor que recibe el DAO a medir
+     * 
+     * @param delegado El DAO que realiza las operaciones
+     */
+    public MascotaDAOMedido(MascotaDAO delegado) {
+        this.delegado = delegado;
+    }
+    
+    private static Histograma medir(String operacion) {
+        return RegistroMetricas.global().histograma("dao." + operacion);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void agregarMascota(Mascota mascota) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            delegado.agregarMascota(mascota);
+        } finally {
+            AGREGAR_MASCOTA.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResultadoLote insertarMascotasEnLote(List<Mascota> mascotas, int tamanoLote) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.insertarMascotasEnLote(mascotas, tamanoLote);
+        } finally {
+            INSERTAR_MASCOTAS_EN_LOTE.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mascota consultarPorApodo(String apodo) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.consultarPorApodo(apodo);
+        } finally {
+            CONSULTAR_POR_APODO.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> consultarPorClasificacion(Clasificacion clasificacion) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.consultarPorClasificacion(clasificacion);
+        } finally {
+            CONSULTAR_POR_CLASIFICACION.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> consultarPorFamilia(String familia) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.consultarPorFamilia(familia);
+        } finally {
+            CONSULTAR_POR_FAMILIA.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> consultarPorTipoAlimento(TipoAlimento tipoAlimento) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.consultarPorTipoAlimento(tipoAlimento);
+        } finally {
+            CONSULTAR_POR_TIPO_ALIMENTO.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> obtenerTodasLasMascotas() throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.obtenerTodasLasMascotas();
+        } finally {
+            OBTENER_TODAS_LAS_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> obtenerPaginaMascotas(String despuesDeApodo, int tamano) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.obtenerPaginaMascotas(despuesDeApodo, tamano);
+        } finally {
+            OBTENER_PAGINA_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int contarMascotas(CriterioListado criterio) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.contarMascotas(criterio);
+        } finally {
+            CONTAR_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> obtenerVentanaMascotas(CriterioListado criterio, int desde, int cantidad, Mascota anterior)
+            throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.obtenerVentanaMascotas(criterio, desde, cantidad, anterior);
+        } finally {
+            OBTENER_VENTANA_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Mascota> consultarMascotas(MascotaQuery consulta) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.consultarMascotas(consulta);
+        } finally {
+            CONSULTAR_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int contarMascotas(MascotaQuery consulta) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.contarMascotas(consulta);
+        } finally {
+            CONTAR_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Integer> contarPorGrupo(String columna) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.contarPorGrupo(columna);
+        } finally {
+            CONTAR_POR_GRUPO.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long recorrerMascotas(Consumer<Mascota> accion, int tamanoFetch) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.recorrerMascotas(accion, tamanoFetch);
+        } finally {
+            RECORRER_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Mascota> streamMascotas(int tamanoFetch) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.streamMascotas(tamanoFetch);
+        } finally {
+            STREAM_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void modificarMascota(Mascota mascota) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            delegado.modificarMascota(mascota);
+        } finally {
+            MODIFICAR_MASCOTA.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void eliminarMascota(String apodo) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            delegado.eliminarMascota(apodo);
+        } finally {
+            ELIMINAR_MASCOTA.registrarDesde(inicio);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean existeMascota(Mascota mascota) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return delegado.existeMascota(mascota);
+        } finally {
+            EXISTE_MASCOTA.registrarDesde(inicio);
+        }
+    }
+}
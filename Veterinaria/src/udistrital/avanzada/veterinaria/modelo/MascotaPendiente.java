@@ -0,0 +1,60 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+/**
+ * Mascota importada con datos faltantes, guardada en la tabla de
+ * pendientes hasta que se complete desde la lista de trabajo.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class MascotaPendiente {
+
+    private final long id;
+    private final Mascota mascota;
+
+    /**
+     * Constructor que asocia la mascota con su fila en la tabla de pendientes
+     *
+     * @param id Identificador de la fila
+     * @param mascota Datos de la mascota, posiblemente incompletos
+     */
+    public MascotaPendiente(long id, Mascota mascota) {
+        this.id = id;
+        this.mascota = mascota;
+    }
+
+    /**
+     * @return Identificador de la fila en la tabla de pendientes
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return Datos de la mascota; los que faltan son null
+     */
+    public Mascota getMascota() {
+        return mascota;
+    }
+
+    /**
+     * Verifica si ya tiene todos los datos para pasar al catálogo
+     *
+     * @return true si no falta ningún dato
+     */
+    public boolean estaCompleta() {
+        return ImportadorMascotas.estaCompleta(mascota);
+    }
+
+    /**
+     * Crea una copia independiente, para enviarla a la base de datos
+     * mientras la original se sigue editando
+     *
+     * @return Copia de la mascota pendiente
+     */
+    public MascotaPendiente copiar() {
+        return new MascotaPendiente(id, new Mascota(mascota.getNombreComun(), mascota.getApodo(),
+                mascota.getClasificacion(), mascota.getFamilia(), mascota.getGenero(), mascota.getEspecie(),
+                mascota.getTipoAlimentoPrincipal()));
+    }
+}
@@ -0,0 +1,70 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.util.List;
+
+/**
+ * Interfaz que define las operaciones sobre la tabla de mascotas
+ * pendientes: las importadas con datos faltantes, que esperan a
+ * completarse sin detener el inicio de la aplicación.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public interface MascotaPendienteDAO {
+
+    /**
+     * Guarda mascotas incompletas como pendientes. Una mascota con los mismos
+     * datos que otra ya guardada, aunque después se haya completado o
+     * descartado, no se vuelve a agregar, de modo que importar otra vez el
+     * mismo archivo no repite pendientes
+     *
+     * @param mascotas Las mascotas incompletas
+     * @return Número de pendientes nuevas
+     * @throws Exception Si ocurre un error; en ese caso no se guarda ninguna
+     */
+    int agregarPendientes(List<Mascota> mascotas) throws Exception;
+
+    /**
+     * Cuenta las mascotas que siguen pendientes
+     *
+     * @return Número de pendientes
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    int contarPendientes() throws Exception;
+
+    /**
+     * Obtiene las mascotas que siguen pendientes, en el orden en que se guardaron
+     *
+     * @return Lista de pendientes
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    List<MascotaPendiente> listarPendientes() throws Exception;
+
+    /**
+     * Guarda los datos editados de varias pendientes en una transacción
+     *
+     * @param pendientes Las pendientes editadas
+     * @throws Exception Si ocurre un error; en ese caso no se guarda ninguna
+     */
+    void actualizarPendientes(List<MascotaPendiente> pendientes) throws Exception;
+
+    /**
+     * Pasa pendientes ya completas al catálogo en una transacción. Las que
+     * tienen un apodo que ya existe en el catálogo siguen pendientes, para
+     * corregir el apodo
+     *
+     * @param pendientes Las pendientes completas
+     * @return Resultado con el estado de cada una, en el orden de la lista
+     * @throws IllegalArgumentException Si alguna sigue incompleta
+     * @throws Exception Si ocurre un error; en ese caso no se importa ninguna
+     */
+    ResultadoLote completarPendientes(List<MascotaPendiente> pendientes) throws Exception;
+
+    /**
+     * Descarta pendientes sin pasarlas al catálogo
+     *
+     * @param pendientes Las pendientes a descartar
+     * @throws Exception Si ocurre un error; en ese caso no se descarta ninguna
+     */
+    void descartarPendientes(List<MascotaPendiente> pendientes) throws Exception;
+}
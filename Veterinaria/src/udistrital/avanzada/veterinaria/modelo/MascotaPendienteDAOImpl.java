@@ -0,0 +1,266 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación de la interfaz MascotaPendienteDAO sobre la tabla
+ * mascotas_pendientes de SQLite. Las pendientes no se borran al completarse
+ * o descartarse: cambian de estado y conservan la firma de sus datos
+ * originales, para reconocerlas si se vuelven a importar.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class MascotaPendienteDAOImpl implements MascotaPendienteDAO {
+
+    private static final String PENDIENTE = "PENDIENTE";
+    private static final String IMPORTADA = "IMPORTADA";
+    private static final String DESCARTADA = "DESCARTADA";
+
+    private ConexionBD conexionBD;
+
+    /**
+     * Constructor que inicializa la conexión a la base de datos
+     */
+    public MascotaPendienteDAOImpl() {
+        this.conexionBD = ConexionBD.getInstance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int agregarPendientes(List<Mascota> mascotas) throws Exception {
+        String sql = "INSERT OR IGNORE INTO mascotas_pendientes (firma, estado, nombre_comun, apodo, clasificacion, familia, genero, especie, tipo_alimento) VALUES (?, '" + PENDIENTE + "', ?, ?, ?, ?, ?, ?, ?)";
+        if (mascotas.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection conn = conexionBD.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int agregadas = 0;
+                for (int i = 0; i < mascotas.size(); i++) {
+                    Mascota mascota = mascotas.get(i);
+                    pstmt.setString(1, firma(mascota));
+                    asignarDatos(pstmt, 2, mascota);
+                    pstmt.addBatch();
+                    if ((i + 1) % MascotaDAO.TAMANO_LOTE_POR_DEFECTO == 0 || i == mascotas.size() - 1) {
+                        for (int conteo : pstmt.executeBatch()) {
+                            if (conteo > 0 || conteo == Statement.SUCCESS_NO_INFO) {
+                                agregadas++;
+                            }
+                        }
+                    }
+                }
+                conn.commit();
+                return agregadas;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error al agregar mascotas pendientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int contarPendientes() throws Exception {
+        String sql = "SELECT COUNT(*) FROM mascotas_pendientes WHERE estado = '" + PENDIENTE + "'";
+
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw new Exception("Error al contar mascotas pendientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<MascotaPendiente> listarPendientes() throws Exception {
+        String sql = "SELECT * FROM mascotas_pendientes WHERE estado = '" + PENDIENTE + "' ORDER BY id";
+        List<MascotaPendiente> pendientes = new ArrayList<>();
+
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                pendientes.add(new MascotaPendiente(rs.getLong("id"), mapearResultSetAMascota(rs)));
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error al listar mascotas pendientes: " + e.getMessage());
+        }
+
+        return pendientes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void actualizarPendientes(List<MascotaPendiente> pendientes) throws Exception {
+        String sql = "UPDATE mascotas_pendientes SET nombre_comun = ?, apodo = ?, clasificacion = ?, familia = ?, genero = ?, especie = ?, tipo_alimento = ? WHERE id = ?";
+        ejecutarPorPendiente(sql, pendientes, (pstmt, pendiente) -> {
+            asignarDatos(pstmt, 1, pendiente.getMascota());
+            pstmt.setLong(8, pendiente.getId());
+        }, "Error al actualizar mascotas pendientes: ");
+    }
+
+    /**
+     * {@inheritDoc}
+     * Usa {@code INSERT OR IGNORE} para dejar pendientes las de apodo repetido.
+     */
+    @Override
+    public ResultadoLote completarPendientes(List<MascotaPendiente> pendientes) throws Exception {
+        for (MascotaPendiente pendiente : pendientes) {
+            if (!pendiente.estaCompleta()) {
+                throw new IllegalArgumentException("La mascota pendiente " + pendiente.getId() + " está incompleta");
+            }
+        }
+        String sqlInsertar = "INSERT OR IGNORE INTO mascotas (nombre_comun, apodo, clasificacion, familia, genero, especie, tipo_alimento) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sqlMarcar = "UPDATE mascotas_pendientes SET estado = '" + IMPORTADA + "', nombre_comun = ?, apodo = ?, clasificacion = ?, familia = ?, genero = ?, especie = ?, tipo_alimento = ? WHERE id = ?";
+        ResultadoLote resultado = new ResultadoLote(pendientes.size());
+        if (pendientes.isEmpty()) {
+            return resultado;
+        }
+
+        try (Connection conn = conexionBD.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertar = conn.prepareStatement(sqlInsertar);
+                 PreparedStatement marcar = conn.prepareStatement(sqlMarcar)) {
+                for (MascotaPendiente pendiente : pendientes) {
+                    asignarDatos(insertar, 1, pendiente.getMascota());
+                    insertar.addBatch();
+                }
+                resultado.registrar(0, insertar.executeBatch());
+                for (int i = 0; i < pendientes.size(); i++) {
+                    if (resultado.getEstado(i) != ResultadoLote.Estado.DUPLICADA) {
+                        asignarDatos(marcar, 1, pendientes.get(i).getMascota());
+                        marcar.setLong(8, pendientes.get(i).getId());
+                        marcar.addBatch();
+                    }
+                }
+                marcar.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                resultado.marcarFallido();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error al completar mascotas pendientes: " + e.getMessage());
+        }
+
+        return resultado;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void descartarPendientes(List<MascotaPendiente> pendientes) throws Exception {
+        String sql = "UPDATE mascotas_pendientes SET estado = '" + DESCARTADA + "' WHERE id = ?";
+        ejecutarPorPendiente(sql, pendientes, (pstmt, pendiente) -> pstmt.setLong(1, pendiente.getId()),
+                "Error al descartar mascotas pendientes: ");
+    }
+
+    /**
+     * Asigna los parámetros de una sentencia para una pendiente
+     */
+    private interface Asignacion {
+        void asignar(PreparedStatement pstmt, MascotaPendiente pendiente) throws SQLException;
+    }
+
+    /**
+     * Ejecuta una sentencia por pendiente, en lotes y en una transacción
+     */
+    private void ejecutarPorPendiente(String sql, List<MascotaPendiente> pendientes, Asignacion asignacion,
+            String mensajeError) throws Exception {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = conexionBD.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < pendientes.size(); i++) {
+                    asignacion.asignar(pstmt, pendientes.get(i));
+                    pstmt.addBatch();
+                    if ((i + 1) % MascotaDAO.TAMANO_LOTE_POR_DEFECTO == 0 || i == pendientes.size() - 1) {
+                        pstmt.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new Exception(mensajeError + e.getMessage());
+        }
+    }
+
+    /**
+     * Asigna los siete datos de una mascota a partir de un parámetro; los que faltan quedan en NULL
+     */
+    private void asignarDatos(PreparedStatement pstmt, int desde, Mascota mascota) throws SQLException {
+        pstmt.setString(desde, mascota.getNombreComun());
+        pstmt.setString(desde + 1, mascota.getApodo());
+        pstmt.setString(desde + 2, mascota.getClasificacion() == null ? null : mascota.getClasificacion().name());
+        pstmt.setString(desde + 3, mascota.getFamilia());
+        pstmt.setString(desde + 4, mascota.getGenero());
+        pstmt.setString(desde + 5, mascota.getEspecie());
+        pstmt.setString(desde + 6, mascota.getTipoAlimentoPrincipal() == null
+                ? null : mascota.getTipoAlimentoPrincipal().name());
+    }
+
+    /**
+     * Une los datos de la mascota en un texto que identifica la entrada importada
+     */
+    private String firma(Mascota mascota) {
+        StringBuilder firma = new StringBuilder();
+        Object[] datos = {mascota.getNombreComun(), mascota.getApodo(), mascota.getClasificacion(),
+            mascota.getFamilia(), mascota.getGenero(), mascota.getEspecie(), mascota.getTipoAlimentoPrincipal()};
+        for (Object dato : datos) {
+            firma.append(dato == null ? "" : dato).append('\u001F');
+        }
+        return firma.toString();
+    }
+
+    /**
+     * Mapea una fila de mascotas_pendientes a un objeto Mascota, dejando en null los datos que faltan
+     */
+    private Mascota mapearResultSetAMascota(ResultSet rs) throws SQLException {
+        Mascota mascota = new Mascota();
+        mascota.setNombreComun(rs.getString("nombre_comun"));
+        mascota.setApodo(rs.getString("apodo"));
+        String clasificacion = rs.getString("clasificacion");
+        mascota.setClasificacion(clasificacion == null ? null : Clasificacion.valueOf(clasificacion));
+        mascota.setFamilia(rs.getString("familia"));
+        mascota.setGenero(rs.getString("genero"));
+        mascota.setEspecie(rs.getString("especie"));
+        String tipoAlimento = rs.getString("tipo_alimento");
+        mascota.setTipoAlimentoPrincipal(tipoAlimento == null ? null : TipoAlimento.valueOf(tipoAlimento));
+
+        return mascota;
+    }
+}
@@ -0,0 +1,351 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Consulta de mascotas que combina cualquier número de criterios, con orden
+ * por varias columnas y paginación con límite y desplazamiento.
+ *
+ * La misma consulta puede compilarse a una única sentencia SQL
+ * parametrizada, que ejecuta {@link MascotaDAO}, o evaluarse en memoria
+ * sobre un listado ya cargado con {@link #evaluar}. La evaluación en memoria
+ * reproduce las reglas de SQLite: LIKE ignora mayúsculas solo en letras
+ * ASCII, la igualdad las distingue y el orden compara los textos tal cual.
+ *
+ * Las consultas son inmutables: cada método devuelve una copia con el
+ * criterio agregado. Un valor null o vacío no filtra. Como en
+ * {@link CriterioListado}, las columnas de orden se validan contra una lista
+ * fija y el orden se desempata por apodo.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public final class MascotaQuery {
+
+    /**
+     * Consulta sin filtros, ordenada por apodo, igual que obtenerTodasLasMascotas
+     */
+    public static final MascotaQuery TODAS = new MascotaQuery();
+
+    private static final Comparator<String> TEXTO = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private String nombreComun;
+    private String apodo;
+    private Clasificacion clasificacion;
+    private String familia;
+    private String genero;
+    private String especie;
+    private TipoAlimento tipoAlimento;
+    private List<String> columnasOrden;
+    private List<Boolean> sentidosOrden;
+    private int desde;
+    private int cantidad = -1;
+
+    private MascotaQuery() {
+        columnasOrden = List.of("apodo");
+        sentidosOrden = List.of(true);
+    }
+
+    private MascotaQuery(MascotaQuery otra) {
+        nombreComun = otra.nombreComun;
+        apodo = otra.apodo;
+        clasificacion = otra.clasificacion;
+        familia = otra.familia;
+        genero = otra.genero;
+        especie = otra.especie;
+        tipoAlimento = otra.tipoAlimento;
+        columnasOrden = otra.columnasOrden;
+        sentidosOrden = otra.sentidosOrden;
+        desde = otra.desde;
+        cantidad = otra.cantidad;
+    }
+
+    /**
+     * @param texto Texto contenido en el nombre común
+     * @return Copia de esta consulta filtrada por nombre común
+     */
+    public MascotaQuery conNombreComun(String texto) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.nombreComun = normalizar(texto);
+        return copia;
+    }
+
+    /**
+     * @param texto Texto contenido en el apodo
+     * @return Copia de esta consulta filtrada por apodo
+     */
+    public MascotaQuery conApodo(String texto) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.apodo = normalizar(texto);
+        return copia;
+    }
+
+    /**
+     * @param valor Clasificación buscada, o null para no filtrar
+     * @return Copia de esta consulta filtrada por clasificación
+     */
+    public MascotaQuery conClasificacion(Clasificacion valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.clasificacion = valor;
+        return copia;
+    }
+
+    /**
+     * @param valor Familia exacta
+     * @return Copia de esta consulta filtrada por familia
+     */
+    public MascotaQuery conFamilia(String valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.familia = normalizar(valor);
+        return copia;
+    }
+
+    /**
+     * @param valor Género exacto
+     * @return Copia de esta consulta filtrada por género
+     */
+    public MascotaQuery conGenero(String valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.genero = normalizar(valor);
+        return copia;
+    }
+
+    /**
+     * @param valor Especie exacta
+     * @return Copia de esta consulta filtrada por especie
+     */
+    public MascotaQuery conEspecie(String valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.especie = normalizar(valor);
+        return copia;
+    }
+
+    /**
+     * @param valor Tipo de alimento buscado, o null para no filtrar
+     * @return Copia de esta consulta filtrada por tipo de alimento
+     */
+    public MascotaQuery conTipoAlimento(TipoAlimento valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.tipoAlimento = valor;
+        return copia;
+    }
+
+    /**
+     * @param columna Columna por la que ordenar, de {@link CriterioListado#COLUMNAS}
+     * @param ascendente true para orden ascendente
+     * @return Copia de esta consulta ordenada solo por esa columna
+     */
+    public MascotaQuery ordenadaPor(String columna, boolean ascendente) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.columnasOrden = List.of(validar(columna));
+        copia.sentidosOrden = List.of(ascendente);
+        return copia;
+    }
+
+    /**
+     * @param columna Columna por la que desempatar, de {@link CriterioListado#COLUMNAS}
+     * @param ascendente true para orden ascendente
+     * @return Copia de esta consulta con una columna de orden más
+     */
+    public MascotaQuery luegoPor(String columna, boolean ascendente) {
+        MascotaQuery copia = new MascotaQuery(this);
+        List<String> columnas = new ArrayList<>(columnasOrden);
+        List<Boolean> sentidos = new ArrayList<>(sentidosOrden);
+        columnas.add(validar(columna));
+        sentidos.add(ascendente);
+        copia.columnasOrden = List.copyOf(columnas);
+        copia.sentidosOrden = List.copyOf(sentidos);
+        return copia;
+    }
+
+    /**
+     * @param desde Número de filas a saltar
+     * @param cantidad Número máximo de filas, o -1 para no limitar
+     * @return Copia de esta consulta con la página indicada
+     */
+    public MascotaQuery paginada(int desde, int cantidad) {
+        if (desde < 0 || cantidad < -1) {
+            throw new IllegalArgumentException("Página inválida: desde " + desde + ", cantidad " + cantidad);
+        }
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.desde = desde;
+        copia.cantidad = cantidad;
+        return copia;
+    }
+
+    /**
+     * @return true si la consulta tiene algún filtro
+     */
+    public boolean isFiltrada() {
+        return nombreComun != null || apodo != null || clasificacion != null || familia != null
+                || genero != null || especie != null || tipoAlimento != null;
+    }
+
+    /**
+     * Indica si una mascota cumple todos los filtros de la consulta
+     *
+     * @param mascota Mascota a evaluar
+     * @return true si cumple los filtros
+     */
+    public boolean cumple(Mascota mascota) {
+        return contiene(mascota.getNombreComun(), nombreComun)
+                && contiene(mascota.getApodo(), apodo)
+                && (clasificacion == null || clasificacion == mascota.getClasificacion())
+                && igual(mascota.getFamilia(), familia)
+                && igual(mascota.getGenero(), genero)
+                && igual(mascota.getEspecie(), especie)
+                && (tipoAlimento == null || tipoAlimento == mascota.getTipoAlimentoPrincipal());
+    }
+
+    /**
+     * @return Comparador con el mismo orden que la cláusula ORDER BY, desempatado por apodo
+     */
+    public Comparator<Mascota> comparador() {
+        Comparator<Mascota> comparador = null;
+        for (int i = 0; i < columnasOrden.size(); i++) {
+            Comparator<Mascota> columna = Comparator.comparing(valorColumna(columnasOrden.get(i)), TEXTO);
+            if (!sentidosOrden.get(i)) {
+                columna = columna.reversed();
+            }
+            comparador = comparador == null ? columna : comparador.thenComparing(columna);
+        }
+        Comparator<Mascota> porApodo = Comparator.comparing(Mascota::getApodo, TEXTO);
+        return comparador.thenComparing(ultimoAscendente() ? porApodo : porApodo.reversed());
+    }
+
+    /**
+     * Evalúa la consulta en memoria: filtra, ordena y pagina un listado
+     *
+     * @param mascotas Listado sobre el que evaluar; no se modifica
+     * @return Mascotas que cumplen la consulta, en su orden y página
+     */
+    public List<Mascota> evaluar(Collection<Mascota> mascotas) {
+        List<Mascota> resultado = new ArrayList<>();
+        for (Mascota mascota : mascotas) {
+            if (cumple(mascota)) {
+                resultado.add(mascota);
+            }
+        }
+        resultado.sort(comparador());
+        int inicio = Math.min(desde, resultado.size());
+        int fin = cantidad < 0 ? resultado.size() : (int) Math.min(resultado.size(), (long) inicio + cantidad);
+        return inicio == 0 && fin == resultado.size() ? resultado : new ArrayList<>(resultado.subList(inicio, fin));
+    }
+
+    /**
+     * Compila la consulta a una sentencia SELECT parametrizada
+     *
+     * @param parametros Lista donde se agregan los valores de los parámetros, en orden
+     * @return Sentencia SQL
+     */
+    String sql(List<Object> parametros) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM mascotas");
+        agregarCondicion(sql, parametros);
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < columnasOrden.size(); i++) {
+            sql.append(columnasOrden.get(i)).append(sentidosOrden.get(i) ? " ASC" : " DESC").append(", ");
+        }
+        sql.append("apodo").append(ultimoAscendente() ? " ASC" : " DESC");
+        if (cantidad >= 0 || desde > 0) {
+            sql.append(" LIMIT ? OFFSET ?");
+            parametros.add(cantidad >= 0 ? cantidad : -1);
+            parametros.add(desde);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Compila el conteo de las filas que cumplen los filtros, sin paginar
+     *
+     * @param parametros Lista donde se agregan los valores de los parámetros, en orden
+     * @return Sentencia SQL
+     */
+    String sqlConteo(List<Object> parametros) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM mascotas");
+        agregarCondicion(sql, parametros);
+        return sql.toString();
+    }
+
+    private void agregarCondicion(StringBuilder sql, List<Object> parametros) {
+        List<String> condiciones = new ArrayList<>();
+        agregarContiene(condiciones, parametros, "nombre_comun", nombreComun);
+        agregarContiene(condiciones, parametros, "apodo", apodo);
+        agregarIgual(condiciones, parametros, "clasificacion", clasificacion == null ? null : clasificacion.name());
+        agregarIgual(condiciones, parametros, "familia", familia);
+        agregarIgual(condiciones, parametros, "genero", genero);
+        agregarIgual(condiciones, parametros, "especie", especie);
+        agregarIgual(condiciones, parametros, "tipo_alimento", tipoAlimento == null ? null : tipoAlimento.name());
+        if (!condiciones.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", condiciones));
+        }
+    }
+
+    private static void agregarContiene(List<String> condiciones, List<Object> parametros, String columna,
+            String texto) {
+        if (texto != null) {
+            condiciones.add(columna + " LIKE ? ESCAPE '!'");
+            parametros.add("%" + texto.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+        }
+    }
+
+    private static void agregarIgual(List<String> condiciones, List<Object> parametros, String columna, String valor) {
+        if (valor != null) {
+            condiciones.add(columna + " = ?");
+            parametros.add(valor);
+        }
+    }
+
+    private boolean ultimoAscendente() {
+        return sentidosOrden.get(sentidosOrden.size() - 1);
+    }
+
+    private static boolean igual(String valor, String buscado) {
+        return buscado == null || buscado.equals(valor);
+    }
+
+    private static boolean contiene(String valor, String buscado) {
+        return buscado == null || valor != null && minusculasAscii(valor).contains(minusculasAscii(buscado));
+    }
+
+    /**
+     * Pasa a minúsculas solo las letras ASCII, como hace LIKE en SQLite
+     */
+    private static String minusculasAscii(String texto) {
+        char[] letras = texto.toCharArray();
+        for (int i = 0; i < letras.length; i++) {
+            if (letras[i] >= 'A' && letras[i] <= 'Z') {
+                letras[i] += 'a' - 'A';
+            }
+        }
+        return new String(letras);
+    }
+
+    private static Function<Mascota, String> valorColumna(String columna) {
+        switch (columna) {
+            case "nombre_comun": return Mascota::getNombreComun;
+            case "apodo": return Mascota::getApodo;
+            case "clasificacion": return m -> m.getClasificacion() == null ? null : m.getClasificacion().name();
+            case "familia": return Mascota::getFamilia;
+            case "genero": return Mascota::getGenero;
+            case "especie": return Mascota::getEspecie;
+            default: return m -> m.getTipoAlimentoPrincipal() == null ? null : m.getTipoAlimentoPrincipal().name();
+        }
+    }
+
+    private static String normalizar(String valor) {
+        if (valor == null) return null;
+        valor = valor.trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static String validar(String columna) {
+        if (!CriterioListado.COLUMNAS.contains(columna)) {
+            throw new IllegalArgumentException("Columna no válida: " + columna);
+        }
+        return columna;
+    }
+}
@@ -0,0 +1,30 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+/**
+ * Interfaz que define las operaciones sobre la tabla de metadatos: pares
+ * clave-valor que se conservan entre ejecuciones, como la huella de los
+ * archivos ya importados.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public interface MetadatosDAO {
+
+    /**
+     * Consulta el valor de una clave
+     *
+     * @param clave Clave a consultar
+     * @return El valor guardado, o null si no existe
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    String consultarValor(String clave) throws Exception;
+
+    /**
+     * Guarda el valor de una clave, reemplazando el anterior
+     *
+     * @param clave Clave a guardar
+     * @param valor Valor a asociar
+     * @throws Exception Si ocurre un error al guardar
+     */
+    void guardarValor(String clave, String valor) throws Exception;
+}
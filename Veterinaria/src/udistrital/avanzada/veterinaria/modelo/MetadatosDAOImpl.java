@@ -0,0 +1,59 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Implementación de la interfaz MetadatosDAO sobre la tabla metadatos de SQLite.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class MetadatosDAOImpl implements MetadatosDAO {
+
+    private ConexionBD conexionBD;
+
+    /**
+     * Constructor que inicializa la conexión a la base de datos
+     */
+    public MetadatosDAOImpl() {
+        this.conexionBD = ConexionBD.getInstance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String consultarValor(String clave) throws Exception {
+        String sql = "SELECT valor FROM metadatos WHERE clave = ?";
+
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, clave);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString("valor") : null;
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error al consultar metadatos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void guardarValor(String clave, String valor) throws Exception {
+        String sql = "INSERT OR REPLACE INTO metadatos (clave, valor) VALUES (?, ?)";
+
+        try (Connection conn = conexionBD.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, clave);
+            pstmt.setString(2, valor);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new Exception("Error al guardar metadatos: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Registro de métricas de la aplicación: histogramas de latencia por
+ * operación, contadores y medidores, identificados por nombre.
+ * <p>
+ * Las métricas se crean la primera vez que se piden y luego se reutilizan;
+ * quien mide en una ruta frecuente guarda la referencia en un campo, de
+ * modo que cada medición solo cuesta registrar en el {@link Histograma}.
+ * Los nombres siguen el formato {@code categoria.operacion}, por ejemplo
+ * {@code dao.agregarMascota} o {@code edt.Consultar}.
+ * <p>
+ * El registro global se puede publicar en JMX con {@link #registrarEnJmx()}
+ * y volcar a un archivo de texto con {@link #volcar(String)}.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class RegistroMetricas implements MetricasMXBean {
+
+    /**
+     * Nombre con el que el registro global se publica en JMX.
+     */
+    public static final String NOMBRE_JMX = "udistrital.avanzada.veterinaria:type=Metricas";
+
+    private static final RegistroMetricas GLOBAL = new RegistroMetricas();
+
+    private final Map<String, Histograma> histogramas = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> contadores = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> medidores = new ConcurrentHashMap<>();
+
+    /**
+     * @return Registro compartido por toda la aplicación
+     */
+    public static RegistroMetricas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Obtiene el histograma de latencias de una operación, creándolo si no existe.
+     *
+     * @param nombre Nombre de la operación
+     * @return Histograma de la operación
+     */
+    public Histograma histograma(String nombre) {
+        Histograma histograma = histogramas.get(nombre);
+        return histograma != null ? histograma : histogramas.computeIfAbsent(nombre, Histograma::new);
+    }
+
+    /**
+     * Obtiene un contador, creándolo en cero si no existe.
+     *
+     * @param nombre Nombre del contador
+     * @return Contador, que admite incrementos concurrentes sin bloqueos
+     */
+    public LongAdder contador(String nombre) {
+        LongAdder contador = contadores.get(nombre);
+        return contador != null ? contador : contadores.computeIfAbsent(nombre, k -> new LongAdder());
+    }
+
+    /**
+     * Registra un medidor: un valor que se lee en el momento de consultar
+     * las métricas, como el tamaño de una caché. Reemplaza al anterior con
+     * el mismo nombre.
+     *
+     * @param nombre Nombre del medidor
+     * @param valor Función que devuelve el valor actual; debe poder llamarse desde cualquier hilo
+     */
+    public void medidor(String nombre, LongSupplier valor) {
+        medidores.put(nombre, valor);
+    }
+
+    @Override
+    public List<ResumenOperacion> getOperaciones() {
+        List<ResumenOperacion> operaciones = new ArrayList<>();
+        for (Histograma histograma : new TreeMap<>(histogramas).values()) {
+            operaciones.add(histograma.instantanea());
+        }
+        return operaciones;
+    }
+
+    @Override
+    public Map<String, Long> getContadores() {
+        Map<String, Long> valores = new TreeMap<>();
+        contadores.forEach((nombre, contador) -> valores.put(nombre, contador.sum()));
+        return valores;
+    }
+
+    @Override
+    public Map<String, Long> getMedidores() {
+        Map<String, Long> valores = new TreeMap<>();
+        medidores.forEach((nombre, medidor) -> valores.put(nombre, medidor.getAsLong()));
+        return valores;
+    }
+
+    @Override
+    public void volcar(String nombreArchivo) throws IOException {
+        Path archivo = Paths.get(nombreArchivo);
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        try (Writer escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            escritor.write(toString());
+            escritor.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Publica este registro en el servidor de MBeans de la plataforma con
+     * el nombre {@value #NOMBRE_JMX}. Si ya estaba publicado no hace nada.
+     *
+     * @return true si el registro queda publicado, false si JMX lo rechazó
+     */
+    public boolean registrarEnJmx() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(NOMBRE_JMX));
+            return true;
+        } catch (InstanceAlreadyExistsException e) {
+            return true;
+        } catch (JMException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        String salto = System.lineSeparator();
+        StringBuilder resumen = new StringBuilder("Métricas al ").append(LocalDateTime.now()).append(':');
+        resumen.append(salto).append("Operaciones:");
+        for (ResumenOperacion operacion : getOperaciones()) {
+            resumen.append(salto).append("  ").append(operacion);
+        }
+        resumen.append(salto).append("Contadores:");
+        getContadores().forEach((nombre, valor) -> resumen.append(salto).append("  ").append(nombre)
+                .append(" = ").append(valor));
+        resumen.append(salto).append("Medidores:");
+        getMedidores().forEach((nombre, valor) -> resumen.append(salto).append("  ").append(nombre)
+                .append(" = ").append(valor));
+        return resumen.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Resultado de una inserción por lotes, con el estado de cada fila en el
+ * mismo orden de la lista enviada.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class ResultadoLote {
+
+    /**
+     * Estado final de una fila del lote.
+     */
+    public enum Estado {
+        /** La fila se insertó. */
+        INSERTADA,
+        /** La fila se ignoró porque su clave ya existía. */
+        DUPLICADA,
+        /** El controlador ejecutó la fila sin informar cuántas filas afectó. */
+        SIN_INFORMACION,
+        /** El lote falló y la transacción se revirtió. */
+        FALLIDA
+    }
+
+    private final Estado[] estados;
+
+    /**
+     * Crea un resultado con todas las filas en estado {@link Estado#FALLIDA}.
+     *
+     * @param filas Número de filas del lote
+     */
+    public ResultadoLote(int filas) {
+        estados = new Estado[filas];
+        Arrays.fill(estados, Estado.FALLIDA);
+    }
+
+    /**
+     * Registra los conteos devueltos por {@code executeBatch()} a partir de una posición.
+     *
+     * @param desde Índice de la primera fila del sub-lote
+     * @param conteos Conteos de filas afectadas devueltos por el controlador
+     */
+    void registrar(int desde, int[] conteos) {
+        for (int i = 0; i < conteos.length; i++) {
+            int conteo = conteos[i];
+            if (conteo > 0) {
+                estados[desde + i] = Estado.INSERTADA;
+            } else if (conteo == 0) {
+                estados[desde + i] = Estado.DUPLICADA;
+            } else if (conteo == Statement.SUCCESS_NO_INFO) {
+                estados[desde + i] = Estado.SIN_INFORMACION;
+            } else {
+                estados[desde + i] = Estado.FALLIDA;
+            }
+        }
+    }
+
+    /**
+     * Marca todas las filas como fallidas, tras revertir la transacción.
+     */
+    void marcarFallido() {
+        Arrays.fill(estados, Estado.FALLIDA);
+    }
+
+    /**
+     * @param fila Índice de la fila en la lista enviada
+     * @return Estado de la fila
+     */
+    public Estado getEstado(int fila) {
+        return estados[fila];
+    }
+
+    /**
+     * @return Número de filas del lote
+     */
+    public int getTotal() {
+        return estados.length;
+    }
+
+    /**
+     * @return Número de filas insertadas
+     */
+    public int getInsertadas() {
+        return contar(Estado.INSERTADA);
+    }
+
+    /**
+     * @return Número de filas ignoradas por clave duplicada
+     */
+    public int getDuplicadas() {
+        return contar(Estado.DUPLICADA);
+    }
+
+    /**
+     * @return Número de filas sin información del controlador
+     */
+    public int getSinInformacion() {
+        return contar(Estado.SIN_INFORMACION);
+    }
+
+    /**
+     * @return Número de filas fallidas
+     */
+    public int getFallidas() {
+        return contar(Estado.FALLIDA);
+    }
+
+    /**
+     * @return true si ninguna fila falló
+     */
+    public boolean esExitoso() {
+        return getFallidas() == 0;
+    }
+
+    private int contar(Estado estado) {
+        int total = 0;
+        for (Estado e : estados) {
+            if (e == estado) total++;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoLote{" +
+                "total=" + getTotal() +
+                ", insertadas=" + getInsertadas() +
+                ", duplicadas=" + getDuplicadas() +
+                ", sinInformacion=" + getSinInformacion() +
+                ", fallidas=" + getFallidas() +
+                '}';
+    }
+}
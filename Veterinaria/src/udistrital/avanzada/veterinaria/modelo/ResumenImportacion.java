@@ -0,0 +1,122 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.util.List;
+
+/**
+ * Estado de una importación de mascotas en un momento dado. Se entrega
+ * periódicamente mientras avanza la importación y una última vez al
+ * terminar.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public final class ResumenImportacion {
+
+    private final long leidas;
+    private final long insertadas;
+    private final long duplicadas;
+    private final long incompletas;
+    private final long rechazadas;
+    private final long fallidas;
+    private final long bytesLeidos;
+    private final long bytesTotales;
+    private final long milisegundos;
+    private final boolean terminada;
+    private final List<EtapaImportacion> etapas;
+
+    ResumenImportacion(long leidas, long insertadas, long duplicadas, long incompletas, long rechazadas,
+            long fallidas, long bytesLeidos, long bytesTotales, long milisegundos, boolean terminada,
+            List<EtapaImportacion> etapas) {
+        this.leidas = leidas;
+        this.insertadas = insertadas;
+        this.duplicadas = duplicadas;
+        this.incompletas = incompletas;
+        this.rechazadas = rechazadas;
+        this.fallidas = fallidas;
+        this.bytesLeidos = bytesLeidos;
+        this.bytesTotales = bytesTotales;
+        this.milisegundos = milisegundos;
+        this.terminada = terminada;
+        this.etapas = etapas;
+    }
+
+    /**
+     * @return Entradas leídas del archivo
+     */
+    public long getLeidas() {
+        return leidas;
+    }
+
+    /**
+     * @return Mascotas insertadas en la base de datos
+     */
+    public long getInsertadas() {
+        return insertadas;
+    }
+
+    /**
+     * @return Mascotas cuyo apodo ya existía en la base de datos o apareció
+     * antes en la misma importación
+     */
+    public long getDuplicadas() {
+        return duplicadas;
+    }
+
+    /**
+     * @return Mascotas con datos faltantes, entregadas para completarlas
+     */
+    public long getIncompletas() {
+        return incompletas;
+    }
+
+    /**
+     * @return Entradas mal formadas, escritas en el archivo de rechazos
+     */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * @return Mascotas de lotes que la base de datos no pudo insertar,
+     * también escritas en el archivo de rechazos
+     */
+    public long getFallidas() {
+        return fallidas;
+    }
+
+    /**
+     * @return Porcentaje del archivo leído, de 0 a 100
+     */
+    public double getPorcentaje() {
+        return bytesTotales == 0 ? 100 : Math.min(100, 100.0 * bytesLeidos / bytesTotales);
+    }
+
+    /**
+     * @return Milisegundos transcurridos desde el inicio de la importación
+     */
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    /**
+     * @return true si es el resumen final
+     */
+    public boolean isTerminada() {
+        return terminada;
+    }
+
+    /**
+     * @return Estado de cada etapa de la importación, en el orden en que
+     * pasan las mascotas; vacía si la importación no se hace por etapas
+     */
+    public List<EtapaImportacion> getEtapas() {
+        return etapas;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f%% - leídas: %d, insertadas: %d, duplicadas: %d, incompletas: %d, "
+                + "rechazadas: %d, fallidas: %d (%d ms)", getPorcentaje(), leidas, insertadas, duplicadas,
+                incompletas, rechazadas, fallidas, milisegundos);
+    }
+}
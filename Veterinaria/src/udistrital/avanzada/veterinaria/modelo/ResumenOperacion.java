@@ -0,0 +1,112 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Resumen inmutable de las latencias de una operación en un momento dado:
+ * cantidad, promedio, percentiles 50, 99 y 99,9 y extremos, en milisegundos.
+ * JMX lo expone como un dato compuesto con un campo por cada getter.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public final class ResumenOperacion {
+
+    private final String nombre;
+    private final long cantidad;
+    private final double promedioMs;
+    private final double minimoMs;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double p999Ms;
+    private final double maximoMs;
+
+    /**
+     * Crea el resumen de una operación.
+     *
+     * @param nombre Nombre de la operación
+     * @param cantidad Número de ejecuciones medidas
+     * @param promedioMs Duración promedio
+     * @param minimoMs Duración mínima
+     * @param p50Ms Mediana de la duración
+     * @param p99Ms Percentil 99 de la duración
+     * @param p999Ms Percentil 99,9 de la duración
+     * @param maximoMs Duración máxima
+     */
+    @ConstructorProperties({"nombre", "cantidad", "promedioMs", "minimoMs", "p50Ms", "p99Ms", "p999Ms",
+            "maximoMs"})
+    public ResumenOperacion(String nombre, long cantidad, double promedioMs, double minimoMs, double p50Ms,
+            double p99Ms, double p999Ms, double maximoMs) {
+        this.nombre = nombre;
+        this.cantidad = cantidad;
+        this.promedioMs = promedioMs;
+        this.minimoMs = minimoMs;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.p999Ms = p999Ms;
+        this.maximoMs = maximoMs;
+    }
+
+    /**
+     * @return Nombre de la operación
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return Número de ejecuciones medidas
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * @return Duración promedio, en milisegundos
+     */
+    public double getPromedioMs() {
+        return promedioMs;
+    }
+
+    /**
+     * @return Duración mínima, en milisegundos
+     */
+    public double getMinimoMs() {
+        return minimoMs;
+    }
+
+    /**
+     * @return Mediana de la duración, en milisegundos
+     */
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    /**
+     * @return Percentil 99 de la duración, en milisegundos
+     */
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    /**
+     * @return Percentil 99,9 de la duración, en milisegundos
+     */
+    public double getP999Ms() {
+        return p999Ms;
+    }
+
+    /**
+     * @return Duración máxima, en milisegundos
+     */
+    public double getMaximoMs() {
+        return maximoMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: n=%d, promedio=%.3f ms, p50=%.3f ms, p99=%.3f ms, p999=%.3f ms, "
+                + "min=%.3f ms, max=%.3f ms", nombre, cantidad, promedioMs, p50Ms, p99Ms, p999Ms, minimoMs,
+                maximoMs);
+    }
+}
@@ -1,12 +1,16 @@
 package udistrital.avanzada.veterinaria.modelo;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Servicio que maneja la lógica de negocio relacionada con la carga y procesamiento de mascotas.
@@ -19,7 +23,17 @@ import java.util.Properties;
 public class ServicioMascota {
     
     private static final String ARCHIVO_MASCOTAS = "data/mascotas.properties";
+    private static final String DIRECTORIO_MASCOTAS = "data";
+    private static final String PATRON_ARCHIVOS = "mascotas*.properties";
+    private static final String ARCHIVO_RECHAZOS = "data/rechazos_mascotas.properties";
+    private static final String PREFIJO_HUELLA = "huella:";
+    private static final Histograma IMPORTACION_ARCHIVO = RegistroMetricas.global().histograma("importacion.archivo");
+    private static final Histograma IMPORTACION_ARCHIVOS = RegistroMetricas.global().histograma("importacion.archivos");
     private MascotaDAO mascotaDAO;
+    private MascotaPendienteDAO pendienteDAO;
+    private MetadatosDAO metadatosDAO;
+    private final EstadisticasMascotas estadisticas = new EstadisticasMascotas();
+    private final List<Consumer<CambioMascota>> escuchas = new CopyOnWriteArrayList<>();
     
     /**
      * Constructor que inicializa el servicio con el DAO
@@ -27,41 +41,228 @@ public class ServicioMascota {
      * @param mascotaDAO El DAO para operaciones de base de datos
      */
     public ServicioMascota(MascotaDAO mascotaDAO) {
+        this(mascotaDAO, new MascotaPendienteDAOImpl());
+    }
+    
+    /**
+     * Constructor que inicializa el servicio con los DAO de mascotas y de pendientes
+     * 
+     * @param mascotaDAO El DAO para operaciones de base de datos
+     * @param pendienteDAO El DAO de la tabla de mascotas pendientes
+     */
+    public ServicioMascota(MascotaDAO mascotaDAO, MascotaPendienteDAO pendienteDAO) {
+        this(mascotaDAO, pendienteDAO, new MetadatosDAOImpl());
+    }
+    
+    /**
+     * Constructor que inicializa el servicio con los DAO de mascotas, de
+     * pendientes y de metadatos
+     * 
+     * @param mascotaDAO El DAO para operaciones de base de datos
+     * @param pendienteDAO El DAO de la tabla de mascotas pendientes
+     * @param metadatosDAO El DAO de la tabla de metadatos, donde se guarda la huella de los archivos importados
+     */
+    public ServicioMascota(MascotaDAO mascotaDAO, MascotaPendienteDAO pendienteDAO, MetadatosDAO metadatosDAO) {
         this.mascotaDAO = mascotaDAO;
+        this.pendienteDAO = pendienteDAO;
+        this.metadatosDAO = metadatosDAO;
     }
     
     /**
-     * Carga las mascotas desde el archivo de propiedades
+     * Importa los archivos mascotas*.properties del directorio de datos que
+     * cambiaron desde la última importación y guarda las incompletas como
+     * pendientes. La huella de cada archivo importado se guarda en la tabla
+     * de metadatos, de modo que los archivos sin cambios no se vuelven a leer
+     * en cada inicio
      * 
-     * @return Lista de mascotas cargadas
-     * @throws IOException Si ocurre un error al leer el archivo
+     * @param progreso Recibe el avance de cada etapa de la importación; puede ser null
+     * @return Resumen de la importación, o null si ningún archivo cambió
+     * @throws IOException Si ocurre un error al leer los archivos o escribir los rechazos
      */
-    public List<Mascota> cargarMascotasDesdeArchivo() throws IOException {
-        List<Mascota> mascotas = new ArrayList<>();
+    public ResumenImportacion cargarMascotasIniciales(Consumer<ResumenImportacion> progreso) throws IOException {
+        List<String> archivos = listarArchivosMascotas();
+        if (archivos.isEmpty()) {
+            System.out.println("No hay archivos " + PATRON_ARCHIVOS + " en " + DIRECTORIO_MASCOTAS
+                    + ". Iniciando con base de datos vacía.");
+            return null;
+        }
         
+        // Calcular las huellas antes de importar: si un archivo cambia durante la importación, se volverá a importar
+        List<String> modificados = new ArrayList<>();
+        List<String> huellas = new ArrayList<>();
+        for (String archivo : archivos) {
+            String huella = HuellaArchivo.calcular(archivo);
+            if (!huella.equals(consultarHuella(archivo))) {
+                modificados.add(archivo);
+                huellas.add(huella);
+            }
+        }
+        if (modificados.isEmpty()) {
+            System.out.println("Archivos " + PATRON_ARCHIVOS + " sin cambios desde la última importación.");
+            return null;
+        }
+        
+        // Importar solo los modificados, reservando las incompletas
+        List<Mascota> mascotasIncompletas = Collections.synchronizedList(new ArrayList<>());
+        ResumenImportacion resumen = importarMascotasDesdeArchivos(modificados, mascotasIncompletas::add, progreso);
+        if (!mascotasIncompletas.isEmpty()) {
+            guardarPendientes(mascotasIncompletas);
+        }
+        
+        // Recordar los archivos importados; si algo falla se importarán de nuevo en el próximo inicio
+        if (resumen.getFallidas() > 0) {
+            return resumen;
+        }
+        try {
+            for (int i = 0; i < modificados.size(); i++) {
+                metadatosDAO.guardarValor(PREFIJO_HUELLA + modificados.get(i), huellas.get(i));
+            }
+        } catch (Exception e) {
+            System.err.println("Error al guardar la huella de los archivos importados: " + e.getMessage());
+        }
+        return resumen;
+    }
+    
+    /**
+     * Consulta la huella guardada de un archivo
+     * 
+     * @param archivo Ruta del archivo
+     * @return La huella de la última importación, o null si no se conoce
+     */
+    private String consultarHuella(String archivo) {
+        try {
+            return metadatosDAO.consultarValor(PREFIJO_HUELLA + archivo);
+        } catch (Exception e) {
+            System.err.println("Error al consultar la huella de " + archivo + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Importa las mascotas del archivo de propiedades en flujo, insertándolas
+     * por lotes a medida que se leen. Las entradas mal formadas se escriben en
+     * el archivo de rechazos
+     * 
+     * @param incompletas Recibe las mascotas con datos faltantes, que no se insertan
+     * @param progreso Recibe el avance de la importación; puede ser null
+     * @return Resumen de la importación, o null si no existe el archivo
+     * @throws IOException Si ocurre un error al leer el archivo o escribir los rechazos
+     */
+    public ResumenImportacion importarMascotasDesdeArchivo(Consumer<Mascota> incompletas,
+            Consumer<ResumenImportacion> progreso) throws IOException {
         // Verificar que el archivo existe
         File archivo = new File(ARCHIVO_MASCOTAS);
         if (!archivo.exists()) {
             System.out.println("Archivo " + ARCHIVO_MASCOTAS + " no encontrado. Iniciando con base de datos vacía.");
-            return mascotas;
+            return null;
         }
         
-        Properties propiedades = new Properties();
-        try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-            propiedades.load(reader);
+        long inicio = System.nanoTime();
+        ResumenImportacion resumen;
+        try {
+            resumen = new ImportadorMascotas(mascotaDAO)
+                    .importar(ARCHIVO_MASCOTAS, ARCHIVO_RECHAZOS, incompletas, progreso);
+        } finally {
+            IMPORTACION_ARCHIVO.registrarDesde(inicio);
+        }
+        contarImportacion(resumen);
+        if (resumen.getInsertadas() > 0) {
+            estadisticas.invalidar();
         }
         
-        // Procesar cada entrada del archivo
-        for (String clave : propiedades.stringPropertyNames()) {
-            String valor = propiedades.getProperty(clave);
-            Mascota mascota = parsearLineaMascota(clave, valor);
-            if (mascota != null) {
-                mascotas.add(mascota);
+        System.out.println("Mascotas importadas desde el archivo: " + resumen);
+        if (resumen.getRechazadas() + resumen.getFallidas() > 0) {
+            System.out.println("Entradas rechazadas guardadas en " + ARCHIVO_RECHAZOS);
+        }
+        return resumen;
+    }
+    
+    /**
+     * Importa en paralelo todos los archivos mascotas*.properties del
+     * directorio de datos
+     * 
+     * @param incompletas Recibe las mascotas con datos faltantes, que no se
+     * insertan; se llama desde varios hilos
+     * @param progreso Recibe el avance de cada etapa de la importación; puede ser null
+     * @return Resumen de la importación
+     * @throws IOException Si ocurre un error al leer los archivos o escribir los rechazos
+     */
+    public ResumenImportacion importarMascotasDesdeDirectorio(Consumer<Mascota> incompletas,
+            Consumer<ResumenImportacion> progreso) throws IOException {
+        List<String> archivos = listarArchivosMascotas();
+        if (archivos.isEmpty()) {
+            System.out.println("No hay archivos " + PATRON_ARCHIVOS + " en " + DIRECTORIO_MASCOTAS
+                    + ". Iniciando con base de datos vacía.");
+        }
+        return importarMascotasDesdeArchivos(archivos, incompletas, progreso);
+    }
+    
+    /**
+     * Lista los archivos mascotas*.properties del directorio de datos
+     * 
+     * @return Rutas de los archivos, ordenadas
+     * @throws IOException Si ocurre un error al leer el directorio
+     */
+    private List<String> listarArchivosMascotas() throws IOException {
+        List<String> archivos = new ArrayList<>();
+        File directorio = new File(DIRECTORIO_MASCOTAS);
+        if (directorio.isDirectory()) {
+            try (DirectoryStream<Path> encontrados = Files.newDirectoryStream(directorio.toPath(), PATRON_ARCHIVOS)) {
+                for (Path archivo : encontrados) {
+                    archivos.add(archivo.toString());
+                }
             }
         }
+        Collections.sort(archivos);
+        return archivos;
+    }
+    
+    /**
+     * Importa varios archivos de propiedades en paralelo. Los apodos
+     * repetidos entre archivos se descartan sin consultar la base de datos
+     * por cada mascota
+     * 
+     * @param archivos Rutas de los archivos a importar
+     * @param incompletas Recibe las mascotas con datos faltantes, que no se
+     * insertan; se llama desde varios hilos
+     * @param progreso Recibe el avance de cada etapa de la importación; puede ser null
+     * @return Resumen de la importación
+     * @throws IOException Si ocurre un error al leer los archivos o escribir los rechazos
+     */
+    public ResumenImportacion importarMascotasDesdeArchivos(List<String> archivos, Consumer<Mascota> incompletas,
+            Consumer<ResumenImportacion> progreso) throws IOException {
+        long inicio = System.nanoTime();
+        ResumenImportacion resumen;
+        try {
+            resumen = new ImportadorParalelo(mascotaDAO)
+                    .importar(archivos, ARCHIVO_RECHAZOS, incompletas, progreso);
+        } finally {
+            IMPORTACION_ARCHIVOS.registrarDesde(inicio);
+        }
+        contarImportacion(resumen);
+        if (resumen.getInsertadas() > 0) {
+            estadisticas.invalidar();
+        }
         
-        System.out.println("Se cargaron " + mascotas.size() + " mascotas desde el archivo");
-        return mascotas;
+        System.out.println("Mascotas importadas desde " + archivos.size() + " archivos: " + resumen);
+        for (EtapaImportacion etapa : resumen.getEtapas()) {
+            System.out.println("  " + etapa);
+        }
+        if (resumen.getRechazadas() + resumen.getFallidas() > 0) {
+            System.out.println("Entradas rechazadas guardadas en " + ARCHIVO_RECHAZOS);
+        }
+        return resumen;
+    }
+    
+    /**
+     * Suma el resultado de una importación a los contadores de métricas
+     * 
+     * @param resumen Resumen de la importación
+     */
+    private static void contarImportacion(ResumenImportacion resumen) {
+        RegistroMetricas registro = RegistroMetricas.global();
+        registro.contador("importacion.insertadas").add(resumen.getInsertadas());
+        registro.contador("importacion.rechazadas").add(resumen.getRechazadas());
     }
     
     /**
@@ -86,100 +287,175 @@ public class ServicioMascota {
     }
     
     /**
-     * Inserta las mascotas en la base de datos
+     * Inserta las mascotas en la base de datos en una sola transacción por lotes.
+     * Los duplicados se descartan en la base de datos, sin consultas previas.
      * 
      * @param mascotas Lista de mascotas a insertar
      * @return Número de mascotas insertadas exitosamente
      */
     public int insertarMascotasEnBD(List<Mascota> mascotas) {
-        int insertadas = 0;
-        int duplicadas = 0;
-        
-        for (Mascota mascota : mascotas) {
-            try {
-                if (!mascotaDAO.existeMascota(mascota)) {
-                    mascotaDAO.agregarMascota(mascota);
-                    insertadas++;
-                } else {
-                    duplicadas++;
-                    System.out.println("Mascota duplicada (apodo: " + mascota.getApodo() + ") - no se insertó");
+        try {
+            ResultadoLote resultado = mascotaDAO.insertarMascotasEnLote(mascotas);
+            
+            for (int i = 0; i < mascotas.size(); i++) {
+                if (resultado.getEstado(i) == ResultadoLote.Estado.DUPLICADA) {
+                    System.out.println("Mascota duplicada (apodo: " + mascotas.get(i).getApodo() + ") - no se insertó");
                 }
-            } catch (Exception e) {
-                System.err.println("Error al insertar mascota " + mascota.getApodo() + ": " + e.getMessage());
             }
+            
+            int insertadas = resultado.getInsertadas() + resultado.getSinInformacion();
+            if (insertadas > 0) {
+                estadisticas.invalidar();
+            }
+            System.out.println("Mascotas insertadas: " + insertadas);
+            System.out.println("Mascotas duplicadas (no insertadas): " + resultado.getDuplicadas());
+            return insertadas;
+        } catch (Exception e) {
+            System.err.println("Error al insertar mascotas: " + e.getMessage());
+            return 0;
         }
-        
-        System.out.println("Mascotas insertadas: " + insertadas);
-        System.out.println("Mascotas duplicadas (no insertadas): " + duplicadas);
-        return insertadas;
     }
     
     /**
-     * Parsea una línea del archivo de propiedades en un objeto Mascota
+     * Agrega una mascota y la suma a las estadísticas cargadas
      * 
-     * @param clave La clave de la propiedad
-     * @param valor El valor de la propiedad
-     * @return Un objeto Mascota o null si hay error
+     * @param mascota La mascota a agregar
+     * @return true si se agregó, false si ya existe una mascota con su apodo
+     * @throws Exception Si ocurre un error durante la inserción
      */
-    private Mascota parsearLineaMascota(String clave, String valor) {
-        try {
-            String[] campos = valor.split(",");
-            
-            if (campos.length < 7) {
-                System.out.println("Línea incompleta para " + clave + ": " + valor);
-                // Crear mascota con campos vacíos para completar después
-                return crearMascotaIncompleta(campos);
+    public boolean agregarMascota(Mascota mascota) throws Exception {
+        synchronized (estadisticas) {
+            if (mascotaDAO.existeMascota(mascota)) {
+                return false;
             }
-            
-            // Crear mascota completa
-            Mascota mascota = new Mascota();
-            mascota.setNombreComun(campos[0].trim());
-            mascota.setApodo(campos[1].trim());
-            mascota.setClasificacion(Clasificacion.valueOf(campos[2].trim().toUpperCase()));
-            mascota.setFamilia(campos[3].trim());
-            mascota.setGenero(campos[4].trim());
-            mascota.setEspecie(campos[5].trim());
-            mascota.setTipoAlimentoPrincipal(TipoAlimento.valueOf(campos[6].trim().toUpperCase()));
-            
-            return mascota;
-            
-        } catch (Exception e) {
-            System.err.println("Error al parsear línea " + clave + ": " + valor + " - " + e.getMessage());
-            return null;
+            mascotaDAO.agregarMascota(mascota);
+            estadisticas.registrada(mascota);
+            publicar(new CambioMascota(CambioMascota.Tipo.INSERTADA, mascota.getApodo(), null, mascota));
+            return true;
         }
     }
     
     /**
-     * Crea una mascota incompleta con los campos disponibles
+     * Modifica una mascota y actualiza las estadísticas cargadas. Si hay
+     * estadísticas cargadas o escuchas de cambios se lee antes el estado
+     * previo para restarlo y publicarlo con el cambio
      * 
-     * @param campos Los campos disponibles
-     * @return Una mascota con campos vacíos donde faltan datos
+     * @param mascota La mascota con los datos actualizados
+     * @throws Exception Si ocurre un error durante la actualización
      */
-    private Mascota crearMascotaIncompleta(String[] campos) {
-        Mascota mascota = new Mascota();
-        
-        // Asignar campos disponibles
-        if (campos.length > 0) mascota.setNombreComun(campos[0].trim());
-        if (campos.length > 1) mascota.setApodo(campos[1].trim());
-        if (campos.length > 2 && !campos[2].trim().isEmpty()) {
-            try {
-                mascota.setClasificacion(Clasificacion.valueOf(campos[2].trim().toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                // Dejar null para completar después
+    public void modificarMascota(Mascota mascota) throws Exception {
+        synchronized (estadisticas) {
+            Mascota anterior = necesitaAnterior() ? mascotaDAO.consultarPorApodo(mascota.getApodo()) : null;
+            mascotaDAO.modificarMascota(mascota);
+            if (anterior != null) {
+                estadisticas.modificada(anterior, mascota);
+            } else {
+                estadisticas.invalidar();
+            }
+            publicar(new CambioMascota(CambioMascota.Tipo.MODIFICADA, mascota.getApodo(), anterior, mascota));
+        }
+    }
+    
+    /**
+     * Elimina una mascota y la resta de las estadísticas cargadas
+     * 
+     * @param apodo El apodo de la mascota a eliminar
+     * @throws Exception Si ocurre un error durante la eliminación
+     */
+    public void eliminarMascota(String apodo) throws Exception {
+        synchronized (estadisticas) {
+            Mascota anterior = necesitaAnterior() ? mascotaDAO.consultarPorApodo(apodo) : null;
+            mascotaDAO.eliminarMascota(apodo);
+            if (anterior != null) {
+                estadisticas.eliminada(anterior);
+            } else {
+                estadisticas.invalidar();
             }
+            publicar(new CambioMascota(CambioMascota.Tipo.ELIMINADA, apodo, anterior, null));
         }
-        if (campos.length > 3) mascota.setFamilia(campos[3].trim());
-        if (campos.length > 4) mascota.setGenero(campos[4].trim());
-        if (campos.length > 5) mascota.setEspecie(campos[5].trim());
-        if (campos.length > 6 && !campos[6].trim().isEmpty()) {
+    }
+    
+    /**
+     * Suscribe un escucha a los cambios de mascotas. Tras cada alta,
+     * modificación o baja hecha a través de este servicio se le entrega un
+     * {@link CambioMascota}, en el mismo hilo que hizo el cambio. Las
+     * importaciones no publican cambios: quien las lanza debe volver a
+     * cargar los datos
+     * 
+     * @param escucha Escucha a suscribir
+     */
+    public void agregarEscucha(Consumer<CambioMascota> escucha) {
+        escuchas.add(escucha);
+    }
+    
+    /**
+     * Cancela la suscripción de un escucha de cambios
+     * 
+     * @param escucha Escucha suscrito con agregarEscucha
+     */
+    public void quitarEscucha(Consumer<CambioMascota> escucha) {
+        escuchas.remove(escucha);
+    }
+    
+    private boolean necesitaAnterior() {
+        return estadisticas.isCargada() || !escuchas.isEmpty();
+    }
+    
+    private void publicar(CambioMascota cambio) {
+        for (Consumer<CambioMascota> escucha : escuchas) {
             try {
-                mascota.setTipoAlimentoPrincipal(TipoAlimento.valueOf(campos[6].trim().toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                // Dejar null para completar después
+                escucha.accept(cambio);
+            } catch (RuntimeException e) {
+                // Un escucha defectuoso no debe hacer fallar un cambio ya guardado
+                System.err.println("Error al notificar " + cambio + ": " + e.getMessage());
             }
         }
-        
-        return mascota;
+    }
+    
+    /**
+     * Obtiene el número de mascotas por cada valor de una columna. La
+     * primera consulta de cada columna se resuelve con un GROUP BY en la
+     * base de datos; después los conteos se mantienen en memoria con cada
+     * alta, modificación y baja hecha a través de este servicio
+     * 
+     * @param columna Columna por la que agrupar, de {@link CriterioListado#COLUMNAS}
+     * @return Número de mascotas por valor, ordenado por valor
+     * @throws Exception Si ocurre un error durante la consulta
+     */
+    public Map<String, Integer> obtenerConteoPor(String columna) throws Exception {
+        synchronized (estadisticas) {
+            if (!estadisticas.isCargada(columna)) {
+                estadisticas.cargar(columna, mascotaDAO.contarPorGrupo(columna));
+            }
+            return estadisticas.obtener(columna);
+        }
+    }
+    
+    /**
+     * Descarta las estadísticas cargadas, para cuando el catálogo cambia
+     * sin pasar por este servicio, como al completar mascotas pendientes
+     */
+    public void invalidarEstadisticas() {
+        estadisticas.invalidar();
+    }
+    
+    /**
+     * Guarda las mascotas con datos incompletos en la tabla de pendientes,
+     * para completarlas después desde la lista de trabajo sin detener el
+     * inicio de la aplicación
+     * 
+     * @param mascotas Lista de mascotas incompletas
+     * @return Número de pendientes nuevas
+     */
+    public int guardarPendientes(List<Mascota> mascotas) {
+        try {
+            int agregadas = pendienteDAO.agregarPendientes(mascotas);
+            System.out.println("Mascotas con datos incompletos guardadas como pendientes: " + agregadas);
+            return agregadas;
+        } catch (Exception e) {
+            System.err.println("Error al guardar mascotas pendientes: " + e.getMessage());
+            return 0;
+        }
     }
     
     /**
@@ -1,27 +1,85 @@
 package udistrital.avanzada.veterinaria.modelo.conexion;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class Conexion {
 
-    private static Connection cn = null;
     private static String URLBD = "jdbc:mysql://localhost:3307/colegio";
     private static String usuario = "root";
     private static String contrasena = "";
+    private static final int POOL_MINIMO = 2;
+    private static final int POOL_MAXIMO = 10;
 
+    private static volatile PoolConexiones pool = null;
+
+    /**
+     * Presta una conexión del pool. Debe devolverse con
+     * {@link #desconectar(Connection)} o cerrándola.
+     *
+     * @return Conexión del pool o null si no se pudo obtener
+     */
     public static Connection getConexion() {
         try {
-cn = DriverManager.getConnection(URLBD, usuario, contrasena);
+            return getPool().obtenerConexion();
         } catch (SQLException ex) {
-            System.out.println("No se puede cargar el controlado");
+            System.out.println("No se puede cargar el controlado: " + ex.getMessage());
         }
-        return cn;
+        return null;
     }
 
-    public static void desconectar() {
-        cn = null;
+    /**
+     * Devuelve al pool una conexión obtenida con {@link #getConexion()}.
+     *
+     * @param cn Conexión a devolver
+     */
+    public static void desconectar(Connection cn) {
+        if (cn != null) {
+            getPool().devolverConexion(cn);
+        }
+    }
+
+    /**
+     * Obtiene el pool de conexiones, creándolo en el primer uso.
+     * Permite consultar sus métricas.
+     *
+     * @return El pool de conexiones compartido
+     */
+    public static PoolConexiones getPool() {
+        PoolConexiones actual = pool;
+        if (actual == null) {
+            synchronized (Conexion.class) {
+                actual = pool;
+                if (actual == null) {
+                    actual = new PoolConexiones(URLBD, usuario, contrasena, POOL_MINIMO, POOL_MAXIMO);
+                    pool = actual;
+                }
+            }
+        }
+        return actual;
     }
-}
 
+    /**
+     * Reemplaza el pool compartido, por ejemplo para apuntar a una base de
+     * datos embebida en pruebas. El pool anterior se cierra.
+     *
+     * @param nuevoPool Pool a utilizar desde ahora
+     */
+    public static synchronized void setPool(PoolConexiones nuevoPool) {
+        PoolConexiones anterior = pool;
+        pool = nuevoPool;
+        if (anterior != null && anterior != nuevoPool) {
+            anterior.cerrar();
+        }
+    }
+
+    /**
+     * Cierra el pool y todas sus conexiones físicas.
+     */
+    public static synchronized void cerrarPool() {
+        if (pool != null) {
+            pool.cerrar();
+            pool = null;
+        }
+    }
+}
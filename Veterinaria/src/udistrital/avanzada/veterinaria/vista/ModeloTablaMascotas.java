@@ -0,0 +1,558 @@
+package udistrital.avanzada.veterinaria.vista;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import udistrital.avanzada.veterinaria.modelo.Mascota;
+
+/**
+ * Modelo virtual de la tabla de mascotas. En lugar de copiar todo el
+ * catálogo en la tabla, conoce solo el número de filas y pide a una fuente
+ * las páginas que se van mostrando al desplazarse. Se conservan como máximo
+ * {@value #MAXIMO_PAGINAS} páginas de {@value #TAMANO_PAGINA} filas, de modo
+ * que la memoria usada no depende del tamaño del catálogo.
+ *
+ * Mientras una página se carga, sus filas muestran un marcador. Las
+ * páginas que llegan se notifican a la tabla agrupadas en un solo evento
+ * por intervalo de {@value #RETARDO_EVENTOS_MS} ms. Una página que no se
+ * pudo cargar se vuelve a pedir hasta {@value #MAXIMO_REINTENTOS} veces, con
+ * una espera que se duplica en cada intento; si sigue fallando, sus filas
+ * muestran un marcador de error y el error se entrega al manejador definido
+ * con {@link #setManejadorErrores}.
+ *
+ * También admite una lista fija de mascotas, para resultados de búsqueda
+ * ya acotados. Todos los métodos deben llamarse desde el EDT.
+ * Con SQLite el cargador debe compartir el turno de las demás operaciones,
+ * porque ConexionBD usa una única conexión.
+ *
+ * Las altas, modificaciones y bajas se aplican fila a fila con
+ * {@link #insertar}, {@link #reemplazar} y {@link #eliminar}, sin volver a
+ * pedir el listado: se desplazan las filas de las páginas cargadas
+ * contiguas y solo se descartan, para volver a pedirlas, las páginas
+ * cuyo contenido ya no se puede deducir.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class ModeloTablaMascotas extends AbstractTableModel {
+
+    /**
+     * Filas que se piden a la fuente en cada carga.
+     */
+    public static final int TAMANO_PAGINA = 200;
+
+    /**
+     * Páginas que se conservan en memoria; se descartan las menos usadas.
+     */
+    public static final int MAXIMO_PAGINAS = 25;
+
+    /**
+     * Tiempo durante el cual se agrupan los eventos de filas actualizadas.
+     */
+    public static final int RETARDO_EVENTOS_MS = 40;
+
+    /**
+     * Reintentos de una página que no se pudo cargar.
+     */
+    public static final int MAXIMO_REINTENTOS = 3;
+
+    /**
+     * Espera antes del primer reintento; se duplica en cada uno.
+     */
+    public static final int RETARDO_REINTENTO_MS = 500;
+
+    private static final String MARCADOR_CARGA = "Cargando...";
+    private static final String MARCADOR_ERROR = "Error al cargar";
+    private static final String[] COLUMNAS = {"Nombre Común", "Apodo", "Clasificación", "Familia", "Género",
+        "Especie", "Tipo Alimento"};
+
+    /**
+     * Origen de las filas de un listado paginado.
+     */
+    public interface FuenteMascotas {
+
+        /**
+         * Obtiene una ventana del listado. Se invoca fuera del EDT.
+         *
+         * @param desde Posición de la primera fila
+         * @param cantidad Número de filas a obtener
+         * @param anterior Fila en la posición desde - 1 si está cargada, o null
+         * @return Filas de la ventana, o null si no se pudieron obtener
+         * @throws Exception Si no se pudieron obtener
+         */
+        List<Mascota> obtener(int desde, int cantidad, Mascota anterior) throws Exception;
+    }
+
+    private final Map<Integer, List<Mascota>> paginas = new LinkedHashMap<Integer, List<Mascota>>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Mascota>> mayor) {
+            return size() > MAXIMO_PAGINAS;
+        }
+    };
+    private final Set<Integer> enCarga = new HashSet<>();
+    private final Set<Integer> fallidas = new HashSet<>();
+    private final Map<Integer, Integer> intentos = new HashMap<>();
+    private final Timer temporizador;
+    private Executor cargador = Runnable::run;
+    private Consumer<Exception> manejadorErrores = e -> { };
+    private int retardoReintentoMs = RETARDO_REINTENTO_MS;
+    private FuenteMascotas fuente;
+    private List<Mascota> lista = new ArrayList<>();
+    private int filas;
+    private int generacion;
+    private int primeraActualizada = Integer.MAX_VALUE;
+    private int ultimaActualizada = -1;
+
+    /**
+     * Crea el modelo vacío, en modo lista.
+     */
+    public ModeloTablaMascotas() {
+        temporizador = new Timer(RETARDO_EVENTOS_MS, e -> notificarActualizadas());
+        temporizador.setRepeats(false);
+    }
+
+    /**
+     * Define el ejecutor con que se cargan las páginas. Por defecto se cargan
+     * en el hilo que las pide.
+     *
+     * @param cargador Ejecutor de las cargas, normalmente fuera del EDT
+     */
+    public void setCargador(Executor cargador) {
+        this.cargador = cargador;
+    }
+
+    /**
+     * Define quién recibe el error de una página que no se pudo cargar tras
+     * agotar los reintentos. Se invoca en el EDT.
+     *
+     * @param manejadorErrores Receptor de los errores de carga
+     */
+    public void setManejadorErrores(Consumer<Exception> manejadorErrores) {
+        this.manejadorErrores = manejadorErrores;
+    }
+
+    /**
+     * Cambia la espera antes del primer reintento, para las pruebas.
+     */
+    void setRetardoReintento(int retardoMs) {
+        this.retardoReintentoMs = retardoMs;
+    }
+
+    /**
+     * Muestra un listado paginado. Las páginas se piden a la fuente a medida
+     * que la tabla las necesita.
+     *
+     * @param fuente Origen de las filas
+     * @param filas Número total de filas del listado
+     */
+    public void setFuente(FuenteMascotas fuente, int filas) {
+        reiniciar();
+        this.fuente = fuente;
+        this.lista = null;
+        this.filas = filas;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Muestra una lista fija de mascotas.
+     *
+     * @param mascotas Mascotas a mostrar
+     */
+    public void setMascotas(List<Mascota> mascotas) {
+        reiniciar();
+        this.fuente = null;
+        this.lista = new ArrayList<>(mascotas);
+        this.filas = lista.size();
+        fireTableDataChanged();
+    }
+
+    /**
+     * @return true si se muestra una lista fija, false si un listado paginado
+     */
+    public boolean isModoLista() {
+        return lista != null;
+    }
+
+    /**
+     * Ordena en memoria la lista fija. En un listado paginado el orden lo
+     * define la fuente y este método no hace nada.
+     *
+     * @param orden Orden a aplicar, el mismo que usaría la fuente
+     */
+    public void ordenarLista(Comparator<Mascota> orden) {
+        if (lista == null) {
+            return;
+        }
+        lista.sort(orden);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Reemplaza la fila de una mascota, si está cargada, por su nuevo
+     * estado. Sirve para modificaciones que no cambian su posición.
+     *
+     * @param mascota Nuevo estado de la mascota
+     * @return true si la mascota estaba cargada y se reemplazó
+     */
+    public boolean reemplazar(Mascota mascota) {
+        if (lista != null) {
+            int fila = buscar(lista, mascota.getApodo());
+            if (fila < 0) {
+                return false;
+            }
+            lista.set(fila, mascota);
+            fireTableRowsUpdated(fila, fila);
+            return true;
+        }
+        for (Map.Entry<Integer, List<Mascota>> entrada : new TreeMap<>(paginas).entrySet()) {
+            int posicion = buscar(entrada.getValue(), mascota.getApodo());
+            if (posicion >= 0) {
+                entrada.getValue().set(posicion, mascota);
+                int fila = entrada.getKey() * TAMANO_PAGINA + posicion;
+                fireTableRowsUpdated(fila, fila);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inserta una mascota en el listado. En un listado paginado se ubica
+     * con el orden de la fuente; si su posición cae dentro de las páginas
+     * cargadas, las filas siguientes se desplazan una posición. En una
+     * lista fija se añade al final.
+     *
+     * @param mascota Mascota a insertar
+     * @param orden Orden del listado paginado, el mismo que usa la fuente
+     */
+    public void insertar(Mascota mascota, Comparator<Mascota> orden) {
+        if (lista != null) {
+            lista.add(mascota);
+            filas++;
+            fireTableRowsInserted(filas - 1, filas - 1);
+            return;
+        }
+        TreeMap<Integer, List<Mascota>> cargadas = new TreeMap<>(paginas);
+        int fila = -1;
+        int primeraAfectada = -1;
+        for (Map.Entry<Integer, List<Mascota>> entrada : cargadas.entrySet()) {
+            List<Mascota> mascotas = entrada.getValue();
+            if (mascotas.isEmpty() || orden.compare(mascota, mascotas.get(mascotas.size() - 1)) > 0) {
+                continue; // Va después de toda la página
+            }
+            primeraAfectada = entrada.getKey();
+            // Si la página anterior no está cargada y va antes de la primera fila, no se sabe dónde cae
+            if (primeraAfectada == 0 || orden.compare(mascota, mascotas.get(0)) > 0) {
+                fila = primeraAfectada * TAMANO_PAGINA + posicionOrdenada(mascotas, mascota, orden);
+            }
+            break;
+        }
+        if (primeraAfectada < 0 && (filas == 0 || cargadas.containsKey((filas - 1) / TAMANO_PAGINA))) {
+            fila = filas; // Va después de la última fila, que está cargada
+        }
+
+        if (fila >= 0) {
+            int pagina = fila / TAMANO_PAGINA;
+            int posicion = fila % TAMANO_PAGINA;
+            Mascota desplazada = mascota;
+            List<Mascota> mascotas = cargadas.get(pagina);
+            while (mascotas != null && desplazada != null) {
+                mascotas.add(posicion, desplazada);
+                desplazada = mascotas.size() > TAMANO_PAGINA ? mascotas.remove(TAMANO_PAGINA) : null;
+                pagina++;
+                posicion = 0;
+                mascotas = cargadas.get(pagina);
+            }
+            if (desplazada != null) {
+                descartarDesde(pagina); // La fila desplazada cae en una página no cargada
+            }
+        } else if (primeraAfectada >= 0) {
+            descartarDesde(primeraAfectada);
+        }
+        filas++;
+        invalidarCargas();
+        if (fila >= 0) {
+            fireTableRowsInserted(fila, fila);
+        } else {
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Quita una mascota del listado. En un listado paginado, si está
+     * cargada, las filas de las páginas cargadas siguientes suben una
+     * posición; si no, se ubica con el orden de la fuente y se descartan
+     * las páginas que quedan desplazadas.
+     *
+     * @param mascota Mascota a quitar, con el estado con que se listó
+     * @param orden Orden del listado paginado, el mismo que usa la fuente
+     */
+    public void eliminar(Mascota mascota, Comparator<Mascota> orden) {
+        if (lista != null) {
+            int fila = buscar(lista, mascota.getApodo());
+            if (fila >= 0) {
+                lista.remove(fila);
+                filas--;
+                fireTableRowsDeleted(fila, fila);
+            }
+            return;
+        }
+        TreeMap<Integer, List<Mascota>> cargadas = new TreeMap<>(paginas);
+        int fila = -1;
+        for (Map.Entry<Integer, List<Mascota>> entrada : cargadas.entrySet()) {
+            int posicion = buscar(entrada.getValue(), mascota.getApodo());
+            if (posicion >= 0) {
+                fila = entrada.getKey() * TAMANO_PAGINA + posicion;
+                break;
+            }
+        }
+
+        if (fila >= 0) {
+            int pagina = fila / TAMANO_PAGINA;
+            List<Mascota> mascotas = cargadas.get(pagina);
+            mascotas.remove(fila % TAMANO_PAGINA);
+            List<Mascota> siguiente = cargadas.get(pagina + 1);
+            while (siguiente != null && !siguiente.isEmpty()) {
+                mascotas.add(siguiente.remove(0));
+                pagina++;
+                mascotas = siguiente;
+                siguiente = cargadas.get(pagina + 1);
+            }
+            if ((pagina + 1) * TAMANO_PAGINA < filas || mascotas.isEmpty()) {
+                descartarDesde(pagina); // Quedó incompleta sin ser la última
+            }
+        } else {
+            for (Map.Entry<Integer, List<Mascota>> entrada : cargadas.entrySet()) {
+                List<Mascota> mascotas = entrada.getValue();
+                if (!mascotas.isEmpty() && orden.compare(mascota, mascotas.get(mascotas.size() - 1)) <= 0) {
+                    descartarDesde(entrada.getKey());
+                    break;
+                }
+            }
+        }
+        filas = Math.max(0, filas - 1);
+        invalidarCargas();
+        if (fila >= 0) {
+            fireTableRowsDeleted(fila, fila);
+        } else {
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Obtiene la mascota de una fila. En un listado paginado, si la página
+     * no está cargada se pide y se devuelve null.
+     *
+     * @param fila Índice de la fila
+     * @return Mascota de la fila, o null si aún no está cargada
+     */
+    public Mascota getMascotaEn(int fila) {
+        if (fila < 0 || fila >= filas) {
+            return null;
+        }
+        if (lista != null) {
+            return lista.get(fila);
+        }
+        int pagina = fila / TAMANO_PAGINA;
+        int posicion = fila % TAMANO_PAGINA;
+        if (posicion >= TAMANO_PAGINA / 2) {
+            solicitar(pagina + 1); // Se adelanta la siguiente al pasar la mitad
+        }
+        List<Mascota> mascotas = paginas.get(pagina);
+        if (mascotas == null) {
+            solicitar(pagina);
+            return null;
+        }
+        return posicion < mascotas.size() ? mascotas.get(posicion) : null;
+    }
+
+    /**
+     * @return Número de páginas cargadas en memoria
+     */
+    public int getPaginasCargadas() {
+        return paginas.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Tabla de solo lectura
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        Mascota mascota = getMascotaEn(fila);
+        if (mascota == null) {
+            if (columna != 1) {
+                return null;
+            }
+            return lista == null && fallidas.contains(fila / TAMANO_PAGINA) ? MARCADOR_ERROR : MARCADOR_CARGA;
+        }
+        return valor(mascota, columna);
+    }
+
+    private static Object valor(Mascota mascota, int columna) {
+        switch (columna) {
+            case 0: return mascota.getNombreComun();
+            case 1: return mascota.getApodo();
+            case 2: return mascota.getClasificacion();
+            case 3: return mascota.getFamilia();
+            case 4: return mascota.getGenero();
+            case 5: return mascota.getEspecie();
+            default: return mascota.getTipoAlimentoPrincipal();
+        }
+    }
+
+    /**
+     * Lanza la carga de una página si no está cargada, en curso o fallida.
+     */
+    private void solicitar(int pagina) {
+        int desde = pagina * TAMANO_PAGINA;
+        if (desde >= filas || paginas.containsKey(pagina) || enCarga.contains(pagina) || fallidas.contains(pagina)) {
+            return;
+        }
+        enCarga.add(pagina);
+        // Si la página anterior está completa, su última fila sirve de cursor
+        List<Mascota> previa = paginas.get(pagina - 1);
+        Mascota anterior = previa != null && previa.size() == TAMANO_PAGINA ? previa.get(TAMANO_PAGINA - 1) : null;
+        int cantidad = Math.min(TAMANO_PAGINA, filas - desde);
+        int generacionCarga = generacion;
+        FuenteMascotas origen = fuente;
+        cargador.execute(() -> {
+            List<Mascota> mascotas = null;
+            Exception error = null;
+            try {
+                mascotas = origen.obtener(desde, cantidad, anterior);
+            } catch (Exception e) {
+                error = e;
+            }
+            if (mascotas == null && error == null) {
+                error = new Exception("No se pudieron cargar las filas " + (desde + 1) + " a " + (desde + cantidad));
+            }
+            List<Mascota> cargadas = mascotas;
+            Exception fallo = error;
+            SwingUtilities.invokeLater(() -> aplicarPagina(generacionCarga, pagina, cargadas, fallo));
+        });
+    }
+
+    /**
+     * Vuelve a pedir una página tras la espera de su reintento, si el
+     * listado no cambió mientras tanto.
+     */
+    private void reintentar(int generacionCarga, int pagina) {
+        if (generacionCarga != generacion) {
+            return;
+        }
+        enCarga.remove(pagina);
+        solicitar(pagina);
+    }
+
+    private void aplicarPagina(int generacionCarga, int pagina, List<Mascota> mascotas, Exception error) {
+        if (generacionCarga != generacion) {
+            return; // Pertenece a un listado anterior
+        }
+        if (mascotas == null) {
+            int intento = intentos.merge(pagina, 1, Integer::sum);
+            if (intento <= MAXIMO_REINTENTOS) {
+                // Sigue en carga mientras espera, para no pedirla en cada repintado
+                Timer reintento = new Timer(retardoReintentoMs << (intento - 1),
+                        e -> reintentar(generacionCarga, pagina));
+                reintento.setRepeats(false);
+                reintento.start();
+                return;
+            }
+            enCarga.remove(pagina);
+            intentos.remove(pagina);
+            fallidas.add(pagina);
+            int desde = pagina * TAMANO_PAGINA;
+            fireTableRowsUpdated(desde, Math.min(desde + TAMANO_PAGINA, filas) - 1);
+            manejadorErrores.accept(error);
+            return;
+        }
+        enCarga.remove(pagina);
+        intentos.remove(pagina);
+        // Copia modificable, para aplicar altas y bajas sobre la página
+        paginas.put(pagina, new ArrayList<>(mascotas));
+        int desde = pagina * TAMANO_PAGINA;
+        primeraActualizada = Math.min(primeraActualizada, desde);
+        ultimaActualizada = Math.max(ultimaActualizada, desde + TAMANO_PAGINA - 1);
+        if (!temporizador.isRunning()) {
+            temporizador.start();
+        }
+    }
+
+    private void notificarActualizadas() {
+        int ultima = Math.min(ultimaActualizada, filas - 1);
+        if (primeraActualizada <= ultima) {
+            fireTableRowsUpdated(primeraActualizada, ultima);
+        }
+        primeraActualizada = Integer.MAX_VALUE;
+        ultimaActualizada = -1;
+    }
+
+    private static int buscar(List<Mascota> mascotas, String apodo) {
+        for (int i = 0; i < mascotas.size(); i++) {
+            if (mascotas.get(i).getApodo().equals(apodo)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int posicionOrdenada(List<Mascota> mascotas, Mascota mascota, Comparator<Mascota> orden) {
+        int posicion = Collections.binarySearch(mascotas, mascota, orden);
+        return posicion >= 0 ? posicion : -posicion - 1;
+    }
+
+    private void descartarDesde(int pagina) {
+        paginas.keySet().removeIf(p -> p >= pagina);
+    }
+
+    /**
+     * Tras desplazar filas, las cargas en curso o fallidas se refieren a
+     * posiciones que ya no valen: se ignoran y se vuelven a pedir.
+     */
+    private void invalidarCargas() {
+        generacion++;
+        enCarga.clear();
+        fallidas.clear();
+        intentos.clear();
+    }
+
+    private void reiniciar() {
+        generacion++;
+        temporizador.stop();
+        paginas.clear();
+        enCarga.clear();
+        fallidas.clear();
+        intentos.clear();
+        primeraActualizada = Integer.MAX_VALUE;
+        ultimaActualizada = -1;
+    }
+}
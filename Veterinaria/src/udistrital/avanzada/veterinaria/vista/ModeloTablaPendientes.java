@@ -0,0 +1,217 @@
+package udistrital.avanzada.veterinaria.vista;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.swing.table.AbstractTableModel;
+import udistrital.avanzada.veterinaria.modelo.Clasificacion;
+import udistrital.avanzada.veterinaria.modelo.Mascota;
+import udistrital.avanzada.veterinaria.modelo.MascotaPendiente;
+import udistrital.avanzada.veterinaria.modelo.TipoAlimento;
+
+/**
+ * Modelo editable de la lista de mascotas pendientes. Las celdas se editan
+ * en memoria y se recuerdan las filas modificadas hasta que se guardan.
+ * Todos los métodos deben llamarse desde el EDT.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class ModeloTablaPendientes extends AbstractTableModel {
+
+    /**
+     * Columna de la clasificación, que se edita con una lista de valores
+     */
+    public static final int COLUMNA_CLASIFICACION = 2;
+
+    /**
+     * Columna del tipo de alimento, que se edita con una lista de valores
+     */
+    public static final int COLUMNA_TIPO_ALIMENTO = 6;
+
+    private static final String[] COLUMNAS = {"Nombre Común", "Apodo", "Clasificación", "Familia", "Género",
+        "Especie", "Tipo Alimento"};
+
+    private List<MascotaPendiente> pendientes = new ArrayList<>();
+    private final Set<Long> modificadas = new HashSet<>();
+
+    /**
+     * Reemplaza las filas de la tabla y olvida las modificaciones
+     *
+     * @param pendientes Mascotas pendientes a mostrar
+     */
+    public void setPendientes(List<MascotaPendiente> pendientes) {
+        this.pendientes = new ArrayList<>(pendientes);
+        modificadas.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * @param fila Índice de la fila en el modelo
+     * @return La pendiente de la fila
+     */
+    public MascotaPendiente getPendiente(int fila) {
+        return pendientes.get(fila);
+    }
+
+    /**
+     * @param filas Índices de filas en el modelo
+     * @return Las pendientes de esas filas
+     */
+    public List<MascotaPendiente> getPendientes(int[] filas) {
+        List<MascotaPendiente> seleccionadas = new ArrayList<>(filas.length);
+        for (int fila : filas) {
+            seleccionadas.add(pendientes.get(fila));
+        }
+        return seleccionadas;
+    }
+
+    /**
+     * @return Las pendientes que ya tienen todos los datos
+     */
+    public List<MascotaPendiente> getCompletas() {
+        List<MascotaPendiente> completas = new ArrayList<>();
+        for (MascotaPendiente pendiente : pendientes) {
+            if (pendiente.estaCompleta()) {
+                completas.add(pendiente);
+            }
+        }
+        return completas;
+    }
+
+    /**
+     * @return Las pendientes editadas desde la última carga o guardado
+     */
+    public List<MascotaPendiente> getModificadas() {
+        List<MascotaPendiente> resultado = new ArrayList<>();
+        for (MascotaPendiente pendiente : pendientes) {
+            if (modificadas.contains(pendiente.getId())) {
+                resultado.add(pendiente);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Olvida las modificaciones de unas pendientes, tras guardarlas
+     *
+     * @param guardadas Las pendientes guardadas
+     */
+    public void marcarGuardadas(List<MascotaPendiente> guardadas) {
+        for (MascotaPendiente pendiente : guardadas) {
+            modificadas.remove(pendiente.getId());
+        }
+    }
+
+    /**
+     * Quita filas de la tabla, tras importarlas o descartarlas
+     *
+     * @param quitadas Las pendientes a quitar
+     */
+    public void quitar(List<MascotaPendiente> quitadas) {
+        Map<Long, MascotaPendiente> porId = new LinkedHashMap<>();
+        for (MascotaPendiente pendiente : quitadas) {
+            porId.put(pendiente.getId(), pendiente);
+            modificadas.remove(pendiente.getId());
+        }
+        pendientes.removeIf(pendiente -> porId.containsKey(pendiente.getId()));
+        fireTableDataChanged();
+    }
+
+    /**
+     * Asigna el mismo valor a una columna de varias filas
+     *
+     * @param filas Índices de filas en el modelo
+     * @param columna Columna a modificar
+     * @param valor Valor a asignar; texto, {@link Clasificacion} o {@link TipoAlimento} según la columna
+     */
+    public void asignar(int[] filas, int columna, Object valor) {
+        for (int fila : filas) {
+            setValueAt(valor, fila, columna);
+        }
+    }
+
+    /**
+     * Reemplaza todos los datos de una fila, tras completarla en el formulario
+     *
+     * @param fila Índice de la fila en el modelo
+     * @param mascota Datos completos
+     */
+    public void reemplazar(int fila, Mascota mascota) {
+        for (int columna = 0; columna < COLUMNAS.length; columna++) {
+            setValueAt(valorDe(mascota, columna), fila, columna);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return pendientes.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columna) {
+        switch (columna) {
+            case COLUMNA_CLASIFICACION: return Clasificacion.class;
+            case COLUMNA_TIPO_ALIMENTO: return TipoAlimento.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int fila, int columna) {
+        return true;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        return valorDe(pendientes.get(fila).getMascota(), columna);
+    }
+
+    @Override
+    public void setValueAt(Object valor, int fila, int columna) {
+        MascotaPendiente pendiente = pendientes.get(fila);
+        Mascota mascota = pendiente.getMascota();
+        String texto = valor instanceof String ? ((String) valor).trim() : null;
+        if (texto != null && texto.isEmpty()) {
+            texto = null;
+        }
+        switch (columna) {
+            case 0: mascota.setNombreComun(texto); break;
+            case 1: mascota.setApodo(texto); break;
+            case COLUMNA_CLASIFICACION: mascota.setClasificacion((Clasificacion) valor); break;
+            case 3: mascota.setFamilia(texto); break;
+            case 4: mascota.setGenero(texto); break;
+            case 5: mascota.setEspecie(texto); break;
+            case COLUMNA_TIPO_ALIMENTO: mascota.setTipoAlimentoPrincipal((TipoAlimento) valor); break;
+            default: return;
+        }
+        modificadas.add(pendiente.getId());
+        fireTableCellUpdated(fila, columna);
+    }
+
+    private static Object valorDe(Mascota mascota, int columna) {
+        switch (columna) {
+            case 0: return mascota.getNombreComun();
+            case 1: return mascota.getApodo();
+            case COLUMNA_CLASIFICACION: return mascota.getClasificacion();
+            case 3: return mascota.getFamilia();
+            case 4: return mascota.getGenero();
+            case 5: return mascota.getEspecie();
+            case COLUMNA_TIPO_ALIMENTO: return mascota.getTipoAlimentoPrincipal();
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package udistrital.avanzada.veterinaria.vista;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.event.ActionListener;
+import javax.swing.DefaultCellEditor;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import udistrital.avanzada.veterinaria.modelo.Clasificacion;
+import udistrital.avanzada.veterinaria.modelo.TipoAlimento;
+
+/**
+ * Ventana no modal con la lista de trabajo de las mascotas pendientes.
+ * Permite editar las celdas, asignar un mismo valor a todas las filas
+ * seleccionadas, completar una fila en el formulario y pasar al catálogo las
+ * que ya están completas. Las celdas sin dato se resaltan.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+public class VentanaPendientes extends JDialog {
+
+    private static final Color COLOR_FALTANTE = new Color(255, 225, 225);
+
+    // Componentes de visualización
+    private JTable tablaPendientes;
+    private ModeloTablaPendientes modeloTabla;
+    private JLabel lblMensaje;
+
+    // Componentes de edición en bloque
+    private JComboBox<String> cmbColumna;
+    private JComboBox<Object> cmbValor;
+
+    // Componentes de acción
+    private JButton btnAplicar;
+    private JButton btnCompletar;
+    private JButton btnGuardar;
+    private JButton btnImportar;
+    private JButton btnDescartar;
+    private JButton btnRecargar;
+
+    /**
+     * Constructor que inicializa la ventana de pendientes
+     *
+     * @param parent La ventana principal
+     */
+    public VentanaPendientes(JFrame parent) {
+        super(parent, "Mascotas Pendientes de Completar", false);
+        inicializarComponentes();
+        configurarVentana();
+        organizarComponentes();
+    }
+
+    /**
+     * Inicializa todos los componentes de la interfaz
+     */
+    private void inicializarComponentes() {
+        // Tabla editable; las columnas de listas se editan con un combo
+        modeloTabla = new ModeloTablaPendientes();
+        tablaPendientes = new JTable(modeloTabla);
+        tablaPendientes.getTableHeader().setReorderingAllowed(false);
+        tablaPendientes.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
+        tablaPendientes.setDefaultEditor(Clasificacion.class,
+                new DefaultCellEditor(new JComboBox<>(Clasificacion.values())));
+        tablaPendientes.setDefaultEditor(TipoAlimento.class,
+                new DefaultCellEditor(new JComboBox<>(TipoAlimento.values())));
+        DefaultTableCellRenderer resaltador = new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                    boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                if (!isSelected) {
+                    setBackground(value == null ? COLOR_FALTANTE : table.getBackground());
+                }
+                return this;
+            }
+        };
+        tablaPendientes.setDefaultRenderer(Object.class, resaltador);
+        tablaPendientes.setDefaultRenderer(String.class, resaltador);
+        tablaPendientes.setDefaultRenderer(Clasificacion.class, resaltador);
+        tablaPendientes.setDefaultRenderer(TipoAlimento.class, resaltador);
+
+        // Edición en bloque: el combo de valores cambia según la columna
+        String[] columnas = new String[modeloTabla.getColumnCount()];
+        for (int i = 0; i < columnas.length; i++) {
+            columnas[i] = modeloTabla.getColumnName(i);
+        }
+        cmbColumna = new JComboBox<>(columnas);
+        cmbColumna.setSelectedIndex(ModeloTablaPendientes.COLUMNA_TIPO_ALIMENTO);
+        cmbValor = new JComboBox<>();
+        actualizarValores();
+        cmbColumna.addActionListener(e -> actualizarValores());
+
+        // Botones
+        btnAplicar = new JButton("Aplicar a seleccionadas");
+        btnCompletar = new JButton("Completar seleccionada");
+        btnGuardar = new JButton("Guardar cambios");
+        btnImportar = new JButton("Importar completas");
+        btnDescartar = new JButton("Descartar seleccionadas");
+        btnRecargar = new JButton("Recargar pendientes");
+
+        // Etiqueta de mensajes
+        lblMensaje = new JLabel(" ");
+    }
+
+    /**
+     * Configura las propiedades de la ventana
+     */
+    private void configurarVentana() {
+        setSize(950, 500);
+        setLocationRelativeTo(getParent());
+        setDefaultCloseOperation(JDialog.HIDE_ON_CLOSE);
+    }
+
+    /**
+     * Organiza los componentes en la ventana
+     */
+    private void organizarComponentes() {
+        setLayout(new BorderLayout());
+
+        JPanel panelBloque = new JPanel();
+        panelBloque.setBorder(javax.swing.BorderFactory.createTitledBorder("Asignar a las filas seleccionadas"));
+        panelBloque.add(new JLabel("Columna:"));
+        panelBloque.add(cmbColumna);
+        panelBloque.add(new JLabel("Valor:"));
+        panelBloque.add(cmbValor);
+        panelBloque.add(btnAplicar);
+        add(panelBloque, BorderLayout.NORTH);
+
+        add(new JScrollPane(tablaPendientes), BorderLayout.CENTER);
+
+        JPanel panelInferior = new JPanel(new BorderLayout());
+        JPanel panelBotones = new JPanel();
+        panelBotones.add(btnCompletar);
+        panelBotones.add(btnGuardar);
+        panelBotones.add(btnImportar);
+        panelBotones.add(btnDescartar);
+        panelBotones.add(btnRecargar);
+        panelInferior.add(panelBotones, BorderLayout.CENTER);
+        JPanel panelMensaje = new JPanel();
+        panelMensaje.add(lblMensaje);
+        panelInferior.add(panelMensaje, BorderLayout.SOUTH);
+        add(panelInferior, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Llena el combo de valores según la columna elegida: las listas ofrecen
+     * sus valores y las columnas de texto permiten escribir uno
+     */
+    private void actualizarValores() {
+        int columna = cmbColumna.getSelectedIndex();
+        if (columna == ModeloTablaPendientes.COLUMNA_CLASIFICACION) {
+            cmbValor.setModel(new DefaultComboBoxModel<>(Clasificacion.values()));
+            cmbValor.setEditable(false);
+        } else if (columna == ModeloTablaPendientes.COLUMNA_TIPO_ALIMENTO) {
+            cmbValor.setModel(new DefaultComboBoxModel<>(TipoAlimento.values()));
+            cmbValor.setEditable(false);
+        } else {
+            cmbValor.setModel(new DefaultComboBoxModel<>());
+            cmbValor.setEditable(true);
+        }
+    }
+
+    /**
+     * Obtiene la columna elegida para la edición en bloque
+     *
+     * @return Índice de la columna en el modelo
+     */
+    public int getColumnaBloque() {
+        return cmbColumna.getSelectedIndex();
+    }
+
+    /**
+     * Obtiene el valor elegido para la edición en bloque
+     *
+     * @return Texto, {@link Clasificacion} o {@link TipoAlimento} según la columna
+     */
+    public Object getValorBloque() {
+        Object valor = cmbValor.isEditable() ? cmbValor.getEditor().getItem() : cmbValor.getSelectedItem();
+        return valor == null ? "" : valor;
+    }
+
+    /**
+     * Obtiene las filas seleccionadas, terminando antes la edición en curso
+     *
+     * @return Índices de las filas seleccionadas en el modelo
+     */
+    public int[] getFilasSeleccionadas() {
+        terminarEdicion();
+        int[] filas = tablaPendientes.getSelectedRows();
+        for (int i = 0; i < filas.length; i++) {
+            filas[i] = tablaPendientes.convertRowIndexToModel(filas[i]);
+        }
+        return filas;
+    }
+
+    /**
+     * Guarda en el modelo el valor de la celda que se está editando
+     */
+    public void terminarEdicion() {
+        if (tablaPendientes.isEditing()) {
+            tablaPendientes.getCellEditor().stopCellEditing();
+        }
+    }
+
+    /**
+     * Obtiene el modelo de la tabla de pendientes
+     *
+     * @return Modelo de la tabla
+     */
+    public ModeloTablaPendientes getModeloTabla() {
+        return modeloTabla;
+    }
+
+    /**
+     * Muestra un mensaje en la etiqueta de mensajes
+     *
+     * @param mensaje El mensaje a mostrar
+     */
+    public void mostrarMensaje(String mensaje) {
+        lblMensaje.setText(mensaje);
+    }
+
+    /**
+     * Muestra u oculta el indicador de operación en curso
+     *
+     * @param ocupado true mientras haya operaciones pendientes
+     */
+    public void mostrarOcupado(boolean ocupado) {
+        setCursor(ocupado ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    /**
+     * Pide confirmación al usuario
+     *
+     * @param mensaje La pregunta a mostrar
+     * @return true si el usuario acepta
+     */
+    public boolean confirmar(String mensaje) {
+        return JOptionPane.showConfirmDialog(this, mensaje, "Confirmar",
+                JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION;
+    }
+
+    // Métodos para registrar listeners
+
+    /**
+     * Registra el ActionListener para todos los botones
+     *
+     * @param listener El ActionListener a registrar
+     */
+    public void registrarActionListener(ActionListener listener) {
+        btnAplicar.addActionListener(listener);
+        btnCompletar.addActionListener(listener);
+        btnGuardar.addActionListener(listener);
+        btnImportar.addActionListener(listener);
+        btnDescartar.addActionListener(listener);
+        btnRecargar.addActionListener(listener);
+    }
+}
@@ -1,6 +1,8 @@
 package udistrital.avanzada.veterinaria.vista;
 
 import java.awt.BorderLayout;
+import java.awt.Cursor;
+import java.awt.Dimension;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
@@ -12,10 +14,10 @@ import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
-import javax.swing.table.DefaultTableModel;
 import udistrital.avanzada.veterinaria.modelo.Clasificacion;
 import udistrital.avanzada.veterinaria.modelo.Mascota;
 import udistrital.avanzada.veterinaria.modelo.TipoAlimento;
@@ -52,12 +54,14 @@ public class VentanaPrincipal extends JFrame {
     private JButton btnEliminar;
     private JButton btnLimpiar;
     private JButton btnSerializar;
+    private JButton btnPendientes;
     private JButton btnSalir;
     
     // Componentes de visualización
     private JTable tablaMascotas;
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaMascotas modeloTabla;
     private JLabel lblMensaje;
+    private JProgressBar barraOcupado;
     
     /**
      * Constructor que inicializa la ventana principal
@@ -94,20 +98,22 @@ public class VentanaPrincipal extends JFrame {
         btnEliminar = new JButton("Eliminar");
         btnLimpiar = new JButton("Limpiar");
         btnSerializar = new JButton("Serializar a IDPYBA");
+        btnPendientes = new JButton("Pendientes");
         btnSalir = new JButton("Salir");
         
-        // Tabla de resultados
-        String[] columnas = {"Nombre Común", "Apodo", "Clasificación", "Familia", "Género", "Especie", "Tipo Alimento"};
-        modeloTabla = new DefaultTableModel(columnas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Hacer la tabla de solo lectura
-            }
-        };
+        // Tabla de resultados; las filas se cargan por páginas al desplazarse
+        modeloTabla = new ModeloTablaMascotas();
         tablaMascotas = new JTable(modeloTabla);
+        tablaMascotas.getTableHeader().setReorderingAllowed(false);
         
         // Etiqueta de mensajes
         lblMensaje = new JLabel(" ");
+        
+        // Indicador de operación en curso
+        barraOcupado = new JProgressBar();
+        barraOcupado.setIndeterminate(true);
+        barraOcupado.setPreferredSize(new Dimension(80, 12));
+        barraOcupado.setVisible(false);
     }
     
     /**
@@ -133,6 +139,7 @@ public class VentanaPrincipal extends JFrame {
         
         // Panel de mensajes en la parte inferior
         JPanel panelMensaje = new JPanel();
+        panelMensaje.add(barraOcupado);
         panelMensaje.add(lblMensaje);
         add(panelMensaje, BorderLayout.SOUTH);
     }
@@ -281,6 +288,7 @@ public class VentanaPrincipal extends JFrame {
         panel.add(btnEliminar);
         panel.add(btnLimpiar);
         panel.add(btnSerializar);
+        panel.add(btnPendientes);
         panel.add(btnSalir);
         return panel;
     }
@@ -444,41 +452,34 @@ public class VentanaPrincipal extends JFrame {
      * @param mascotas Lista de mascotas a mostrar
      */
     public void actualizarTabla(List<Mascota> mascotas) {
-        modeloTabla.setRowCount(0); // Limpiar tabla
-        
-        for (Mascota mascota : mascotas) {
-            Object[] fila = {
-                mascota.getNombreComun(),
-                mascota.getApodo(),
-                mascota.getClasificacion(),
-                mascota.getFamilia(),
-                mascota.getGenero(),
-                mascota.getEspecie(),
-                mascota.getTipoAlimentoPrincipal()
-            };
-            modeloTabla.addRow(fila);
-        }
+        modeloTabla.setMascotas(mascotas);
     }
     
     /**
      * Obtiene la mascota seleccionada en la tabla
      * 
-     * @return La mascota seleccionada o null si no hay selección
+     * @return La mascota seleccionada o null si no hay selección o su fila aún no está cargada
      */
     public Mascota getMascotaSeleccionada() {
-        int filaSeleccionada = tablaMascotas.getSelectedRow();
-        if (filaSeleccionada >= 0) {
-            Mascota mascota = new Mascota();
-            mascota.setNombreComun((String) modeloTabla.getValueAt(filaSeleccionada, 0));
-            mascota.setApodo((String) modeloTabla.getValueAt(filaSeleccionada, 1));
-            mascota.setClasificacion((Clasificacion) modeloTabla.getValueAt(filaSeleccionada, 2));
-            mascota.setFamilia((String) modeloTabla.getValueAt(filaSeleccionada, 3));
-            mascota.setGenero((String) modeloTabla.getValueAt(filaSeleccionada, 4));
-            mascota.setEspecie((String) modeloTabla.getValueAt(filaSeleccionada, 5));
-            mascota.setTipoAlimentoPrincipal((TipoAlimento) modeloTabla.getValueAt(filaSeleccionada, 6));
-            return mascota;
-        }
-        return null;
+        return modeloTabla.getMascotaEn(tablaMascotas.getSelectedRow());
+    }
+    
+    /**
+     * Obtiene el modelo de la tabla de mascotas
+     * 
+     * @return Modelo de la tabla
+     */
+    public ModeloTablaMascotas getModeloTabla() {
+        return modeloTabla;
+    }
+    
+    /**
+     * Obtiene la tabla de mascotas
+     * 
+     * @return Tabla de mascotas
+     */
+    public JTable getTablaMascotas() {
+        return tablaMascotas;
     }
     
     /**
@@ -490,6 +491,16 @@ public class VentanaPrincipal extends JFrame {
         lblMensaje.setText(mensaje);
     }
     
+    /**
+     * Muestra u oculta el indicador de operación en curso
+     * 
+     * @param ocupado true mientras haya operaciones pendientes
+     */
+    public void mostrarOcupado(boolean ocupado) {
+        barraOcupado.setVisible(ocupado);
+        setCursor(ocupado ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+    
     // Métodos para registrar listeners
     
     /**
@@ -504,6 +515,7 @@ public class VentanaPrincipal extends JFrame {
         btnEliminar.addActionListener(listener);
         btnLimpiar.addActionListener(listener);
         btnSerializar.addActionListener(listener);
+        btnPendientes.addActionListener(listener);
         btnSalir.addActionListener(listener);
     }
 }
@@ -0,0 +1,93 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Pruebas de la huella de archivos con la que se omiten, al iniciar, los
+ * archivos de mascotas que no cambiaron desde la última importación.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+@DisplayName("Pruebas de HuellaArchivo")
+public class HuellaArchivoTest {
+
+    private static final String CONTENIDO = "Animal.Rex=Perro, Rex, MAMIFERO, Canidae, Canis, Canis lupus, CARNES\n";
+
+    private Path carpeta;
+
+    /**
+     * Crea la carpeta de los archivos
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        carpeta = Files.createTempDirectory("huella");
+    }
+
+    /**
+     * Borra la carpeta y sus archivos
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> archivos = Files.list(carpeta)) {
+            for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(carpeta);
+    }
+
+    @Test
+    @DisplayName("Archivos con el mismo contenido tienen la misma huella")
+    public void testMismoContenidoMismaHuella() throws IOException {
+        // Arrange
+        Path primero = escribir("mascotas1.properties", CONTENIDO);
+        Path segundo = escribir("mascotas2.properties", CONTENIDO);
+
+        // Act
+        String huellaPrimero = HuellaArchivo.calcular(primero.toString());
+        String huellaSegundo = HuellaArchivo.calcular(segundo.toString());
+
+        // Assert
+        assertEquals(huellaPrimero, huellaSegundo);
+        assertEquals(huellaPrimero, HuellaArchivo.calcular(primero.toString()), "La huella debería ser estable");
+    }
+
+    @Test
+    @DisplayName("Editar el archivo cambia su huella, aunque conserve el tamaño")
+    public void testEdicionCambiaHuella() throws IOException {
+        // Arrange
+        Path archivo = escribir("mascotas.properties", CONTENIDO);
+        String antes = HuellaArchivo.calcular(archivo.toString());
+
+        // Act
+        escribir("mascotas.properties", CONTENIDO.replace("Rex", "Rey"));
+        String despues = HuellaArchivo.calcular(archivo.toString());
+
+        // Assert
+        assertNotEquals(antes, despues);
+    }
+
+    @Test
+    @DisplayName("Un archivo que no existe produce IOException")
+    public void testArchivoInexistente() {
+        // Arrange
+        String inexistente = carpeta.resolve("no_existe.properties").toString();
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> HuellaArchivo.calcular(inexistente));
+    }
+
+    private Path escribir(String nombre, String contenido) throws IOException {
+        return Files.write(carpeta.resolve(nombre), contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,189 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pruebas del importador paralelo: deduplicación entre varios archivos,
+ * archivo de rechazos y contrapresión entre etapas. El DAO es un sustituto
+ * en memoria que solo implementa la inserción por lotes, para no depender
+ * de la base de datos.
+ * 
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+@DisplayName("Pruebas del ImportadorParalelo")
+public class ImportadorParaleloTest {
+    
+    private Path carpeta;
+    private List<Mascota> recibidas;
+    private CountDownLatch liberarInsercion;
+    
+    /**
+     * Crea la carpeta de los archivos y el DAO sustituto
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        carpeta = Files.createTempDirectory("importador_paralelo");
+        recibidas = Collections.synchronizedList(new ArrayList<>());
+        liberarInsercion = new CountDownLatch(0);
+    }
+    
+    /**
+     * Borra los archivos de la prueba
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var archivos = Files.list(carpeta)) {
+            for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(carpeta);
+    }
+    
+    @Test
+    @DisplayName("Un apodo repetido en varios archivos se inserta una sola vez")
+    void testDeduplicaEntreArchivos() throws Exception {
+        // Arrange
+        List<String> archivos = Arrays.asList(
+                archivo("uno.properties", "Kiwi", "Rex", "Luna"),
+                archivo("dos.properties", "Rex", "Coco", "Kiwi"),
+                archivo("tres.properties", "Luna", "Pipo", "Coco"));
+        ImportadorParalelo importador = new ImportadorParalelo(dao(), 3, 2, 1, 2, 1000);
+        
+        // Act
+        ResumenImportacion resumen = importador.importar(archivos, rechazos(), null, null);
+        
+        // Assert
+        assertEquals(9, resumen.getLeidas());
+        assertEquals(5, resumen.getInsertadas());
+        assertEquals(4, resumen.getDuplicadas());
+        Set<String> apodos = new HashSet<>();
+        for (Mascota mascota : recibidas) {
+            assertTrue(apodos.add(mascota.getApodo()), "Apodo enviado dos veces: " + mascota.getApodo());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("Kiwi", "Rex", "Luna", "Coco", "Pipo")), apodos);
+        assertFalse(Files.exists(Path.of(rechazos())), "Sin rechazos no debería crearse el archivo");
+    }
+    
+    @Test
+    @DisplayName("Las entradas inválidas se escriben en el archivo de rechazos con su archivo y línea")
+    void testArchivoRechazos() throws Exception {
+        // Arrange
+        String archivo = escribir("mezcla.properties",
+                entrada("Kiwi"),
+                "Animal.Malo=Lagarto, Malo, DINOSAURIO, Iguanidae, Iguana, iguana, CARNES",
+                "Animal.Corto=Lagarto, Corto, REPTIL",
+                entrada("Rex"));
+        ImportadorParalelo importador = new ImportadorParalelo(dao(), 2, 10, 10, 2, 1000);
+        
+        // Act
+        ResumenImportacion resumen = importador.importar(List.of(archivo), rechazos(), null, null);
+        
+        // Assert
+        assertEquals(2, resumen.getInsertadas());
+        assertEquals(2, resumen.getRechazadas());
+        String contenido = new String(Files.readAllBytes(Path.of(rechazos())), StandardCharsets.UTF_8);
+        assertTrue(contenido.contains("# mezcla.properties, línea 2: clasificación no válida: DINOSAURIO"), contenido);
+        assertTrue(contenido.contains("Animal.Malo=Lagarto, Malo, DINOSAURIO, Iguanidae, Iguana, iguana, CARNES"),
+                contenido);
+        assertTrue(contenido.contains("# mezcla.properties, línea 3: datos incompletos"), contenido);
+        assertTrue(contenido.contains("Animal.Corto=Lagarto, Corto, REPTIL"), contenido);
+    }
+    
+    @Test
+    @DisplayName("Si la inserción se detiene, la lectura se detiene al llenarse las colas")
+    void testContrapresion() throws Exception {
+        // Arrange
+        String[] apodos = new String[500];
+        for (int i = 0; i < apodos.length; i++) {
+            apodos[i] = "Mascota" + i;
+        }
+        List<String> archivos = List.of(archivo("grande.properties", apodos));
+        liberarInsercion = new CountDownLatch(1);
+        ImportadorParalelo importador = new ImportadorParalelo(dao(), 1, 1, 1, 1, 10);
+        AtomicReference<ResumenImportacion> ultimo = new AtomicReference<>();
+        AtomicReference<Object> resultado = new AtomicReference<>();
+        Thread hilo = new Thread(() -> {
+            try {
+                resultado.set(importador.importar(archivos, rechazos(), null, ultimo::set));
+            } catch (Exception e) {
+                resultado.set(e);
+            }
+        });
+        
+        // Act
+        hilo.start();
+        Thread.sleep(500);
+        long leidasDetenida = ultimo.get() == null ? 0 : ultimo.get().getLeidas();
+        liberarInsercion.countDown();
+        hilo.join(10_000);
+        
+        // Assert
+        assertTrue(leidasDetenida > 0, "La lectura debería haber empezado");
+        assertTrue(leidasDetenida < 50, "Con la inserción detenida se leyeron " + leidasDetenida + " entradas");
+        assertTrue(resultado.get() instanceof ResumenImportacion, "La importación debería terminar: " + resultado.get());
+        assertEquals(500, ((ResumenImportacion) resultado.get()).getInsertadas());
+    }
+    
+    /**
+     * DAO que acepta todos los lotes, tras esperar a que se libere la inserción
+     */
+    private MascotaDAO dao() {
+        return (MascotaDAO) Proxy.newProxyInstance(MascotaDAO.class.getClassLoader(),
+                new Class<?>[]{MascotaDAO.class}, (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("insertarMascotasEnLote")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    liberarInsercion.await(10, TimeUnit.SECONDS);
+                    @SuppressWarnings("unchecked")
+                    List<Mascota> lote = (List<Mascota>) args[0];
+                    recibidas.addAll(lote);
+                    ResultadoLote resultado = new ResultadoLote(lote.size());
+                    int[] conteos = new int[lote.size()];
+                    Arrays.fill(conteos, 1);
+                    resultado.registrar(0, conteos);
+                    return resultado;
+                });
+    }
+    
+    private String archivo(String nombre, String... apodos) throws IOException {
+        String[] lineas = new String[apodos.length];
+        for (int i = 0; i < apodos.length; i++) {
+            lineas[i] = entrada(apodos[i]);
+        }
+        return escribir(nombre, lineas);
+    }
+    
+    private String escribir(String nombre, String... lineas) throws IOException {
+        Path archivo = carpeta.resolve(nombre);
+        Files.write(archivo, Arrays.asList(lineas), StandardCharsets.UTF_8);
+        return archivo.toString();
+    }
+    
+    private static String entrada(String apodo) {
+        return "Animal." + apodo + "=Iguana verde, " + apodo + ", REPTIL, Iguanidae, Iguana, iguana, VERDURAS";
+    }
+    
+    private String rechazos() {
+        return carpeta.resolve("rechazos.properties").toString();
+    }
+}
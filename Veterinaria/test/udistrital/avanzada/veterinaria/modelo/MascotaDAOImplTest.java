@@ -0,0 +1,210 @@
+package udistrital.avanzada.veterinaria.modelo;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Pruebas de la captura de cambios del MascotaDAOImpl: cuando la
+ * transacción se confirma pero falla restaurar el autocommit, la escritura
+ * no se da por fallida y sus cambios se publican; cuando no se confirma,
+ * se informa el error y sus secuencias se descartan. Usa una base de datos
+ * SQLite temporal detrás de un driver que simula los fallos.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+@DisplayName("Pruebas de Captura de Cambios - MascotaDAOImpl")
+public class MascotaDAOImplTest {
+
+    private static DriverConFallos driver;
+    private static Path archivoBD;
+
+    private MascotaDAOImpl dao;
+    private BusCambios bus;
+
+    /**
+     * Registra el driver con fallos y apunta la conexión a una base de datos temporal
+     */
+    @BeforeAll
+    public static void configuracionInicial() throws Exception {
+        archivoBD = Files.createTempFile("veterinaria_cambios", ".db");
+        driver = new DriverConFallos();
+        DriverManager.registerDriver(driver);
+        ConexionBD.getInstance().cerrarConexion();
+        System.setProperty(ConexionBD.PROPIEDAD_URL_BD, DriverConFallos.PREFIJO + archivoBD);
+    }
+
+    /**
+     * Vuelve a la base de datos por defecto y borra la temporal
+     */
+    @AfterAll
+    public static void limpiezaFinal() throws Exception {
+        ConexionBD.getInstance().cerrarConexion();
+        System.clearProperty(ConexionBD.PROPIEDAD_URL_BD);
+        DriverManager.deregisterDriver(driver);
+        Files.deleteIfExists(archivoBD);
+    }
+
+    /**
+     * Crea un DAO con la captura de cambios activa
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        dao = new MascotaDAOImpl();
+        bus = dao.activarBusCambios(16);
+    }
+
+    /**
+     * Cierra el bus y deja sin fallos pendientes
+     */
+    @AfterEach
+    public void tearDown() {
+        bus.cerrar();
+        DriverConFallos.fallarConfirmar = 0;
+        DriverConFallos.fallarRestaurar = 0;
+    }
+
+    @Test
+    @DisplayName("Un lote confirmado no falla ni deja de publicarse aunque falle restaurar el autocommit")
+    public void testLotePublicadoSiFallaRestaurar() throws Exception {
+        // Arrange
+        long antes = bus.getUltimaPublicada();
+        DriverConFallos.fallarRestaurar = 1;
+
+        // Act
+        ResultadoLote resultado = dao.insertarMascotasEnLote(Arrays.asList(mascota("Lote1"), mascota("Lote2")));
+
+        // Assert
+        assertEquals(0, DriverConFallos.fallarRestaurar, "El fallo simulado debería haberse producido");
+        assertTrue(resultado.esExitoso(), "Las filas ya estaban confirmadas");
+        assertEquals(2, resultado.getInsertadas());
+        assertEquals(antes + 2, bus.getUltimaPublicada(), "Los cambios deberían publicarse");
+        assertNotNull(dao.consultarPorApodo("Lote2"));
+    }
+
+    @Test
+    @DisplayName("Una modificación confirmada no falla ni deja de publicarse aunque falle restaurar el autocommit")
+    public void testFilaPublicadaSiFallaRestaurar() throws Exception {
+        // Arrange
+        dao.agregarMascota(mascota("Fila1"));
+        long antes = bus.getUltimaPublicada();
+        Mascota modificada = mascota("Fila1");
+        modificada.setFamilia("Felidae");
+        DriverConFallos.fallarRestaurar = 1;
+
+        // Act
+        dao.modificarMascota(modificada);
+
+        // Assert
+        assertEquals(0, DriverConFallos.fallarRestaurar, "El fallo simulado debería haberse producido");
+        assertEquals(antes + 1, bus.getUltimaPublicada(), "El cambio debería publicarse");
+        assertEquals("Felidae", dao.consultarPorApodo("Fila1").getFamilia());
+    }
+
+    @Test
+    @DisplayName("Un lote que no se confirma falla, se revierte y no bloquea las secuencias siguientes")
+    public void testLoteRevertidoDescarta() throws Exception {
+        // Arrange
+        long antes = bus.getUltimaPublicada();
+        DriverConFallos.fallarConfirmar = 1;
+
+        // Act
+        Exception error = assertThrows(Exception.class,
+                () -> dao.insertarMascotasEnLote(Arrays.asList(mascota("Revertida1"), mascota("Revertida2"))));
+        dao.agregarMascota(mascota("Revertida3"));
+
+        // Assert
+        assertEquals(0, DriverConFallos.fallarConfirmar, "El fallo simulado debería haberse producido");
+        assertTrue(error.getMessage().startsWith("Error al agregar mascotas en lote"));
+        assertEquals(antes + 3, bus.getUltimaPublicada(), "Las secuencias descartadas no deberían bloquear el bus");
+        assertNull(dao.consultarPorApodo("Revertida1"), "El lote debería revertirse completo");
+    }
+
+    private static Mascota mascota(String apodo) {
+        return new Mascota("Perro", apodo, Clasificacion.MAMIFERO, "Canidae", "Canis", "Canis lupus",
+                TipoAlimento.CARNES);
+    }
+
+    /**
+     * Driver que delega en SQLite y hace fallar {@code commit()} o
+     * {@code setAutoCommit(true)} tras una transacción, tantas veces como
+     * indiquen {@link #fallarConfirmar} y {@link #fallarRestaurar}
+     */
+    private static final class DriverConFallos implements Driver {
+
+        private static final String PREFIJO = "jdbc:fallos:";
+        private static volatile int fallarConfirmar;
+        private static volatile int fallarRestaurar;
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) return null;
+            Connection fisica = DriverManager.getConnection("jdbc:sqlite:" + url.substring(PREFIJO.length()), info);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, metodo, args) -> {
+                        if (metodo.getName().equals("commit") && fallarConfirmar > 0) {
+                            fallarConfirmar--;
+                            throw new SQLException("Fallo simulado al confirmar");
+                        }
+                        if (metodo.getName().equals("setAutoCommit") && (Boolean) args[0]
+                                && !fisica.getAutoCommit() && fallarRestaurar > 0) {
+                            fallarRestaurar--;
+                            throw new SQLException("Fallo simulado al restaurar el autocommit");
+                        }
+                        try {
+                            return metodo.invoke(fisica, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith(PREFIJO);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package udistrital.avanzada.veterinaria.vista;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import udistrital.avanzada.veterinaria.modelo.Clasificacion;
+import udistrital.avanzada.veterinaria.modelo.Mascota;
+import udistrital.avanzada.veterinaria.modelo.MascotaPendiente;
+import udistrital.avanzada.veterinaria.modelo.TipoAlimento;
+
+/**
+ * Pruebas del modelo de la lista de trabajo de pendientes: edición en
+ * memoria, seguimiento de las filas modificadas y detección de las filas
+ * completas.
+ *
+ * @author Sistema Veterinaria
+ * @version 1.0
+ */
+@DisplayName("Pruebas del ModeloTablaPendientes")
+public class ModeloTablaPendientesTest {
+
+    private ModeloTablaPendientes modelo;
+
+    /**
+     * Carga tres pendientes: dos sin clasificación y una a la que solo le falta el tipo de alimento
+     */
+    @BeforeEach
+    public void setUp() {
+        modelo = new ModeloTablaPendientes();
+        modelo.setPendientes(Arrays.asList(
+                new MascotaPendiente(1, new Mascota("Perro", "Rex", null, "Canidae", "Canis", "Canis lupus",
+                        TipoAlimento.CARNES)),
+                new MascotaPendiente(2, new Mascota("Gato", "Mishi", null, "Felidae", "Felis", "Felis catus",
+                        TipoAlimento.CARNES)),
+                new MascotaPendiente(3, new Mascota("Loro", "Kiwi", Clasificacion.AVE, "Psittacidae", "Ara",
+                        "Ara macao", null))));
+    }
+
+    @Test
+    @DisplayName("Asignar un valor a varias filas las marca como modificadas y completas")
+    public void testAsignarVariasFilas() {
+        // Arrange
+        int[] filas = {0, 1};
+
+        // Act
+        modelo.asignar(filas, ModeloTablaPendientes.COLUMNA_CLASIFICACION, Clasificacion.MAMIFERO);
+
+        // Assert
+        assertEquals(Clasificacion.MAMIFERO, modelo.getValueAt(1, ModeloTablaPendientes.COLUMNA_CLASIFICACION));
+        assertEquals(Arrays.asList(1L, 2L), ids(modelo.getModificadas()));
+        assertEquals(Arrays.asList(1L, 2L), ids(modelo.getCompletas()));
+    }
+
+    @Test
+    @DisplayName("Un texto vacío deja el dato como faltante")
+    public void testTextoVacioEsFaltante() {
+        // Arrange
+        modelo.asignar(new int[] {0}, ModeloTablaPendientes.COLUMNA_CLASIFICACION, Clasificacion.MAMIFERO);
+
+        // Act
+        modelo.setValueAt("   ", 0, 1);
+
+        // Assert
+        assertNull(modelo.getPendiente(0).getMascota().getApodo());
+        assertTrue(modelo.getCompletas().isEmpty(), "Sin apodo la fila no debería estar completa");
+    }
+
+    @Test
+    @DisplayName("Guardar y quitar filas olvida sus modificaciones")
+    public void testGuardarYQuitar() {
+        // Arrange
+        modelo.asignar(new int[] {0, 1, 2}, 3, "Familia");
+        List<MascotaPendiente> guardadas = modelo.getPendientes(new int[] {0});
+        List<MascotaPendiente> quitadas = modelo.getPendientes(new int[] {1});
+
+        // Act
+        modelo.marcarGuardadas(guardadas);
+        modelo.quitar(quitadas);
+
+        // Assert
+        assertEquals(2, modelo.getRowCount());
+        assertEquals(Arrays.asList(3L), ids(modelo.getModificadas()));
+        assertEquals("Kiwi", modelo.getValueAt(1, 1));
+    }
+
+    @Test
+    @DisplayName("Cargar otras pendientes olvida las modificaciones anteriores")
+    public void testSetPendientesReinicia() {
+        // Arrange
+        modelo.asignar(new int[] {2}, ModeloTablaPendientes.COLUMNA_TIPO_ALIMENTO, TipoAlimento.FRUTAS);
+        List<MascotaPendiente> actuales = modelo.getPendientes(new int[] {0, 1, 2});
+
+        // Act
+        modelo.setPendientes(actuales);
+
+        // Assert
+        assertTrue(modelo.getModificadas().isEmpty());
+        assertEquals(Arrays.asList(3L), ids(modelo.getCompletas()));
+    }
+
+    private static List<Long> ids(List<MascotaPendiente> pendientes) {
+        return pendientes.stream().map(MascotaPendiente::getId).collect(Collectors.toList());
+    }
+}
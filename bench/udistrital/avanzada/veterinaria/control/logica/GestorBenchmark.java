@@ -0,0 +1,74 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import udistrital.avanzada.veterinaria.modelo.DAO.DatosBenchmark;
+
+/**
+ * Mide las exportaciones del {@link Gestor} a archivo: la serialización de
+ * objetos y el archivo de acceso aleatorio con el estado final, sobre el
+ * catálogo sintético de {@link DatosBenchmark}. Cada invocación reescribe
+ * el mismo archivo en un directorio temporal.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class GestorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int mascotas;
+
+    private Connection ancla;
+    private Gestor gestor;
+    private File directorio;
+    private String archivoSerializado;
+    private String archivoAccesoAleatorio;
+
+    @Setup
+    public void preparar() throws Exception {
+        ancla = DatosBenchmark.crearBaseDatos("gestor" + mascotas, mascotas);
+        gestor = new Gestor();
+        directorio = Files.createTempDirectory("veterinaria_bench").toFile();
+        archivoSerializado = new File(directorio, "mascotas_serializadas.dat").getPath();
+        archivoAccesoAleatorio = new File(directorio, "estado_final.dat").getPath();
+    }
+
+    @TearDown
+    public void liberar() throws Exception {
+        DatosBenchmark.cerrarBaseDatos(ancla);
+        new File(archivoSerializado).delete();
+        new File(archivoAccesoAleatorio).delete();
+        directorio.delete();
+    }
+
+    @Benchmark
+    public boolean serializarMascotas() {
+        return gestor.serializarMascotas(archivoSerializado);
+    }
+
+    @Benchmark
+    public boolean crearArchivoAccesoAleatorio() {
+        return gestor.crearArchivoAccesoAleatorio(archivoAccesoAleatorio);
+    }
+}
@@ -0,0 +1,118 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import udistrital.avanzada.veterinaria.modelo.DAO.DatosBenchmark;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAO;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Compara las búsquedas por columnas categóricas y por subcadena de apodo
+ * resueltas con {@link MascotaIndex} contra la ruta SQL del {@link MascotaDAO},
+ * sobre el catálogo sintético de {@link DatosBenchmark}.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MascotaIndexBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int mascotas;
+
+    private Connection ancla;
+    private MascotaDAO dao;
+    private MascotaIndex indice;
+
+    @Setup
+    public void preparar() throws Exception {
+        ancla = DatosBenchmark.crearBaseDatos("indice" + mascotas, mascotas);
+        dao = new MascotaDAO();
+        indice = new MascotaIndex();
+        indice.cargar(dao.obtenerTodasLasMascotas());
+    }
+
+    @TearDown
+    public void liberar() throws Exception {
+        DatosBenchmark.cerrarBaseDatos(ancla);
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> sqlPorFamilia() {
+        return dao.consultarMascotasPorFamilia("Familia42");
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> indicePorFamilia() {
+        return indice.buscar(null, "Familia42", null);
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> sqlPorTipoAlimento() {
+        return dao.consultarMascotasPorTipoAlimento("Omnívoro");
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> indicePorTipoAlimento() {
+        return indice.buscar(null, null, "Omnívoro");
+    }
+
+    /**
+     * Ruta actual para combinar criterios: una consulta SQL y filtrado en memoria.
+     */
+    @Benchmark
+    public ArrayList<MascotaVO> sqlCombinado() {
+        ArrayList<MascotaVO> resultado = new ArrayList<>();
+        for (MascotaVO mascota : dao.consultarMascotasPorFamilia("Familia42")) {
+            if ("Ave".equals(mascota.getClasificacion()) && "Omnívoro".equals(mascota.getTipoAlimento())) {
+                resultado.add(mascota);
+            }
+        }
+        return resultado;
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> indiceCombinado() {
+        return indice.buscar("Ave", "Familia42", "Omnívoro");
+    }
+
+    /**
+     * LIKE '%x%' no puede usar idx_apodo y recorre toda la tabla.
+     */
+    @Benchmark
+    public ArrayList<MascotaVO> sqlPorApodo() {
+        return dao.consultarMascotasPorApodo("odo4242");
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> indicePorApodo() {
+        return indice.buscarPorApodo("odo4242", false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Consulta típica de búsqueda mientras se escribe: prefijo corto con límite.
+     */
+    @Benchmark
+    public ArrayList<MascotaVO> indicePrefijoApodo() {
+        return indice.buscarPorApodo("apodo12", true, 200);
+    }
+}
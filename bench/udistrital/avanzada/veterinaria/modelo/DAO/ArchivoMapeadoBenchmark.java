@@ -0,0 +1,127 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Compara la lectura del archivo de estado final con {@link ArchivoAccesoAleatorio},
+ * que lee con RandomAccessFile, y con {@link ArchivoMapeado}, proyectado en
+ * memoria. El archivo se escribe una vez con las mascotas de
+ * {@link DatosBenchmark}, sin pasar por la base de datos, y con los IDs
+ * rellenados con ceros para que queden ordenados y la búsqueda sea binaria.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ArchivoMapeadoBenchmark {
+
+    @Param({"1000000"})
+    public int mascotas;
+
+    private File archivo;
+    private ArchivoAccesoAleatorio aleatorio;
+    private ArchivoMapeado mapeado;
+    private int siguienteConsulta;
+
+    @Setup
+    public void preparar() throws Exception {
+        archivo = File.createTempFile("estado_final", ".dat");
+        try (ArchivoAccesoAleatorio.Escritor escritor = ArchivoAccesoAleatorio.crear(archivo.getPath())) {
+            for (int i = 0; i < mascotas; i++) {
+                MascotaVO mascota = DatosBenchmark.crearMascota(i);
+                mascota.setIdMascota(id(i));
+                escritor.agregar(mascota);
+            }
+        }
+        aleatorio = new ArchivoAccesoAleatorio(archivo.getPath(), false);
+        mapeado = new ArchivoMapeado(archivo.getPath());
+    }
+
+    @TearDown
+    public void liberar() throws Exception {
+        aleatorio.close();
+        mapeado = null;
+        archivo.delete();
+    }
+
+    @Benchmark
+    public void leerTodasConRandomAccessFile(Blackhole bh) throws IOException {
+        for (int n = 0; n < mascotas; n++) {
+            bh.consume(aleatorio.leerMascota(n));
+        }
+    }
+
+    @Benchmark
+    public void leerTodasMapeado(Blackhole bh) {
+        for (int n = 0; n < mascotas; n++) {
+            bh.consume(mapeado.leerMascota(n));
+        }
+    }
+
+    /**
+     * Blackhole no admite varios hilos; el conteo depende de cada mascota leída.
+     */
+    @Benchmark
+    public long leerTodasMapeadoEnParalelo() {
+        return mapeado.contar(registro -> registro.aMascota().getEdad() > 0);
+    }
+
+    @Benchmark
+    public long contarReptilesConRandomAccessFile() throws IOException {
+        long reptiles = 0;
+        for (int n = 0; n < mascotas; n++) {
+            if ("Reptil".equals(aleatorio.leerMascota(n).getClasificacion())) {
+                reptiles++;
+            }
+        }
+        return reptiles;
+    }
+
+    /**
+     * El filtro solo decodifica la clasificación de cada registro.
+     */
+    @Benchmark
+    public long contarReptilesMapeadoEnParalelo() {
+        return mapeado.contar(registro -> "Reptil".equals(registro.getClasificacion()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object buscarPorIdConRandomAccessFile() throws IOException {
+        siguienteConsulta = (siguienteConsulta + 7919) % mascotas;
+        return aleatorio.buscarPorId(id(siguienteConsulta));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object buscarPorIdMapeado() {
+        siguienteConsulta = (siguienteConsulta + 7919) % mascotas;
+        return mapeado.buscarPorId(id(siguienteConsulta));
+    }
+
+    private static String id(int i) {
+        return String.format("M%07d", i);
+    }
+}
@@ -0,0 +1,87 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+import udistrital.avanzada.veterinaria.modelo.conexion.PoolConexiones;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Prepara el catálogo sintético que usan los benchmarks: una base H2 en
+ * memoria, en modo MySQL, con la tabla e índices de {@code data/script_bd.sql},
+ * y el pool de {@link Conexion} apuntando a ella.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class DatosBenchmark {
+
+    public static final String[] CLASIFICACIONES = {"Mamífero", "Reptil", "Ave", "Anfibio", "Pez", "Invertebrado"};
+    public static final String[] TIPOS_ALIMENTO = {"Carnívoro", "Herbívoro", "Omnívoro", "Insectívoro"};
+    public static final int FAMILIAS = 500;
+
+    private DatosBenchmark() {
+    }
+
+    /**
+     * Crea la base, la llena con mascotas generadas por {@link #crearMascota(int)}
+     * y configura el pool de conexiones.
+     *
+     * @param nombre Nombre de la base en memoria; debe ser único por estado
+     * @param mascotas Número de mascotas a insertar
+     * @return Conexión que mantiene viva la base; se cierra al terminar
+     */
+    public static Connection crearBaseDatos(String nombre, int mascotas) throws Exception {
+        String url = "jdbc:h2:mem:" + nombre + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        Connection ancla = DriverManager.getConnection(url, "sa", "");
+        try (Statement st = ancla.createStatement()) {
+            st.execute("CREATE TABLE mascotas (id_mascota VARCHAR(20) PRIMARY KEY, apodo VARCHAR(50) NOT NULL, "
+                    + "clasificacion VARCHAR(30) NOT NULL, familia VARCHAR(50) NOT NULL, genero VARCHAR(30) NOT NULL, "
+                    + "especie VARCHAR(30) NOT NULL, tipo_alimento VARCHAR(30) NOT NULL, edad INT NOT NULL, "
+                    + "peso DECIMAL(5,2) NOT NULL, observaciones TEXT)");
+            st.execute("CREATE INDEX idx_apodo ON mascotas(apodo)");
+            st.execute("CREATE INDEX idx_clasificacion ON mascotas(clasificacion)");
+            st.execute("CREATE INDEX idx_familia ON mascotas(familia)");
+            st.execute("CREATE INDEX idx_tipo_alimento ON mascotas(tipo_alimento)");
+        }
+        Conexion.setPool(new PoolConexiones(url, "sa", "", 1, 4, 10000, 60000, 0));
+
+        MascotaDAO dao = new MascotaDAO();
+        ArrayList<MascotaVO> lote = new ArrayList<>();
+        for (int i = 0; i < mascotas; i++) {
+            lote.add(crearMascota(i));
+            if (lote.size() == 10000) {
+                dao.insertarMascotasEnLote(lote, 1000);
+                lote.clear();
+            }
+        }
+        dao.insertarMascotasEnLote(lote, 1000);
+        return ancla;
+    }
+
+    /**
+     * Cierra el pool y la base creados por {@link #crearBaseDatos(String, int)}.
+     *
+     * @param ancla Conexión devuelta al crear la base
+     */
+    public static void cerrarBaseDatos(Connection ancla) throws Exception {
+        Conexion.cerrarPool();
+        ancla.close();
+    }
+
+    /**
+     * Genera una mascota sintética con valores categóricos repartidos uniformemente.
+     *
+     * @param i Número de la mascota; determina su ID ("M" + i) y su apodo
+     * @return Mascota generada
+     */
+    public static MascotaVO crearMascota(int i) {
+        return new MascotaVO("M" + i, "Apodo" + i, CLASIFICACIONES[i % CLASIFICACIONES.length],
+                "Familia" + (i % FAMILIAS), "Genero" + (i % 97), "especie" + (i % 89),
+                TIPOS_ALIMENTO[i % TIPOS_ALIMENTO.length], 1 + i % 30, 1 + (i % 900) / 10.0,
+                "Observación de la mascota " + i);
+    }
+}
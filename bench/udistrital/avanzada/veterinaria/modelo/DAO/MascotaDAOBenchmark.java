@@ -0,0 +1,110 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Mide las operaciones del {@link MascotaDAO} que usa la aplicación sobre
+ * el catálogo sintético de {@link DatosBenchmark}, a varios tamaños.
+ *
+ * Las consultas por ID recorren los IDs existentes en orden, de modo que
+ * no se repite siempre la misma fila. Las mascotas insertadas por
+ * {@link #insertarMascota()} se borran al final de cada iteración para que
+ * el tamaño del catálogo no cambie entre iteraciones.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MascotaDAOBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int mascotas;
+
+    private Connection ancla;
+    private MascotaDAO dao;
+    private int siguienteConsulta;
+    private int siguienteInsercion;
+
+    @Setup
+    public void preparar() throws Exception {
+        ancla = DatosBenchmark.crearBaseDatos("dao" + mascotas, mascotas);
+        dao = new MascotaDAO();
+    }
+
+    @TearDown(Level.Iteration)
+    public void borrarInsertadas() throws Exception {
+        try (Statement st = ancla.createStatement()) {
+            st.execute("DELETE FROM mascotas WHERE id_mascota LIKE 'N%'");
+        }
+    }
+
+    @TearDown
+    public void liberar() throws Exception {
+        DatosBenchmark.cerrarBaseDatos(ancla);
+    }
+
+    @Benchmark
+    public boolean insertarMascota() {
+        MascotaVO mascota = DatosBenchmark.crearMascota(siguienteInsercion++);
+        mascota.setIdMascota("N" + siguienteInsercion);
+        return dao.insertarMascota(mascota);
+    }
+
+    @Benchmark
+    public MascotaVO consultarMascotaPorId() {
+        siguienteConsulta = (siguienteConsulta + 1) % mascotas;
+        return dao.consultarMascotaPorId("M" + siguienteConsulta);
+    }
+
+    /**
+     * LIKE '%x%' no puede usar idx_apodo y recorre toda la tabla.
+     */
+    @Benchmark
+    public ArrayList<MascotaVO> consultarMascotasPorApodo() {
+        return dao.consultarMascotasPorApodo("odo42");
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> consultarMascotasPorClasificacion() {
+        return dao.consultarMascotasPorClasificacion("Reptil");
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> consultarMascotasPorFamilia() {
+        return dao.consultarMascotasPorFamilia("Familia42");
+    }
+
+    @Benchmark
+    public ArrayList<MascotaVO> consultarMascotasPorTipoAlimento() {
+        return dao.consultarMascotasPorTipoAlimento("Omnívoro");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ArrayList<MascotaVO> obtenerTodasLasMascotas() {
+        return dao.obtenerTodasLasMascotas();
+    }
+}
@@ -0,0 +1,45 @@
+package udistrital.avanzada.veterinaria.modelo.metricas;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide el costo que la instrumentación añade a cada operación: tomar el
+ * tiempo y registrarlo en un {@link Histograma} compartido por varios hilos,
+ * frente a solo tomar el tiempo. Ejecutar con {@code -prof gc} para
+ * confirmar que registrar no crea objetos.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistogramaBenchmark {
+
+    private final Histograma histograma = new RegistroMetricas().histograma("benchmark");
+
+    @Benchmark
+    public long soloReloj() {
+        return System.nanoTime() - System.nanoTime();
+    }
+
+    @Benchmark
+    public void medir() {
+        histograma.registrarDesde(System.nanoTime());
+    }
+}
@@ -27,6 +27,33 @@ CREATE INDEX idx_clasificacion ON mascotas(clasificacion);
 CREATE INDEX idx_familia ON mascotas(familia);
 CREATE INDEX idx_tipo_alimento ON mascotas(tipo_alimento);
 
+-- Crear la tabla de metadatos (huella de los archivos ya importados, entre otros).
+-- La aplicación también la crea en su primer uso si no existe
+CREATE TABLE IF NOT EXISTS metadatos (
+    clave VARCHAR(100) PRIMARY KEY,
+    valor VARCHAR(255) NOT NULL
+);
+
+-- Crear la tabla de cambios de mascotas, que respalda al bus de cambios (-Dveterinaria.busCambios=true).
+-- La aplicación también la crea al activar el bus si no existe. Cada fila guarda el estado de la mascota
+-- tras el cambio (vacío en las bajas); al activar el bus se borran los cambios de más de
+-- -Dveterinaria.busCambios.retencionDias días (7 por defecto), salvo el último
+CREATE TABLE IF NOT EXISTS cambios_mascotas (
+    secuencia BIGINT PRIMARY KEY,
+    tipo VARCHAR(12) NOT NULL,
+    id_mascota VARCHAR(20) NOT NULL,
+    instante BIGINT NOT NULL,
+    apodo VARCHAR(50),
+    clasificacion VARCHAR(30),
+    familia VARCHAR(50),
+    genero VARCHAR(30),
+    especie VARCHAR(30),
+    tipo_alimento VARCHAR(30),
+    edad INT,
+    peso DECIMAL(5,2),
+    observaciones TEXT
+);
+
 -- Insertar algunos datos de ejemplo
 INSERT INTO mascotas (id_mascota, apodo, clasificacion, familia, genero, especie, tipo_alimento, edad, peso, observaciones) VALUES
 ('M001', 'Leo', 'Mamífero', 'Felidae', 'Panthera', 'leo', 'Carnívoro', 5, 180.5, 'León africano macho adulto'),
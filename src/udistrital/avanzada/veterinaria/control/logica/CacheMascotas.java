@@ -0,0 +1,392 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaQuery;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Caché en memoria de mascotas usada por el Gestor como lectura a través
+ * (read-through) del DAO. Guarda las mascotas por ID con expulsión LRU
+ * acotada por tamaño y un listado completo ordenado por apodo, que solo
+ * se guarda si no supera su propio límite. Ambos expiran tras un tiempo de
+ * vida (TTL) configurable.
+ *
+ * Las mascotas se copian al entrar y al salir de la caché, de modo que los
+ * cambios del llamador sobre las instancias recibidas no la alteran.
+ *
+ * Las escrituras exitosas actualizan la caché en lugar de invalidarla,
+ * de modo que recargar la tabla tras un alta, modificación o baja no
+ * vuelve a consultar la base de datos.
+ *
+ * Cada escritura incrementa una generación. Quien lee de la base de datos
+ * toma la generación antes de la consulta y guarda el resultado con
+ * {@link #guardarSiVigente(MascotaVO, long)}: si entre tanto se confirmó
+ * una escritura, el resultado puede ser anterior a ella y se descarta.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class CacheMascotas {
+
+    /**
+     * Orden del listado completo, equivalente al ORDER BY apodo, id_mascota
+     * del DAO: ambas columnas sin distinguir mayúsculas.
+     */
+    static final Comparator<MascotaVO> POR_APODO = MascotaQuery.TODAS.comparador();
+
+    /**
+     * Número máximo de mascotas del listado completo por defecto.
+     */
+    public static final int CAPACIDAD_LISTADO_POR_DEFECTO = 100_000;
+
+    private final int capacidad;
+    private final int capacidadListado;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entrada> porId;
+    private ArrayList<MascotaVO> listado;
+    private long listadoCargadoEn;
+    private long generacion;
+
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+
+    /**
+     * Crea una caché vacía con el límite de listado por defecto.
+     *
+     * @param capacidad Número máximo de mascotas guardadas por ID
+     * @param ttl Tiempo de vida de cada entrada
+     * @param unidad Unidad del tiempo de vida
+     */
+    public CacheMascotas(int capacidad, long ttl, TimeUnit unidad) {
+        this(capacidad, CAPACIDAD_LISTADO_POR_DEFECTO, ttl, unidad);
+    }
+
+    /**
+     * Crea una caché vacía.
+     *
+     * @param capacidad Número máximo de mascotas guardadas por ID
+     * @param capacidadListado Número máximo de mascotas del listado completo;
+     *        un listado mayor no se guarda
+     * @param ttl Tiempo de vida de cada entrada
+     * @param unidad Unidad del tiempo de vida
+     */
+    public CacheMascotas(int capacidad, int capacidadListado, long ttl, TimeUnit unidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        }
+        if (capacidadListado < 0) {
+            throw new IllegalArgumentException("La capacidad del listado no puede ser negativa: " + capacidadListado);
+        }
+        this.capacidad = capacidad;
+        this.capacidadListado = capacidadListado;
+        this.ttlNanos = unidad.toNanos(ttl);
+        this.porId = new LinkedHashMap<String, Entrada>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> mayor) {
+                if (size() > CacheMascotas.this.capacidad) {
+                    expulsiones++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Busca una mascota por ID.
+     *
+     * @param idMascota ID de la mascota
+     * @return Copia de la mascota en caché o null si no está o expiró
+     */
+    public synchronized MascotaVO obtener(String idMascota) {
+        Entrada entrada = porId.get(idMascota);
+        if (entrada != null && !expirada(entrada.cargadaEn)) {
+            aciertos++;
+            return copiar(entrada.mascota);
+        }
+        if (entrada != null) {
+            porId.remove(idMascota);
+        }
+        fallos++;
+        return null;
+    }
+
+    /**
+     * Obtiene el listado completo ordenado por apodo.
+     *
+     * @return Copia del listado en caché, con copias de sus mascotas, o null
+     *         si no está cargado o expiró
+     */
+    public synchronized ArrayList<MascotaVO> obtenerListado() {
+        if (listado != null && !expirada(listadoCargadoEn)) {
+            aciertos++;
+            ArrayList<MascotaVO> copia = new ArrayList<>(listado.size());
+            for (MascotaVO mascota : listado) {
+                copia.add(copiar(mascota));
+            }
+            return copia;
+        }
+        listado = null;
+        fallos++;
+        return null;
+    }
+
+    /**
+     * Obtiene la generación actual, que cambia con cada escritura reflejada
+     * en la caché. Debe tomarse antes de leer de la base de datos.
+     *
+     * @return Generación actual
+     */
+    public synchronized long getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Guarda una mascota leída de la base de datos si desde que se tomó la
+     * generación no se reflejó ninguna escritura.
+     *
+     * @param mascota Mascota a guardar
+     * @param generacionLeida Generación tomada antes de la lectura
+     * @return true si se guardó, false si la lectura pudo quedar desactualizada
+     */
+    public synchronized boolean guardarSiVigente(MascotaVO mascota, long generacionLeida) {
+        if (generacionLeida != generacion) {
+            return false;
+        }
+        guardar(mascota);
+        return true;
+    }
+
+    /**
+     * Guarda el listado completo leído de la base de datos si desde que se
+     * tomó la generación no se reflejó ninguna escritura.
+     *
+     * @param mascotas Listado completo, ordenado por apodo
+     * @param generacionLeida Generación tomada antes de la lectura
+     * @return true si se guardó, false si la lectura pudo quedar desactualizada
+     */
+    public synchronized boolean guardarListadoSiVigente(ArrayList<MascotaVO> mascotas, long generacionLeida) {
+        if (generacionLeida != generacion) {
+            return false;
+        }
+        guardarListado(mascotas);
+        return true;
+    }
+
+    /**
+     * Guarda una mascota sin comprobar la generación.
+     *
+     * @param mascota Mascota a guardar
+     */
+    synchronized void guardar(MascotaVO mascota) {
+        porId.put(mascota.getIdMascota(), new Entrada(copiar(mascota)));
+    }
+
+    /**
+     * Guarda el listado completo leído de la base de datos, salvo que
+     * supere la capacidad del listado, y precarga el índice por ID con sus
+     * elementos mientras quede espacio, sin expulsar las entradas que ya
+     * tiene. No comprueba la generación.
+     *
+     * @param mascotas Listado completo, ordenado por apodo
+     */
+    synchronized void guardarListado(ArrayList<MascotaVO> mascotas) {
+        if (mascotas.size() > capacidadListado) {
+            listado = null;
+            return;
+        }
+        listado = new ArrayList<>(mascotas.size());
+        listadoCargadoEn = System.nanoTime();
+        for (MascotaVO mascota : mascotas) {
+            MascotaVO copia = copiar(mascota);
+            listado.add(copia);
+            if (porId.size() < capacidad || porId.containsKey(copia.getIdMascota())) {
+                porId.put(copia.getIdMascota(), new Entrada(copia));
+            }
+        }
+    }
+
+    /**
+     * Refleja en la caché una mascota registrada exitosamente.
+     *
+     * @param mascota Mascota registrada
+     */
+    public synchronized void registrada(MascotaVO mascota) {
+        generacion++;
+        MascotaVO copia = copiar(mascota);
+        porId.put(copia.getIdMascota(), new Entrada(copia));
+        if (listado != null && listado.size() >= capacidadListado) {
+            listado = null; // Superaría la capacidad; se volverá a leer completo
+        } else if (listado != null) {
+            insertarOrdenado(copia);
+        }
+    }
+
+    /**
+     * Refleja en la caché una mascota modificada exitosamente. Solo se
+     * actualizan los campos que el DAO permite modificar.
+     *
+     * @param cambios Mascota con los datos actualizados
+     */
+    public synchronized void modificada(MascotaVO cambios) {
+        generacion++;
+        Entrada entrada = porId.get(cambios.getIdMascota());
+        MascotaVO anterior = entrada != null ? entrada.mascota : buscarEnListado(cambios.getIdMascota());
+        if (anterior == null) {
+            return; // No estaba en caché; se cargará en la próxima lectura
+        }
+        MascotaVO actualizada = aplicarModificacion(anterior, cambios);
+        porId.put(actualizada.getIdMascota(), new Entrada(actualizada));
+        if (listado != null) {
+            quitarDelListado(actualizada.getIdMascota());
+            insertarOrdenado(actualizada);
+        }
+    }
+
+    /**
+     * Refleja en la caché una mascota eliminada exitosamente.
+     *
+     * @param idMascota ID de la mascota eliminada
+     */
+    public synchronized void eliminada(String idMascota) {
+        generacion++;
+        porId.remove(idMascota);
+        if (listado != null) {
+            quitarDelListado(idMascota);
+        }
+    }
+
+    /**
+     * Vacía la caché sin reiniciar los contadores.
+     */
+    public synchronized void invalidar() {
+        generacion++;
+        porId.clear();
+        listado = null;
+    }
+
+    /**
+     * @return Número de lecturas atendidas desde la caché
+     */
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * @return Número de lecturas que tuvieron que ir a la base de datos
+     */
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * @return Número de entradas expulsadas por exceder la capacidad
+     */
+    public synchronized long getExpulsiones() {
+        return expulsiones;
+    }
+
+    /**
+     * @return Proporción de aciertos sobre el total de lecturas, entre 0 y 1
+     */
+    public synchronized double getTasaAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+
+    /**
+     * @return Número de mascotas guardadas por ID
+     */
+    public synchronized int getTamano() {
+        return porId.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CacheMascotas{" +
+                "tamano=" + porId.size() +
+                ", aciertos=" + aciertos +
+                ", fallos=" + fallos +
+                ", expulsiones=" + expulsiones +
+                ", tasaAciertos=" + String.format("%.3f", getTasaAciertos()) +
+                '}';
+    }
+
+    private boolean expirada(long cargadaEn) {
+        return System.nanoTime() - cargadaEn > ttlNanos;
+    }
+
+    private void insertarOrdenado(MascotaVO mascota) {
+        int posicion = Collections.binarySearch(listado, mascota, POR_APODO);
+        listado.add(posicion < 0 ? -posicion - 1 : posicion, mascota);
+    }
+
+    private void quitarDelListado(String idMascota) {
+        Iterator<MascotaVO> it = listado.iterator();
+        while (it.hasNext()) {
+            if (idMascota.equals(it.next().getIdMascota())) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    private MascotaVO buscarEnListado(String idMascota) {
+        if (listado == null) return null;
+        for (MascotaVO mascota : listado) {
+            if (idMascota.equals(mascota.getIdMascota())) {
+                return mascota;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copia una mascota para que cambios posteriores del llamador no alteren la caché.
+     */
+    static MascotaVO copiar(MascotaVO m) {
+        return new MascotaVO(m.getIdMascota(), m.getApodo(), m.getClasificacion(), m.getFamilia(),
+                m.getGenero(), m.getEspecie(), m.getTipoAlimento(), m.getEdad(), m.getPeso(),
+                m.getObservaciones());
+    }
+
+    /**
+     * Aplica sobre una copia de la mascota los campos que el DAO permite
+     * modificar (apodo, clasificación, tipo de alimento, edad, peso y
+     * observaciones); familia, género y especie se conservan.
+     *
+     * @param anterior Estado previo de la mascota
+     * @param cambios Mascota con los datos actualizados
+     * @return Nueva instancia con el estado resultante
+     */
+    static MascotaVO aplicarModificacion(MascotaVO anterior, MascotaVO cambios) {
+        MascotaVO actualizada = copiar(anterior);
+        actualizada.setApodo(cambios.getApodo());
+        actualizada.setClasificacion(cambios.getClasificacion());
+        actualizada.setTipoAlimento(cambios.getTipoAlimento());
+        actualizada.setEdad(cambios.getEdad());
+        actualizada.setPeso(cambios.getPeso());
+        actualizada.setObservaciones(cambios.getObservaciones());
+        return actualizada;
+    }
+
+    /**
+     * Mascota guardada junto con el instante en que se cargó.
+     */
+    private static final class Entrada {
+        final MascotaVO mascota;
+        final long cargadaEn = System.nanoTime();
+
+        Entrada(MascotaVO mascota) {
+            this.mascota = mascota;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Cambio de una mascota que el {@link Gestor} publica tras cada alta,
+ * modificación o baja exitosa, para que las vistas actualicen solo la
+ * fila afectada en lugar de volver a cargar el listado.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class CambioMascota {
+
+    /**
+     * Tipo de cambio.
+     */
+    public enum Tipo {
+        INSERTADA, MODIFICADA, ELIMINADA
+    }
+
+    private final Tipo tipo;
+    private final String idMascota;
+    private final MascotaVO anterior;
+    private final MascotaVO actual;
+
+    /**
+     * Crea un cambio.
+     *
+     * @param tipo Tipo de cambio
+     * @param idMascota ID de la mascota
+     * @param anterior Estado previo; null en un alta o si no se pudo leer
+     * @param actual Estado resultante; null en una baja
+     */
+    public CambioMascota(Tipo tipo, String idMascota, MascotaVO anterior, MascotaVO actual) {
+        this.tipo = tipo;
+        this.idMascota = idMascota;
+        this.anterior = anterior;
+        this.actual = actual;
+    }
+
+    /**
+     * @return Tipo de cambio
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * @return ID de la mascota
+     */
+    public String getIdMascota() {
+        return idMascota;
+    }
+
+    /**
+     * @return Estado previo; null en un alta o si no se pudo leer
+     */
+    public MascotaVO getAnterior() {
+        return anterior;
+    }
+
+    /**
+     * @return Estado resultante; null en una baja
+     */
+    public MascotaVO getActual() {
+        return actual;
+    }
+
+    @Override
+    public String toString() {
+        return "CambioMascota{" + tipo + ", " + idMascota + '}';
+    }
+}
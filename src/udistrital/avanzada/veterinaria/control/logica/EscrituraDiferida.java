@@ -0,0 +1,299 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAO;
+import udistrital.avanzada.veterinaria.modelo.metricas.Histograma;
+import udistrital.avanzada.veterinaria.modelo.metricas.RegistroMetricas;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Búfer de escritura diferida (write-behind) para las modificaciones de
+ * mascotas. Cada modificación se guarda en memoria en lugar de escribirse
+ * de inmediato; varias modificaciones seguidas de la misma mascota se
+ * combinan en una sola, con el estado final. El búfer se escribe en una
+ * única transacción por lotes cada cierto tiempo, al alcanzar un número
+ * de mascotas pendientes o cuando se pide con {@link #vaciar()}.
+ * <p>
+ * Mientras una modificación está pendiente se conserva el estado que la
+ * mascota tenía en la base de datos, para saber qué columnas cambiaron:
+ * una consulta que filtra u ordena por una de ellas necesita que el búfer
+ * se escriba antes ({@link #afecta(String...)}); las demás solo necesitan
+ * superponer los estados pendientes a su resultado ({@link #superponer(ArrayList)}).
+ * <p>
+ * Si la escritura falla, las modificaciones siguen en el búfer y se
+ * reintentan en la siguiente escritura. Como el hilo de escritura es
+ * demonio, un gancho de terminación de la JVM escribe lo pendiente si la
+ * aplicación termina sin llamar a {@link #cerrar()}.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class EscrituraDiferida {
+
+    /**
+     * Tiempo por defecto entre escrituras del búfer, en milisegundos.
+     */
+    public static final long PERIODO_POR_DEFECTO_MS = 2000;
+
+    /**
+     * Número por defecto de mascotas pendientes que adelanta la escritura.
+     */
+    public static final int MAXIMO_PENDIENTES_POR_DEFECTO = 200;
+
+    private static final Histograma VACIADO = RegistroMetricas.global().histograma("escrituraDiferida.vaciar");
+
+    private final MascotaDAO mascotaDAO;
+    private final int maximoPendientes;
+    private final LinkedHashMap<String, Pendiente> pendientes = new LinkedHashMap<>();
+    private final Object escritura = new Object();
+    private final ScheduledExecutorService temporizador;
+    private final Thread alTerminar;
+    private boolean vaciadoSolicitado;
+
+    private final LongAdder combinadas;
+    private final LongAdder escritas;
+    private final LongAdder fallidas;
+
+    /**
+     * Crea el búfer y programa su escritura periódica en un hilo propio.
+     *
+     * @param mascotaDAO DAO con el que se escriben las modificaciones
+     * @param periodoMs Tiempo entre escrituras del búfer
+     * @param maximoPendientes Mascotas pendientes a partir de las cuales se
+     *                         escribe sin esperar al siguiente periodo
+     */
+    public EscrituraDiferida(MascotaDAO mascotaDAO, long periodoMs, int maximoPendientes) {
+        if (periodoMs <= 0 || maximoPendientes <= 0) {
+            throw new IllegalArgumentException("Configuración inválida: periodoMs=" + periodoMs
+                    + ", maximoPendientes=" + maximoPendientes);
+        }
+        this.mascotaDAO = mascotaDAO;
+        this.maximoPendientes = maximoPendientes;
+        RegistroMetricas registro = RegistroMetricas.global();
+        this.combinadas = registro.contador("escrituraDiferida.combinadas");
+        this.escritas = registro.contador("escrituraDiferida.escritas");
+        this.fallidas = registro.contador("escrituraDiferida.fallidas");
+        registro.medidor("escrituraDiferida.pendientes", this::getPendientes);
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "escritura-diferida");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        temporizador.scheduleWithFixedDelay(this::vaciarEnSegundoPlano, periodoMs, periodoMs,
+                TimeUnit.MILLISECONDS);
+        this.alTerminar = new Thread(this::vaciarAlTerminar, "escritura-diferida-salida");
+        Runtime.getRuntime().addShutdownHook(alTerminar);
+    }
+
+    /**
+     * Guarda una modificación. Si la mascota ya tenía una pendiente, se
+     * reemplaza por la nueva y se conserva el estado original.
+     *
+     * @param anterior Estado de la mascota antes de esta modificación
+     * @param actualizada Estado de la mascota después de esta modificación
+     */
+    public synchronized void modificar(MascotaVO anterior, MascotaVO actualizada) {
+        Pendiente previa = pendientes.get(actualizada.getIdMascota());
+        if (previa != null) {
+            combinadas.increment();
+        }
+        pendientes.put(actualizada.getIdMascota(),
+                new Pendiente(previa != null ? previa.original : anterior, actualizada));
+        if (pendientes.size() >= maximoPendientes && !vaciadoSolicitado) {
+            vaciadoSolicitado = true;
+            temporizador.execute(this::vaciarEnSegundoPlano);
+        }
+    }
+
+    /**
+     * Consulta el estado pendiente de una mascota.
+     *
+     * @param idMascota ID de la mascota
+     * @return Estado aún no escrito, o null si la mascota no tiene modificaciones pendientes
+     */
+    public synchronized MascotaVO pendiente(String idMascota) {
+        Pendiente pendiente = pendientes.get(idMascota);
+        return pendiente == null ? null : pendiente.actualizada;
+    }
+
+    /**
+     * Descarta la modificación pendiente de una mascota, por ejemplo porque
+     * se eliminó.
+     *
+     * @param idMascota ID de la mascota
+     */
+    public synchronized void descartar(String idMascota) {
+        pendientes.remove(idMascota);
+    }
+
+    /**
+     * Indica si alguna modificación pendiente cambió el valor de alguna de
+     * las columnas indicadas.
+     *
+     * @param columnas Columnas de la tabla mascotas; los valores null se ignoran
+     * @return true si una consulta sobre esas columnas debe esperar a que se escriba el búfer
+     */
+    public synchronized boolean afecta(String... columnas) {
+        for (Pendiente pendiente : pendientes.values()) {
+            for (String columna : columnas) {
+                if (columna != null && pendiente.cambio(columna)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reemplaza en una lista leída de la base de datos las mascotas que
+     * tienen modificaciones pendientes por su estado pendiente.
+     *
+     * @param mascotas Lista a actualizar; puede ser null
+     * @return La misma lista
+     */
+    public synchronized ArrayList<MascotaVO> superponer(ArrayList<MascotaVO> mascotas) {
+        if (mascotas != null && !pendientes.isEmpty()) {
+            for (int i = 0; i < mascotas.size(); i++) {
+                Pendiente pendiente = pendientes.get(mascotas.get(i).getIdMascota());
+                if (pendiente != null) {
+                    mascotas.set(i, pendiente.actualizada);
+                }
+            }
+        }
+        return mascotas;
+    }
+
+    /**
+     * Escribe en una sola transacción todas las modificaciones pendientes.
+     * Si ya hay una escritura en curso, espera a que termine.
+     *
+     * @return true si no quedó nada pendiente de lo que había al llamar, false si la escritura falló
+     */
+    public boolean vaciar() {
+        synchronized (escritura) {
+            Map<String, Pendiente> lote;
+            synchronized (this) {
+                vaciadoSolicitado = false;
+                if (pendientes.isEmpty()) {
+                    return true;
+                }
+                lote = new LinkedHashMap<>(pendientes);
+            }
+            ArrayList<MascotaVO> mascotas = new ArrayList<>(lote.size());
+            for (Pendiente pendiente : lote.values()) {
+                mascotas.add(pendiente.actualizada);
+            }
+            long inicio = System.nanoTime();
+            int modificadas = mascotaDAO.modificarMascotasEnLote(mascotas);
+            VACIADO.registrarDesde(inicio);
+            if (modificadas < 0) {
+                fallidas.increment();
+                return false;
+            }
+            synchronized (this) {
+                // Las mascotas modificadas otra vez mientras se escribía siguen pendientes
+                lote.forEach(pendientes::remove);
+            }
+            escritas.add(mascotas.size());
+            return true;
+        }
+    }
+
+    /**
+     * Detiene la escritura periódica y escribe lo pendiente.
+     *
+     * @return true si no quedó nada pendiente
+     */
+    public boolean cerrar() {
+        temporizador.shutdownNow();
+        try {
+            Runtime.getRuntime().removeShutdownHook(alTerminar);
+        } catch (IllegalStateException e) {
+            // La JVM ya está terminando; el gancho encontrará el búfer vacío
+        }
+        return vaciar();
+    }
+
+    /**
+     * @return Número de mascotas con modificaciones pendientes
+     */
+    public synchronized int getPendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * @return Gancho de terminación que escribe lo pendiente, registrado hasta {@link #cerrar()}
+     */
+    Thread getAlTerminar() {
+        return alTerminar;
+    }
+
+    private void vaciarAlTerminar() {
+        try {
+            if (!vaciar()) {
+                System.out.println("Se perdieron " + getPendientes() + " modificaciones pendientes al terminar");
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Error al guardar las modificaciones pendientes al terminar: " + e.getMessage());
+        }
+    }
+
+    private void vaciarEnSegundoPlano() {
+        try {
+            if (!vaciar()) {
+                System.out.println("No se pudieron guardar " + getPendientes()
+                        + " modificaciones pendientes; se reintentará");
+            }
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría la escritura periódica
+            System.out.println("Error al guardar las modificaciones pendientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Modificación pendiente de una mascota: el estado que tiene en la base
+     * de datos y el que debe quedar.
+     */
+    private static final class Pendiente {
+
+        private final MascotaVO original;
+        private final MascotaVO actualizada;
+
+        Pendiente(MascotaVO original, MascotaVO actualizada) {
+            this.original = original;
+            this.actualizada = actualizada;
+        }
+
+        boolean cambio(String columna) {
+            switch (columna) {
+                case "id_mascota":
+                case "familia":
+                case "genero":
+                case "especie":
+                    return false;
+                case "apodo":
+                    return !Objects.equals(original.getApodo(), actualizada.getApodo());
+                case "clasificacion":
+                    return !Objects.equals(original.getClasificacion(), actualizada.getClasificacion());
+                case "tipo_alimento":
+                    return !Objects.equals(original.getTipoAlimento(), actualizada.getTipoAlimento());
+                case "edad":
+                    return original.getEdad() != actualizada.getEdad();
+                case "peso":
+                    return Double.compare(original.getPeso(), actualizada.getPeso()) != 0;
+                case "observaciones":
+                    return !Objects.equals(original.getObservaciones(), actualizada.getObservaciones());
+                default:
+                    return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import udistrital.avanzada.veterinaria.modelo.DAO.AgregadoGrupo;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAO;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Agregados del catálogo por columna (cantidad, sumas, mínimos y máximos de
+ * edad y peso), cargados una vez con un GROUP BY y mantenidos después de
+ * forma incremental con cada alta, modificación y baja. Así las consultas de
+ * estadísticas se responden en memoria sin recorrer la tabla.
+ * <p>
+ * Las sumas y conteos se actualizan exactamente; el mínimo o el máximo de un
+ * grupo no se puede deducir al quitar justo el valor extremo, por lo que ese
+ * grupo queda marcado y se recalcula solo él en la base de datos
+ * ({@link #gruposDesactualizados(String)}). Los valores se agrupan sin
+ * distinguir mayúsculas ni tildes, como la intercalación de la base de datos.
+ * <p>
+ * Los métodos están sincronizados; el Gestor además toma el monitor de esta
+ * instancia alrededor de cada escritura para que la base de datos y los
+ * agregados cambien juntos.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class EstadisticasMascotas {
+
+    private final Map<String, Map<String, Acumulador>> dimensiones = new HashMap<>();
+
+    /**
+     * Carga los agregados de una dimensión calculados por la base de datos,
+     * reemplazando los que hubiera.
+     *
+     * @param dimension Columna de {@link MascotaDAO#COLUMNAS_AGRUPABLES}
+     * @param grupos Agregados de cada grupo
+     */
+    public synchronized void cargar(String dimension, List<AgregadoGrupo> grupos) {
+        validar(dimension);
+        Map<String, Acumulador> acumuladores = new HashMap<>();
+        for (AgregadoGrupo grupo : grupos) {
+            acumuladores.put(MascotaIndex.clave(grupo.getValor()), new Acumulador(grupo));
+        }
+        dimensiones.put(dimension, acumuladores);
+    }
+
+    /**
+     * @param dimension Columna a verificar
+     * @return true si los agregados de la dimensión están cargados
+     */
+    public synchronized boolean isCargada(String dimension) {
+        return dimensiones.containsKey(dimension);
+    }
+
+    /**
+     * @return true si hay al menos una dimensión cargada que mantener
+     */
+    public synchronized boolean isCargada() {
+        return !dimensiones.isEmpty();
+    }
+
+    /**
+     * Suma una mascota nueva a los agregados cargados.
+     *
+     * @param mascota Mascota registrada
+     */
+    public synchronized void registrada(MascotaVO mascota) {
+        for (Map.Entry<String, Map<String, Acumulador>> entrada : dimensiones.entrySet()) {
+            String valor = valor(mascota, entrada.getKey());
+            entrada.getValue().computeIfAbsent(MascotaIndex.clave(valor), k -> new Acumulador(valor))
+                    .sumar(mascota);
+        }
+    }
+
+    /**
+     * Resta una mascota eliminada de los agregados cargados.
+     *
+     * @param anterior Estado de la mascota antes de eliminarla
+     */
+    public synchronized void eliminada(MascotaVO anterior) {
+        for (Map.Entry<String, Map<String, Acumulador>> entrada : dimensiones.entrySet()) {
+            String clave = MascotaIndex.clave(valor(anterior, entrada.getKey()));
+            Acumulador acumulador = entrada.getValue().get(clave);
+            if (acumulador != null && acumulador.restar(anterior)) {
+                entrada.getValue().remove(clave);
+            }
+        }
+    }
+
+    /**
+     * Aplica la modificación de una mascota: resta su estado anterior y suma el nuevo.
+     *
+     * @param anterior Estado previo de la mascota
+     * @param actualizada Estado resultante
+     */
+    public synchronized void modificada(MascotaVO anterior, MascotaVO actualizada) {
+        eliminada(anterior);
+        registrada(actualizada);
+    }
+
+    /**
+     * Descarta todos los agregados; se vuelven a cargar en la siguiente consulta.
+     * Se usa tras cambios masivos como una importación.
+     */
+    public synchronized void invalidar() {
+        dimensiones.clear();
+    }
+
+    /**
+     * Obtiene los agregados de una dimensión ordenados por valor.
+     *
+     * @param dimension Columna a consultar
+     * @return Agregados de cada grupo, o null si la dimensión no está cargada
+     */
+    public synchronized ArrayList<AgregadoGrupo> obtener(String dimension) {
+        Map<String, Acumulador> acumuladores = dimensiones.get(dimension);
+        if (acumuladores == null) {
+            return null;
+        }
+        TreeMap<String, AgregadoGrupo> ordenados = new TreeMap<>();
+        for (Map.Entry<String, Acumulador> entrada : acumuladores.entrySet()) {
+            ordenados.put(entrada.getKey(), entrada.getValue().instantanea());
+        }
+        return new ArrayList<>(ordenados.values());
+    }
+
+    /**
+     * Obtiene los agregados de un único grupo en tiempo constante.
+     *
+     * @param dimension Columna a consultar
+     * @param valor Valor que define el grupo
+     * @return Agregados del grupo, o null si no hay mascotas con ese valor o la dimensión no está cargada
+     */
+    public synchronized AgregadoGrupo obtener(String dimension, String valor) {
+        Map<String, Acumulador> acumuladores = dimensiones.get(dimension);
+        Acumulador acumulador = acumuladores == null ? null : acumuladores.get(MascotaIndex.clave(valor));
+        return acumulador == null ? null : acumulador.instantanea();
+    }
+
+    /**
+     * Lista los grupos de una dimensión cuyo mínimo o máximo dejó de ser
+     * exacto al eliminar o modificar la mascota que lo tenía.
+     *
+     * @param dimension Columna a consultar
+     * @return Valores de los grupos a recalcular
+     */
+    public synchronized List<String> gruposDesactualizados(String dimension) {
+        List<String> valores = new ArrayList<>();
+        Map<String, Acumulador> acumuladores = dimensiones.get(dimension);
+        if (acumuladores != null) {
+            for (Acumulador acumulador : acumuladores.values()) {
+                if (!acumulador.extremosVigentes) {
+                    valores.add(acumulador.valor);
+                }
+            }
+        }
+        return valores;
+    }
+
+    /**
+     * Reemplaza los agregados de un grupo con los recalculados en la base de datos.
+     *
+     * @param dimension Columna del grupo
+     * @param valor Valor que define el grupo
+     * @param grupo Agregados recalculados, o null si el grupo ya no tiene mascotas
+     */
+    public synchronized void refrescar(String dimension, String valor, AgregadoGrupo grupo) {
+        Map<String, Acumulador> acumuladores = dimensiones.get(dimension);
+        if (acumuladores == null) {
+            return;
+        }
+        if (grupo == null) {
+            acumuladores.remove(MascotaIndex.clave(valor));
+        } else {
+            acumuladores.put(MascotaIndex.clave(valor), new Acumulador(grupo));
+        }
+    }
+
+    private static void validar(String dimension) {
+        if (!MascotaDAO.COLUMNAS_AGRUPABLES.contains(dimension)) {
+            throw new IllegalArgumentException("Columna no agrupable: " + dimension);
+        }
+    }
+
+    /**
+     * Valor de la mascota en la columna indicada.
+     */
+    static String valor(MascotaVO mascota, String dimension) {
+        switch (dimension) {
+            case "clasificacion":
+                return mascota.getClasificacion();
+            case "familia":
+                return mascota.getFamilia();
+            case "genero":
+                return mascota.getGenero();
+            case "especie":
+                return mascota.getEspecie();
+            case "tipo_alimento":
+                return mascota.getTipoAlimento();
+            default:
+                throw new IllegalArgumentException("Columna no agrupable: " + dimension);
+        }
+    }
+
+    /**
+     * Agregados mutables de un grupo. El peso se acumula en centésimas, la
+     * precisión de la columna, para que sumas y restas sucesivas no acumulen
+     * error de redondeo.
+     */
+    private static final class Acumulador {
+        final String valor;
+        long cantidad;
+        long sumaEdad;
+        int edadMinima;
+        int edadMaxima;
+        long sumaPesoCentesimas;
+        long pesoMinimoCentesimas;
+        long pesoMaximoCentesimas;
+        boolean extremosVigentes = true;
+
+        Acumulador(String valor) {
+            this.valor = valor;
+            edadMinima = Integer.MAX_VALUE;
+            edadMaxima = Integer.MIN_VALUE;
+            pesoMinimoCentesimas = Long.MAX_VALUE;
+            pesoMaximoCentesimas = Long.MIN_VALUE;
+        }
+
+        Acumulador(AgregadoGrupo grupo) {
+            valor = grupo.getValor();
+            cantidad = grupo.getCantidad();
+            sumaEdad = grupo.getSumaEdad();
+            edadMinima = grupo.getEdadMinima();
+            edadMaxima = grupo.getEdadMaxima();
+            sumaPesoCentesimas = centesimas(grupo.getSumaPeso());
+            pesoMinimoCentesimas = centesimas(grupo.getPesoMinimo());
+            pesoMaximoCentesimas = centesimas(grupo.getPesoMaximo());
+        }
+
+        void sumar(MascotaVO mascota) {
+            long peso = centesimas(mascota.getPeso());
+            cantidad++;
+            sumaEdad += mascota.getEdad();
+            sumaPesoCentesimas += peso;
+            edadMinima = Math.min(edadMinima, mascota.getEdad());
+            edadMaxima = Math.max(edadMaxima, mascota.getEdad());
+            pesoMinimoCentesimas = Math.min(pesoMinimoCentesimas, peso);
+            pesoMaximoCentesimas = Math.max(pesoMaximoCentesimas, peso);
+        }
+
+        /**
+         * @return true si el grupo quedó vacío
+         */
+        boolean restar(MascotaVO mascota) {
+            long peso = centesimas(mascota.getPeso());
+            cantidad--;
+            sumaEdad -= mascota.getEdad();
+            sumaPesoCentesimas -= peso;
+            if (mascota.getEdad() == edadMinima || mascota.getEdad() == edadMaxima
+                    || peso == pesoMinimoCentesimas || peso == pesoMaximoCentesimas) {
+                extremosVigentes = false;
+            }
+            return cantidad <= 0;
+        }
+
+        AgregadoGrupo instantanea() {
+            return new AgregadoGrupo(valor, cantidad, sumaEdad, edadMinima, edadMaxima,
+                    sumaPesoCentesimas / 100.0, pesoMinimoCentesimas / 100.0, pesoMaximoCentesimas / 100.0);
+        }
+
+        private static long centesimas(double valor) {
+            return Math.round(valor * 100);
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package udistrital.avanzada.veterinaria.control.logica;
 
-import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Properties;
+import java.util.EnumSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import udistrital.avanzada.veterinaria.modelo.DAO.AgregadoGrupo;
+import udistrital.avanzada.veterinaria.modelo.DAO.CambiosDAO;
+import udistrital.avanzada.veterinaria.modelo.DAO.ArchivoAccesoAleatorio;
+import udistrital.avanzada.veterinaria.modelo.DAO.CriterioListado;
+import udistrital.avanzada.veterinaria.modelo.DAO.FormatoBinarioMascotas;
 import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAO;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAOMedido;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaQuery;
+import udistrital.avanzada.veterinaria.modelo.DAO.MetadatosDAO;
+import udistrital.avanzada.veterinaria.modelo.cambios.BusCambios;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+import udistrital.avanzada.veterinaria.modelo.conexion.RegistroConsultasLentas;
+import udistrital.avanzada.veterinaria.modelo.metricas.Histograma;
+import udistrital.avanzada.veterinaria.modelo.metricas.RegistroMetricas;
 import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
 
 /**
@@ -19,93 +34,101 @@ import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
  */
 public class Gestor {
 
-    private MascotaDAO mascotaDAO;
+    private static final int CAPACIDAD_CACHE = 10000;
+    private static final long TTL_CACHE_MINUTOS = 10;
+    private static final int LIMITE_SUGERENCIAS = 200;
+    private static final String ARCHIVO_INICIAL = "data/mascotas_iniciales.properties";
+    private static final String ARCHIVO_RECHAZOS_INICIAL = "data/mascotas_iniciales_rechazadas.properties";
+    private static final String PREFIJO_HUELLA = "huella:";
+    private static final EnumSet<FormatoBinarioMascotas.Campo> CAMPOS_SERIALIZADOS =
+            EnumSet.complementOf(EnumSet.of(FormatoBinarioMascotas.Campo.TIPO_ALIMENTO));
+    private static final Histograma IMPORTACION = RegistroMetricas.global().histograma("importacion.archivo");
+    private static final Histograma SERIALIZACION = RegistroMetricas.global().histograma("exportacion.serializar");
+    private static final Histograma ACCESO_ALEATORIO = RegistroMetricas.global().histograma("exportacion.accesoAleatorio");
+
+    private final MascotaDAO mascotaDAO;
+    private final MetadatosDAO metadatosDAO;
+    private final CacheMascotas cache;
+    private final MascotaIndex indice;
+    private final EstadisticasMascotas estadisticas;
+    private final CopyOnWriteArrayList<Consumer<CambioMascota>> escuchas = new CopyOnWriteArrayList<>();
+    private volatile EscrituraDiferida escrituras;
+    private volatile long indiceCargadoEn;
 
     /**
      * Constructor por defecto del Gestor.
-     * Inicializa el DAO y carga los datos iniciales desde el archivo properties.
+     * Inicializa el DAO sin acceder a la base de datos, para no retrasar la
+     * primera ventana; los datos iniciales se cargan aparte con
+     * {@link #cargarDatosIniciales()}. Las operaciones del DAO se miden en
+     * el registro global de métricas.
      */
     public Gestor() {
-        mascotaDAO = new MascotaDAO();
-        cargarDatosIniciales();
-    }
-
-    /**
-     * Carga los datos iniciales desde el archivo properties.
-     * Si algún registro está incompleto, se debe completar desde la interfaz.
-     */
-    private void cargarDatosIniciales() {
-        Properties propiedades = new Properties();
-        try (FileInputStream fis = new FileInputStream("data/mascotas_iniciales.properties")) {
-            propiedades.load(fis);
-            
-            for (String clave : propiedades.stringPropertyNames()) {
-                if (clave.startsWith("mascota.")) {
-                    String datos = propiedades.getProperty(clave);
-                    MascotaVO mascota = parsearDatosMascota(datos);
-                    if (mascota != null && datosCompletos(mascota)) {
-                        if (!mascotaDAO.existeMascota(mascota.getIdMascota())) {
-                            mascotaDAO.insertarMascota(mascota);
-                        }
-                    }
-                }
-            }
-        } catch (IOException e) {
-            // Error al cargar el archivo properties
-        }
+        mascotaDAO = new MascotaDAOMedido();
+        metadatosDAO = new MetadatosDAO();
+        cache = new CacheMascotas(CAPACIDAD_CACHE, TTL_CACHE_MINUTOS, TimeUnit.MINUTES);
+        indice = new MascotaIndex();
+        estadisticas = new EstadisticasMascotas();
+        RegistroMetricas.global().medidor("cache.mascotas", cache::getTamano);
     }
 
     /**
-     * Parsea los datos de una mascota desde una cadena de texto.
-     * 
-     * @param datos Cadena con los datos separados por comas
-     * @return Objeto MascotaVO parseado o null si hay error
+     * Carga los datos iniciales desde el archivo properties, salvo que no
+     * haya cambiado desde la última importación: la huella de su contenido
+     * se guarda en la tabla de metadatos. Los registros incompletos quedan
+     * en el archivo de rechazos para completarlos y volver a importarlos.
+     * Pensado para ejecutarse en segundo plano al iniciar.
+     *
+     * @return Resumen de la importación, o null si el archivo no cambió o no se pudo leer
      */
-    private MascotaVO parsearDatosMascota(String datos) {
+    public ResumenImportacion cargarDatosIniciales() {
+        String huella;
         try {
-            String[] campos = datos.split(",");
-            if (campos.length >= 10) {
-                MascotaVO mascota = new MascotaVO();
-                mascota.setIdMascota(campos[0].trim());
-                mascota.setApodo(campos[1].trim());
-                mascota.setClasificacion(campos[2].trim());
-                mascota.setFamilia(campos[3].trim());
-                mascota.setGenero(campos[4].trim());
-                mascota.setEspecie(campos[5].trim());
-                mascota.setTipoAlimento(campos[6].trim());
-                
-                if (!campos[7].trim().isEmpty()) {
-                    mascota.setEdad(Integer.parseInt(campos[7].trim()));
-                }
-                
-                if (!campos[8].trim().isEmpty()) {
-                    mascota.setPeso(Double.parseDouble(campos[8].trim()));
-                }
-                
-                mascota.setObservaciones(campos[9].trim());
-                return mascota;
-            }
-        } catch (Exception e) {
-            // Error al parsear los datos
+            huella = HuellaArchivo.calcular(ARCHIVO_INICIAL);
+        } catch (IOException e) {
+            return null;
         }
-        return null;
+        String clave = PREFIJO_HUELLA + ARCHIVO_INICIAL;
+        if (huella.equals(metadatosDAO.consultarValor(clave))) {
+            return null;
+        }
+
+        ResumenImportacion resumen = importarMascotas(ARCHIVO_INICIAL, ARCHIVO_RECHAZOS_INICIAL, null);
+        if (resumen != null && resumen.getFallidas() == 0) {
+            metadatosDAO.guardarValor(clave, huella);
+        }
+        return resumen;
     }
 
     /**
-     * Verifica si los datos de una mascota están completos.
+     * Importa mascotas desde un archivo properties en flujo, insertándolas
+     * por lotes. Sirve para archivos de cualquier tamaño.
      * 
-     * @param mascota Mascota a verificar
-     * @return true si los datos están completos, false en caso contrario
+     * @param nombreArchivo Archivo a importar
+     * @param nombreRechazos Archivo donde quedan las entradas rechazadas y el motivo
+     * @param progreso Recibe el avance de la importación; puede ser null
+     * @return Resumen de la importación, o null si no se pudo leer el archivo
+     * @see ImportadorMascotas
      */
-    private boolean datosCompletos(MascotaVO mascota) {
-        return mascota.getIdMascota() != null && !mascota.getIdMascota().isEmpty() &&
-               mascota.getApodo() != null && !mascota.getApodo().isEmpty() &&
-               mascota.getClasificacion() != null && !mascota.getClasificacion().isEmpty() &&
-               mascota.getFamilia() != null && !mascota.getFamilia().isEmpty() &&
-               mascota.getGenero() != null && !mascota.getGenero().isEmpty() &&
-               mascota.getEspecie() != null && !mascota.getEspecie().isEmpty() &&
-               mascota.getTipoAlimento() != null && !mascota.getTipoAlimento().isEmpty() &&
-               mascota.getEdad() > 0 && mascota.getPeso() > 0;
+    public ResumenImportacion importarMascotas(String nombreArchivo, String nombreRechazos,
+            Consumer<ResumenImportacion> progreso) {
+        ResumenImportacion resumen;
+        long inicio = System.nanoTime();
+        try {
+            resumen = new ImportadorMascotas(mascotaDAO).importar(nombreArchivo, nombreRechazos, progreso);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            IMPORTACION.registrarDesde(inicio);
+        }
+        RegistroMetricas registro = RegistroMetricas.global();
+        registro.contador("importacion.insertadas").add(resumen.getInsertadas());
+        registro.contador("importacion.rechazadas").add(resumen.getRechazadas());
+        if (resumen.getInsertadas() > 0) {
+            cache.invalidar();
+            indice.invalidar();
+            estadisticas.invalidar();
+        }
+        return resumen;
     }
 
     /**
@@ -118,17 +141,63 @@ public class Gestor {
         if (mascotaDAO.existeMascota(mascota.getIdMascota())) {
             return false; // Mascota ya existe
         }
-        return mascotaDAO.insertarMascota(mascota);
+        synchronized (estadisticas) {
+            if (mascotaDAO.insertarMascota(mascota)) {
+                cache.registrada(mascota);
+                indice.registrada(mascota);
+                estadisticas.registrada(mascota);
+                publicar(new CambioMascota(CambioMascota.Tipo.INSERTADA, mascota.getIdMascota(), null, mascota));
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Busca mascotas por apodo.
+     * Se resuelve con el índice de trigramas en memoria, sin recorrer la tabla.
      * 
      * @param apodo Apodo o parte del apodo a buscar
-     * @return Lista de mascotas que coinciden con el criterio
+     * @return Lista de mascotas que coinciden con el criterio, ordenada por apodo
      */
     public ArrayList<MascotaVO> buscarMascotasPorApodo(String apodo) {
-        return mascotaDAO.consultarMascotasPorApodo(apodo);
+        ArrayList<MascotaVO> mascotas = indiceVigente().buscarPorApodo(apodo, false, Integer.MAX_VALUE);
+        mascotas.sort(CacheMascotas.POR_APODO);
+        return mascotas;
+    }
+
+    /**
+     * Busca mascotas cuyas observaciones contienen el texto indicado.
+     * 
+     * @param texto Texto a buscar en las observaciones
+     * @return Lista de mascotas que coinciden con el criterio, ordenada por apodo
+     */
+    public ArrayList<MascotaVO> buscarMascotasPorObservaciones(String texto) {
+        ArrayList<MascotaVO> mascotas = indiceVigente().buscarPorObservaciones(texto, false, Integer.MAX_VALUE);
+        mascotas.sort(CacheMascotas.POR_APODO);
+        return mascotas;
+    }
+
+    /**
+     * Sugiere mascotas mientras se escribe un apodo: primero las que empiezan
+     * por el texto y luego las que lo contienen, hasta un número acotado.
+     * 
+     * @param texto Texto escrito hasta el momento
+     * @return Lista de mascotas sugeridas
+     */
+    public ArrayList<MascotaVO> sugerirMascotasPorApodo(String texto) {
+        MascotaIndex vigente = indiceVigente();
+        ArrayList<MascotaVO> sugerencias = vigente.buscarPorApodo(texto, true, LIMITE_SUGERENCIAS);
+        sugerencias.sort(CacheMascotas.POR_APODO);
+        if (sugerencias.size() < LIMITE_SUGERENCIAS) {
+            ArrayList<MascotaVO> contienen = vigente.buscarPorApodo(texto, false, LIMITE_SUGERENCIAS);
+            contienen.removeAll(sugerencias);
+            contienen.sort(CacheMascotas.POR_APODO);
+            for (int i = 0; i < contienen.size() && sugerencias.size() < LIMITE_SUGERENCIAS; i++) {
+                sugerencias.add(contienen.get(i));
+            }
+        }
+        return sugerencias;
     }
 
     /**
@@ -138,7 +207,7 @@ public class Gestor {
      * @return Lista de mascotas que pertenecen a la clasificación
      */
     public ArrayList<MascotaVO> buscarMascotasPorClasificacion(String clasificacion) {
-        return mascotaDAO.consultarMascotasPorClasificacion(clasificacion);
+        return buscarMascotas(clasificacion, null, null);
     }
 
     /**
@@ -148,7 +217,7 @@ public class Gestor {
      * @return Lista de mascotas que pertenecen a la familia
      */
     public ArrayList<MascotaVO> buscarMascotasPorFamilia(String familia) {
-        return mascotaDAO.consultarMascotasPorFamilia(familia);
+        return buscarMascotas(null, familia, null);
     }
 
     /**
@@ -158,18 +227,105 @@ public class Gestor {
      * @return Lista de mascotas que consumen el tipo de alimento
      */
     public ArrayList<MascotaVO> buscarMascotasPorTipoAlimento(String tipoAlimento) {
-        return mascotaDAO.consultarMascotasPorTipoAlimento(tipoAlimento);
+        return buscarMascotas(null, null, tipoAlimento);
+    }
+
+    /**
+     * Busca mascotas que cumplan a la vez todos los criterios indicados.
+     * Se resuelve con los índices en memoria, sin consultar la base de datos.
+     * Un criterio null o vacío no filtra.
+     * 
+     * @param clasificacion Clasificación a buscar
+     * @param familia Familia biológica a buscar
+     * @param tipoAlimento Tipo de alimento a buscar
+     * @return Lista de mascotas que cumplen todos los criterios
+     */
+    public ArrayList<MascotaVO> buscarMascotas(String clasificacion, String familia, String tipoAlimento) {
+        return indiceVigente().buscar(clasificacion, familia, tipoAlimento);
+    }
+
+    /**
+     * Busca las mascotas que cumplen una consulta con cualquier combinación
+     * de criterios. Si el listado completo está en caché, la consulta se
+     * evalúa en memoria; si no, se compila a una única sentencia SQL.
+     *
+     * @param consulta Criterios, orden y página
+     * @return Mascotas que cumplen la consulta, en su orden
+     */
+    public ArrayList<MascotaVO> buscarMascotas(MascotaQuery consulta) {
+        ArrayList<MascotaVO> listado = cache.obtenerListado();
+        if (listado != null) {
+            return consulta.evaluar(listado);
+        }
+        vaciarEscrituras();
+        return mascotaDAO.consultarMascotas(consulta);
+    }
+
+    /**
+     * Obtiene el índice en memoria, recargándolo con el catálogo completo
+     * si aún no se ha cargado o si superó el tiempo de vida de la caché.
+     * 
+     * @return Índice listo para consultar
+     */
+    private MascotaIndex indiceVigente() {
+        long ttl = TimeUnit.MINUTES.toNanos(TTL_CACHE_MINUTOS);
+        if (!indice.isCargado() || System.nanoTime() - indiceCargadoEn > ttl) {
+            synchronized (indice) {
+                if (!indice.isCargado() || System.nanoTime() - indiceCargadoEn > ttl) {
+                    indice.cargar(obtenerTodasLasMascotas());
+                    indiceCargadoEn = System.nanoTime();
+                }
+            }
+        }
+        return indice;
     }
 
     /**
      * Modifica los datos de una mascota existente.
      * No permite modificar familia, género y especie.
+     * Si hay estadísticas cargadas o escuchas de cambios, se lee antes el
+     * estado previo para restarlo de ellas y publicarlo con el cambio.
+     * Con la escritura diferida activa, la modificación queda en el búfer
+     * y se escribe más tarde junto con las demás; las lecturas del Gestor
+     * la ven desde ya.
      * 
      * @param mascota Mascota con los datos actualizados
      * @return true si se modificó exitosamente, false en caso contrario
      */
     public boolean modificarMascota(MascotaVO mascota) {
-        return mascotaDAO.modificarMascota(mascota);
+        synchronized (estadisticas) {
+            EscrituraDiferida diferida = escrituras;
+            if (diferida != null) {
+                MascotaVO anterior = consultarMascotaPorId(mascota.getIdMascota());
+                if (anterior == null) {
+                    return false;
+                }
+                MascotaVO actualizada = CacheMascotas.aplicarModificacion(anterior, mascota);
+                diferida.modificar(anterior, actualizada);
+                cache.modificada(mascota);
+                indice.modificada(mascota);
+                estadisticas.modificada(anterior, actualizada);
+                publicar(new CambioMascota(CambioMascota.Tipo.MODIFICADA, mascota.getIdMascota(), anterior,
+                        actualizada));
+                return true;
+            }
+            MascotaVO anterior = necesitaAnterior() ? consultarMascotaPorId(mascota.getIdMascota()) : null;
+            if (mascotaDAO.modificarMascota(mascota)) {
+                cache.modificada(mascota);
+                indice.modificada(mascota);
+                MascotaVO actualizada = mascota;
+                if (anterior != null) {
+                    actualizada = CacheMascotas.aplicarModificacion(anterior, mascota);
+                    estadisticas.modificada(anterior, actualizada);
+                } else {
+                    estadisticas.invalidar();
+                }
+                publicar(new CambioMascota(CambioMascota.Tipo.MODIFICADA, mascota.getIdMascota(), anterior,
+                        actualizada));
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -179,103 +335,350 @@ public class Gestor {
      * @return true si se eliminó exitosamente, false en caso contrario
      */
     public boolean eliminarMascota(String idMascota) {
-        return mascotaDAO.eliminarMascota(idMascota);
+        synchronized (estadisticas) {
+            MascotaVO anterior = necesitaAnterior() ? consultarMascotaPorId(idMascota) : null;
+            if (mascotaDAO.eliminarMascota(idMascota)) {
+                EscrituraDiferida diferida = escrituras;
+                if (diferida != null) {
+                    diferida.descartar(idMascota);
+                }
+                cache.eliminada(idMascota);
+                indice.eliminada(idMascota);
+                if (anterior != null) {
+                    estadisticas.eliminada(anterior);
+                } else {
+                    estadisticas.invalidar();
+                }
+                publicar(new CambioMascota(CambioMascota.Tipo.ELIMINADA, idMascota, anterior, null));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene la cantidad de mascotas y los promedios, mínimos y máximos de
+     * edad y peso por cada valor de una columna. La primera consulta de cada
+     * columna se resuelve con un GROUP BY en la base de datos; después los
+     * agregados se mantienen en memoria con cada alta, modificación y baja,
+     * y solo se vuelve a consultar un grupo cuyo mínimo o máximo se eliminó.
+     *
+     * @param dimension Columna por la que agrupar, de {@link MascotaDAO#COLUMNAS_AGRUPABLES}
+     * @return Agregados de cada grupo ordenados por valor, o null si no se pudieron cargar
+     */
+    public ArrayList<AgregadoGrupo> obtenerEstadisticas(String dimension) {
+        synchronized (estadisticas) {
+            if (!estadisticas.isCargada(dimension) || !estadisticas.gruposDesactualizados(dimension).isEmpty()) {
+                vaciarEscrituras();
+            }
+            if (!estadisticas.isCargada(dimension)) {
+                ArrayList<AgregadoGrupo> grupos = mascotaDAO.agruparMascotas(dimension);
+                if (grupos == null) {
+                    return null;
+                }
+                estadisticas.cargar(dimension, grupos);
+            }
+            for (String valor : estadisticas.gruposDesactualizados(dimension)) {
+                ArrayList<AgregadoGrupo> grupo = mascotaDAO.agruparMascotas(dimension, valor);
+                if (grupo == null) {
+                    return null;
+                }
+                estadisticas.refrescar(dimension, valor, grupo.isEmpty() ? null : grupo.get(0));
+            }
+            return estadisticas.obtener(dimension);
+        }
     }
 
     /**
      * Obtiene todas las mascotas registradas en el sistema.
+     * Se atiende desde la caché si el listado está cargado y vigente.
      * 
      * @return Lista con todas las mascotas
      */
     public ArrayList<MascotaVO> obtenerTodasLasMascotas() {
-        return mascotaDAO.obtenerTodasLasMascotas();
+        ArrayList<MascotaVO> mascotas = cache.obtenerListado();
+        if (mascotas == null) {
+            antesDeLeer("apodo");
+            long generacion = cache.getGeneracion();
+            mascotas = superponer(mascotaDAO.obtenerTodasLasMascotas());
+            cache.guardarListadoSiVigente(mascotas, generacion);
+        }
+        return mascotas;
+    }
+
+    /**
+     * Cuenta las mascotas que cumplen el filtro de un criterio de listado.
+     * 
+     * @param criterio Criterio con el filtro a aplicar
+     * @return Número de mascotas
+     */
+    public int contarMascotas(CriterioListado criterio) {
+        antesDeLeer(criterio.getColumnaFiltro());
+        return mascotaDAO.contarMascotas(criterio);
+    }
+
+    /**
+     * Obtiene una ventana del listado ordenado y filtrado en la base de datos.
+     * No pasa por la caché: las ventanas se piden a medida que se desplaza
+     * la tabla y ya tienen un tamaño acotado.
+     * 
+     * @param criterio Orden y filtro del listado
+     * @param desde Posición de la primera fila
+     * @param cantidad Número máximo de filas
+     * @param anterior Fila anterior a la ventana si se conoce, para continuar por cursor
+     * @return Mascotas de la ventana, o null si no se pudo leer
+     */
+    public ArrayList<MascotaVO> obtenerVentanaMascotas(CriterioListado criterio, int desde, int cantidad,
+            MascotaVO anterior) {
+        antesDeLeer(criterio.getColumnaFiltro(), criterio.getColumnaOrden());
+        return superponer(mascotaDAO.obtenerVentanaMascotas(criterio, desde, cantidad, anterior));
     }
 
     /**
      * Consulta una mascota específica por su ID.
+     * Se atiende desde la caché si la mascota está cargada y vigente.
      * 
      * @param idMascota ID de la mascota a consultar
      * @return Mascota encontrada o null si no existe
      */
     public MascotaVO consultarMascotaPorId(String idMascota) {
-        return mascotaDAO.consultarMascotaPorId(idMascota);
+        EscrituraDiferida diferida = escrituras;
+        MascotaVO pendiente = diferida == null ? null : diferida.pendiente(idMascota);
+        if (pendiente != null) {
+            return pendiente;
+        }
+        MascotaVO mascota = cache.obtener(idMascota);
+        if (mascota == null) {
+            long generacion = cache.getGeneracion();
+            mascota = mascotaDAO.consultarMascotaPorId(idMascota);
+            if (mascota != null) {
+                cache.guardarSiVigente(mascota, generacion);
+            }
+        }
+        return mascota;
+    }
+
+    /**
+     * Activa la escritura diferida de las modificaciones: desde ahora
+     * {@link #modificarMascota(MascotaVO)} deja cada cambio en un búfer que
+     * combina los cambios de una misma mascota y los escribe por lotes cada
+     * cierto tiempo o al acumular demasiados. Si la JVM termina, lo
+     * pendiente se escribe en un gancho de terminación; aun así conviene
+     * llamar a {@link #vaciarEscrituras()} antes de salir, para poder
+     * informar si la escritura falla.
+     *
+     * @param periodoMs Tiempo máximo que una modificación espera en el búfer
+     * @param maximoPendientes Mascotas pendientes a partir de las cuales se escribe sin esperar
+     * @see EscrituraDiferida
+     */
+    public synchronized void activarEscrituraDiferida(long periodoMs, int maximoPendientes) {
+        if (escrituras == null) {
+            escrituras = new EscrituraDiferida(mascotaDAO, periodoMs, maximoPendientes);
+        }
+    }
+
+    /**
+     * Activa la captura de cambios: desde ahora cada escritura del DAO del
+     * Gestor, incluidas las importaciones y la escritura diferida, registra
+     * su cambio en la tabla cambios_mascotas y lo publica en un
+     * {@link BusCambios}, a continuación de la última secuencia registrada.
+     * Antes borra los cambios más antiguos que la retención configurada con
+     * {@value CambiosDAO#PROPIEDAD_RETENCION_DIAS}. Accede a la base de
+     * datos, por lo que conviene llamarlo fuera del EDT.
+     *
+     * @param capacidad Secuencias que el bus conserva en memoria
+     * @return El bus de cambios, o null si no se pudo leer la tabla de cambios
+     */
+    public synchronized BusCambios activarBusCambios(int capacidad) {
+        BusCambios bus = mascotaDAO.getBusCambios();
+        if (bus == null) {
+            CambiosDAO cambiosDAO = new CambiosDAO();
+            long ultima = cambiosDAO.ultimaSecuencia();
+            if (ultima < 0) {
+                return null;
+            }
+            long retencionDias = Long.getLong(CambiosDAO.PROPIEDAD_RETENCION_DIAS, CambiosDAO.RETENCION_DIAS_POR_DEFECTO);
+            cambiosDAO.depurar(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retencionDias));
+            bus = new BusCambios(cambiosDAO::leer, ultima, capacidad);
+            mascotaDAO.setBusCambios(bus);
+        }
+        return bus;
+    }
+
+    /**
+     * @return Bus de cambios, o null si la captura de cambios no está activa
+     */
+    public BusCambios getBusCambios() {
+        return mascotaDAO.getBusCambios();
+    }
+
+    /**
+     * Escribe en la base de datos las modificaciones que esperan en el
+     * búfer de escritura diferida.
+     *
+     * @return true si no quedó nada pendiente o la escritura diferida no está activa
+     */
+    public boolean vaciarEscrituras() {
+        EscrituraDiferida diferida = escrituras;
+        return diferida == null || diferida.vaciar();
+    }
+
+    /**
+     * @return Mascotas con modificaciones aún no escritas en la base de datos
+     */
+    public int getModificacionesPendientes() {
+        EscrituraDiferida diferida = escrituras;
+        return diferida == null ? 0 : diferida.getPendientes();
+    }
+
+    /**
+     * Prepara una lectura de la base de datos para que vea las
+     * modificaciones del búfer de escritura diferida: si alguna cambió una
+     * columna por la que la lectura filtra u ordena, se escriben antes;
+     * si no, basta con superponerlas al resultado.
+     *
+     * @param columnas Columnas por las que filtra u ordena la lectura
+     */
+    private void antesDeLeer(String... columnas) {
+        EscrituraDiferida diferida = escrituras;
+        if (diferida != null && diferida.afecta(columnas)) {
+            diferida.vaciar();
+        }
+    }
+
+    private ArrayList<MascotaVO> superponer(ArrayList<MascotaVO> mascotas) {
+        EscrituraDiferida diferida = escrituras;
+        return diferida == null ? mascotas : diferida.superponer(mascotas);
+    }
+
+    /**
+     * Suscribe un escucha a los cambios de mascotas. Tras cada alta,
+     * modificación o baja exitosa se le entrega un {@link CambioMascota}
+     * con el estado previo y el resultante, en el mismo hilo que hizo el
+     * cambio y en el orden en que se aplicaron. Las importaciones no
+     * publican cambios: quien las lanza debe volver a cargar los datos.
+     *
+     * @param escucha Escucha a suscribir
+     */
+    public void agregarEscucha(Consumer<CambioMascota> escucha) {
+        escuchas.add(escucha);
+    }
+
+    /**
+     * Cancela la suscripción de un escucha de cambios.
+     *
+     * @param escucha Escucha suscrito con {@link #agregarEscucha(Consumer)}
+     */
+    public void quitarEscucha(Consumer<CambioMascota> escucha) {
+        escuchas.remove(escucha);
+    }
+
+    private boolean necesitaAnterior() {
+        return estadisticas.isCargada() || !escuchas.isEmpty();
+    }
+
+    private void publicar(CambioMascota cambio) {
+        for (Consumer<CambioMascota> escucha : escuchas) {
+            try {
+                escucha.accept(cambio);
+            } catch (RuntimeException e) {
+                // Un escucha defectuoso no debe deshacer un cambio ya guardado
+                System.out.println("Error al notificar " + cambio + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Obtiene la caché de mascotas, para consultar sus contadores de
+     * aciertos, fallos y expulsiones.
+     * 
+     * @return La caché usada por el Gestor
+     */
+    public CacheMascotas getCache() {
+        return cache;
+    }
+
+    /**
+     * Espera a que el registro de consultas lentas del pool termine de
+     * escribir las consultas ya anotadas; conviene llamarlo antes de salir.
+     *
+     * @param tiempoMaximoMs Tiempo máximo de espera
+     * @return true si no quedó nada por escribir o el registro está desactivado
+     */
+    public boolean vaciarConsultasLentas(long tiempoMaximoMs) {
+        RegistroConsultasLentas registro = Conexion.getPool().getConsultasLentas();
+        return registro == null || registro.vaciar(tiempoMaximoMs);
+    }
+
+    /**
+     * Obtiene el registro de métricas donde se miden las operaciones del
+     * DAO, las importaciones y las exportaciones.
+     *
+     * @return Registro global de métricas
+     */
+    public RegistroMetricas getMetricas() {
+        return RegistroMetricas.global();
     }
 
     /**
      * Serializa todas las mascotas a un archivo, excluyendo el tipo de alimento.
+     * Las mascotas se leen de la base de datos y se escriben una a una, en
+     * memoria constante, con {@link FormatoBinarioMascotas}; el tipo de
+     * alimento simplemente no se escribe.
      * 
      * @param nombreArchivo Nombre del archivo donde guardar la serialización
      * @return true si la serialización fue exitosa, false en caso contrario
      */
     public boolean serializarMascotas(String nombreArchivo) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new java.io.FileOutputStream(nombreArchivo))) {
-            ArrayList<MascotaVO> mascotasSinAlimento = new ArrayList<>();
-            ArrayList<MascotaVO> todasLasMascotas = mascotaDAO.obtenerTodasLasMascotas();
-            
-            for (MascotaVO mascota : todasLasMascotas) {
-                MascotaVO mascotaSinAlimento = new MascotaVO();
-                mascotaSinAlimento.setIdMascota(mascota.getIdMascota());
-                mascotaSinAlimento.setApodo(mascota.getApodo());
-                mascotaSinAlimento.setClasificacion(mascota.getClasificacion());
-                mascotaSinAlimento.setFamilia(mascota.getFamilia());
-                mascotaSinAlimento.setGenero(mascota.getGenero());
-                mascotaSinAlimento.setEspecie(mascota.getEspecie());
-                mascotaSinAlimento.setTipoAlimento(""); // Excluir tipo de alimento
-                mascotaSinAlimento.setEdad(mascota.getEdad());
-                mascotaSinAlimento.setPeso(mascota.getPeso());
-                mascotaSinAlimento.setObservaciones(mascota.getObservaciones());
-                mascotasSinAlimento.add(mascotaSinAlimento);
-            }
-            
-            oos.writeObject(mascotasSinAlimento);
-            return true;
-        } catch (IOException e) {
+        if (!vaciarEscrituras()) {
+            return false;
+        }
+        long inicio = System.nanoTime();
+        try (FormatoBinarioMascotas.Escritor escritor = FormatoBinarioMascotas.escritor(
+                new FileOutputStream(nombreArchivo), CAMPOS_SERIALIZADOS)) {
+            long escritas = mascotaDAO.recorrerMascotas(mascota -> {
+                try {
+                    escritor.escribir(mascota);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return escritas >= 0;
+        } catch (IOException | UncheckedIOException e) {
             return false;
+        } finally {
+            SERIALIZACION.registrarDesde(inicio);
         }
     }
 
     /**
      * Crea un archivo de acceso aleatorio con el estado final de la base de datos.
+     * Las mascotas se escriben ordenadas por ID a medida que se leen de la
+     * base de datos, de modo que el archivo admite lectura por número de
+     * registro y búsqueda binaria por ID con {@link ArchivoAccesoAleatorio}.
      * 
      * @param nombreArchivo Nombre del archivo donde guardar los datos
      * @return true si se creó exitosamente, false en caso contrario
      */
     public boolean crearArchivoAccesoAleatorio(String nombreArchivo) {
-        try (RandomAccessFile raf = new RandomAccessFile(nombreArchivo, "rw")) {
-            ArrayList<MascotaVO> todasLasMascotas = mascotaDAO.obtenerTodasLasMascotas();
-            
-            // Escribir el número de registros
-            raf.writeInt(todasLasMascotas.size());
-            
-            // Escribir cada mascota
-            for (MascotaVO mascota : todasLasMascotas) {
-                escribirMascotaEnArchivo(raf, mascota);
-            }
-            
-            return true;
-        } catch (IOException e) {
+        if (!vaciarEscrituras()) {
             return false;
         }
-    }
-
-    /**
-     * Escribe los datos de una mascota en un archivo de acceso aleatorio.
-     * 
-     * @param raf Archivo de acceso aleatorio
-     * @param mascota Mascota a escribir
-     * @throws IOException Si hay error al escribir
-     */
-    private void escribirMascotaEnArchivo(RandomAccessFile raf, MascotaVO mascota) throws IOException {
-        raf.writeUTF(mascota.getIdMascota());
-        raf.writeUTF(mascota.getApodo());
-        raf.writeUTF(mascota.getClasificacion());
-        raf.writeUTF(mascota.getFamilia());
-        raf.writeUTF(mascota.getGenero());
-        raf.writeUTF(mascota.getEspecie());
-        raf.writeUTF(mascota.getTipoAlimento());
-        raf.writeInt(mascota.getEdad());
-        raf.writeDouble(mascota.getPeso());
-        raf.writeUTF(mascota.getObservaciones());
+        long inicio = System.nanoTime();
+        try (ArchivoAccesoAleatorio.Escritor escritor = ArchivoAccesoAleatorio.crear(nombreArchivo)) {
+            long escritas = mascotaDAO.recorrerMascotasPorId(mascota -> {
+                try {
+                    escritor.agregar(mascota);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, MascotaDAO.TAMANO_FETCH_POR_DEFECTO);
+            return escritas >= 0;
+        } catch (IOException | UncheckedIOException e) {
+            return false;
+        } finally {
+            ACCESO_ALEATORIO.registrarDesde(inicio);
+        }
     }
 
     /**
@@ -0,0 +1,50 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.CRC32C;
+
+/**
+ * Calcula la huella del contenido de un archivo, para saber si cambió desde
+ * la última vez que se importó sin volver a importarlo.
+ *
+ * La huella une el tamaño y el CRC-32C del contenido. No protege contra
+ * cambios malintencionados, pero cualquier edición del archivo la cambia
+ * con altísima probabilidad y se calcula a la velocidad de lectura del disco.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class HuellaArchivo {
+
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private HuellaArchivo() {
+    }
+
+    /**
+     * Calcula la huella de un archivo.
+     *
+     * @param nombreArchivo Archivo a leer
+     * @return Huella del contenido, en texto
+     * @throws IOException Si no se puede leer el archivo
+     */
+    public static String calcular(String nombreArchivo) throws IOException {
+        Path archivo = Paths.get(nombreArchivo);
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[TAMANO_BUFFER];
+        long tamano = 0;
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            int leidos;
+            while ((leidos = entrada.read(buffer)) > 0) {
+                crc.update(buffer, 0, leidos);
+                tamano += leidos;
+            }
+        }
+        return tamano + ":" + Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,366 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAO;
+import udistrital.avanzada.veterinaria.modelo.DAO.ResultadoLote;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Importa mascotas desde un archivo properties en flujo, en memoria
+ * constante. Cada entrada tiene la forma
+ * <pre>
+ * mascota.&lt;id&gt;=apodo,clasificacion,familia,genero,especie,tipo_alimento,edad,peso,observaciones
+ * </pre>
+ * donde las observaciones pueden contener comas. Las claves que no empiezan
+ * por "mascota." se ignoran.
+ *
+ * El hilo que llama lee y valida las entradas y las agrupa en lotes, que
+ * pasan por una cola acotada a un hilo que los inserta con
+ * {@link MascotaDAO#insertarMascotasEnLote(List, int)}; si la base de datos
+ * va más lenta que la lectura, la cola llena detiene la lectura. Las
+ * entradas mal formadas o incompletas, y las de lotes que la base de datos
+ * rechaza, se escriben con el motivo en un archivo de rechazos con el mismo
+ * formato, para corregirlas y volver a importarlas.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class ImportadorMascotas {
+
+    public static final int CAPACIDAD_COLA_POR_DEFECTO = 4;
+    public static final int INTERVALO_PROGRESO_POR_DEFECTO = 10000;
+
+    private static final String PREFIJO_CLAVE = "mascota.";
+    private static final int CAMPOS = 9;
+    private static final List<MascotaVO> FIN = new ArrayList<>();
+
+    private final MascotaDAO mascotaDAO;
+    private final int tamanoLote;
+    private final int capacidadCola;
+    private final int intervaloProgreso;
+
+    /**
+     * Crea un importador con el tamaño de lote y la cola por defecto.
+     *
+     * @param mascotaDAO DAO con el que insertar las mascotas
+     */
+    public ImportadorMascotas(MascotaDAO mascotaDAO) {
+        this(mascotaDAO, MascotaDAO.TAMANO_LOTE_POR_DEFECTO, CAPACIDAD_COLA_POR_DEFECTO,
+                INTERVALO_PROGRESO_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un importador.
+     *
+     * @param mascotaDAO DAO con el que insertar las mascotas
+     * @param tamanoLote Mascotas por lote; cada lote se inserta en una transacción
+     * @param capacidadCola Lotes que pueden esperar a ser insertados
+     * @param intervaloProgreso Entradas leídas entre dos informes de progreso
+     */
+    public ImportadorMascotas(MascotaDAO mascotaDAO, int tamanoLote, int capacidadCola, int intervaloProgreso) {
+        if (tamanoLote <= 0 || capacidadCola <= 0 || intervaloProgreso <= 0) {
+            throw new IllegalArgumentException("El lote, la cola y el intervalo de progreso deben ser positivos");
+        }
+        this.mascotaDAO = mascotaDAO;
+        this.tamanoLote = tamanoLote;
+        this.capacidadCola = capacidadCola;
+        this.intervaloProgreso = intervaloProgreso;
+    }
+
+    /**
+     * Importa un archivo. El archivo de rechazos se reemplaza, y solo se
+     * crea si hay entradas rechazadas.
+     *
+     * @param nombreArchivo Archivo properties a importar
+     * @param nombreRechazos Archivo donde escribir las entradas rechazadas
+     * @param progreso Recibe el estado de la importación cada cierto número
+     * de entradas y al terminar, desde el hilo que llama; puede ser null
+     * @return Resumen final de la importación
+     * @throws IOException Si no se puede leer el archivo o escribir los rechazos
+     */
+    public ResumenImportacion importar(String nombreArchivo, String nombreRechazos,
+            Consumer<ResumenImportacion> progreso) throws IOException {
+        Importacion importacion = new Importacion(nombreRechazos);
+        try (LectorPropiedades lector = new LectorPropiedades(nombreArchivo)) {
+            importacion.lector = lector;
+            Thread insertor = new Thread(importacion::insertar, "importador-mascotas");
+            insertor.setDaemon(true);
+            insertor.start();
+            try {
+                importacion.leer(progreso);
+            } finally {
+                importacion.terminar(insertor);
+            }
+            ResumenImportacion resumen = importacion.resumen(true);
+            if (progreso != null) {
+                progreso.accept(resumen);
+            }
+            return resumen;
+        } finally {
+            importacion.rechazos.cerrar();
+        }
+    }
+
+    /**
+     * Convierte una entrada en mascota.
+     *
+     * @param clave Clave de la entrada, con el ID tras el prefijo
+     * @param tokenizador Tokenizador con el valor de la entrada ya separado
+     * @return Mascota de la entrada
+     * @throws IllegalArgumentException Con el motivo, si la entrada está mal formada o incompleta
+     */
+    static MascotaVO convertir(CharSequence clave, TokenizadorCSV tokenizador) {
+        int campos = tokenizador.getNumeroCampos();
+        if (campos < 0) {
+            throw new IllegalArgumentException("comillas sin cerrar");
+        }
+        if (campos < CAMPOS) {
+            throw new IllegalArgumentException("faltan campos: tiene " + campos + " de " + CAMPOS);
+        }
+        MascotaVO mascota = new MascotaVO();
+        mascota.setIdMascota(clave.subSequence(PREFIJO_CLAVE.length(), clave.length()).toString().trim());
+        mascota.setApodo(tokenizador.campo(0));
+        mascota.setClasificacion(tokenizador.campo(1));
+        mascota.setFamilia(tokenizador.campo(2));
+        mascota.setGenero(tokenizador.campo(3));
+        mascota.setEspecie(tokenizador.campo(4));
+        mascota.setTipoAlimento(tokenizador.campo(5));
+        try {
+            mascota.setEdad(tokenizador.estaVacio(6) ? 0 : tokenizador.entero(6));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("edad no válida: " + tokenizador.campo(6));
+        }
+        try {
+            mascota.setPeso(tokenizador.estaVacio(7) ? 0 : tokenizador.decimal(7));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("peso no válido: " + tokenizador.campo(7));
+        }
+        mascota.setObservaciones(tokenizador.campo(8));
+        String faltante = campoFaltante(mascota);
+        if (faltante != null) {
+            throw new IllegalArgumentException("datos incompletos: falta " + faltante);
+        }
+        return mascota;
+    }
+
+    /**
+     * @return Nombre del primer dato obligatorio que falta, o null si están todos
+     */
+    private static String campoFaltante(MascotaVO mascota) {
+        if (mascota.getIdMascota().isEmpty()) return "el ID";
+        if (mascota.getApodo().isEmpty()) return "el apodo";
+        if (mascota.getClasificacion().isEmpty()) return "la clasificación";
+        if (mascota.getFamilia().isEmpty()) return "la familia";
+        if (mascota.getGenero().isEmpty()) return "el género";
+        if (mascota.getEspecie().isEmpty()) return "la especie";
+        if (mascota.getTipoAlimento().isEmpty()) return "el tipo de alimento";
+        if (mascota.getEdad() <= 0) return "la edad";
+        if (mascota.getPeso() <= 0) return "el peso";
+        return null;
+    }
+
+    /**
+     * Escribe una mascota como entrada del archivo, para los lotes que falla
+     * la base de datos, de los que ya no se conserva el texto original.
+     */
+    private static String formatear(MascotaVO mascota) {
+        return PREFIJO_CLAVE + mascota.getIdMascota() + "=" + mascota.getApodo() + ","
+                + mascota.getClasificacion() + "," + mascota.getFamilia() + "," + mascota.getGenero() + ","
+                + mascota.getEspecie() + "," + mascota.getTipoAlimento() + "," + mascota.getEdad() + ","
+                + mascota.getPeso() + "," + (mascota.getObservaciones() == null ? "" : mascota.getObservaciones());
+    }
+
+    /**
+     * Estado de una llamada a {@link #importar}, compartido entre el hilo
+     * que lee y el que inserta.
+     */
+    private final class Importacion {
+        private final BlockingQueue<List<MascotaVO>> cola = new ArrayBlockingQueue<>(capacidadCola);
+        private final Rechazos rechazos;
+        private final long inicio = System.currentTimeMillis();
+        private final AtomicLong insertadas = new AtomicLong();
+        private final AtomicLong duplicadas = new AtomicLong();
+        private final AtomicLong fallidas = new AtomicLong();
+        private long leidas;
+        private long rechazadas;
+        private LectorPropiedades lector;
+
+        private Importacion(String nombreRechazos) {
+            this.rechazos = new Rechazos(nombreRechazos);
+        }
+
+        private void leer(Consumer<ResumenImportacion> progreso) throws IOException {
+            TokenizadorCSV tokenizador = new TokenizadorCSV();
+            List<MascotaVO> lote = new ArrayList<>(tamanoLote);
+            while (lector.siguiente()) {
+                CharSequence clave = lector.getClave();
+                if (!empiezaPor(clave, PREFIJO_CLAVE)) {
+                    continue;
+                }
+                leidas++;
+                try {
+                    if (lector.getError() != null) {
+                        throw new IllegalArgumentException(lector.getError());
+                    }
+                    tokenizador.tokenizar(lector.getValor(), CAMPOS);
+                    lote.add(convertir(clave, tokenizador));
+                } catch (IllegalArgumentException e) {
+                    rechazadas++;
+                    rechazos.escribir("línea " + lector.getNumeroLinea() + ": " + e.getMessage(),
+                            lector.getTextoOriginal());
+                }
+                if (lote.size() == tamanoLote) {
+                    encolar(lote);
+                    lote = new ArrayList<>(tamanoLote);
+                }
+                if (progreso != null && leidas % intervaloProgreso == 0) {
+                    progreso.accept(resumen(false));
+                }
+            }
+            if (!lote.isEmpty()) {
+                encolar(lote);
+            }
+        }
+
+        private void encolar(List<MascotaVO> lote) throws IOException {
+            try {
+                cola.put(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Importación interrumpida");
+            }
+        }
+
+        /**
+         * Cuerpo del hilo insertor: inserta lotes hasta recibir {@link #FIN}.
+         */
+        private void insertar() {
+            while (true) {
+                List<MascotaVO> lote;
+                try {
+                    lote = cola.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (lote == FIN) {
+                    return;
+                }
+                ResultadoLote resultado;
+                try {
+                    resultado = mascotaDAO.insertarMascotasEnLote(lote, tamanoLote);
+                } catch (RuntimeException e) {
+                    resultado = null;
+                }
+                if (resultado != null && resultado.esExitoso()) {
+                    insertadas.addAndGet(resultado.getInsertadas() + resultado.getSinInformacion());
+                    duplicadas.addAndGet(resultado.getDuplicadas());
+                } else {
+                    // La transacción del lote se revirtió completa
+                    fallidas.addAndGet(lote.size());
+                    for (MascotaVO mascota : lote) {
+                        rechazos.escribir("error de base de datos al insertar el lote", formatear(mascota));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Envía la marca de fin y espera a que se inserten los lotes pendientes.
+         */
+        private void terminar(Thread insertor) throws IOException {
+            boolean interrumpido = false;
+            while (true) {
+                try {
+                    cola.put(FIN);
+                    insertor.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+            rechazos.verificar();
+        }
+
+        private ResumenImportacion resumen(boolean terminada) {
+            return new ResumenImportacion(leidas, insertadas.get(), duplicadas.get(), rechazadas, fallidas.get(),
+                    lector.getBytesLeidos(), lector.getBytesTotales(), System.currentTimeMillis() - inicio,
+                    terminada);
+        }
+
+        private boolean empiezaPor(CharSequence texto, String prefijo) {
+            if (texto.length() < prefijo.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefijo.length(); i++) {
+                if (texto.charAt(i) != prefijo.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Archivo de rechazos, compartido por los dos hilos. Se crea con la
+     * primera entrada rechazada; cada una va precedida de un comentario con
+     * el motivo, de modo que el archivo puede corregirse e importarse.
+     */
+    private static final class Rechazos {
+        private final File archivo;
+        private Writer salida;
+        private IOException error;
+
+        private Rechazos(String nombreArchivo) {
+            this.archivo = new File(nombreArchivo);
+            archivo.delete();
+        }
+
+        private synchronized void escribir(String motivo, String entrada) {
+            if (error != null) {
+                return;
+            }
+            try {
+                if (salida == null) {
+                    salida = new BufferedWriter(new OutputStreamWriter(
+                            new FileOutputStream(archivo), StandardCharsets.UTF_8));
+                    salida.write("# Entradas rechazadas; corríjalas y vuelva a importar este archivo\n");
+                }
+                salida.write("# " + motivo + "\n");
+                salida.write(entrada);
+                salida.write('\n');
+            } catch (IOException e) {
+                // El hilo insertor no puede lanzarla; se informa al terminar
+                error = e;
+            }
+        }
+
+        private synchronized void verificar() throws IOException {
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        private synchronized void cerrar() throws IOException {
+            if (salida != null) {
+                salida.close();
+            }
+        }
+    }
+}
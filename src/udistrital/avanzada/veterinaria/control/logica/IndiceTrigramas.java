@@ -0,0 +1,302 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de trigramas (n-gramas de 3 caracteres) sobre un campo de texto
+ * de las mascotas. Permite búsquedas por subcadena y por prefijo sin
+ * recorrer el catálogo: se intersectan las listas de documentos de cada
+ * trigrama de la consulta y solo se verifican los candidatos resultantes.
+ *
+ * Cada documento recibe un número interno creciente, de modo que las
+ * listas de cada trigrama se mantienen ordenadas agregando al final.
+ * Modificar o eliminar marca el número anterior como eliminado; las listas
+ * se compactan cuando los eliminados superan la mitad de los documentos.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class IndiceTrigramas {
+
+    /**
+     * Marca de inicio de texto, usada para resolver búsquedas por prefijo.
+     */
+    private static final char INICIO = '\u0001';
+
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private final Map<Long, Publicaciones> porTrigrama = new HashMap<>();
+    private final Map<String, Integer> internoPorId = new HashMap<>();
+    private final ArrayList<String> idPorInterno = new ArrayList<>();
+    private final ArrayList<String> textoPorInterno = new ArrayList<>();
+    private final BitSet eliminados = new BitSet();
+    private int totalEliminados;
+
+    /**
+     * Reconstruye el índice desde cero.
+     *
+     * @param textos Texto a indexar por ID de mascota; los null se omiten
+     */
+    public void cargar(Map<String, String> textos) {
+        candado.writeLock().lock();
+        try {
+            limpiar();
+            for (Map.Entry<String, String> entrada : textos.entrySet()) {
+                if (entrada.getValue() != null) {
+                    agregarInterno(entrada.getKey(), entrada.getValue());
+                }
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa o reemplaza el texto de una mascota.
+     *
+     * @param idMascota ID de la mascota
+     * @param texto Texto a indexar; null equivale a eliminarla
+     */
+    public void actualizar(String idMascota, String texto) {
+        candado.writeLock().lock();
+        try {
+            eliminarInterno(idMascota);
+            if (texto != null) {
+                agregarInterno(idMascota, texto);
+            }
+            compactarSiConviene();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita una mascota del índice.
+     *
+     * @param idMascota ID de la mascota
+     */
+    public void eliminar(String idMascota) {
+        actualizar(idMascota, null);
+    }
+
+    /**
+     * Busca mascotas cuyo texto contiene la cadena indicada.
+     *
+     * @param subcadena Texto a buscar, sin distinguir mayúsculas ni tildes
+     * @param limite Número máximo de IDs a devolver
+     * @return IDs de las mascotas que coinciden, en orden de indexación
+     */
+    public List<String> buscarSubcadena(String subcadena, int limite) {
+        return buscar(MascotaIndex.clave(subcadena), false, limite);
+    }
+
+    /**
+     * Busca mascotas cuyo texto empieza por la cadena indicada.
+     *
+     * @param prefijo Prefijo a buscar, sin distinguir mayúsculas ni tildes
+     * @param limite Número máximo de IDs a devolver
+     * @return IDs de las mascotas que coinciden, en orden de indexación
+     */
+    public List<String> buscarPrefijo(String prefijo, int limite) {
+        return buscar(MascotaIndex.clave(prefijo), true, limite);
+    }
+
+    /**
+     * @return Número de documentos vigentes en el índice
+     */
+    public int getTamano() {
+        candado.readLock().lock();
+        try {
+            return internoPorId.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private List<String> buscar(String consulta, boolean prefijo, int limite) {
+        candado.readLock().lock();
+        try {
+            List<String> resultado = new ArrayList<>();
+            if (limite <= 0) {
+                return resultado;
+            }
+            String patron = prefijo ? INICIO + consulta : consulta;
+            if (patron.length() < 3) {
+                return recorrer(consulta, prefijo, limite);
+            }
+
+            // Listas de los trigramas de la consulta, de la más corta a la más larga
+            LinkedHashSet<Long> trigramas = trigramas(patron);
+            Publicaciones[] listas = new Publicaciones[trigramas.size()];
+            int n = 0;
+            for (Long trigrama : trigramas) {
+                Publicaciones lista = porTrigrama.get(trigrama);
+                if (lista == null) {
+                    return resultado;
+                }
+                listas[n++] = lista;
+            }
+            Arrays.sort(listas, (a, b) -> Integer.compare(a.tamano, b.tamano));
+
+            int[] posiciones = new int[listas.length];
+            Publicaciones menor = listas[0];
+            for (int i = 0; i < menor.tamano && resultado.size() < limite; i++) {
+                int interno = menor.internos[i];
+                if (eliminados.get(interno) || !estaEnTodas(listas, posiciones, interno)) {
+                    continue;
+                }
+                // Los trigramas son condición necesaria; se confirma sobre el texto
+                String texto = textoPorInterno.get(interno);
+                if (prefijo ? texto.startsWith(consulta) : texto.contains(consulta)) {
+                    resultado.add(idPorInterno.get(interno));
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Avanza en cada lista, que está ordenada, hasta el número interno buscado.
+     * Se avanza a saltos exponenciales y luego por búsqueda binaria, de modo
+     * que las listas largas no se recorren elemento a elemento.
+     */
+    private static boolean estaEnTodas(Publicaciones[] listas, int[] posiciones, int interno) {
+        for (int l = 1; l < listas.length; l++) {
+            Publicaciones lista = listas[l];
+            int p = avanzar(lista, posiciones[l], interno);
+            posiciones[l] = p;
+            if (p == lista.tamano || lista.internos[p] != interno) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Primera posición desde {@code desde} cuyo valor es mayor o igual al buscado
+     */
+    private static int avanzar(Publicaciones lista, int desde, int interno) {
+        int[] internos = lista.internos;
+        int paso = 1;
+        int alto = desde;
+        while (alto < lista.tamano && internos[alto] < interno) {
+            desde = alto + 1;
+            alto += paso;
+            paso <<= 1;
+        }
+        int bajo = desde;
+        alto = Math.min(alto, lista.tamano);
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (internos[medio] < interno) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Consultas de menos de tres caracteres no tienen trigramas; se recorren
+     * los textos hasta completar el límite.
+     */
+    private List<String> recorrer(String consulta, boolean prefijo, int limite) {
+        List<String> resultado = new ArrayList<>();
+        for (int i = 0; i < textoPorInterno.size() && resultado.size() < limite; i++) {
+            String texto = textoPorInterno.get(i);
+            if (texto != null && (prefijo ? texto.startsWith(consulta) : texto.contains(consulta))) {
+                resultado.add(idPorInterno.get(i));
+            }
+        }
+        return resultado;
+    }
+
+    private void agregarInterno(String idMascota, String texto) {
+        String normalizado = MascotaIndex.clave(texto);
+        int interno = idPorInterno.size();
+        idPorInterno.add(idMascota);
+        textoPorInterno.add(normalizado);
+        internoPorId.put(idMascota, interno);
+        String marcado = INICIO + normalizado;
+        for (int i = 0; i + 3 <= marcado.length(); i++) {
+            porTrigrama.computeIfAbsent(trigrama(marcado, i), k -> new Publicaciones()).agregar(interno);
+        }
+    }
+
+    private void eliminarInterno(String idMascota) {
+        Integer interno = internoPorId.remove(idMascota);
+        if (interno != null) {
+            eliminados.set(interno);
+            textoPorInterno.set(interno, null);
+            totalEliminados++;
+        }
+    }
+
+    private void compactarSiConviene() {
+        if (totalEliminados > 1024 && totalEliminados * 2 > idPorInterno.size()) {
+            Map<String, String> vigentes = new HashMap<>();
+            for (Map.Entry<String, Integer> entrada : internoPorId.entrySet()) {
+                vigentes.put(entrada.getKey(), textoPorInterno.get(entrada.getValue()));
+            }
+            limpiar();
+            for (Map.Entry<String, String> entrada : vigentes.entrySet()) {
+                agregarInterno(entrada.getKey(), entrada.getValue());
+            }
+        }
+    }
+
+    private void limpiar() {
+        porTrigrama.clear();
+        internoPorId.clear();
+        idPorInterno.clear();
+        textoPorInterno.clear();
+        eliminados.clear();
+        totalEliminados = 0;
+    }
+
+    /**
+     * Calcula los trigramas distintos de un texto, empaquetando cada uno en un long.
+     */
+    private static LinkedHashSet<Long> trigramas(String texto) {
+        LinkedHashSet<Long> resultado = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            resultado.add(trigrama(texto, i));
+        }
+        return resultado;
+    }
+
+    /**
+     * Empaqueta en un long los tres caracteres que empiezan en la posición indicada.
+     */
+    private static long trigrama(String texto, int i) {
+        return ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+    }
+
+    /**
+     * Lista creciente de números internos de documento para un trigrama.
+     */
+    private static final class Publicaciones {
+        int[] internos = new int[4];
+        int tamano;
+
+        void agregar(int interno) {
+            if (tamano > 0 && internos[tamano - 1] == interno) {
+                return; // Trigrama repetido dentro del mismo texto
+            }
+            if (tamano == internos.length) {
+                internos = Arrays.copyOf(internos, tamano * 2);
+            }
+            internos[tamano++] = interno;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Índices secundarios en memoria sobre el catálogo de mascotas.
+ * Mantiene índices invertidos desde clasificación, familia y tipo de
+ * alimento hacia el conjunto de IDs de mascotas, de modo que las búsquedas
+ * por esas columnas, y sus combinaciones con Y lógico, se resuelven sin
+ * consultar la base de datos.
+ *
+ * Además mantiene índices de trigramas sobre apodo y observaciones para
+ * resolver búsquedas por subcadena y por prefijo.
+ *
+ * Las claves se comparan sin distinguir mayúsculas ni tildes, igual que la
+ * intercalación por defecto de MySQL. El Gestor mantiene el índice
+ * consistente aplicando cada escritura exitosa del DAO.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class MascotaIndex {
+
+    private static final Function<String, Set<String>> NUEVO_CONJUNTO = k -> new HashSet<>();
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}");
+
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private final Map<String, MascotaVO> porId = new HashMap<>();
+    private final Map<String, Set<String>> porClasificacion = new HashMap<>();
+    private final Map<String, Set<String>> porFamilia = new HashMap<>();
+    private final Map<String, Set<String>> porTipoAlimento = new HashMap<>();
+    private final IndiceTrigramas trigramasApodo = new IndiceTrigramas();
+    private final IndiceTrigramas trigramasObservaciones = new IndiceTrigramas();
+    private volatile boolean cargado;
+
+    /**
+     * Reconstruye el índice con el catálogo completo.
+     *
+     * @param mascotas Todas las mascotas registradas
+     */
+    public void cargar(Collection<MascotaVO> mascotas) {
+        candado.writeLock().lock();
+        try {
+            porId.clear();
+            porClasificacion.clear();
+            porFamilia.clear();
+            porTipoAlimento.clear();
+            Map<String, String> apodos = new HashMap<>();
+            Map<String, String> observaciones = new HashMap<>();
+            for (MascotaVO mascota : mascotas) {
+                indexar(mascota);
+                apodos.put(mascota.getIdMascota(), mascota.getApodo());
+                observaciones.put(mascota.getIdMascota(), mascota.getObservaciones());
+            }
+            trigramasApodo.cargar(apodos);
+            trigramasObservaciones.cargar(observaciones);
+            cargado = true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true si el índice ya se cargó con el catálogo
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    /**
+     * Marca el índice como desactualizado para que se recargue en la
+     * próxima búsqueda.
+     */
+    public void invalidar() {
+        cargado = false;
+    }
+
+    /**
+     * Refleja una mascota registrada.
+     *
+     * @param mascota Mascota registrada
+     */
+    public void registrada(MascotaVO mascota) {
+        candado.writeLock().lock();
+        try {
+            desindexar(mascota.getIdMascota());
+            indexar(CacheMascotas.copiar(mascota));
+            indexarTexto(mascota);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Refleja una mascota modificada. Solo cambian los campos que el DAO
+     * permite modificar.
+     *
+     * @param cambios Mascota con los datos actualizados
+     */
+    public void modificada(MascotaVO cambios) {
+        candado.writeLock().lock();
+        try {
+            MascotaVO anterior = desindexar(cambios.getIdMascota());
+            if (anterior != null) {
+                MascotaVO actualizada = CacheMascotas.aplicarModificacion(anterior, cambios);
+                indexar(actualizada);
+                indexarTexto(actualizada);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Refleja una mascota eliminada.
+     *
+     * @param idMascota ID de la mascota eliminada
+     */
+    public void eliminada(String idMascota) {
+        candado.writeLock().lock();
+        try {
+            desindexar(idMascota);
+            trigramasApodo.eliminar(idMascota);
+            trigramasObservaciones.eliminar(idMascota);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca mascotas que cumplan todos los criterios indicados.
+     * Un criterio null o vacío no filtra.
+     *
+     * @param clasificacion Clasificación buscada
+     * @param familia Familia buscada
+     * @param tipoAlimento Tipo de alimento buscado
+     * @return Mascotas que cumplen todos los criterios, sin orden particular
+     */
+    public ArrayList<MascotaVO> buscar(String clasificacion, String familia, String tipoAlimento) {
+        candado.readLock().lock();
+        try {
+            ArrayList<Set<String>> conjuntos = new ArrayList<>(3);
+            if (!agregarConjunto(conjuntos, porClasificacion, clasificacion)
+                    || !agregarConjunto(conjuntos, porFamilia, familia)
+                    || !agregarConjunto(conjuntos, porTipoAlimento, tipoAlimento)) {
+                return new ArrayList<>();
+            }
+
+            ArrayList<MascotaVO> resultado = new ArrayList<>();
+            if (conjuntos.isEmpty()) {
+                resultado.addAll(porId.values());
+            } else {
+                // Se recorre el conjunto más pequeño y se verifica en los demás
+                conjuntos.sort((a, b) -> Integer.compare(a.size(), b.size()));
+                Set<String> menor = conjuntos.get(0);
+                for (String id : menor) {
+                    boolean enTodos = true;
+                    for (int i = 1; i < conjuntos.size() && enTodos; i++) {
+                        enTodos = conjuntos.get(i).contains(id);
+                    }
+                    if (enTodos) {
+                        resultado.add(porId.get(id));
+                    }
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca mascotas cuyo apodo contiene, o empieza por, el texto indicado.
+     *
+     * @param texto Texto a buscar, sin distinguir mayúsculas ni tildes
+     * @param prefijo true para exigir que el apodo empiece por el texto
+     * @param limite Número máximo de mascotas a devolver
+     * @return Mascotas que coinciden, sin orden particular
+     */
+    public ArrayList<MascotaVO> buscarPorApodo(String texto, boolean prefijo, int limite) {
+        return buscarTexto(trigramasApodo, texto, prefijo, limite);
+    }
+
+    /**
+     * Busca mascotas cuyas observaciones contienen, o empiezan por, el texto indicado.
+     *
+     * @param texto Texto a buscar, sin distinguir mayúsculas ni tildes
+     * @param prefijo true para exigir que las observaciones empiecen por el texto
+     * @param limite Número máximo de mascotas a devolver
+     * @return Mascotas que coinciden, sin orden particular
+     */
+    public ArrayList<MascotaVO> buscarPorObservaciones(String texto, boolean prefijo, int limite) {
+        return buscarTexto(trigramasObservaciones, texto, prefijo, limite);
+    }
+
+    /**
+     * @return Número de mascotas indexadas
+     */
+    public int getTamano() {
+        candado.readLock().lock();
+        try {
+            return porId.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private ArrayList<MascotaVO> buscarTexto(IndiceTrigramas trigramas, String texto, boolean prefijo, int limite) {
+        candado.readLock().lock();
+        try {
+            List<String> ids = prefijo
+                    ? trigramas.buscarPrefijo(texto, limite)
+                    : trigramas.buscarSubcadena(texto, limite);
+            ArrayList<MascotaVO> resultado = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                MascotaVO mascota = porId.get(id);
+                if (mascota != null) {
+                    resultado.add(mascota);
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega a la lista el conjunto de IDs del valor buscado.
+     *
+     * @return false si el valor no tiene ninguna mascota, lo que vacía el resultado
+     */
+    private boolean agregarConjunto(ArrayList<Set<String>> conjuntos, Map<String, Set<String>> indice, String valor) {
+        if (valor == null || valor.trim().isEmpty()) {
+            return true;
+        }
+        Set<String> ids = indice.get(clave(valor));
+        if (ids == null) {
+            return false;
+        }
+        conjuntos.add(ids);
+        return true;
+    }
+
+    private void indexar(MascotaVO mascota) {
+        String id = mascota.getIdMascota();
+        porId.put(id, mascota);
+        agregar(porClasificacion, mascota.getClasificacion(), id);
+        agregar(porFamilia, mascota.getFamilia(), id);
+        agregar(porTipoAlimento, mascota.getTipoAlimento(), id);
+    }
+
+    private void indexarTexto(MascotaVO mascota) {
+        trigramasApodo.actualizar(mascota.getIdMascota(), mascota.getApodo());
+        trigramasObservaciones.actualizar(mascota.getIdMascota(), mascota.getObservaciones());
+    }
+
+    private MascotaVO desindexar(String id) {
+        MascotaVO anterior = porId.remove(id);
+        if (anterior != null) {
+            quitar(porClasificacion, anterior.getClasificacion(), id);
+            quitar(porFamilia, anterior.getFamilia(), id);
+            quitar(porTipoAlimento, anterior.getTipoAlimento(), id);
+        }
+        return anterior;
+    }
+
+    private static void agregar(Map<String, Set<String>> indice, String valor, String id) {
+        if (valor != null) {
+            indice.computeIfAbsent(clave(valor), NUEVO_CONJUNTO).add(id);
+        }
+    }
+
+    private static void quitar(Map<String, Set<String>> indice, String valor, String id) {
+        if (valor == null) return;
+        String clave = clave(valor);
+        Set<String> ids = indice.get(clave);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                indice.remove(clave);
+            }
+        }
+    }
+
+    /**
+     * Normaliza un valor para compararlo sin mayúsculas, tildes ni espacios extremos.
+     */
+    static String clave(String valor) {
+        String recortado = valor.trim();
+        boolean ascii = true;
+        for (int i = 0; i < recortado.length() && ascii; i++) {
+            ascii = recortado.charAt(i) < 128;
+        }
+        if (ascii) {
+            return recortado.toLowerCase(Locale.ROOT);
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(recortado, Normalizer.Form.NFD))
+                .replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+}
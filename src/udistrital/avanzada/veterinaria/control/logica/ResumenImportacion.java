@@ -0,0 +1,100 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+/**
+ * Estado de una importación de mascotas en un momento dado. Se entrega
+ * periódicamente mientras avanza la importación y una última vez al
+ * terminar.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class ResumenImportacion {
+
+    private final long leidas;
+    private final long insertadas;
+    private final long duplicadas;
+    private final long rechazadas;
+    private final long fallidas;
+    private final long bytesLeidos;
+    private final long bytesTotales;
+    private final long milisegundos;
+    private final boolean terminada;
+
+    ResumenImportacion(long leidas, long insertadas, long duplicadas, long rechazadas, long fallidas,
+            long bytesLeidos, long bytesTotales, long milisegundos, boolean terminada) {
+        this.leidas = leidas;
+        this.insertadas = insertadas;
+        this.duplicadas = duplicadas;
+        this.rechazadas = rechazadas;
+        this.fallidas = fallidas;
+        this.bytesLeidos = bytesLeidos;
+        this.bytesTotales = bytesTotales;
+        this.milisegundos = milisegundos;
+        this.terminada = terminada;
+    }
+
+    /**
+     * @return Entradas de mascotas leídas del archivo
+     */
+    public long getLeidas() {
+        return leidas;
+    }
+
+    /**
+     * @return Mascotas insertadas en la base de datos
+     */
+    public long getInsertadas() {
+        return insertadas;
+    }
+
+    /**
+     * @return Mascotas cuyo ID ya existía en la base de datos
+     */
+    public long getDuplicadas() {
+        return duplicadas;
+    }
+
+    /**
+     * @return Entradas mal formadas o incompletas, escritas en el archivo de rechazos
+     */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * @return Mascotas de lotes que la base de datos no pudo insertar,
+     * también escritas en el archivo de rechazos
+     */
+    public long getFallidas() {
+        return fallidas;
+    }
+
+    /**
+     * @return Porcentaje del archivo leído, de 0 a 100
+     */
+    public double getPorcentaje() {
+        return bytesTotales == 0 ? 100 : Math.min(100, 100.0 * bytesLeidos / bytesTotales);
+    }
+
+    /**
+     * @return Milisegundos transcurridos desde el inicio de la importación
+     */
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    /**
+     * @return true si es el resumen final
+     */
+    public boolean isTerminada() {
+        return terminada;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f%% - leídas: %d, insertadas: %d, duplicadas: %d, rechazadas: %d, "
+                + "fallidas: %d (%d ms)", getPorcentaje(), leidas, insertadas, duplicadas, rechazadas,
+                fallidas, milisegundos);
+    }
+}
@@ -0,0 +1,223 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import java.util.Arrays;
+
+/**
+ * Separa una línea en campos delimitados por comas sin crear objetos por
+ * campo: solo guarda sus posiciones, y el texto se copia cuando se pide
+ * con {@link #campo(int)}. Los enteros se convierten directamente desde
+ * la línea.
+ *
+ * Los espacios alrededor de cada campo se ignoran. Un campo entre comillas
+ * dobles puede contener comas, y dos comillas seguidas dentro de él
+ * representan una comilla. El tokenizador se reutiliza línea a línea y no
+ * es seguro para varios hilos.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class TokenizadorCSV {
+
+    private final char separador;
+    private CharSequence texto;
+    private int[] inicios = new int[16];
+    private int[] fines = new int[16];
+    private boolean[] comillas = new boolean[16];
+    private int campos;
+
+    /**
+     * Crea un tokenizador separado por comas.
+     */
+    public TokenizadorCSV() {
+        this(',');
+    }
+
+    /**
+     * Crea un tokenizador con otro separador.
+     *
+     * @param separador Carácter que separa los campos
+     */
+    public TokenizadorCSV(char separador) {
+        this.separador = separador;
+    }
+
+    /**
+     * Separa una línea en campos. A partir del campo número maximoCampos,
+     * el resto de la línea forma un solo campo, de modo que el último campo
+     * puede contener el separador sin comillas.
+     *
+     * @param linea Línea a separar; debe mantenerse sin cambios mientras se lean sus campos
+     * @param maximoCampos Número máximo de campos
+     * @return Número de campos, o -1 si una comilla quedó sin cerrar o va seguida de texto
+     */
+    public int tokenizar(CharSequence linea, int maximoCampos) {
+        texto = linea;
+        campos = 0;
+        int longitud = linea.length();
+        int i = 0;
+        while (true) {
+            i = saltarEspacios(linea, i, longitud);
+            asegurarCapacidad();
+            if (i < longitud && linea.charAt(i) == '"') {
+                int inicio = i + 1;
+                i = inicio;
+                while (true) {
+                    if (i >= longitud) {
+                        return campos = -1;
+                    }
+                    if (linea.charAt(i) == '"') {
+                        if (i + 1 < longitud && linea.charAt(i + 1) == '"') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                agregar(inicio, i, true);
+                i = saltarEspacios(linea, i + 1, longitud);
+                if (i == longitud) {
+                    return campos;
+                }
+                if (linea.charAt(i) != separador) {
+                    return campos = -1;
+                }
+                i++;
+                continue;
+            }
+            int inicio = i;
+            if (campos == maximoCampos - 1) {
+                i = longitud;
+            } else {
+                while (i < longitud && linea.charAt(i) != separador) {
+                    i++;
+                }
+            }
+            int fin = i;
+            while (fin > inicio && esEspacio(linea.charAt(fin - 1))) {
+                fin--;
+            }
+            agregar(inicio, fin, false);
+            if (i >= longitud) {
+                return campos;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * @return Número de campos de la última línea separada
+     */
+    public int getNumeroCampos() {
+        return campos;
+    }
+
+    /**
+     * @param i Número de campo, desde 0
+     * @return true si el campo no existe o no tiene texto
+     */
+    public boolean estaVacio(int i) {
+        return i >= campos || inicios[i] == fines[i];
+    }
+
+    /**
+     * @param i Número de campo, desde 0
+     * @return Texto del campo, o cadena vacía si no existe
+     */
+    public String campo(int i) {
+        if (i >= campos) {
+            return "";
+        }
+        if (!comillas[i]) {
+            return texto.subSequence(inicios[i], fines[i]).toString();
+        }
+        StringBuilder resultado = new StringBuilder(fines[i] - inicios[i]);
+        for (int j = inicios[i]; j < fines[i]; j++) {
+            char c = texto.charAt(j);
+            resultado.append(c);
+            if (c == '"') {
+                j++;
+            }
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Convierte un campo a entero sin copiar su texto.
+     *
+     * @param i Número de campo, desde 0
+     * @return Valor del campo
+     * @throws NumberFormatException Si el campo está vacío, no es un entero o se desborda
+     */
+    public int entero(int i) {
+        if (estaVacio(i)) {
+            throw new NumberFormatException("Campo vacío");
+        }
+        int j = inicios[i];
+        int fin = fines[i];
+        boolean negativo = texto.charAt(j) == '-';
+        if (negativo || texto.charAt(j) == '+') {
+            j++;
+        }
+        if (j == fin) {
+            throw new NumberFormatException("Entero sin dígitos");
+        }
+        long valor = 0;
+        for (; j < fin; j++) {
+            int digito = texto.charAt(j) - '0';
+            if (digito < 0 || digito > 9) {
+                throw new NumberFormatException("Entero no válido: " + texto.subSequence(inicios[i], fin));
+            }
+            valor = valor * 10 + digito;
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Entero fuera de rango: " + texto.subSequence(inicios[i], fin));
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (valor > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Entero fuera de rango: " + texto.subSequence(inicios[i], fin));
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Convierte un campo a decimal.
+     *
+     * @param i Número de campo, desde 0
+     * @return Valor del campo
+     * @throws NumberFormatException Si el campo está vacío o no es un número
+     */
+    public double decimal(int i) {
+        if (estaVacio(i)) {
+            throw new NumberFormatException("Campo vacío");
+        }
+        return Double.parseDouble(campo(i));
+    }
+
+    private void agregar(int inicio, int fin, boolean entreComillas) {
+        inicios[campos] = inicio;
+        fines[campos] = fin;
+        comillas[campos] = entreComillas;
+        campos++;
+    }
+
+    private void asegurarCapacidad() {
+        if (campos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, campos * 2);
+            fines = Arrays.copyOf(fines, campos * 2);
+            comillas = Arrays.copyOf(comillas, campos * 2);
+        }
+    }
+
+    private static int saltarEspacios(CharSequence texto, int i, int longitud) {
+        while (i < longitud && esEspacio(texto.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean esEspacio(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
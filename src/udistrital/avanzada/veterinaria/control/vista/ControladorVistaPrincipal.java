@@ -1,38 +1,103 @@
 package udistrital.avanzada.veterinaria.control.vista;
 
+import udistrital.avanzada.veterinaria.vista.vista.ModeloTablaMascotas;
 import udistrital.avanzada.veterinaria.vista.vista.VistaPrincipal;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import udistrital.avanzada.veterinaria.control.logica.CambioMascota;
+import udistrital.avanzada.veterinaria.control.logica.EscrituraDiferida;
 import udistrital.avanzada.veterinaria.control.logica.Gestor;
+import udistrital.avanzada.veterinaria.modelo.DAO.CriterioListado;
+import udistrital.avanzada.veterinaria.modelo.cambios.BusCambios;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaQuery;
 import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
 
 /**
  * Controlador de la vista principal que maneja todos los eventos y la lógica
  * de interacción entre la vista y el modelo. Implementa el patrón MVC como
  * controlador desacoplado de la vista y el modelo.
- * 
+ *
+ * Las llamadas al Gestor se ejecutan fuera del hilo de eventos de Swing con
+ * un {@link EjecutorAsincrono}; los eventos solo leen la vista, lanzan la
+ * operación y aplican su resultado cuando termina.
+ *
+ * El catálogo completo y los filtros por categoría se muestran paginados:
+ * la tabla pide a la base de datos solo las filas visibles, y el orden y el
+ * filtro se resuelven en la consulta. Las búsquedas por varios criterios se
+ * resuelven con una {@link MascotaQuery}. Tras adicionar, modificar o
+ * eliminar una mascota no se vuelve a cargar el listado: el Gestor publica
+ * un {@link CambioMascota} y la tabla actualiza solo la fila afectada.
+ *
+ * La ventana se muestra sin esperar a la base de datos: el archivo de datos
+ * iniciales se importa en segundo plano y el tiempo hasta el primer cuadro
+ * se registra con una {@link MetricaArranque}.
+ *
  * @author AndGar03, SanSantax
  * @version 2.0
  * @since 2024
  */
 public class ControladorVistaPrincipal {
 
+    /**
+     * Canal de las operaciones que reemplazan el contenido de la tabla.
+     */
+    private static final String CANAL_TABLA = "tabla";
+    private static final String CANAL_SELECCION = "seleccion";
+    private static final int MAXIMO_CONCURRENTES = 4;
+    private static final String ARCHIVO_METRICAS = "data/metricas.txt";
+
+    /**
+     * Propiedad del sistema que activa la escritura diferida de las
+     * modificaciones, por ejemplo {@code -Dveterinaria.escrituraDiferida=true}.
+     */
+    public static final String PROPIEDAD_ESCRITURA_DIFERIDA = "veterinaria.escrituraDiferida";
+
+    /**
+     * Propiedad del sistema que activa la captura de cambios en la tabla
+     * cambios_mascotas, por ejemplo {@code -Dveterinaria.busCambios=true}.
+     */
+    public static final String PROPIEDAD_BUS_CAMBIOS = "veterinaria.busCambios";
+
     private VistaPrincipal vista;
     private Gestor gestor;
+    private EjecutorAsincrono ejecutor;
+    private MetricaArranque metricaArranque;
+    private CriterioListado criterio = CriterioListado.POR_DEFECTO;
+    private int columnaOrden = 1;
+    private boolean ascendente = true;
 
     /**
      * Constructor del controlador de vista.
-     * 
+     *
      * @param vista Vista principal a controlar
      */
     public ControladorVistaPrincipal(VistaPrincipal vista) {
         this.vista = vista;
         this.gestor = new Gestor();
+        this.ejecutor = new EjecutorAsincrono(MAXIMO_CONCURRENTES, vista::mostrarOcupado);
+        this.metricaArranque = new MetricaArranque();
+        metricaArranque.observarPrimerCuadro(vista);
+        gestor.getMetricas().registrarEnJmx();
+        if (Boolean.getBoolean(PROPIEDAD_ESCRITURA_DIFERIDA)) {
+            gestor.activarEscrituraDiferida(EscrituraDiferida.PERIODO_POR_DEFECTO_MS,
+                    EscrituraDiferida.MAXIMO_PENDIENTES_POR_DEFECTO);
+        }
+        vista.getModeloTabla().setCargador(ejecutor.getCargador());
+        vista.getModeloTabla().setManejadorErrores(this::informarError);
+        gestor.agregarEscucha(cambio -> SwingUtilities.invokeLater(() -> aplicarCambio(cambio)));
         configurarEventos();
         cargarDatosIniciales();
+        importarDatosIniciales();
     }
 
     /**
@@ -44,42 +109,49 @@ public class ControladorVistaPrincipal {
         vista.getBtnAdicionar().addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                adicionarMascota();
+                ejecutor.medirEnEdt("Adicionar", () -> adicionarMascota());
             }
         });
 
         vista.getBtnModificar().addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                modificarMascota();
+                ejecutor.medirEnEdt("Modificar", () -> modificarMascota());
             }
         });
 
         vista.getBtnEliminar().addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                eliminarMascota();
+                ejecutor.medirEnEdt("Eliminar", () -> eliminarMascota());
             }
         });
 
         vista.getBtnLimpiar().addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                limpiarCampos();
+                ejecutor.medirEnEdt("Limpiar", () -> limpiarCampos());
             }
         });
 
         vista.getBtnSerializar().addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                serializarMascotas();
+                ejecutor.medirEnEdt("Serializar", () -> serializarMascotas());
             }
         });
 
         vista.getBtnSalir().addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                salir();
+                ejecutor.medirEnEdt("Salir", () -> salir());
+            }
+        });
+
+        vista.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                ejecutor.medirEnEdt("Salir", () -> salir());
             }
         });
 
@@ -87,14 +159,32 @@ public class ControladorVistaPrincipal {
         vista.getBtnBuscar().addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                buscarMascotas();
+                ejecutor.medirEnEdt("Buscar", () -> buscarMascotas());
             }
         });
 
         vista.getBtnMostrarTodos().addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                mostrarTodasLasMascotas();
+                ejecutor.medirEnEdt("Mostrar todos", () -> mostrarTodasLasMascotas());
+            }
+        });
+
+        // Búsqueda por apodo mientras se escribe
+        vista.getTxtBusqueda().getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                ejecutor.medirEnEdt("Sugerir", () -> sugerirMascotas());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                ejecutor.medirEnEdt("Sugerir", () -> sugerirMascotas());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Cambios de atributos, no de texto
             }
         });
 
@@ -102,33 +192,157 @@ public class ControladorVistaPrincipal {
         vista.getTablaMascotas().addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                cargarDatosSeleccionados();
+                ejecutor.medirEnEdt("Seleccionar", () -> cargarDatosSeleccionados());
+            }
+        });
+
+        // Ordenar al pulsar el encabezado de una columna
+        vista.getTablaMascotas().getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int columna = vista.getTablaMascotas().columnAtPoint(e.getPoint());
+                if (columna >= 0) {
+                    ejecutor.medirEnEdt("Ordenar", () -> ordenarPorColumna(columna));
+                }
             }
         });
     }
 
+    /**
+     * Obtiene el ejecutor asíncrono, para consultar el tiempo que cada
+     * acción ocupa el hilo de eventos.
+     *
+     * @return El ejecutor usado por el controlador
+     */
+    public EjecutorAsincrono getEjecutor() {
+        return ejecutor;
+    }
+
     /**
      * Carga los datos iniciales en la vista.
      */
     private void cargarDatosIniciales() {
-        mostrarTodasLasMascotas();
-        vista.actualizarEstado("Datos cargados correctamente");
+        mostrarListado(criterio, "Carga inicial", "Datos cargados correctamente: %d mascotas");
+    }
+
+    /**
+     * Importa en segundo plano el archivo de datos iniciales, si cambió desde
+     * la última importación, y vuelve a cargar la tabla si se agregaron mascotas.
+     * Antes activa la captura de cambios si se pidió con {@link #PROPIEDAD_BUS_CAMBIOS}.
+     */
+    private void importarDatosIniciales() {
+        ejecutor.ejecutar("Importación inicial", () -> {
+            if (Boolean.getBoolean(PROPIEDAD_BUS_CAMBIOS)
+                    && gestor.activarBusCambios(BusCambios.CAPACIDAD_POR_DEFECTO) == null) {
+                System.out.println("No se pudo activar la captura de cambios");
+            }
+            return gestor.cargarDatosIniciales();
+        }, resumen -> {
+            metricaArranque.marcar("Importación inicial");
+            if (resumen != null && resumen.getInsertadas() > 0) {
+                mostrarListado(criterio, "Carga inicial", "Datos importados: %d mascotas");
+            }
+        }, this::informarError);
+    }
+
+    /**
+     * Obtiene la métrica del arranque, con el tiempo hasta el primer cuadro.
+     *
+     * @return La métrica del arranque
+     */
+    public MetricaArranque getMetricaArranque() {
+        return metricaArranque;
     }
 
     /**
      * Muestra todas las mascotas en la tabla.
      */
     private void mostrarTodasLasMascotas() {
-        ArrayList<MascotaVO> mascotas = gestor.obtenerTodasLasMascotas();
-        vista.mostrarMascotas(mascotas);
-        vista.actualizarEstado("Mostrando " + mascotas.size() + " mascotas");
+        mostrarListado(criterio.filtradoPor(null, null, false), "Mostrar todos", "Mostrando %d mascotas");
+    }
+
+    /**
+     * Muestra en la tabla un listado paginado. Solo se cuentan las filas en
+     * segundo plano; la tabla pide luego las páginas que va mostrando.
+     *
+     * @param nuevo Orden y filtro del listado
+     * @param accion Nombre de la acción, usado en las mediciones
+     * @param mensaje Formato del mensaje de estado, con el número de mascotas
+     */
+    private void mostrarListado(CriterioListado nuevo, String accion, String mensaje) {
+        criterio = nuevo;
+        ejecutor.ejecutarUltima(CANAL_TABLA, accion, () -> gestor.contarMascotas(nuevo), total -> {
+            vista.getModeloTabla().setFuente(
+                    (desde, cantidad, anterior) -> gestor.obtenerVentanaMascotas(nuevo, desde, cantidad, anterior), total);
+            vista.actualizarEstado(String.format(mensaje, total));
+        }, this::informarError);
+    }
+
+    /**
+     * Aplica a la tabla un cambio publicado por el Gestor. En un listado
+     * paginado la mascota entra o sale según cumpla el filtro del criterio
+     * y se ubica con su orden; en una lista de búsqueda solo se actualizan
+     * o quitan las filas que ya estaban.
+     *
+     * @param cambio Cambio a aplicar
+     */
+    private void aplicarCambio(CambioMascota cambio) {
+        ModeloTablaMascotas modelo = vista.getModeloTabla();
+        MascotaVO anterior = cambio.getAnterior();
+        MascotaVO actual = cambio.getActual();
+        if (modelo.isModoLista()) {
+            if (cambio.getTipo() == CambioMascota.Tipo.MODIFICADA) {
+                modelo.reemplazar(actual);
+            } else if (anterior != null) {
+                modelo.eliminar(anterior, null);
+            }
+            return;
+        }
+        if (anterior == null && cambio.getTipo() != CambioMascota.Tipo.INSERTADA) {
+            // Sin el estado previo no se sabe dónde estaba la fila
+            mostrarListado(criterio, "Actualizar", "Mostrando %d mascotas");
+            return;
+        }
+        Comparator<MascotaVO> orden = criterio.comparador();
+        boolean estaba = anterior != null && criterio.cumple(anterior);
+        boolean esta = actual != null && criterio.cumple(actual);
+        if (estaba && esta && orden.compare(anterior, actual) == 0) {
+            modelo.reemplazar(actual);
+            return;
+        }
+        if (estaba) {
+            modelo.eliminar(anterior, orden);
+        }
+        if (esta) {
+            modelo.insertar(actual, orden);
+        }
+    }
+
+    /**
+     * Ordena la tabla por una columna; pulsar de nuevo la misma columna
+     * invierte el sentido. Los listados paginados se reordenan en la base de
+     * datos y las listas de búsqueda, en memoria.
+     *
+     * @param columna Índice de la columna pulsada en la vista
+     */
+    private void ordenarPorColumna(int columna) {
+        int columnaModelo = vista.getTablaMascotas().convertColumnIndexToModel(columna);
+        ascendente = columnaModelo != columnaOrden || !ascendente;
+        columnaOrden = columnaModelo;
+        if (vista.getModeloTabla().isModoLista()) {
+            vista.getModeloTabla().ordenarLista(
+                    criterio.ordenadoPor(CriterioListado.COLUMNAS.get(columnaOrden), ascendente).comparador());
+        } else {
+            mostrarListado(criterio.ordenadoPor(CriterioListado.COLUMNAS.get(columnaOrden), ascendente),
+                    "Ordenar", "Mostrando %d mascotas ordenadas por " + vista.getModeloTabla().getColumnName(columnaOrden));
+        }
     }
 
     /**
      * Busca mascotas según el criterio seleccionado.
      */
     private void buscarMascotas() {
-        String criterio = (String) vista.getCmbCriterioBusqueda().getSelectedItem();
+        String criterioBusqueda = (String) vista.getCmbCriterioBusqueda().getSelectedItem();
         String valor = vista.getTxtBusqueda().getText().trim();
 
         if (valor.isEmpty()) {
@@ -136,36 +350,93 @@ public class ControladorVistaPrincipal {
             return;
         }
 
-        ArrayList<MascotaVO> mascotas = new ArrayList<>();
-
-        switch (criterio) {
-            case "Apodo":
-                mascotas = gestor.buscarMascotasPorApodo(valor);
-                break;
+        // Las categorías pueden abarcar gran parte del catálogo; se filtran paginadas
+        String columna;
+        switch (criterioBusqueda) {
             case "Clasificación":
-                mascotas = gestor.buscarMascotasPorClasificacion(valor);
+                columna = "clasificacion";
                 break;
             case "Familia":
-                mascotas = gestor.buscarMascotasPorFamilia(valor);
+                columna = "familia";
                 break;
             case "Tipo Alimento":
-                mascotas = gestor.buscarMascotasPorTipoAlimento(valor);
+                columna = "tipo_alimento";
                 break;
+            default:
+                columna = null;
+        }
+        if (columna != null) {
+            mostrarListado(criterio.filtradoPor(columna, valor, false), "Buscar",
+                    "Encontradas %d mascotas con criterio: " + criterioBusqueda);
+            return;
+        }
+        if ("Varios criterios".equals(criterioBusqueda)) {
+            buscarPorVariosCriterios(valor);
+            return;
         }
 
-        vista.mostrarMascotas(mascotas);
-        vista.actualizarEstado("Encontradas " + mascotas.size() + " mascotas con criterio: " + criterio);
+        ejecutor.ejecutarUltima(CANAL_TABLA, "Buscar", () -> {
+            if ("Apodo".equals(criterioBusqueda)) {
+                return gestor.buscarMascotasPorApodo(valor);
+            }
+            return new ArrayList<MascotaVO>();
+        }, mascotas -> {
+            vista.mostrarMascotas(mascotas);
+            vista.actualizarEstado("Encontradas " + mascotas.size() + " mascotas con criterio: " + criterioBusqueda);
+        }, this::informarError);
+    }
+
+    /**
+     * Busca con una consulta que combina varios criterios, escrita como
+     * términos {@code clave=valor} separados por punto y coma. El resultado
+     * se muestra como lista y se reordena en memoria.
+     *
+     * @param texto Texto de la consulta
+     * @see MascotaQuery#interpretar(String)
+     */
+    private void buscarPorVariosCriterios(String texto) {
+        MascotaQuery consulta;
+        try {
+            consulta = MascotaQuery.interpretar(texto);
+        } catch (IllegalArgumentException e) {
+            vista.actualizarEstado("Consulta inválida: " + e.getMessage());
+            return;
+        }
+        ejecutor.ejecutarUltima(CANAL_TABLA, "Buscar", () -> gestor.buscarMascotas(consulta), mascotas -> {
+            vista.mostrarMascotas(mascotas);
+            vista.actualizarEstado("Encontradas " + mascotas.size() + " mascotas con: " + texto);
+        }, this::informarError);
+    }
+
+    /**
+     * Muestra sugerencias por apodo a medida que se escribe en el campo de
+     * búsqueda. Solo aplica con el criterio "Apodo"; los demás criterios se
+     * buscan con el botón. Cada tecla reemplaza la sugerencia anterior.
+     */
+    private void sugerirMascotas() {
+        if (!"Apodo".equals(vista.getCmbCriterioBusqueda().getSelectedItem())) {
+            return;
+        }
+        String valor = vista.getTxtBusqueda().getText().trim();
+        if (valor.isEmpty()) {
+            mostrarTodasLasMascotas();
+            return;
+        }
+        ejecutor.ejecutarUltima(CANAL_TABLA, "Sugerir", () -> gestor.sugerirMascotasPorApodo(valor), mascotas -> {
+            vista.mostrarMascotas(mascotas);
+            vista.actualizarEstado("Sugerencias para \"" + valor + "\": " + mascotas.size());
+        }, this::informarError);
     }
 
     /**
      * Carga los datos de la mascota seleccionada en el formulario.
      */
     private void cargarDatosSeleccionados() {
-        int filaSeleccionada = vista.getTablaMascotas().getSelectedRow();
-        if (filaSeleccionada >= 0) {
-            String idMascota = (String) vista.getModeloTabla().getValueAt(filaSeleccionada, 0);
-            MascotaVO mascota = gestor.consultarMascotaPorId(idMascota);
-            vista.cargarDatosEnFormulario(mascota);
+        MascotaVO seleccionada = vista.getMascotaSeleccionada();
+        if (seleccionada != null) {
+            String idMascota = seleccionada.getIdMascota();
+            ejecutor.ejecutarUltima(CANAL_SELECCION, "Seleccionar", () -> gestor.consultarMascotaPorId(idMascota),
+                    mascota -> vista.cargarDatosEnFormulario(mascota), this::informarError);
         }
     }
 
@@ -175,13 +446,14 @@ public class ControladorVistaPrincipal {
     private void adicionarMascota() {
         if (vista.validarCamposObligatorios()) {
             MascotaVO mascota = vista.obtenerDatosDelFormulario();
-            if (gestor.registrarMascota(mascota)) {
-                mostrarTodasLasMascotas();
-                vista.limpiarCampos();
-                vista.actualizarEstado("Mascota adicionada exitosamente");
-            } else {
-                vista.actualizarEstado("Error: La mascota ya existe o hubo un problema al guardar");
-            }
+            ejecutor.ejecutar("Adicionar", () -> gestor.registrarMascota(mascota), registrada -> {
+                if (registrada) {
+                    vista.limpiarCampos();
+                    vista.actualizarEstado("Mascota adicionada exitosamente");
+                } else {
+                    vista.actualizarEstado("Error: La mascota ya existe o hubo un problema al guardar");
+                }
+            }, this::informarError);
         } else {
             vista.actualizarEstado("Error: Complete todos los campos obligatorios");
         }
@@ -193,12 +465,13 @@ public class ControladorVistaPrincipal {
     private void modificarMascota() {
         if (vista.validarCamposObligatorios() && !vista.getTxtIdMascota().getText().trim().isEmpty()) {
             MascotaVO mascota = vista.obtenerDatosDelFormulario();
-            if (gestor.modificarMascota(mascota)) {
-                mostrarTodasLasMascotas();
-                vista.actualizarEstado("Mascota modificada exitosamente");
-            } else {
-                vista.actualizarEstado("Error: No se pudo modificar la mascota");
-            }
+            ejecutor.ejecutar("Modificar", () -> gestor.modificarMascota(mascota), modificada -> {
+                if (modificada) {
+                    vista.actualizarEstado("Mascota modificada exitosamente");
+                } else {
+                    vista.actualizarEstado("Error: No se pudo modificar la mascota");
+                }
+            }, this::informarError);
         } else {
             vista.actualizarEstado("Error: Seleccione una mascota y complete todos los campos");
         }
@@ -210,13 +483,14 @@ public class ControladorVistaPrincipal {
     private void eliminarMascota() {
         String idMascota = vista.getTxtIdMascota().getText().trim();
         if (!idMascota.isEmpty()) {
-            if (gestor.eliminarMascota(idMascota)) {
-                mostrarTodasLasMascotas();
-                vista.limpiarCampos();
-                vista.actualizarEstado("Mascota eliminada exitosamente");
-            } else {
-                vista.actualizarEstado("Error: No se pudo eliminar la mascota");
-            }
+            ejecutor.ejecutar("Eliminar", () -> gestor.eliminarMascota(idMascota), eliminada -> {
+                if (eliminada) {
+                    vista.limpiarCampos();
+                    vista.actualizarEstado("Mascota eliminada exitosamente");
+                } else {
+                    vista.actualizarEstado("Error: No se pudo eliminar la mascota");
+                }
+            }, this::informarError);
         } else {
             vista.actualizarEstado("Error: Seleccione una mascota para eliminar");
         }
@@ -235,21 +509,57 @@ public class ControladorVistaPrincipal {
      */
     private void serializarMascotas() {
         String nombreArchivo = "data/mascotas_serializadas.dat";
-        if (gestor.serializarMascotas(nombreArchivo)) {
-            vista.actualizarEstado("Mascotas serializadas exitosamente en: " + nombreArchivo);
-        } else {
-            vista.actualizarEstado("Error al serializar las mascotas");
-        }
+        ejecutor.ejecutar("Serializar", () -> gestor.serializarMascotas(nombreArchivo), exito -> {
+            if (exito) {
+                vista.actualizarEstado("Mascotas serializadas exitosamente en: " + nombreArchivo);
+            } else {
+                vista.actualizarEstado("Error al serializar las mascotas");
+            }
+        }, this::informarError);
     }
 
     /**
-     * Sale de la aplicación creando el archivo de acceso aleatorio.
+     * Sale de la aplicación escribiendo las modificaciones pendientes,
+     * creando el archivo de acceso aleatorio, volcando las métricas de la
+     * sesión a {@value #ARCHIVO_METRICAS} y esperando a que se escriban las
+     * consultas lentas pendientes. Si las modificaciones pendientes no se
+     * pueden guardar, la aplicación sigue abierta para reintentarlo.
      */
     private void salir() {
         String nombreArchivo = "data/estado_final.dat";
-        if (gestor.crearArchivoAccesoAleatorio(nombreArchivo)) {
-            vista.actualizarEstado("Archivo de estado final creado: " + nombreArchivo);
-        }
-        System.exit(0);
+        ejecutor.ejecutar("Salir", () -> {
+            if (!gestor.vaciarEscrituras()) {
+                throw new IllegalStateException("No se pudieron guardar "
+                        + gestor.getModificacionesPendientes() + " modificaciones pendientes");
+            }
+            boolean exito = gestor.crearArchivoAccesoAleatorio(nombreArchivo);
+            try {
+                gestor.getMetricas().volcar(ARCHIVO_METRICAS);
+            } catch (IOException e) {
+                System.err.println("No se pudieron guardar las métricas: " + e.getMessage());
+            }
+            gestor.vaciarConsultasLentas(1000);
+            return exito;
+        }, exito -> {
+            if (exito) {
+                vista.actualizarEstado("Archivo de estado final creado: " + nombreArchivo);
+            }
+            System.exit(0);
+        }, error -> {
+            if (gestor.getModificacionesPendientes() > 0) {
+                informarError(error);
+            } else {
+                System.exit(0);
+            }
+        });
+    }
+
+    /**
+     * Muestra en la barra de estado el error de una operación en segundo plano.
+     *
+     * @param error Causa del error
+     */
+    private void informarError(Throwable error) {
+        vista.actualizarEstado("Error: " + error.getMessage());
     }
 }
@@ -0,0 +1,100 @@
+package udistrital.avanzada.veterinaria.control.vista;
+
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.swing.SwingUtilities;
+import udistrital.avanzada.veterinaria.modelo.metricas.RegistroMetricas;
+
+/**
+ * Mide las fases del arranque de la aplicación en milisegundos desde el
+ * inicio de la JVM: en particular el tiempo hasta el primer cuadro de la
+ * ventana principal, que es lo que el usuario percibe como arranque.
+ *
+ * El primer cuadro se registra cuando la ventana se abre y el EDT termina
+ * de procesar los eventos pendientes, entre ellos su primer pintado.
+ *
+ * Cada fase se publica en el registro global de métricas como el medidor
+ * {@code arranque.<fase>}, que se vuelca al archivo de métricas y se
+ * consulta por JMX junto con las demás.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class MetricaArranque {
+
+    /**
+     * Nombre de la fase del primer cuadro de la ventana principal.
+     */
+    public static final String PRIMER_CUADRO = "Primer cuadro";
+
+    private static final String PREFIJO_MEDIDOR = "arranque.";
+
+    private final long inicioJvm;
+    private final Map<String, Long> fases = new LinkedHashMap<>();
+
+    /**
+     * Crea la métrica tomando como origen el inicio de la JVM.
+     */
+    public MetricaArranque() {
+        this.inicioJvm = ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    /**
+     * Registra el momento en que termina una fase del arranque y lo publica
+     * como medidor. Si la fase ya estaba registrada, se conserva el primer
+     * registro.
+     *
+     * @param fase Nombre de la fase
+     * @return Milisegundos desde el inicio de la JVM
+     */
+    public synchronized long marcar(String fase) {
+        Long registrada = fases.get(fase);
+        if (registrada != null) {
+            return registrada;
+        }
+        long transcurridos = System.currentTimeMillis() - inicioJvm;
+        fases.put(fase, transcurridos);
+        RegistroMetricas.global().medidor(PREFIJO_MEDIDOR + fase, () -> transcurridos);
+        return transcurridos;
+    }
+
+    /**
+     * Registra el primer cuadro de una ventana cuando se muestre.
+     *
+     * @param ventana Ventana principal, aún no visible
+     */
+    public void observarPrimerCuadro(Window ventana) {
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                ventana.removeWindowListener(this);
+                SwingUtilities.invokeLater(() -> marcar(PRIMER_CUADRO));
+            }
+        });
+    }
+
+    /**
+     * Obtiene el tiempo hasta una fase.
+     *
+     * @param fase Nombre de la fase
+     * @return Milisegundos desde el inicio de la JVM, o -1 si aún no termina
+     */
+    public synchronized long getMilisegundos(String fase) {
+        Long transcurridos = fases.get(fase);
+        return transcurridos == null ? -1 : transcurridos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder texto = new StringBuilder("Arranque (ms desde el inicio de la JVM):");
+        for (Map.Entry<String, Long> fase : fases.entrySet()) {
+            texto.append(' ').append(fase.getKey()).append('=').append(fase.getValue());
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+/**
+ * Agregados de edad y peso de un grupo de mascotas que comparten el valor
+ * de una columna, como los calcula un GROUP BY: cantidad, sumas, mínimos y
+ * máximos. Es inmutable.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class AgregadoGrupo {
+
+    private final String valor;
+    private final long cantidad;
+    private final long sumaEdad;
+    private final int edadMinima;
+    private final int edadMaxima;
+    private final double sumaPeso;
+    private final double pesoMinimo;
+    private final double pesoMaximo;
+
+    /**
+     * Crea los agregados de un grupo.
+     *
+     * @param valor Valor de la columna que define el grupo
+     * @param cantidad Número de mascotas del grupo
+     * @param sumaEdad Suma de las edades
+     * @param edadMinima Menor edad del grupo
+     * @param edadMaxima Mayor edad del grupo
+     * @param sumaPeso Suma de los pesos
+     * @param pesoMinimo Menor peso del grupo
+     * @param pesoMaximo Mayor peso del grupo
+     */
+    public AgregadoGrupo(String valor, long cantidad, long sumaEdad, int edadMinima, int edadMaxima,
+            double sumaPeso, double pesoMinimo, double pesoMaximo) {
+        this.valor = valor;
+        this.cantidad = cantidad;
+        this.sumaEdad = sumaEdad;
+        this.edadMinima = edadMinima;
+        this.edadMaxima = edadMaxima;
+        this.sumaPeso = sumaPeso;
+        this.pesoMinimo = pesoMinimo;
+        this.pesoMaximo = pesoMaximo;
+    }
+
+    /**
+     * @return Valor de la columna que define el grupo
+     */
+    public String getValor() {
+        return valor;
+    }
+
+    /**
+     * @return Número de mascotas del grupo
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * @return Suma de las edades
+     */
+    public long getSumaEdad() {
+        return sumaEdad;
+    }
+
+    /**
+     * @return Menor edad del grupo
+     */
+    public int getEdadMinima() {
+        return edadMinima;
+    }
+
+    /**
+     * @return Mayor edad del grupo
+     */
+    public int getEdadMaxima() {
+        return edadMaxima;
+    }
+
+    /**
+     * @return Edad promedio, o 0 si el grupo está vacío
+     */
+    public double getEdadPromedio() {
+        return cantidad == 0 ? 0 : (double) sumaEdad / cantidad;
+    }
+
+    /**
+     * @return Suma de los pesos
+     */
+    public double getSumaPeso() {
+        return sumaPeso;
+    }
+
+    /**
+     * @return Menor peso del grupo
+     */
+    public double getPesoMinimo() {
+        return pesoMinimo;
+    }
+
+    /**
+     * @return Mayor peso del grupo
+     */
+    public double getPesoMaximo() {
+        return pesoMaximo;
+    }
+
+    /**
+     * @return Peso promedio, o 0 si el grupo está vacío
+     */
+    public double getPesoPromedio() {
+        return cantidad == 0 ? 0 : sumaPeso / cantidad;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AgregadoGrupo{valor=%s, cantidad=%d, edad=%.2f [%d..%d], peso=%.2f [%.2f..%.2f]}",
+                valor, cantidad, getEdadPromedio(), edadMinima, edadMaxima, getPesoPromedio(), pesoMinimo,
+                pesoMaximo);
+    }
+}
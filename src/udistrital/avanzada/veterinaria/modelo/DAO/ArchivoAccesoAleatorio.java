@@ -0,0 +1,380 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Archivo de acceso aleatorio con el estado de las mascotas, indexado por
+ * número de registro y ordenado por ID.
+ *
+ * Formato, en orden big-endian:
+ * <pre>
+ * cabecera (32 bytes): int mágico, short versión, short banderas,
+ *                      int registros, int reservado, long inicio de la tabla,
+ *                      long reservado
+ * registros:           int capacidad, seguida de capacidad bytes con
+ *                      int edad, double peso y los textos en UTF modificado:
+ *                      ID, apodo, clasificación, familia, género, especie,
+ *                      tipo de alimento y observaciones
+ * tabla de posiciones: un long por registro con la posición de su capacidad
+ * </pre>
+ *
+ * Leer el registro n cuesta dos accesos: su entrada en la tabla y el
+ * registro. Como los registros se escriben ordenados por ID, la búsqueda
+ * por ID es binaria. Al actualizar, el registro se reescribe en su lugar
+ * si cabe en su capacidad; si no, se agrega al final del archivo y se
+ * actualiza su entrada en la tabla.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class ArchivoAccesoAleatorio implements Closeable {
+
+    /**
+     * Identifica el formato; corresponde a los bytes "VRAF".
+     */
+    public static final int MAGICO = 0x56524146;
+
+    /**
+     * Versión del formato escrita por esta clase.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * Bandera que indica que los registros están ordenados por ID.
+     */
+    public static final short ORDENADO_POR_ID = 1;
+
+    static final int TAMANO_CABECERA = 32;
+    private static final int POSICION_REGISTROS = 8;
+    private static final int POSICION_TABLA = 16;
+
+    private final RandomAccessFile archivo;
+    private final int registros;
+    private final long inicioTabla;
+    private final boolean ordenado;
+    private final byte[] lectura = new byte[64];
+
+    /**
+     * Abre un archivo existente.
+     *
+     * @param nombreArchivo Ruta del archivo
+     * @param escritura true para permitir actualizar registros
+     * @throws IOException Si no se puede abrir o no tiene el formato esperado
+     */
+    public ArchivoAccesoAleatorio(String nombreArchivo, boolean escritura) throws IOException {
+        archivo = new RandomAccessFile(nombreArchivo, escritura ? "rw" : "r");
+        try {
+            if (archivo.length() < TAMANO_CABECERA || archivo.readInt() != MAGICO) {
+                throw new IOException("El archivo no es un archivo de acceso aleatorio de mascotas: " + nombreArchivo);
+            }
+            short version = archivo.readShort();
+            if (version != VERSION) {
+                throw new IOException("Versión de archivo no soportada: " + version);
+            }
+            ordenado = (archivo.readShort() & ORDENADO_POR_ID) != 0;
+            registros = archivo.readInt();
+            archivo.readInt();
+            inicioTabla = archivo.readLong();
+        } catch (IOException e) {
+            archivo.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Crea un archivo nuevo, reemplazando el existente. Las mascotas deben
+     * agregarse en orden de ID para que la búsqueda por ID sea binaria.
+     *
+     * @param nombreArchivo Ruta del archivo
+     * @return Escritor del archivo; al cerrarlo se completan la tabla y la cabecera
+     * @throws IOException Si no se puede crear
+     */
+    public static Escritor crear(String nombreArchivo) throws IOException {
+        return new Escritor(new File(nombreArchivo));
+    }
+
+    /**
+     * @return Número de registros del archivo
+     */
+    public int getNumeroRegistros() {
+        return registros;
+    }
+
+    /**
+     * @return true si los registros están ordenados por ID
+     */
+    public boolean isOrdenadoPorId() {
+        return ordenado;
+    }
+
+    /**
+     * Lee el registro indicado.
+     *
+     * @param n Número de registro, desde 0
+     * @return Mascota del registro
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public MascotaVO leerMascota(int n) throws IOException {
+        archivo.seek(posicionRegistro(n));
+        archivo.readFully(lectura, 0, 4);
+        byte[] datos = new byte[entero(lectura, 0)];
+        archivo.readFully(datos);
+        return leerCuerpo(new DataInputStream(new ByteArrayInputStream(datos)));
+    }
+
+    /**
+     * Busca una mascota por su ID.
+     *
+     * @param idMascota ID a buscar
+     * @return Mascota encontrada, o null si no existe
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public MascotaVO buscarPorId(String idMascota) throws IOException {
+        int n = buscarRegistro(idMascota);
+        return n < 0 ? null : leerMascota(n);
+    }
+
+    /**
+     * Busca el número de registro de una mascota. Si los registros están
+     * ordenados la búsqueda es binaria y solo lee el ID de cada registro
+     * visitado; si no, se recorren en orden.
+     *
+     * @param idMascota ID a buscar
+     * @return Número de registro, o -1 si no existe
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public int buscarRegistro(String idMascota) throws IOException {
+        if (!ordenado) {
+            for (int n = 0; n < registros; n++) {
+                if (idMascota.equals(leerId(n))) {
+                    return n;
+                }
+            }
+            return -1;
+        }
+        int bajo = 0;
+        int alto = registros - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int comparacion = leerId(medio).compareTo(idMascota);
+            if (comparacion < 0) {
+                bajo = medio + 1;
+            } else if (comparacion > 0) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Actualiza el registro de una mascota, identificada por su ID.
+     *
+     * @param mascota Datos nuevos de la mascota
+     * @return true si se actualizó, false si no existe en el archivo
+     * @throws IOException Si ocurre un error o el archivo se abrió solo para lectura
+     */
+    public boolean actualizarMascota(MascotaVO mascota) throws IOException {
+        int n = buscarRegistro(mascota.getIdMascota());
+        if (n < 0) {
+            return false;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        escribirCuerpo(new DataOutputStream(buffer), mascota);
+
+        long posicion = posicionRegistro(n);
+        archivo.seek(posicion);
+        archivo.readFully(lectura, 0, 4);
+        int capacidad = entero(lectura, 0);
+        if (buffer.size() <= capacidad) {
+            // Cabe en su lugar; el resto de la capacidad queda sin usar
+            archivo.write(buffer.toByteArray());
+        } else {
+            posicion = archivo.length();
+            archivo.seek(posicion);
+            archivo.writeInt(buffer.size());
+            archivo.write(buffer.toByteArray());
+            archivo.seek(inicioTabla + 8L * n);
+            archivo.writeLong(posicion);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        archivo.close();
+    }
+
+    /**
+     * Las lecturas de tamaño fijo se hacen en bloque: los readInt y readLong
+     * de RandomAccessFile leen byte a byte, con una llamada al sistema cada uno.
+     */
+    private long posicionRegistro(int n) throws IOException {
+        if (n < 0 || n >= registros) {
+            throw new IndexOutOfBoundsException("Registro " + n + " de " + registros);
+        }
+        archivo.seek(inicioTabla + 8L * n);
+        archivo.readFully(lectura, 0, 8);
+        return ((long) entero(lectura, 0) << 32) | (entero(lectura, 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Lee solo el ID del registro, saltando la capacidad y los campos numéricos.
+     */
+    private String leerId(int n) throws IOException {
+        archivo.seek(posicionRegistro(n) + 4 + 4 + 8);
+        archivo.readFully(lectura, 0, 2);
+        int longitud = ((lectura[0] & 0xFF) << 8) | (lectura[1] & 0xFF);
+        byte[] utf = longitud + 2 <= lectura.length ? lectura : new byte[longitud + 2];
+        utf[0] = lectura[0];
+        utf[1] = lectura[1];
+        archivo.readFully(utf, 2, longitud);
+        return new DataInputStream(new ByteArrayInputStream(utf, 0, longitud + 2)).readUTF();
+    }
+
+    private static int entero(byte[] bytes, int desde) {
+        return ((bytes[desde] & 0xFF) << 24) | ((bytes[desde + 1] & 0xFF) << 16)
+                | ((bytes[desde + 2] & 0xFF) << 8) | (bytes[desde + 3] & 0xFF);
+    }
+
+    private static void escribirCuerpo(DataOutput salida, MascotaVO mascota) throws IOException {
+        // Campos numéricos de ancho fijo al inicio del registro
+        salida.writeInt(mascota.getEdad());
+        salida.writeDouble(mascota.getPeso());
+        escribirTexto(salida, mascota.getIdMascota());
+        escribirTexto(salida, mascota.getApodo());
+        escribirTexto(salida, mascota.getClasificacion());
+        escribirTexto(salida, mascota.getFamilia());
+        escribirTexto(salida, mascota.getGenero());
+        escribirTexto(salida, mascota.getEspecie());
+        escribirTexto(salida, mascota.getTipoAlimento());
+        escribirTexto(salida, mascota.getObservaciones());
+    }
+
+    private static MascotaVO leerCuerpo(DataInput entrada) throws IOException {
+        MascotaVO mascota = new MascotaVO();
+        mascota.setEdad(entrada.readInt());
+        mascota.setPeso(entrada.readDouble());
+        mascota.setIdMascota(entrada.readUTF());
+        mascota.setApodo(entrada.readUTF());
+        mascota.setClasificacion(entrada.readUTF());
+        mascota.setFamilia(entrada.readUTF());
+        mascota.setGenero(entrada.readUTF());
+        mascota.setEspecie(entrada.readUTF());
+        mascota.setTipoAlimento(entrada.readUTF());
+        mascota.setObservaciones(entrada.readUTF());
+        return mascota;
+    }
+
+    /**
+     * Los textos nulos, como observaciones vacías, se guardan como cadena vacía.
+     */
+    private static void escribirTexto(DataOutput salida, String texto) throws IOException {
+        salida.writeUTF(texto == null ? "" : texto);
+    }
+
+    /**
+     * Escribe un archivo nuevo de forma secuencial. Las posiciones de los
+     * registros se guardan en un archivo temporal y se copian como tabla al
+     * cerrar, de modo que la memoria usada no depende del número de registros.
+     */
+    public static final class Escritor implements Closeable {
+        private final File destino;
+        private final File temporalTabla;
+        private final DataOutputStream salida;
+        private final DataOutputStream tabla;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        private final DataOutputStream cuerpo = new DataOutputStream(buffer);
+        private long posicion = TAMANO_CABECERA;
+        private int registros;
+        private String ultimoId;
+        private boolean ordenado = true;
+
+        private Escritor(File destino) throws IOException {
+            this.destino = destino;
+            File directorio = destino.getAbsoluteFile().getParentFile();
+            this.temporalTabla = File.createTempFile(destino.getName(), ".tabla", directorio);
+            this.salida = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destino)));
+            this.tabla = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporalTabla)));
+            // Cabecera provisional; se completa al cerrar
+            salida.write(new byte[TAMANO_CABECERA]);
+        }
+
+        /**
+         * Agrega una mascota como siguiente registro.
+         *
+         * @param mascota Mascota a escribir
+         * @throws IOException Si ocurre un error de escritura
+         */
+        public void agregar(MascotaVO mascota) throws IOException {
+            String id = mascota.getIdMascota() == null ? "" : mascota.getIdMascota();
+            // El orden de la base de datos puede diferir del de String.compareTo
+            if (ultimoId != null && ultimoId.compareTo(id) >= 0) {
+                ordenado = false;
+            }
+            ultimoId = id;
+
+            buffer.reset();
+            escribirCuerpo(cuerpo, mascota);
+            tabla.writeLong(posicion);
+            salida.writeInt(buffer.size());
+            buffer.writeTo(salida);
+            posicion += 4 + buffer.size();
+            registros++;
+        }
+
+        /**
+         * @return Número de registros agregados
+         */
+        public int getRegistros() {
+            return registros;
+        }
+
+        /**
+         * Copia la tabla de posiciones al final del archivo y completa la cabecera.
+         *
+         * @throws IOException Si ocurre un error de escritura
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                tabla.close();
+                try (FileInputStream entrada = new FileInputStream(temporalTabla)) {
+                    byte[] bloque = new byte[8192];
+                    int leidos;
+                    while ((leidos = entrada.read(bloque)) > 0) {
+                        salida.write(bloque, 0, leidos);
+                    }
+                }
+                salida.close();
+                try (RandomAccessFile archivo = new RandomAccessFile(destino, "rw")) {
+                    archivo.writeInt(MAGICO);
+                    archivo.writeShort(VERSION);
+                    archivo.writeShort(ordenado ? ORDENADO_POR_ID : 0);
+                    archivo.seek(POSICION_REGISTROS);
+                    archivo.writeInt(registros);
+                    archivo.seek(POSICION_TABLA);
+                    archivo.writeLong(posicion);
+                }
+            } finally {
+                salida.close();
+                temporalTabla.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import udistrital.avanzada.veterinaria.modelo.cambios.EventoCambio;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Clase DAO para la tabla de cambios de mascotas, que respalda al
+ * {@link udistrital.avanzada.veterinaria.modelo.cambios.BusCambios}: cada
+ * fila guarda la secuencia, el tipo de cambio, la mascota afectada y su
+ * estado tras el cambio, copiado de la tabla mascotas dentro de la misma
+ * transacción. Así quien se pone al día recibe cada cambio con el estado
+ * que produjo, y no el estado actual de la mascota; en las bajas el estado
+ * queda vacío.
+ *
+ * La tabla se crea al consultar la última secuencia, antes de activar el
+ * bus, y no al registrar: en MySQL un CREATE TABLE confirmaría la
+ * transacción de la escritura en curso. Los cambios más antiguos que la
+ * retención se borran con {@link #depurar(long)}, salvo el último, que
+ * conserva la secuencia entre reinicios.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class CambiosDAO {
+
+    private static final String SQL_CREAR_TABLA = "CREATE TABLE IF NOT EXISTS cambios_mascotas (secuencia BIGINT PRIMARY KEY, tipo VARCHAR(12) NOT NULL, id_mascota VARCHAR(20) NOT NULL, instante BIGINT NOT NULL, apodo VARCHAR(50), clasificacion VARCHAR(30), familia VARCHAR(50), genero VARCHAR(30), especie VARCHAR(30), tipo_alimento VARCHAR(30), edad INT, peso DECIMAL(5,2), observaciones TEXT)";
+    // Una sola fila de la tabla derivada: el LEFT JOIN registra el cambio aunque la mascota ya no exista
+    private static final String SQL_REGISTRAR = "INSERT INTO cambios_mascotas (secuencia, tipo, id_mascota, instante, apodo, clasificacion, familia, genero, especie, tipo_alimento, edad, peso, observaciones) SELECT ?, ?, ?, ?, m.apodo, m.clasificacion, m.familia, m.genero, m.especie, m.tipo_alimento, m.edad, m.peso, m.observaciones FROM (SELECT 1 AS fila) c LEFT JOIN mascotas m ON m.id_mascota = ?";
+    private static final String SQL_ULTIMA = "SELECT MAX(secuencia) FROM cambios_mascotas";
+    private static final String SQL_LEER = "SELECT secuencia, tipo, id_mascota, instante, apodo, clasificacion, familia, genero, especie, tipo_alimento, edad, peso, observaciones FROM cambios_mascotas WHERE secuencia > ? AND secuencia <= ? ORDER BY secuencia LIMIT ?";
+    private static final String SQL_DEPURAR = "DELETE FROM cambios_mascotas WHERE instante < ? AND secuencia < ?";
+
+    /**
+     * Propiedad del sistema con los días que se conservan los cambios, por
+     * ejemplo {@code -Dveterinaria.busCambios.retencionDias=30}.
+     */
+    public static final String PROPIEDAD_RETENCION_DIAS = "veterinaria.busCambios.retencionDias";
+
+    /**
+     * Días que se conservan los cambios si no se define la propiedad.
+     */
+    public static final int RETENCION_DIAS_POR_DEFECTO = 7;
+
+    /**
+     * Constructor por defecto de CambiosDAO.
+     */
+    public CambiosDAO() {
+    }
+
+    /**
+     * Crea la tabla de cambios si no existe y consulta su mayor secuencia.
+     *
+     * @return Mayor secuencia registrada, 0 si la tabla está vacía o -1 si hay error
+     */
+    public long ultimaSecuencia() {
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return -1;
+            try (Statement st = con.createStatement()) {
+                st.execute(SQL_CREAR_TABLA);
+                try (ResultSet rs = st.executeQuery(SQL_ULTIMA)) {
+                    return rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+        } catch (SQLException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Registra cambios con la conexión de la escritura que los produjo,
+     * dentro de su transacción.
+     *
+     * @param con Conexión prestada por el llamador, con la transacción abierta
+     * @param eventos Cambios con sus secuencias reservadas
+     * @throws SQLException Si no se pudieron registrar; el llamador revierte la transacción
+     */
+    public void registrar(Connection con, List<EventoCambio> eventos) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(SQL_REGISTRAR)) {
+            for (EventoCambio evento : eventos) {
+                ps.setLong(1, evento.getSecuencia());
+                ps.setString(2, evento.getTipo().name());
+                ps.setString(3, evento.getIdMascota());
+                ps.setLong(4, evento.getInstante());
+                ps.setString(5, evento.getIdMascota());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Lee los cambios con secuencia en (desde, hasta], en orden de
+     * secuencia, con el estado que dejó cada uno.
+     *
+     * @param desde Secuencia anterior a la primera a leer
+     * @param hasta Última secuencia a leer
+     * @param maximo Número máximo de cambios a leer
+     * @return Cambios leídos, o null si hay error
+     */
+    public List<EventoCambio> leer(long desde, long hasta, int maximo) {
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return null;
+            try (PreparedStatement ps = con.prepareStatement(SQL_LEER)) {
+                ps.setLong(1, desde);
+                ps.setLong(2, hasta);
+                ps.setInt(3, maximo);
+                List<EventoCambio> eventos = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String idMascota = rs.getString("id_mascota");
+                        MascotaVO mascota = rs.getString("apodo") == null ? null
+                                : new MascotaVO(idMascota, rs.getString("apodo"), rs.getString("clasificacion"),
+                                        rs.getString("familia"), rs.getString("genero"), rs.getString("especie"),
+                                        rs.getString("tipo_alimento"), rs.getInt("edad"), rs.getDouble("peso"),
+                                        rs.getString("observaciones"));
+                        eventos.add(new EventoCambio(rs.getLong("secuencia"),
+                                EventoCambio.Tipo.valueOf(rs.getString("tipo")), idMascota, mascota,
+                                rs.getLong("instante")));
+                    }
+                }
+                return eventos;
+            }
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Borra los cambios registrados antes de un instante, salvo el último,
+     * que conserva la secuencia. Una suscripción que se reanude desde una
+     * secuencia borrada salta los cambios que faltan, como si se hubieran
+     * descartado.
+     *
+     * @param antesDe Instante, en milisegundos desde la época, anterior al cual se borran los cambios
+     * @return Número de cambios borrados, o -1 si hay error
+     */
+    public int depurar(long antesDe) {
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return -1;
+            long ultima;
+            try (Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery(SQL_ULTIMA)) {
+                ultima = rs.next() ? rs.getLong(1) : 0;
+            }
+            try (PreparedStatement ps = con.prepareStatement(SQL_DEPURAR)) {
+                ps.setLong(1, antesDe);
+                ps.setLong(2, ultima);
+                return ps.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Orden y filtro con que se lista el catálogo de mascotas por ventanas.
+ * Las columnas se validan contra una lista fija, de modo que pueden
+ * concatenarse en la sentencia SQL sin riesgo de inyección.
+ *
+ * El orden siempre se desempata por ID para que cada fila tenga una
+ * posición única y pueda usarse como cursor.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class CriterioListado {
+
+    /**
+     * Columnas de la tabla mascotas, en el orden en que se muestran.
+     */
+    public static final List<String> COLUMNAS = Arrays.asList("id_mascota", "apodo", "clasificacion",
+            "familia", "genero", "especie", "tipo_alimento", "edad", "peso", "observaciones");
+
+    /**
+     * Catálogo completo ordenado por apodo, igual que obtenerTodasLasMascotas.
+     */
+    public static final CriterioListado POR_DEFECTO = new CriterioListado("apodo", true, null, null, false);
+
+    private final String columnaOrden;
+    private final boolean ascendente;
+    private final String columnaFiltro;
+    private final String valorFiltro;
+    private final boolean filtroPorPrefijo;
+
+    /**
+     * Crea un criterio de listado.
+     *
+     * @param columnaOrden Columna por la que se ordena
+     * @param ascendente true para orden ascendente
+     * @param columnaFiltro Columna filtrada, o null para no filtrar
+     * @param valorFiltro Valor buscado en la columna filtrada
+     * @param filtroPorPrefijo true para aceptar valores que empiecen por el buscado
+     */
+    public CriterioListado(String columnaOrden, boolean ascendente, String columnaFiltro, String valorFiltro,
+            boolean filtroPorPrefijo) {
+        this.columnaOrden = validar(columnaOrden);
+        this.ascendente = ascendente;
+        this.columnaFiltro = columnaFiltro == null ? null : validar(columnaFiltro);
+        this.valorFiltro = valorFiltro;
+        this.filtroPorPrefijo = filtroPorPrefijo;
+    }
+
+    /**
+     * @param columna Columna por la que ordenar
+     * @param ascendente true para orden ascendente
+     * @return Copia de este criterio con otro orden
+     */
+    public CriterioListado ordenadoPor(String columna, boolean ascendente) {
+        return new CriterioListado(columna, ascendente, columnaFiltro, valorFiltro, filtroPorPrefijo);
+    }
+
+    /**
+     * @param columna Columna a filtrar, o null para quitar el filtro
+     * @param valor Valor buscado
+     * @param porPrefijo true para aceptar valores que empiecen por el buscado
+     * @return Copia de este criterio con otro filtro
+     */
+    public CriterioListado filtradoPor(String columna, String valor, boolean porPrefijo) {
+        return new CriterioListado(columnaOrden, ascendente, columna, valor, porPrefijo);
+    }
+
+    /**
+     * @return Columna por la que se ordena
+     */
+    public String getColumnaOrden() {
+        return columnaOrden;
+    }
+
+    /**
+     * @return true si el orden es ascendente
+     */
+    public boolean isAscendente() {
+        return ascendente;
+    }
+
+    /**
+     * @return Columna filtrada, o null si no se filtra
+     */
+    public String getColumnaFiltro() {
+        return columnaFiltro;
+    }
+
+    /**
+     * @return Valor buscado en la columna filtrada
+     */
+    public String getValorFiltro() {
+        return valorFiltro;
+    }
+
+    /**
+     * @return Condición WHERE del filtro, sin la palabra WHERE, o null si no filtra
+     */
+    String condicionFiltro() {
+        if (columnaFiltro == null) return null;
+        return filtroPorPrefijo ? columnaFiltro + " LIKE ? ESCAPE '!'" : columnaFiltro + " = ?";
+    }
+
+    /**
+     * @return Valor del parámetro del filtro, escapado si es por prefijo
+     */
+    String parametroFiltro() {
+        if (!filtroPorPrefijo) return valorFiltro;
+        return valorFiltro.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    /**
+     * @return Cláusula ORDER BY completa, desempatada por ID
+     */
+    String clausulaOrden() {
+        String sentido = ascendente ? " ASC" : " DESC";
+        return " ORDER BY " + columnaOrden + sentido + ", id_mascota" + sentido;
+    }
+
+    /**
+     * @return Condición que selecciona las filas posteriores a un cursor, con
+     * tres parámetros: valor de orden, valor de orden e ID
+     */
+    String condicionCursor() {
+        String mayor = ascendente ? " > ?" : " < ?";
+        return "(" + columnaOrden + mayor + " OR (" + columnaOrden + " = ? AND id_mascota" + mayor + "))";
+    }
+
+    /**
+     * Obtiene de una mascota el valor de la columna de orden, para usarla como cursor.
+     *
+     * @param mascota Mascota de la que leer el valor
+     * @return Valor de la columna de orden
+     */
+    Object valorOrden(MascotaVO mascota) {
+        return valor(mascota, columnaOrden);
+    }
+
+    /**
+     * Indica si una mascota cumple el filtro, con la misma comparación sin
+     * distinguir mayúsculas que hace la base de datos.
+     *
+     * @param mascota Mascota a evaluar
+     * @return true si la mascota pertenece al listado
+     */
+    public boolean cumple(MascotaVO mascota) {
+        if (columnaFiltro == null) return true;
+        Object valor = valor(mascota, columnaFiltro);
+        if (valor == null || valorFiltro == null) return false;
+        String texto = valor.toString();
+        return filtroPorPrefijo
+                ? texto.regionMatches(true, 0, valorFiltro, 0, valorFiltro.length())
+                : texto.equalsIgnoreCase(valorFiltro);
+    }
+
+    /**
+     * @return Comparador con el mismo orden que la cláusula ORDER BY, desempatado por ID
+     */
+    public Comparator<MascotaVO> comparador() {
+        Comparator<MascotaVO> comparador = MascotaQuery.comparadorColumna(columnaOrden)
+                .thenComparing(MascotaQuery.comparadorColumna("id_mascota"));
+        return ascendente ? comparador : comparador.reversed();
+    }
+
+    private static Object valor(MascotaVO mascota, String columna) {
+        switch (columna) {
+            case "id_mascota": return mascota.getIdMascota();
+            case "apodo": return mascota.getApodo();
+            case "clasificacion": return mascota.getClasificacion();
+            case "familia": return mascota.getFamilia();
+            case "genero": return mascota.getGenero();
+            case "especie": return mascota.getEspecie();
+            case "tipo_alimento": return mascota.getTipoAlimento();
+            case "edad": return mascota.getEdad();
+            case "peso": return mascota.getPeso();
+            default: return mascota.getObservaciones();
+        }
+    }
+
+    private static String validar(String columna) {
+        if (!COLUMNAS.contains(columna)) {
+            throw new IllegalArgumentException("Columna no válida: " + columna);
+        }
+        return columna;
+    }
+}
@@ -4,7 +4,18 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import udistrital.avanzada.veterinaria.modelo.cambios.BusCambios;
+import udistrital.avanzada.veterinaria.modelo.cambios.EventoCambio;
 import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
 import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
 
@@ -12,204 +23,274 @@ import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
  * Clase DAO (Data Access Object) para el manejo de operaciones CRUD
  * de mascotas exóticas en la base de datos.
  * Implementa el patrón DAO para separar la lógica de acceso a datos.
- * 
+ *
+ * La clase no guarda estado entre llamadas: cada método obtiene su propia
+ * conexión del pool y cierra conexión, sentencia y resultados con
+ * try-with-resources, por lo que una misma instancia puede compartirse
+ * entre varios hilos.
+ *
+ * Con un {@link BusCambios} instalado, cada inserción, modificación y
+ * eliminación registra su cambio en la tabla de cambios dentro de la misma
+ * transacción y lo publica en el bus al confirmarla.
+ *
  * @author AndGar03, SanSantax
  * @version 2.0
  * @since 2024
  */
 public class MascotaDAO {
 
-    private Connection con;
-    private PreparedStatement ps;
-    private ResultSet rs;
+    private static final String SQL_INSERTAR = "INSERT INTO mascotas (id_mascota, apodo, clasificacion, familia, genero, especie, tipo_alimento, edad, peso, observaciones) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_INSERTAR_IGNORANDO = "INSERT IGNORE INTO mascotas (id_mascota, apodo, clasificacion, familia, genero, especie, tipo_alimento, edad, peso, observaciones) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_POR_ID = "SELECT * FROM mascotas WHERE id_mascota = ?";
+    private static final String SQL_POR_APODO = "SELECT * FROM mascotas WHERE apodo LIKE ?";
+    private static final String SQL_POR_CLASIFICACION = "SELECT * FROM mascotas WHERE clasificacion = ?";
+    private static final String SQL_POR_FAMILIA = "SELECT * FROM mascotas WHERE familia = ?";
+    private static final String SQL_POR_TIPO_ALIMENTO = "SELECT * FROM mascotas WHERE tipo_alimento = ?";
+    private static final String SQL_TODAS = "SELECT * FROM mascotas ORDER BY apodo, id_mascota";
+    private static final String SQL_TODAS_POR_ID = "SELECT * FROM mascotas ORDER BY id_mascota";
+    private static final String SQL_PRIMERA_PAGINA = "SELECT * FROM mascotas ORDER BY apodo, id_mascota LIMIT ?";
+    private static final String SQL_PAGINA_SIGUIENTE = "SELECT * FROM mascotas WHERE apodo > ? OR (apodo = ? AND id_mascota > ?) ORDER BY apodo, id_mascota LIMIT ?";
+    private static final String SQL_MODIFICAR = "UPDATE mascotas SET apodo = ?, clasificacion = ?, tipo_alimento = ?, edad = ?, peso = ?, observaciones = ? WHERE id_mascota = ?";
+    private static final String SQL_ELIMINAR = "DELETE FROM mascotas WHERE id_mascota = ?";
+    private static final String SQL_EXISTE = "SELECT COUNT(*) FROM mascotas WHERE id_mascota = ?";
+    private static final String SQL_EXISTENTES = "SELECT id_mascota FROM mascotas WHERE id_mascota IN (%s) FOR UPDATE";
+
+    /**
+     * Número de filas enviadas por cada ejecución de lote por defecto.
+     */
+    public static final int TAMANO_LOTE_POR_DEFECTO = 500;
+
+    /**
+     * Número de filas que el driver trae del servidor por cada viaje al
+     * recorrer el catálogo completo.
+     */
+    public static final int TAMANO_FETCH_POR_DEFECTO = 1000;
+
+    /**
+     * Columnas por las que se pueden agrupar las estadísticas del catálogo.
+     */
+    public static final List<String> COLUMNAS_AGRUPABLES = List.of("clasificacion", "familia", "genero",
+            "especie", "tipo_alimento");
+
+    private final CambiosDAO cambiosDAO = new CambiosDAO();
+    private volatile BusCambios busCambios;
 
     /**
      * Constructor por defecto de MascotaDAO.
-     * Inicializa las variables de conexión en null.
      */
     public MascotaDAO() {
-        con = null;
-        ps = null;
-        rs = null;
+    }
+
+    /**
+     * Instala el bus en el que se publican los cambios de las escrituras.
+     * La tabla de cambios debe existir; se crea con {@link CambiosDAO#ultimaSecuencia()}.
+     *
+     * @param busCambios Bus de cambios, o null para no registrar cambios
+     */
+    public void setBusCambios(BusCambios busCambios) {
+        this.busCambios = busCambios;
+    }
+
+    /**
+     * @return Bus de cambios instalado, o null si no hay
+     */
+    public BusCambios getBusCambios() {
+        return busCambios;
     }
 
     /**
      * Inserta una nueva mascota en la base de datos.
-     * 
+     *
      * @param mascota Objeto MascotaVO con los datos a insertar
      * @return true si la inserción fue exitosa, false en caso contrario
      */
     public boolean insertarMascota(MascotaVO mascota) {
-        String insercion = "INSERT INTO mascotas (id_mascota, apodo, clasificacion, familia, genero, especie, tipo_alimento, edad, peso, observaciones) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try {
-            con = Conexion.getConexion();
+        try (Connection con = Conexion.getConexion()) {
             if (con == null) return false;
-            ps = con.prepareStatement(insercion);
-            ps.setString(1, mascota.getIdMascota());
-            ps.setString(2, mascota.getApodo());
-            ps.setString(3, mascota.getClasificacion());
-            ps.setString(4, mascota.getFamilia());
-            ps.setString(5, mascota.getGenero());
-            ps.setString(6, mascota.getEspecie());
-            ps.setString(7, mascota.getTipoAlimento());
-            ps.setInt(8, mascota.getEdad());
-            ps.setDouble(9, mascota.getPeso());
-            ps.setString(10, mascota.getObservaciones());
-            
-            int resultado = ps.executeUpdate();
-            ps.close();
-            Conexion.desconectar();
-            return resultado > 0;
+            return escribirFila(con, SQL_INSERTAR, ps -> asignarInsercion(ps, mascota),
+                    new EventoCambio(EventoCambio.Tipo.INSERTADA, mascota.getIdMascota(), mascota));
         } catch (SQLException ex) {
             return false;
         }
     }
 
+    /**
+     * Inserta varias mascotas usando lotes JDBC de tamaño por defecto.
+     *
+     * @param mascotas Mascotas a insertar
+     * @return Resultado con el estado de cada fila
+     * @see #insertarMascotasEnLote(List, int)
+     */
+    public ResultadoLote insertarMascotasEnLote(List<MascotaVO> mascotas) {
+        return insertarMascotasEnLote(mascotas, TAMANO_LOTE_POR_DEFECTO);
+    }
+
+    /**
+     * Inserta varias mascotas en una sola transacción usando lotes JDBC.
+     * Las mascotas cuyo ID ya existe se ignoran en la base de datos
+     * (INSERT IGNORE). Si algún lote falla, la transacción completa se
+     * revierte.
+     * <p>
+     * Con {@code rewriteBatchedStatements} el driver envía cada sub-lote
+     * como un único INSERT de varias filas y no informa el resultado de
+     * cada una; por eso, antes de cada sub-lote se consultan sus IDs ya
+     * existentes, en una sola consulta. Son dos viajes por sub-lote en
+     * lugar de dos por mascota.
+     *
+     * @param mascotas Mascotas a insertar
+     * @param tamanoLote Número de filas enviadas por cada ejecución de lote
+     * @return Resultado con el estado de cada fila, en el orden de la lista
+     */
+    public ResultadoLote insertarMascotasEnLote(List<MascotaVO> mascotas, int tamanoLote) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo: " + tamanoLote);
+        }
+        ResultadoLote resultado = new ResultadoLote(mascotas.size());
+        if (mascotas.isEmpty()) return resultado;
+        BusCambios bus = busCambios;
+        List<EventoCambio> eventos = List.of();
+        boolean confirmado = false;
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return resultado;
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(SQL_INSERTAR_IGNORANDO)) {
+                Set<String> vistas = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+                int inicioLote = 0;
+                for (int i = 0; i < mascotas.size(); i++) {
+                    asignarInsercion(ps, mascotas.get(i));
+                    ps.addBatch();
+                    if (i + 1 - inicioLote == tamanoLote || i == mascotas.size() - 1) {
+                        boolean[] nuevas = filasNuevas(con, mascotas.subList(inicioLote, i + 1), vistas);
+                        resultado.registrar(inicioLote, ps.executeBatch(), nuevas);
+                        inicioLote = i + 1;
+                    }
+                }
+                if (bus != null) {
+                    eventos = registrarCambios(con, bus, cambiosInsercion(mascotas, resultado));
+                }
+                con.commit();
+                confirmado = true;
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            // Si solo falló restaurar la conexión, las filas ya están confirmadas
+            if (!confirmado) {
+                resultado.marcarFallido();
+            }
+        } finally {
+            cerrarCambios(bus, eventos, confirmado);
+        }
+        return resultado;
+    }
+
     /**
      * Consulta una mascota por su ID.
-     * 
+     *
      * @param idMascota ID de la mascota a consultar
      * @return Objeto MascotaVO si se encuentra, null en caso contrario
      */
     public MascotaVO consultarMascotaPorId(String idMascota) {
-        MascotaVO mascota = null;
-        String consulta = "SELECT * FROM mascotas WHERE id_mascota = ?";
-        try {
-            con = Conexion.getConexion();
+        try (Connection con = Conexion.getConexion()) {
             if (con == null) return null;
-            ps = con.prepareStatement(consulta);
-            ps.setString(1, idMascota);
-            rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                mascota = new MascotaVO();
-                mascota.setIdMascota(rs.getString("id_mascota"));
-                mascota.setApodo(rs.getString("apodo"));
-                mascota.setClasificacion(rs.getString("clasificacion"));
-                mascota.setFamilia(rs.getString("familia"));
-                mascota.setGenero(rs.getString("genero"));
-                mascota.setEspecie(rs.getString("especie"));
-                mascota.setTipoAlimento(rs.getString("tipo_alimento"));
-                mascota.setEdad(rs.getInt("edad"));
-                mascota.setPeso(rs.getDouble("peso"));
-                mascota.setObservaciones(rs.getString("observaciones"));
+            try (PreparedStatement ps = con.prepareStatement(SQL_POR_ID)) {
+                ps.setString(1, idMascota);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? mapearResultSetAMascota(rs) : null;
+                }
             }
-            ps.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
             return null;
         }
-        return mascota;
     }
 
     /**
      * Consulta mascotas por apodo (búsqueda parcial).
-     * 
+     *
      * @param apodo Apodo o parte del apodo a buscar
      * @return Lista de mascotas que coinciden con el criterio
      */
     public ArrayList<MascotaVO> consultarMascotasPorApodo(String apodo) {
-        ArrayList<MascotaVO> mascotas = new ArrayList<>();
-        String consulta = "SELECT * FROM mascotas WHERE apodo LIKE ?";
-        try {
-            con = Conexion.getConexion();
-            if (con == null) return mascotas;
-            ps = con.prepareStatement(consulta);
-            ps.setString(1, "%" + apodo + "%");
-            rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                MascotaVO mascota = new MascotaVO();
-                mascota.setIdMascota(rs.getString("id_mascota"));
-                mascota.setApodo(rs.getString("apodo"));
-                mascota.setClasificacion(rs.getString("clasificacion"));
-                mascota.setFamilia(rs.getString("familia"));
-                mascota.setGenero(rs.getString("genero"));
-                mascota.setEspecie(rs.getString("especie"));
-                mascota.setTipoAlimento(rs.getString("tipo_alimento"));
-                mascota.setEdad(rs.getInt("edad"));
-                mascota.setPeso(rs.getDouble("peso"));
-                mascota.setObservaciones(rs.getString("observaciones"));
-                mascotas.add(mascota);
-            }
-            ps.close();
-            Conexion.desconectar();
-        } catch (SQLException ex) {
-            return mascotas;
-        }
-        return mascotas;
+        return consultarLista(SQL_POR_APODO, "%" + apodo + "%");
     }
 
     /**
      * Consulta mascotas por clasificación.
-     * 
+     *
      * @param clasificacion Clasificación a buscar
      * @return Lista de mascotas que pertenecen a la clasificación
      */
     public ArrayList<MascotaVO> consultarMascotasPorClasificacion(String clasificacion) {
-        ArrayList<MascotaVO> mascotas = new ArrayList<>();
-        String consulta = "SELECT * FROM mascotas WHERE clasificacion = ?";
-        try {
-            con = Conexion.getConexion();
-            if (con == null) return mascotas;
-            ps = con.prepareStatement(consulta);
-            ps.setString(1, clasificacion);
-            rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                MascotaVO mascota = new MascotaVO();
-                mascota.setIdMascota(rs.getString("id_mascota"));
-                mascota.setApodo(rs.getString("apodo"));
-                mascota.setClasificacion(rs.getString("clasificacion"));
-                mascota.setFamilia(rs.getString("familia"));
-                mascota.setGenero(rs.getString("genero"));
-                mascota.setEspecie(rs.getString("especie"));
-                mascota.setTipoAlimento(rs.getString("tipo_alimento"));
-                mascota.setEdad(rs.getInt("edad"));
-                mascota.setPeso(rs.getDouble("peso"));
-                mascota.setObservaciones(rs.getString("observaciones"));
-                mascotas.add(mascota);
-            }
-            ps.close();
-            Conexion.desconectar();
-        } catch (SQLException ex) {
-            return mascotas;
-        }
-        return mascotas;
+        return consultarLista(SQL_POR_CLASIFICACION, clasificacion);
     }
 
     /**
      * Consulta mascotas por familia.
-     * 
+     *
      * @param familia Familia biológica a buscar
      * @return Lista de mascotas que pertenecen a la familia
      */
     public ArrayList<MascotaVO> consultarMascotasPorFamilia(String familia) {
+        return consultarLista(SQL_POR_FAMILIA, familia);
+    }
+
+    /**
+     * Consulta mascotas por tipo de alimento.
+     *
+     * @param tipoAlimento Tipo de alimento a buscar
+     * @return Lista de mascotas que consumen el tipo de alimento
+     */
+    public ArrayList<MascotaVO> consultarMascotasPorTipoAlimento(String tipoAlimento) {
+        return consultarLista(SQL_POR_TIPO_ALIMENTO, tipoAlimento);
+    }
+
+    /**
+     * Obtiene todas las mascotas registradas en la base de datos.
+     * Carga el catálogo completo en memoria; para recorridos grandes use
+     * {@link #obtenerPaginaMascotas}, {@link #recorrerMascotas} o
+     * {@link #streamMascotas}.
+     *
+     * @return Lista con todas las mascotas, ordenada por apodo e ID
+     */
+    public ArrayList<MascotaVO> obtenerTodasLasMascotas() {
+        return consultarLista(SQL_TODAS, null);
+    }
+
+    /**
+     * Obtiene una página del catálogo ordenado por apodo e ID, usando como
+     * cursor la última mascota de la página anterior (paginación por
+     * conjunto de claves). A diferencia de OFFSET, el costo de cada página
+     * no crece con su posición porque la consulta arranca en el índice por
+     * apodo, que en InnoDB incluye la clave primaria.
+     *
+     * @param despuesDeApodo Apodo de la última mascota ya leída, o null para la primera página
+     * @param despuesDeId ID de la última mascota ya leída; se ignora si el apodo es null
+     * @param tamano Número máximo de mascotas de la página
+     * @return Mascotas de la página; vacía al llegar al final o si ocurre un error
+     */
+    public ArrayList<MascotaVO> obtenerPaginaMascotas(String despuesDeApodo, String despuesDeId, int tamano) {
         ArrayList<MascotaVO> mascotas = new ArrayList<>();
-        String consulta = "SELECT * FROM mascotas WHERE familia = ?";
-        try {
-            con = Conexion.getConexion();
+        try (Connection con = Conexion.getConexion()) {
             if (con == null) return mascotas;
-            ps = con.prepareStatement(consulta);
-            ps.setString(1, familia);
-            rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                MascotaVO mascota = new MascotaVO();
-                mascota.setIdMascota(rs.getString("id_mascota"));
-                mascota.setApodo(rs.getString("apodo"));
-                mascota.setClasificacion(rs.getString("clasificacion"));
-                mascota.setFamilia(rs.getString("familia"));
-                mascota.setGenero(rs.getString("genero"));
-                mascota.setEspecie(rs.getString("especie"));
-                mascota.setTipoAlimento(rs.getString("tipo_alimento"));
-                mascota.setEdad(rs.getInt("edad"));
-                mascota.setPeso(rs.getDouble("peso"));
-                mascota.setObservaciones(rs.getString("observaciones"));
-                mascotas.add(mascota);
+            String consulta = despuesDeApodo == null ? SQL_PRIMERA_PAGINA : SQL_PAGINA_SIGUIENTE;
+            try (PreparedStatement ps = con.prepareStatement(consulta)) {
+                if (despuesDeApodo == null) {
+                    ps.setInt(1, tamano);
+                } else {
+                    ps.setString(1, despuesDeApodo);
+                    ps.setString(2, despuesDeApodo);
+                    ps.setString(3, despuesDeId);
+                    ps.setInt(4, tamano);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        mascotas.add(mapearResultSetAMascota(rs));
+                    }
+                }
             }
-            ps.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
             return mascotas;
         }
@@ -217,127 +298,407 @@ public class MascotaDAO {
     }
 
     /**
-     * Consulta mascotas por tipo de alimento.
-     * 
-     * @param tipoAlimento Tipo de alimento a buscar
-     * @return Lista de mascotas que consumen el tipo de alimento
+     * Cuenta las mascotas que cumplen el filtro de un criterio de listado.
+     *
+     * @param criterio Criterio con el filtro a aplicar
+     * @return Número de mascotas, o 0 si ocurre un error
      */
-    public ArrayList<MascotaVO> consultarMascotasPorTipoAlimento(String tipoAlimento) {
+    public int contarMascotas(CriterioListado criterio) {
+        String condicion = criterio.condicionFiltro();
+        String consulta = "SELECT COUNT(*) FROM mascotas" + (condicion == null ? "" : " WHERE " + condicion);
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return 0;
+            try (PreparedStatement ps = con.prepareStatement(consulta)) {
+                if (condicion != null) {
+                    ps.setString(1, criterio.parametroFiltro());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        } catch (SQLException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Obtiene una ventana del listado definido por un criterio, ordenado y
+     * filtrado en la base de datos. Si se conoce la fila anterior a la
+     * ventana se continúa desde ella por cursor, lo que evita recorrer las
+     * filas previas; si no, se salta hasta la posición con OFFSET.
+     *
+     * @param criterio Orden y filtro del listado
+     * @param desde Posición de la primera fila de la ventana
+     * @param cantidad Número máximo de filas
+     * @param anterior Fila en la posición desde - 1, o null si no se conoce
+     * @return Mascotas de la ventana, vacía si no tiene filas, o null si
+     *         ocurre un error
+     */
+    public ArrayList<MascotaVO> obtenerVentanaMascotas(CriterioListado criterio, int desde, int cantidad,
+            MascotaVO anterior) {
+        Object valorCursor = anterior == null ? null : criterio.valorOrden(anterior);
+        // Con un valor nulo la comparación del cursor no selecciona filas
+        boolean porCursor = valorCursor != null;
+
+        String condicion = criterio.condicionFiltro();
+        StringBuilder consulta = new StringBuilder("SELECT * FROM mascotas");
+        if (condicion != null || porCursor) {
+            consulta.append(" WHERE ");
+            if (condicion != null) {
+                consulta.append(condicion);
+                if (porCursor) consulta.append(" AND ");
+            }
+            if (porCursor) consulta.append(criterio.condicionCursor());
+        }
+        consulta.append(criterio.clausulaOrden()).append(porCursor ? " LIMIT ?" : " LIMIT ? OFFSET ?");
+
         ArrayList<MascotaVO> mascotas = new ArrayList<>();
-        String consulta = "SELECT * FROM mascotas WHERE tipo_alimento = ?";
-        try {
-            con = Conexion.getConexion();
-            if (con == null) return mascotas;
-            ps = con.prepareStatement(consulta);
-            ps.setString(1, tipoAlimento);
-            rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                MascotaVO mascota = new MascotaVO();
-                mascota.setIdMascota(rs.getString("id_mascota"));
-                mascota.setApodo(rs.getString("apodo"));
-                mascota.setClasificacion(rs.getString("clasificacion"));
-                mascota.setFamilia(rs.getString("familia"));
-                mascota.setGenero(rs.getString("genero"));
-                mascota.setEspecie(rs.getString("especie"));
-                mascota.setTipoAlimento(rs.getString("tipo_alimento"));
-                mascota.setEdad(rs.getInt("edad"));
-                mascota.setPeso(rs.getDouble("peso"));
-                mascota.setObservaciones(rs.getString("observaciones"));
-                mascotas.add(mascota);
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return null;
+            try (PreparedStatement ps = con.prepareStatement(consulta.toString())) {
+                int i = 1;
+                if (condicion != null) {
+                    ps.setString(i++, criterio.parametroFiltro());
+                }
+                if (porCursor) {
+                    ps.setObject(i++, valorCursor);
+                    ps.setObject(i++, valorCursor);
+                    ps.setString(i++, anterior.getIdMascota());
+                }
+                ps.setInt(i++, cantidad);
+                if (!porCursor) {
+                    ps.setInt(i, desde);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        mascotas.add(mapearResultSetAMascota(rs));
+                    }
+                }
             }
-            ps.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
-            return mascotas;
+            return null;
         }
         return mascotas;
     }
 
     /**
-     * Obtiene todas las mascotas registradas en la base de datos.
-     * 
-     * @return Lista con todas las mascotas
+     * Consulta las mascotas que cumplen todos los criterios de una consulta,
+     * con una única sentencia parametrizada que filtra, ordena y pagina en
+     * la base de datos.
+     *
+     * @param consulta Criterios, orden y página
+     * @return Mascotas resultantes; vacía si ocurre un error
      */
-    public ArrayList<MascotaVO> obtenerTodasLasMascotas() {
+    public ArrayList<MascotaVO> consultarMascotas(MascotaQuery consulta) {
+        List<Object> parametros = new ArrayList<>();
+        String sql = consulta.sql(parametros);
         ArrayList<MascotaVO> mascotas = new ArrayList<>();
-        String consulta = "SELECT * FROM mascotas ORDER BY apodo";
-        try {
-            con = Conexion.getConexion();
+        try (Connection con = Conexion.getConexion()) {
             if (con == null) return mascotas;
-            ps = con.prepareStatement(consulta);
-            rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                MascotaVO mascota = new MascotaVO();
-                mascota.setIdMascota(rs.getString("id_mascota"));
-                mascota.setApodo(rs.getString("apodo"));
-                mascota.setClasificacion(rs.getString("clasificacion"));
-                mascota.setFamilia(rs.getString("familia"));
-                mascota.setGenero(rs.getString("genero"));
-                mascota.setEspecie(rs.getString("especie"));
-                mascota.setTipoAlimento(rs.getString("tipo_alimento"));
-                mascota.setEdad(rs.getInt("edad"));
-                mascota.setPeso(rs.getDouble("peso"));
-                mascota.setObservaciones(rs.getString("observaciones"));
-                mascotas.add(mascota);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                asignarParametros(ps, parametros);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        mascotas.add(mapearResultSetAMascota(rs));
+                    }
+                }
             }
-            ps.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
             return mascotas;
         }
         return mascotas;
     }
 
+    /**
+     * Cuenta las mascotas que cumplen los filtros de una consulta, sin
+     * tener en cuenta su página.
+     *
+     * @param consulta Criterios a aplicar
+     * @return Número de mascotas, o 0 si ocurre un error
+     */
+    public int contarMascotas(MascotaQuery consulta) {
+        List<Object> parametros = new ArrayList<>();
+        String sql = consulta.sqlConteo(parametros);
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return 0;
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                asignarParametros(ps, parametros);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        } catch (SQLException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Calcula en la base de datos, con un GROUP BY, la cantidad de mascotas
+     * y los agregados de edad y peso por cada valor de una columna.
+     *
+     * @param columna Columna por la que agrupar, de {@link #COLUMNAS_AGRUPABLES}
+     * @return Agregados de cada grupo ordenados por valor, o null si ocurre un error
+     */
+    public ArrayList<AgregadoGrupo> agruparMascotas(String columna) {
+        return agrupar(columna, null);
+    }
+
+    /**
+     * Calcula los agregados de un único grupo.
+     *
+     * @param columna Columna por la que agrupar, de {@link #COLUMNAS_AGRUPABLES}
+     * @param valor Valor de la columna que define el grupo
+     * @return Agregados del grupo; vacía si no tiene mascotas, o null si ocurre un error
+     */
+    public ArrayList<AgregadoGrupo> agruparMascotas(String columna, String valor) {
+        return agrupar(columna, valor);
+    }
+
+    private ArrayList<AgregadoGrupo> agrupar(String columna, String valor) {
+        if (!COLUMNAS_AGRUPABLES.contains(columna)) {
+            throw new IllegalArgumentException("Columna no agrupable: " + columna);
+        }
+        String consulta = "SELECT " + columna + ", COUNT(*), SUM(edad), MIN(edad), MAX(edad), SUM(peso), MIN(peso), MAX(peso)"
+                + " FROM mascotas" + (valor == null ? "" : " WHERE " + columna + " = ?")
+                + " GROUP BY " + columna + " ORDER BY " + columna;
+        ArrayList<AgregadoGrupo> grupos = new ArrayList<>();
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return null;
+            try (PreparedStatement ps = con.prepareStatement(consulta)) {
+                if (valor != null) {
+                    ps.setString(1, valor);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        grupos.add(new AgregadoGrupo(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getInt(4),
+                                rs.getInt(5), rs.getDouble(6), rs.getDouble(7), rs.getDouble(8)));
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            return null;
+        }
+        return grupos;
+    }
+
+    private static void asignarParametros(PreparedStatement ps, List<Object> parametros) throws SQLException {
+        for (int i = 0; i < parametros.size(); i++) {
+            ps.setObject(i + 1, parametros.get(i));
+        }
+    }
+
+    /**
+     * Recorre todas las mascotas, ordenadas por apodo e ID, entregándolas una
+     * a una sin acumularlas en memoria.
+     *
+     * @param accion Acción a aplicar a cada mascota; sus excepciones no
+     * verificadas se propagan al llamador
+     * @param tamanoFetch Número de filas traídas del servidor por cada viaje
+     * @return Número de mascotas recorridas, o -1 si ocurre un error de base de datos
+     */
+    public long recorrerMascotas(Consumer<MascotaVO> accion, int tamanoFetch) {
+        return recorrer(SQL_TODAS, accion, tamanoFetch);
+    }
+
+    /**
+     * Recorre todas las mascotas ordenadas por ID, en el orden de la clave
+     * primaria, entregándolas una a una sin acumularlas en memoria.
+     *
+     * @param accion Acción a aplicar a cada mascota; sus excepciones no
+     * verificadas se propagan al llamador
+     * @param tamanoFetch Número de filas traídas del servidor por cada viaje
+     * @return Número de mascotas recorridas, o -1 si ocurre un error de base de datos
+     */
+    public long recorrerMascotasPorId(Consumer<MascotaVO> accion, int tamanoFetch) {
+        return recorrer(SQL_TODAS_POR_ID, accion, tamanoFetch);
+    }
+
+    private long recorrer(String consulta, Consumer<MascotaVO> accion, int tamanoFetch) {
+        long recorridas = 0;
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return -1;
+            try (PreparedStatement ps = prepararRecorrido(con, consulta, tamanoFetch);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    accion.accept(mapearResultSetAMascota(rs));
+                    recorridas++;
+                }
+            }
+        } catch (SQLException ex) {
+            return -1;
+        }
+        return recorridas;
+    }
+
+    /**
+     * Recorre todas las mascotas con el tamaño de fetch por defecto.
+     *
+     * @param accion Acción a aplicar a cada mascota
+     * @return Número de mascotas recorridas, o -1 si ocurre un error de base de datos
+     */
+    public long recorrerMascotas(Consumer<MascotaVO> accion) {
+        return recorrerMascotas(accion, TAMANO_FETCH_POR_DEFECTO);
+    }
+
+    /**
+     * Abre un flujo perezoso sobre todas las mascotas, ordenadas por apodo e
+     * ID. El flujo mantiene prestada una conexión del pool hasta cerrarse,
+     * por lo que debe usarse dentro de un try-with-resources.
+     *
+     * @param tamanoFetch Número de filas traídas del servidor por cada viaje
+     * @return Flujo de mascotas; vacío si no se pudo abrir la consulta
+     * @throws IllegalStateException Durante el recorrido, si falla la lectura de una fila
+     */
+    public Stream<MascotaVO> streamMascotas(int tamanoFetch) {
+        Connection con = Conexion.getConexion();
+        if (con == null) return Stream.empty();
+        PreparedStatement ps = null;
+        try {
+            ps = prepararRecorrido(con, SQL_TODAS, tamanoFetch);
+            ResultSet rs = ps.executeQuery();
+            Spliterator<MascotaVO> filas = new Spliterators.AbstractSpliterator<MascotaVO>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super MascotaVO> accion) {
+                    try {
+                        if (!rs.next()) return false;
+                        accion.accept(mapearResultSetAMascota(rs));
+                        return true;
+                    } catch (SQLException ex) {
+                        throw new IllegalStateException("Error al recorrer las mascotas: " + ex.getMessage(), ex);
+                    }
+                }
+            };
+            PreparedStatement sentencia = ps;
+            return StreamSupport.stream(filas, false).onClose(() -> cerrarRecorrido(rs, sentencia, con));
+        } catch (SQLException ex) {
+            cerrarRecorrido(null, ps, con);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Prepara la consulta del catálogo completo para leerse por tramos.
+     * Con MySQL el tamaño de fetch solo se respeta si la URL activa
+     * useCursorFetch; de lo contrario el driver trae todas las filas.
+     */
+    private PreparedStatement prepararRecorrido(Connection con, String consulta, int tamanoFetch) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(consulta, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(tamanoFetch);
+        return ps;
+    }
+
+    /**
+     * Cierra en orden inverso los recursos de un recorrido: resultados,
+     * sentencia y conexión. Cada uno se cierra aunque falle el anterior;
+     * los errores no se propagan, porque la conexión ya vuelve al pool al
+     * cerrarse.
+     */
+    private static void cerrarRecorrido(ResultSet rs, PreparedStatement ps, Connection con) {
+        SQLException error = cerrar(rs, null);
+        error = cerrar(ps, error);
+        cerrar(con, error);
+    }
+
+    /**
+     * Cierra un recurso, si existe, acumulando su error como suprimido del
+     * primero, igual que un try-with-resources.
+     *
+     * @return El primer error, o null si no hubo ninguno
+     */
+    private static SQLException cerrar(AutoCloseable recurso, SQLException error) {
+        if (recurso == null) return error;
+        try {
+            recurso.close();
+        } catch (Exception ex) {
+            SQLException actual = ex instanceof SQLException ? (SQLException) ex : new SQLException(ex);
+            if (error == null) return actual;
+            error.addSuppressed(actual);
+        }
+        return error;
+    }
+
     /**
      * Modifica los datos de una mascota existente.
      * No permite modificar familia, género y especie según los requerimientos.
-     * 
+     *
      * @param mascota Objeto MascotaVO con los datos actualizados
      * @return true si la modificación fue exitosa, false en caso contrario
      */
     public boolean modificarMascota(MascotaVO mascota) {
-        String actualizacion = "UPDATE mascotas SET apodo = ?, clasificacion = ?, tipo_alimento = ?, edad = ?, peso = ?, observaciones = ? WHERE id_mascota = ?";
-        try {
-            con = Conexion.getConexion();
+        try (Connection con = Conexion.getConexion()) {
             if (con == null) return false;
-            ps = con.prepareStatement(actualizacion);
-            ps.setString(1, mascota.getApodo());
-            ps.setString(2, mascota.getClasificacion());
-            ps.setString(3, mascota.getTipoAlimento());
-            ps.setInt(4, mascota.getEdad());
-            ps.setDouble(5, mascota.getPeso());
-            ps.setString(6, mascota.getObservaciones());
-            ps.setString(7, mascota.getIdMascota());
-            
-            int resultado = ps.executeUpdate();
-            ps.close();
-            Conexion.desconectar();
-            return resultado > 0;
+            return escribirFila(con, SQL_MODIFICAR, ps -> asignarModificacion(ps, mascota),
+                    new EventoCambio(EventoCambio.Tipo.MODIFICADA, mascota.getIdMascota(), mascota));
         } catch (SQLException ex) {
             return false;
         }
     }
 
+    /**
+     * Modifica varias mascotas en una sola transacción, enviando las
+     * actualizaciones en lotes JDBC de tamaño por defecto. Si algún lote
+     * falla, la transacción completa se revierte.
+     *
+     * @param mascotas Mascotas con los datos actualizados; familia, género y especie no se modifican
+     * @return Número de mascotas modificadas, o -1 si la transacción se revirtió
+     */
+    public int modificarMascotasEnLote(List<MascotaVO> mascotas) {
+        if (mascotas.isEmpty()) return 0;
+        BusCambios bus = busCambios;
+        List<EventoCambio> cambios = new ArrayList<>();
+        List<EventoCambio> eventos = List.of();
+        boolean confirmado = false;
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return -1;
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(SQL_MODIFICAR)) {
+                int inicioLote = 0;
+                for (int i = 0; i < mascotas.size(); i++) {
+                    asignarModificacion(ps, mascotas.get(i));
+                    ps.addBatch();
+                    if ((i + 1) % TAMANO_LOTE_POR_DEFECTO == 0 || i == mascotas.size() - 1) {
+                        int[] filas = ps.executeBatch();
+                        for (int j = 0; j < filas.length; j++) {
+                            if (filas[j] > 0 || filas[j] == Statement.SUCCESS_NO_INFO) {
+                                MascotaVO mascota = mascotas.get(inicioLote + j);
+                                cambios.add(new EventoCambio(EventoCambio.Tipo.MODIFICADA, mascota.getIdMascota(),
+                                        mascota));
+                            }
+                        }
+                        inicioLote = i + 1;
+                    }
+                }
+                if (bus != null) {
+                    eventos = registrarCambios(con, bus, cambios);
+                }
+                con.commit();
+                confirmado = true;
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            // Si solo falló restaurar la conexión, las modificaciones ya están confirmadas
+        } finally {
+            cerrarCambios(bus, eventos, confirmado);
+        }
+        return confirmado ? cambios.size() : -1;
+    }
+
     /**
      * Elimina una mascota de la base de datos.
-     * 
+     *
      * @param idMascota ID de la mascota a eliminar
      * @return true si la eliminación fue exitosa, false en caso contrario
      */
     public boolean eliminarMascota(String idMascota) {
-        String eliminacion = "DELETE FROM mascotas WHERE id_mascota = ?";
-        try {
-            con = Conexion.getConexion();
+        try (Connection con = Conexion.getConexion()) {
             if (con == null) return false;
-            ps = con.prepareStatement(eliminacion);
-            ps.setString(1, idMascota);
-            
-            int resultado = ps.executeUpdate();
-            ps.close();
-            Conexion.desconectar();
-            return resultado > 0;
+            return escribirFila(con, SQL_ELIMINAR, ps -> ps.setString(1, idMascota),
+                    new EventoCambio(EventoCambio.Tipo.ELIMINADA, idMascota, null));
         } catch (SQLException ex) {
             return false;
         }
@@ -345,30 +706,244 @@ public class MascotaDAO {
 
     /**
      * Verifica si existe una mascota con el ID especificado.
-     * 
+     *
      * @param idMascota ID a verificar
      * @return true si existe, false en caso contrario
      */
     public boolean existeMascota(String idMascota) {
-        String consulta = "SELECT COUNT(*) FROM mascotas WHERE id_mascota = ?";
-        try {
-            con = Conexion.getConexion();
+        try (Connection con = Conexion.getConexion()) {
             if (con == null) return false;
-            ps = con.prepareStatement(consulta);
-            ps.setString(1, idMascota);
-            rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                int count = rs.getInt(1);
-                ps.close();
-                Conexion.desconectar();
-                return count > 0;
+            try (PreparedStatement ps = con.prepareStatement(SQL_EXISTE)) {
+                ps.setString(1, idMascota);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() && rs.getInt(1) > 0;
+                }
             }
-            ps.close();
-            Conexion.desconectar();
         } catch (SQLException ex) {
             return false;
         }
-        return false;
+    }
+
+    /**
+     * Ejecuta una sentencia que afecta a una sola mascota. Con un bus de
+     * cambios instalado, la sentencia y el registro del cambio van en una
+     * misma transacción y el cambio se publica al confirmarla.
+     *
+     * @param con Conexión prestada por el llamador
+     * @param sql Sentencia a ejecutar
+     * @param parametros Asigna los parámetros de la sentencia
+     * @param cambio Cambio que produce la sentencia si afecta a la fila
+     * @return true si la sentencia afectó a la fila
+     * @throws SQLException Si la sentencia o el registro del cambio fallan
+     */
+    private boolean escribirFila(Connection con, String sql, Parametros parametros, EventoCambio cambio)
+            throws SQLException {
+        BusCambios bus = busCambios;
+        if (bus == null) {
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                parametros.asignar(ps);
+                return ps.executeUpdate() > 0;
+            }
+        }
+        List<EventoCambio> eventos = List.of();
+        boolean confirmado = false;
+        try {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                parametros.asignar(ps);
+                if (ps.executeUpdate() > 0) {
+                    // Tras la sentencia, la fila está bloqueada hasta confirmar: la secuencia sigue ese orden
+                    eventos = registrarCambios(con, bus, List.of(cambio));
+                }
+                con.commit();
+                confirmado = true;
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            // Si solo falló restaurar la conexión, el cambio ya está confirmado
+            if (!confirmado) {
+                throw ex;
+            }
+        } finally {
+            cerrarCambios(bus, eventos, confirmado);
+        }
+        return !eventos.isEmpty();
+    }
+
+    /**
+     * Reserva secuencias para los cambios y los registra en la tabla de
+     * cambios, dentro de la transacción abierta en la conexión.
+     *
+     * @return Cambios con sus secuencias, para publicarlos o descartarlos
+     */
+    private List<EventoCambio> registrarCambios(Connection con, BusCambios bus, List<EventoCambio> cambios)
+            throws SQLException {
+        if (cambios.isEmpty()) return List.of();
+        long primera = bus.reservar(cambios.size());
+        List<EventoCambio> eventos = new ArrayList<>(cambios.size());
+        for (int i = 0; i < cambios.size(); i++) {
+            eventos.add(cambios.get(i).conSecuencia(primera + i));
+        }
+        try {
+            cambiosDAO.registrar(con, eventos);
+        } catch (SQLException ex) {
+            bus.descartar(eventos);
+            throw ex;
+        }
+        return eventos;
+    }
+
+    /**
+     * Publica los cambios de una transacción confirmada o descarta sus
+     * secuencias si se revirtió. Se llama siempre, aunque falle restaurar la
+     * conexión: una secuencia reservada que no se publica ni se descarta
+     * detiene a todas las suscripciones.
+     */
+    private static void cerrarCambios(BusCambios bus, List<EventoCambio> eventos, boolean confirmado) {
+        if (bus == null || eventos.isEmpty()) return;
+        if (confirmado) {
+            bus.publicar(eventos);
+        } else {
+            bus.descartar(eventos);
+        }
+    }
+
+    /**
+     * Indica qué filas de un sub-lote insertarán una mascota nueva: las que
+     * no existen en la tabla ni aparecieron antes en el mismo lote. Los IDs
+     * se comparan sin distinguir mayúsculas, como la intercalación de la
+     * tabla. La consulta usa FOR UPDATE para que otra transacción no
+     * inserte esos IDs antes de confirmar el lote.
+     *
+     * @param con Conexión con la transacción del lote abierta
+     * @param sublote Mascotas del sub-lote
+     * @param vistas IDs nuevos de los sub-lotes anteriores; se le agregan los de este
+     * @return Para cada fila del sub-lote, si su ID es nuevo
+     * @throws SQLException Si falla la consulta
+     */
+    private static boolean[] filasNuevas(Connection con, List<MascotaVO> sublote, Set<String> vistas)
+            throws SQLException {
+        StringBuilder marcas = new StringBuilder("?");
+        for (int i = 1; i < sublote.size(); i++) {
+            marcas.append(", ?");
+        }
+        Set<String> existentes = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        try (PreparedStatement ps = con.prepareStatement(String.format(SQL_EXISTENTES, marcas))) {
+            for (int i = 0; i < sublote.size(); i++) {
+                ps.setString(i + 1, sublote.get(i).getIdMascota());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    existentes.add(rs.getString(1));
+                }
+            }
+        }
+        boolean[] nuevas = new boolean[sublote.size()];
+        for (int i = 0; i < sublote.size(); i++) {
+            String id = sublote.get(i).getIdMascota();
+            nuevas[i] = !existentes.contains(id) && vistas.add(id);
+        }
+        return nuevas;
+    }
+
+    /**
+     * Cambios de una inserción por lotes. Las filas ignoradas por duplicadas
+     * no producen cambio; las que el driver no informa se publican sin
+     * estado, para que el suscriptor las lea.
+     */
+    private static List<EventoCambio> cambiosInsercion(List<MascotaVO> mascotas, ResultadoLote resultado) {
+        List<EventoCambio> cambios = new ArrayList<>();
+        for (int i = 0; i < mascotas.size(); i++) {
+            MascotaVO mascota = mascotas.get(i);
+            ResultadoLote.Estado estado = resultado.getEstado(i);
+            if (estado == ResultadoLote.Estado.INSERTADA || estado == ResultadoLote.Estado.SIN_INFORMACION) {
+                cambios.add(new EventoCambio(EventoCambio.Tipo.INSERTADA, mascota.getIdMascota(),
+                        estado == ResultadoLote.Estado.INSERTADA ? mascota : null));
+            }
+        }
+        return cambios;
+    }
+
+    private static void asignarInsercion(PreparedStatement ps, MascotaVO mascota) throws SQLException {
+        ps.setString(1, mascota.getIdMascota());
+        ps.setString(2, mascota.getApodo());
+        ps.setString(3, mascota.getClasificacion());
+        ps.setString(4, mascota.getFamilia());
+        ps.setString(5, mascota.getGenero());
+        ps.setString(6, mascota.getEspecie());
+        ps.setString(7, mascota.getTipoAlimento());
+        ps.setInt(8, mascota.getEdad());
+        ps.setDouble(9, mascota.getPeso());
+        ps.setString(10, mascota.getObservaciones());
+    }
+
+    private static void asignarModificacion(PreparedStatement ps, MascotaVO mascota) throws SQLException {
+        ps.setString(1, mascota.getApodo());
+        ps.setString(2, mascota.getClasificacion());
+        ps.setString(3, mascota.getTipoAlimento());
+        ps.setInt(4, mascota.getEdad());
+        ps.setDouble(5, mascota.getPeso());
+        ps.setString(6, mascota.getObservaciones());
+        ps.setString(7, mascota.getIdMascota());
+    }
+
+    /**
+     * Asigna los parámetros de una sentencia.
+     */
+    private interface Parametros {
+        void asignar(PreparedStatement ps) throws SQLException;
+    }
+
+    /**
+     * Ejecuta una consulta de mascotas con a lo sumo un parámetro de texto.
+     *
+     * @param consulta Sentencia SQL a ejecutar
+     * @param parametro Valor del único parámetro, o null si la consulta no tiene
+     * @return Lista de mascotas resultante; vacía si ocurre un error
+     */
+    private ArrayList<MascotaVO> consultarLista(String consulta, String parametro) {
+        ArrayList<MascotaVO> mascotas = new ArrayList<>();
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return mascotas;
+            try (PreparedStatement ps = con.prepareStatement(consulta)) {
+                if (parametro != null) {
+                    ps.setString(1, parametro);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        mascotas.add(mapearResultSetAMascota(rs));
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            return mascotas;
+        }
+        return mascotas;
+    }
+
+    /**
+     * Mapea la fila actual de un ResultSet a un objeto MascotaVO.
+     *
+     * @param rs ResultSet posicionado en la fila a leer
+     * @return Objeto MascotaVO con los datos de la fila
+     * @throws SQLException Si ocurre un error al leer los datos
+     */
+    private MascotaVO mapearResultSetAMascota(ResultSet rs) throws SQLException {
+        MascotaVO mascota = new MascotaVO();
+        mascota.setIdMascota(rs.getString("id_mascota"));
+        mascota.setApodo(rs.getString("apodo"));
+        mascota.setClasificacion(rs.getString("clasificacion"));
+        mascota.setFamilia(rs.getString("familia"));
+        mascota.setGenero(rs.getString("genero"));
+        mascota.setEspecie(rs.getString("especie"));
+        mascota.setTipoAlimento(rs.getString("tipo_alimento"));
+        mascota.setEdad(rs.getInt("edad"));
+        mascota.setPeso(rs.getDouble("peso"));
+        mascota.setObservaciones(rs.getString("observaciones"));
+        return mascota;
     }
 }
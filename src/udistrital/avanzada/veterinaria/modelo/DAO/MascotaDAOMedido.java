@@ -0,0 +1,273 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import udistrital.avanzada.veterinaria.modelo.metricas.Histograma;
+import udistrital.avanzada.veterinaria.modelo.metricas.RegistroMetricas;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * MascotaDAO que mide la duración de cada operación en el histograma
+ * {@code dao.<método>} del {@link RegistroMetricas#global() registro global}.
+ * <p>
+ * Cada método sobrescrito toma el tiempo alrededor de la implementación
+ * original; los histogramas se obtienen una sola vez, así que medir no
+ * bloquea ni crea objetos. Las sobrecargas que solo completan un valor por
+ * defecto no se sobrescriben: se miden a través de la versión completa. En
+ * {@link #streamMascotas(int)} se mide solo la apertura de la consulta,
+ * porque el recorrido lo hace el llamador.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class MascotaDAOMedido extends MascotaDAO {
+
+    private static final Histograma INSERTAR_MASCOTA = medir("insertarMascota");
+    private static final Histograma INSERTAR_MASCOTAS_EN_LOTE = medir("insertarMascotasEnLote");
+    private static final Histograma CONSULTAR_MASCOTA_POR_ID = medir("consultarMascotaPorId");
+    private static final Histograma CONSULTAR_MASCOTAS_POR_APODO = medir("consultarMascotasPorApodo");
+    private static final Histograma CONSULTAR_MASCOTAS_POR_CLASIFICACION = medir("consultarMascotasPorClasificacion");
+    private static final Histograma CONSULTAR_MASCOTAS_POR_FAMILIA = medir("consultarMascotasPorFamilia");
+    private static final Histograma CONSULTAR_MASCOTAS_POR_TIPO_ALIMENTO = medir("consultarMascotasPorTipoAlimento");
+    private static final Histograma OBTENER_TODAS_LAS_MASCOTAS = medir("obtenerTodasLasMascotas");
+    private static final Histograma OBTENER_PAGINA_MASCOTAS = medir("obtenerPaginaMascotas");
+    private static final Histograma CONTAR_MASCOTAS = medir("contarMascotas");
+    private static final Histograma OBTENER_VENTANA_MASCOTAS = medir("obtenerVentanaMascotas");
+    private static final Histograma CONSULTAR_MASCOTAS = medir("consultarMascotas");
+    private static final Histograma AGRUPAR_MASCOTAS = medir("agruparMascotas");
+    private static final Histograma RECORRER_MASCOTAS = medir("recorrerMascotas");
+    private static final Histograma RECORRER_MASCOTAS_POR_ID = medir("recorrerMascotasPorId");
+    private static final Histograma STREAM_MASCOTAS = medir("streamMascotas");
+    private static final Histograma MODIFICAR_MASCOTA = medir("modificarMascota");
+    private static final Histograma MODIFICAR_MASCOTAS_EN_LOTE = medir("modificarMascotasEnLote");
+    private static final Histograma ELIMINAR_MASCOTA = medir("eliminarMascota");
+    private static final Histograma EXISTE_MASCOTA = medir("existeMascota");
+
+    private static Histograma medir(String operacion) {
+        return RegistroMetricas.global().histograma("dao." + operacion);
+    }
+
+    @Override
+    public boolean insertarMascota(MascotaVO mascota) {
+        long inicio = System.nanoTime();
+        try {
+            return super.insertarMascota(mascota);
+        } finally {
+            INSERTAR_MASCOTA.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ResultadoLote insertarMascotasEnLote(List<MascotaVO> mascotas, int tamanoLote) {
+        long inicio = System.nanoTime();
+        try {
+            return super.insertarMascotasEnLote(mascotas, tamanoLote);
+        } finally {
+            INSERTAR_MASCOTAS_EN_LOTE.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public MascotaVO consultarMascotaPorId(String idMascota) {
+        long inicio = System.nanoTime();
+        try {
+            return super.consultarMascotaPorId(idMascota);
+        } finally {
+            CONSULTAR_MASCOTA_POR_ID.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<MascotaVO> consultarMascotasPorApodo(String apodo) {
+        long inicio = System.nanoTime();
+        try {
+            return super.consultarMascotasPorApodo(apodo);
+        } finally {
+            CONSULTAR_MASCOTAS_POR_APODO.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<MascotaVO> consultarMascotasPorClasificacion(String clasificacion) {
+        long inicio = System.nanoTime();
+        try {
+            return super.consultarMascotasPorClasificacion(clasificacion);
+        } finally {
+            CONSULTAR_MASCOTAS_POR_CLASIFICACION.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<MascotaVO> consultarMascotasPorFamilia(String familia) {
+        long inicio = System.nanoTime();
+        try {
+            return super.consultarMascotasPorFamilia(familia);
+        } finally {
+            CONSULTAR_MASCOTAS_POR_FAMILIA.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<MascotaVO> consultarMascotasPorTipoAlimento(String tipoAlimento) {
+        long inicio = System.nanoTime();
+        try {
+            return super.consultarMascotasPorTipoAlimento(tipoAlimento);
+        } finally {
+            CONSULTAR_MASCOTAS_POR_TIPO_ALIMENTO.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<MascotaVO> obtenerTodasLasMascotas() {
+        long inicio = System.nanoTime();
+        try {
+            return super.obtenerTodasLasMascotas();
+        } finally {
+            OBTENER_TODAS_LAS_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<MascotaVO> obtenerPaginaMascotas(String despuesDeApodo, String despuesDeId, int tamano) {
+        long inicio = System.nanoTime();
+        try {
+            return super.obtenerPaginaMascotas(despuesDeApodo, despuesDeId, tamano);
+        } finally {
+            OBTENER_PAGINA_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public int contarMascotas(CriterioListado criterio) {
+        long inicio = System.nanoTime();
+        try {
+            return super.contarMascotas(criterio);
+        } finally {
+            CONTAR_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<MascotaVO> obtenerVentanaMascotas(CriterioListado criterio, int desde, int cantidad,
+            MascotaVO anterior) {
+        long inicio = System.nanoTime();
+        try {
+            return super.obtenerVentanaMascotas(criterio, desde, cantidad, anterior);
+        } finally {
+            OBTENER_VENTANA_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<MascotaVO> consultarMascotas(MascotaQuery consulta) {
+        long inicio = System.nanoTime();
+        try {
+            return super.consultarMascotas(consulta);
+        } finally {
+            CONSULTAR_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public int contarMascotas(MascotaQuery consulta) {
+        long inicio = System.nanoTime();
+        try {
+            return super.contarMascotas(consulta);
+        } finally {
+            CONTAR_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<AgregadoGrupo> agruparMascotas(String columna) {
+        long inicio = System.nanoTime();
+        try {
+            return super.agruparMascotas(columna);
+        } finally {
+            AGRUPAR_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public ArrayList<AgregadoGrupo> agruparMascotas(String columna, String valor) {
+        long inicio = System.nanoTime();
+        try {
+            return super.agruparMascotas(columna, valor);
+        } finally {
+            AGRUPAR_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public long recorrerMascotas(Consumer<MascotaVO> accion, int tamanoFetch) {
+        long inicio = System.nanoTime();
+        try {
+            return super.recorrerMascotas(accion, tamanoFetch);
+        } finally {
+            RECORRER_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public long recorrerMascotasPorId(Consumer<MascotaVO> accion, int tamanoFetch) {
+        long inicio = System.nanoTime();
+        try {
+            return super.recorrerMascotasPorId(accion, tamanoFetch);
+        } finally {
+            RECORRER_MASCOTAS_POR_ID.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public Stream<MascotaVO> streamMascotas(int tamanoFetch) {
+        long inicio = System.nanoTime();
+        try {
+            return super.streamMascotas(tamanoFetch);
+        } finally {
+            STREAM_MASCOTAS.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public boolean modificarMascota(MascotaVO mascota) {
+        long inicio = System.nanoTime();
+        try {
+            return super.modificarMascota(mascota);
+        } finally {
+            MODIFICAR_MASCOTA.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public int modificarMascotasEnLote(List<MascotaVO> mascotas) {
+        long inicio = System.nanoTime();
+        try {
+            return super.modificarMascotasEnLote(mascotas);
+        } finally {
+            MODIFICAR_MASCOTAS_EN_LOTE.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public boolean eliminarMascota(String idMascota) {
+        long inicio = System.nanoTime();
+        try {
+            return super.eliminarMascota(idMascota);
+        } finally {
+            ELIMINAR_MASCOTA.registrarDesde(inicio);
+        }
+    }
+
+    @Override
+    public boolean existeMascota(String idMascota) {
+        long inicio = System.nanoTime();
+        try {
+            return super.existeMascota(idMascota);
+        } finally {
+            EXISTE_MASCOTA.registrarDesde(inicio);
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Consulta de mascotas que combina cualquier número de criterios: filtros
+ * por texto, rangos de edad y peso, orden por varias columnas y paginación
+ * con límite y desplazamiento.
+ *
+ * La misma consulta puede resolverse de dos formas equivalentes: compilada
+ * a una única sentencia SQL parametrizada, que ejecuta {@link MascotaDAO},
+ * o evaluada en memoria sobre un listado ya cargado con {@link #evaluar}.
+ * La evaluación en memoria reproduce la intercalación de MySQL: los textos
+ * se comparan sin distinguir mayúsculas y los nulos van primero en orden
+ * ascendente.
+ *
+ * Las consultas son inmutables: cada método devuelve una copia con el
+ * criterio agregado, de modo que pueden compartirse entre hilos. Un valor
+ * null o vacío no filtra. Como en {@link CriterioListado}, las columnas de
+ * orden se validan contra una lista fija y el orden se desempata por ID.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class MascotaQuery {
+
+    /**
+     * Consulta sin filtros, ordenada por apodo, igual que obtenerTodasLasMascotas.
+     */
+    public static final MascotaQuery TODAS = new MascotaQuery();
+
+    private static final Comparator<String> TEXTO = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+
+    private String apodo;
+    private String clasificacion;
+    private String familia;
+    private String genero;
+    private String especie;
+    private String tipoAlimento;
+    private String observaciones;
+    private Integer edadMinima;
+    private Integer edadMaxima;
+    private Double pesoMinimo;
+    private Double pesoMaximo;
+    private List<String> columnasOrden;
+    private List<Boolean> sentidosOrden;
+    private int desde;
+    private int cantidad = -1;
+
+    private MascotaQuery() {
+        columnasOrden = List.of("apodo");
+        sentidosOrden = List.of(true);
+    }
+
+    private MascotaQuery(MascotaQuery otra) {
+        apodo = otra.apodo;
+        clasificacion = otra.clasificacion;
+        familia = otra.familia;
+        genero = otra.genero;
+        especie = otra.especie;
+        tipoAlimento = otra.tipoAlimento;
+        observaciones = otra.observaciones;
+        edadMinima = otra.edadMinima;
+        edadMaxima = otra.edadMaxima;
+        pesoMinimo = otra.pesoMinimo;
+        pesoMaximo = otra.pesoMaximo;
+        columnasOrden = otra.columnasOrden;
+        sentidosOrden = otra.sentidosOrden;
+        desde = otra.desde;
+        cantidad = otra.cantidad;
+    }
+
+    /**
+     * @param texto Texto contenido en el apodo
+     * @return Copia de esta consulta filtrada por apodo
+     */
+    public MascotaQuery conApodo(String texto) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.apodo = normalizar(texto);
+        return copia;
+    }
+
+    /**
+     * @param valor Clasificación exacta
+     * @return Copia de esta consulta filtrada por clasificación
+     */
+    public MascotaQuery conClasificacion(String valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.clasificacion = normalizar(valor);
+        return copia;
+    }
+
+    /**
+     * @param valor Familia exacta
+     * @return Copia de esta consulta filtrada por familia
+     */
+    public MascotaQuery conFamilia(String valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.familia = normalizar(valor);
+        return copia;
+    }
+
+    /**
+     * @param valor Género exacto
+     * @return Copia de esta consulta filtrada por género
+     */
+    public MascotaQuery conGenero(String valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.genero = normalizar(valor);
+        return copia;
+    }
+
+    /**
+     * @param valor Especie exacta
+     * @return Copia de esta consulta filtrada por especie
+     */
+    public MascotaQuery conEspecie(String valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.especie = normalizar(valor);
+        return copia;
+    }
+
+    /**
+     * @param valor Tipo de alimento exacto
+     * @return Copia de esta consulta filtrada por tipo de alimento
+     */
+    public MascotaQuery conTipoAlimento(String valor) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.tipoAlimento = normalizar(valor);
+        return copia;
+    }
+
+    /**
+     * @param texto Texto contenido en las observaciones
+     * @return Copia de esta consulta filtrada por observaciones
+     */
+    public MascotaQuery conObservaciones(String texto) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.observaciones = normalizar(texto);
+        return copia;
+    }
+
+    /**
+     * @param minima Edad mínima, incluida, o null para no acotar
+     * @param maxima Edad máxima, incluida, o null para no acotar
+     * @return Copia de esta consulta con el rango de edad
+     */
+    public MascotaQuery conEdadEntre(Integer minima, Integer maxima) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.edadMinima = minima;
+        copia.edadMaxima = maxima;
+        return copia;
+    }
+
+    /**
+     * @param minimo Peso mínimo, incluido, o null para no acotar
+     * @param maximo Peso máximo, incluido, o null para no acotar
+     * @return Copia de esta consulta con el rango de peso
+     */
+    public MascotaQuery conPesoEntre(Double minimo, Double maximo) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.pesoMinimo = minimo;
+        copia.pesoMaximo = maximo;
+        return copia;
+    }
+
+    /**
+     * @param columna Columna por la que ordenar, de {@link CriterioListado#COLUMNAS}
+     * @param ascendente true para orden ascendente
+     * @return Copia de esta consulta ordenada solo por esa columna
+     */
+    public MascotaQuery ordenadaPor(String columna, boolean ascendente) {
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.columnasOrden = List.of(validar(columna));
+        copia.sentidosOrden = List.of(ascendente);
+        return copia;
+    }
+
+    /**
+     * @param columna Columna por la que desempatar, de {@link CriterioListado#COLUMNAS}
+     * @param ascendente true para orden ascendente
+     * @return Copia de esta consulta con una columna de orden más
+     */
+    public MascotaQuery luegoPor(String columna, boolean ascendente) {
+        MascotaQuery copia = new MascotaQuery(this);
+        List<String> columnas = new ArrayList<>(columnasOrden);
+        List<Boolean> sentidos = new ArrayList<>(sentidosOrden);
+        columnas.add(validar(columna));
+        sentidos.add(ascendente);
+        copia.columnasOrden = List.copyOf(columnas);
+        copia.sentidosOrden = List.copyOf(sentidos);
+        return copia;
+    }
+
+    /**
+     * @param desde Número de filas a saltar
+     * @param cantidad Número máximo de filas, o -1 para no limitar
+     * @return Copia de esta consulta con la página indicada
+     */
+    public MascotaQuery paginada(int desde, int cantidad) {
+        if (desde < 0 || cantidad < -1) {
+            throw new IllegalArgumentException("Página inválida: desde " + desde + ", cantidad " + cantidad);
+        }
+        MascotaQuery copia = new MascotaQuery(this);
+        copia.desde = desde;
+        copia.cantidad = cantidad;
+        return copia;
+    }
+
+    /**
+     * @return true si la consulta tiene algún filtro
+     */
+    public boolean isFiltrada() {
+        return apodo != null || clasificacion != null || familia != null || genero != null || especie != null
+                || tipoAlimento != null || observaciones != null || edadMinima != null || edadMaxima != null
+                || pesoMinimo != null || pesoMaximo != null;
+    }
+
+    /**
+     * Construye una consulta a partir de un texto con términos
+     * {@code clave=valor} separados por punto y coma, por ejemplo
+     * {@code clasificacion=Reptil; edad=1..5; peso=..10; orden=-peso}.
+     *
+     * Las claves son apodo, clasificacion, familia, genero, especie,
+     * alimento, observaciones, edad, peso y orden. Los rangos se escriben
+     * {@code min..max}, con cualquiera de los extremos opcional, o como un
+     * único valor. El orden lista columnas separadas por comas; un signo
+     * menos las ordena en sentido descendente. Un término sin clave busca
+     * en el apodo.
+     *
+     * @param texto Texto de la consulta
+     * @return Consulta equivalente
+     * @throws IllegalArgumentException Si una clave o un valor no es válido
+     */
+    public static MascotaQuery interpretar(String texto) {
+        MascotaQuery consulta = TODAS;
+        for (String termino : texto.split(";")) {
+            termino = termino.trim();
+            if (termino.isEmpty()) continue;
+            int igual = termino.indexOf('=');
+            if (igual < 0) {
+                consulta = consulta.conApodo(termino);
+                continue;
+            }
+            String clave = termino.substring(0, igual).trim().toLowerCase(Locale.ROOT);
+            String valor = termino.substring(igual + 1).trim();
+            switch (clave) {
+                case "apodo": consulta = consulta.conApodo(valor); break;
+                case "clasificacion": consulta = consulta.conClasificacion(valor); break;
+                case "familia": consulta = consulta.conFamilia(valor); break;
+                case "genero": consulta = consulta.conGenero(valor); break;
+                case "especie": consulta = consulta.conEspecie(valor); break;
+                case "alimento": consulta = consulta.conTipoAlimento(valor); break;
+                case "observaciones": consulta = consulta.conObservaciones(valor); break;
+                case "edad": {
+                    String[] rango = rango(valor);
+                    consulta = consulta.conEdadEntre(entero(rango[0]), entero(rango[1]));
+                    break;
+                }
+                case "peso": {
+                    String[] rango = rango(valor);
+                    consulta = consulta.conPesoEntre(decimal(rango[0]), decimal(rango[1]));
+                    break;
+                }
+                case "orden":
+                    consulta = interpretarOrden(consulta, valor);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Criterio desconocido: " + clave);
+            }
+        }
+        return consulta;
+    }
+
+    /**
+     * Indica si una mascota cumple todos los filtros de la consulta.
+     *
+     * @param mascota Mascota a evaluar
+     * @return true si cumple los filtros
+     */
+    public boolean cumple(MascotaVO mascota) {
+        return contiene(mascota.getApodo(), apodo)
+                && igual(mascota.getClasificacion(), clasificacion)
+                && igual(mascota.getFamilia(), familia)
+                && igual(mascota.getGenero(), genero)
+                && igual(mascota.getEspecie(), especie)
+                && igual(mascota.getTipoAlimento(), tipoAlimento)
+                && contiene(mascota.getObservaciones(), observaciones)
+                && (edadMinima == null || mascota.getEdad() >= edadMinima)
+                && (edadMaxima == null || mascota.getEdad() <= edadMaxima)
+                && (pesoMinimo == null || mascota.getPeso() >= pesoMinimo)
+                && (pesoMaximo == null || mascota.getPeso() <= pesoMaximo);
+    }
+
+    /**
+     * @return Comparador con el mismo orden que la cláusula ORDER BY, desempatado por ID
+     */
+    public Comparator<MascotaVO> comparador() {
+        Comparator<MascotaVO> comparador = null;
+        for (int i = 0; i < columnasOrden.size(); i++) {
+            Comparator<MascotaVO> columna = comparadorColumna(columnasOrden.get(i));
+            if (!sentidosOrden.get(i)) {
+                columna = columna.reversed();
+            }
+            comparador = comparador == null ? columna : comparador.thenComparing(columna);
+        }
+        Comparator<MascotaVO> porId = Comparator.comparing(MascotaVO::getIdMascota, TEXTO);
+        return comparador.thenComparing(sentidosOrden.get(sentidosOrden.size() - 1) ? porId : porId.reversed());
+    }
+
+    /**
+     * Evalúa la consulta en memoria: filtra, ordena y pagina un listado.
+     *
+     * @param mascotas Listado sobre el que evaluar; no se modifica
+     * @return Mascotas que cumplen la consulta, en su orden y página
+     */
+    public ArrayList<MascotaVO> evaluar(Collection<MascotaVO> mascotas) {
+        ArrayList<MascotaVO> resultado = new ArrayList<>();
+        for (MascotaVO mascota : mascotas) {
+            if (cumple(mascota)) {
+                resultado.add(mascota);
+            }
+        }
+        resultado.sort(comparador());
+        int inicio = Math.min(desde, resultado.size());
+        int fin = cantidad < 0 ? resultado.size() : (int) Math.min(resultado.size(), (long) inicio + cantidad);
+        return inicio == 0 && fin == resultado.size() ? resultado : new ArrayList<>(resultado.subList(inicio, fin));
+    }
+
+    /**
+     * Compila la consulta a una sentencia SELECT parametrizada.
+     *
+     * @param parametros Lista donde se agregan los valores de los parámetros, en orden
+     * @return Sentencia SQL
+     */
+    String sql(List<Object> parametros) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM mascotas");
+        agregarCondicion(sql, parametros);
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < columnasOrden.size(); i++) {
+            sql.append(columnasOrden.get(i)).append(sentidosOrden.get(i) ? " ASC" : " DESC").append(", ");
+        }
+        sql.append("id_mascota").append(sentidosOrden.get(sentidosOrden.size() - 1) ? " ASC" : " DESC");
+        if (cantidad >= 0 || desde > 0) {
+            // MySQL no admite OFFSET sin LIMIT
+            sql.append(" LIMIT ? OFFSET ?");
+            parametros.add(cantidad >= 0 ? cantidad : Integer.MAX_VALUE);
+            parametros.add(desde);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Compila el conteo de las filas que cumplen los filtros, sin paginar.
+     *
+     * @param parametros Lista donde se agregan los valores de los parámetros, en orden
+     * @return Sentencia SQL
+     */
+    String sqlConteo(List<Object> parametros) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM mascotas");
+        agregarCondicion(sql, parametros);
+        return sql.toString();
+    }
+
+    private void agregarCondicion(StringBuilder sql, List<Object> parametros) {
+        List<String> condiciones = new ArrayList<>();
+        if (apodo != null) {
+            condiciones.add("apodo LIKE ? ESCAPE '!'");
+            parametros.add(patronContiene(apodo));
+        }
+        agregarIgual(condiciones, parametros, "clasificacion", clasificacion);
+        agregarIgual(condiciones, parametros, "familia", familia);
+        agregarIgual(condiciones, parametros, "genero", genero);
+        agregarIgual(condiciones, parametros, "especie", especie);
+        agregarIgual(condiciones, parametros, "tipo_alimento", tipoAlimento);
+        if (observaciones != null) {
+            condiciones.add("observaciones LIKE ? ESCAPE '!'");
+            parametros.add(patronContiene(observaciones));
+        }
+        agregarCota(condiciones, parametros, "edad >= ?", edadMinima);
+        agregarCota(condiciones, parametros, "edad <= ?", edadMaxima);
+        agregarCota(condiciones, parametros, "peso >= ?", pesoMinimo);
+        agregarCota(condiciones, parametros, "peso <= ?", pesoMaximo);
+        if (!condiciones.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", condiciones));
+        }
+    }
+
+    private static void agregarIgual(List<String> condiciones, List<Object> parametros, String columna, String valor) {
+        if (valor != null) {
+            condiciones.add(columna + " = ?");
+            parametros.add(valor);
+        }
+    }
+
+    private static void agregarCota(List<String> condiciones, List<Object> parametros, String condicion, Object valor) {
+        if (valor != null) {
+            condiciones.add(condicion);
+            parametros.add(valor);
+        }
+    }
+
+    private static String patronContiene(String texto) {
+        return "%" + texto.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    private static boolean igual(String valor, String buscado) {
+        return buscado == null || buscado.equalsIgnoreCase(valor);
+    }
+
+    private static boolean contiene(String valor, String buscado) {
+        return buscado == null
+                || valor != null && valor.toLowerCase(Locale.ROOT).contains(buscado.toLowerCase(Locale.ROOT));
+    }
+
+    static Comparator<MascotaVO> comparadorColumna(String columna) {
+        switch (columna) {
+            case "id_mascota": return Comparator.comparing(MascotaVO::getIdMascota, TEXTO);
+            case "apodo": return Comparator.comparing(MascotaVO::getApodo, TEXTO);
+            case "clasificacion": return Comparator.comparing(MascotaVO::getClasificacion, TEXTO);
+            case "familia": return Comparator.comparing(MascotaVO::getFamilia, TEXTO);
+            case "genero": return Comparator.comparing(MascotaVO::getGenero, TEXTO);
+            case "especie": return Comparator.comparing(MascotaVO::getEspecie, TEXTO);
+            case "tipo_alimento": return Comparator.comparing(MascotaVO::getTipoAlimento, TEXTO);
+            case "edad": return Comparator.comparingInt(MascotaVO::getEdad);
+            case "peso": return Comparator.comparingDouble(MascotaVO::getPeso);
+            default: return Comparator.comparing(MascotaVO::getObservaciones, TEXTO);
+        }
+    }
+
+    private static MascotaQuery interpretarOrden(MascotaQuery consulta, String valor) {
+        MascotaQuery ordenada = null;
+        for (String columna : valor.split(",")) {
+            columna = columna.trim();
+            boolean ascendente = !columna.startsWith("-");
+            columna = columna.replaceFirst("^[-+]", "").toLowerCase(Locale.ROOT);
+            if ("alimento".equals(columna)) columna = "tipo_alimento";
+            if ("id".equals(columna)) columna = "id_mascota";
+            ordenada = ordenada == null ? consulta.ordenadaPor(columna, ascendente) : ordenada.luegoPor(columna, ascendente);
+        }
+        return ordenada;
+    }
+
+    private static String[] rango(String valor) {
+        int puntos = valor.indexOf("..");
+        if (puntos < 0) {
+            return new String[]{valor, valor};
+        }
+        return new String[]{valor.substring(0, puntos).trim(), valor.substring(puntos + 2).trim()};
+    }
+
+    private static Integer entero(String valor) {
+        try {
+            return valor.isEmpty() ? null : Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Edad inválida: " + valor);
+        }
+    }
+
+    private static Double decimal(String valor) {
+        try {
+            return valor.isEmpty() ? null : Double.valueOf(valor.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Peso inválido: " + valor);
+        }
+    }
+
+    private static String normalizar(String valor) {
+        if (valor == null) return null;
+        valor = valor.trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static String validar(String columna) {
+        if (!CriterioListado.COLUMNAS.contains(columna)) {
+            throw new IllegalArgumentException("Columna no válida: " + columna);
+        }
+        return columna;
+    }
+}
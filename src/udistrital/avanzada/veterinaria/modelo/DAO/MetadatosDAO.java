@@ -0,0 +1,94 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+
+/**
+ * Clase DAO para los metadatos de la aplicación: pares clave-valor que se
+ * conservan entre ejecuciones, como la huella de los archivos ya importados.
+ *
+ * La tabla se crea en el primer uso, no al iniciar la aplicación, para no
+ * retrasar la primera ventana. Como {@link MascotaDAO}, no guarda estado
+ * entre llamadas y puede compartirse entre varios hilos.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class MetadatosDAO {
+
+    private static final String SQL_CREAR_TABLA = "CREATE TABLE IF NOT EXISTS metadatos (clave VARCHAR(100) PRIMARY KEY, valor VARCHAR(255) NOT NULL)";
+    private static final String SQL_CONSULTAR = "SELECT valor FROM metadatos WHERE clave = ?";
+    private static final String SQL_GUARDAR = "INSERT INTO metadatos (clave, valor) VALUES (?, ?) ON DUPLICATE KEY UPDATE valor = VALUES(valor)";
+
+    private static volatile boolean tablaVerificada;
+
+    /**
+     * Constructor por defecto de MetadatosDAO.
+     */
+    public MetadatosDAO() {
+    }
+
+    /**
+     * Consulta el valor de una clave.
+     *
+     * @param clave Clave a consultar
+     * @return El valor guardado, o null si no existe o hay error
+     */
+    public String consultarValor(String clave) {
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return null;
+            verificarTabla(con);
+            try (PreparedStatement ps = con.prepareStatement(SQL_CONSULTAR)) {
+                ps.setString(1, clave);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            }
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Guarda el valor de una clave, reemplazando el anterior.
+     *
+     * @param clave Clave a guardar
+     * @param valor Valor a asociar
+     * @return true si se guardó, false si hubo error
+     */
+    public boolean guardarValor(String clave, String valor) {
+        try (Connection con = Conexion.getConexion()) {
+            if (con == null) return false;
+            verificarTabla(con);
+            try (PreparedStatement ps = con.prepareStatement(SQL_GUARDAR)) {
+                ps.setString(1, clave);
+                ps.setString(2, valor);
+                ps.executeUpdate();
+                return true;
+            }
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Crea la tabla de metadatos la primera vez que se usa.
+     *
+     * @param con Conexión prestada por el llamador
+     * @throws SQLException Si no se puede crear la tabla
+     */
+    private static void verificarTabla(Connection con) throws SQLException {
+        if (tablaVerificada) {
+            return;
+        }
+        try (Statement st = con.createStatement()) {
+            st.execute(SQL_CREAR_TABLA);
+        }
+        tablaVerificada = true;
+    }
+}
@@ -0,0 +1,326 @@
+package udistrital.avanzada.veterinaria.modelo.cambios;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import udistrital.avanzada.veterinaria.modelo.metricas.RegistroMetricas;
+
+/**
+ * Bus de publicación y suscripción de los cambios de mascotas, alimentado
+ * por las escrituras del DAO (captura de cambios). Sin bloqueos: las
+ * secuencias se reservan con un contador atómico y los cambios se guardan
+ * en una ventana ordenada por secuencia ({@link ConcurrentSkipListMap}).
+ * <p>
+ * El DAO reserva la secuencia dentro de la transacción de la escritura,
+ * después de modificar la fila, y registra el cambio en la tabla de
+ * cambios en esa misma transacción. Tras confirmarla lo publica con
+ * {@link #publicar(List)}; si se revierte, libera la secuencia con
+ * {@link #descartar(List)}. Como el bloqueo de la fila ordena las
+ * escrituras de una misma mascota, sus secuencias siguen el orden en que
+ * se confirmaron.
+ * <p>
+ * Cada {@link Suscripcion} recorre las secuencias en orden, con un hilo
+ * propio, hasta la última cuyas anteriores ya se publicaron o
+ * descartaron; así nunca entrega un cambio de una mascota antes que otro
+ * anterior de la misma. La ventana conserva solo las últimas
+ * {@code capacidad} secuencias: un suscriptor más atrasado no retiene
+ * memoria, sino que se pone al día leyendo la tabla de cambios con el
+ * {@link Historial}. Lo mismo ocurre al suscribirse desde una secuencia
+ * antigua, por ejemplo la última procesada antes de reiniciar.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class BusCambios {
+
+    /**
+     * Secuencias que se conservan en memoria por defecto.
+     */
+    public static final int CAPACIDAD_POR_DEFECTO = 4096;
+
+    private static final int LOTE_RECUPERACION = 500;
+    private static final long ESPERA_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long ESPERA_REINTENTO_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final EventoCambio DESCARTADO = new EventoCambio(-1, null, null, null, 0);
+
+    /**
+     * Lectura de la tabla de cambios, para ponerse al día.
+     */
+    public interface Historial {
+
+        /**
+         * Lee los cambios registrados con secuencia en (desde, hasta], en
+         * orden de secuencia.
+         *
+         * @param desde Secuencia anterior a la primera a leer
+         * @param hasta Última secuencia a leer
+         * @param maximo Número máximo de cambios a leer
+         * @return Cambios leídos, o null si no se pudo leer la tabla
+         */
+        List<EventoCambio> leer(long desde, long hasta, int maximo);
+    }
+
+    private final Historial historial;
+    private final int capacidad;
+    private final AtomicLong reservadas;
+    private final AtomicLong publicadas;
+    private final ConcurrentSkipListMap<Long, EventoCambio> ventana = new ConcurrentSkipListMap<>();
+    private final CopyOnWriteArrayList<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+
+    private final LongAdder publicados;
+    private final LongAdder descartados;
+    private final LongAdder recuperados;
+    private final LongAdder perdidos;
+
+    /**
+     * Crea el bus a continuación de la última secuencia registrada.
+     *
+     * @param historial Lectura de la tabla de cambios; null si no la hay
+     * @param ultimaSecuencia Mayor secuencia de la tabla de cambios, o 0 si está vacía
+     * @param capacidad Secuencias que se conservan en memoria
+     */
+    public BusCambios(Historial historial, long ultimaSecuencia, int capacidad) {
+        if (ultimaSecuencia < 0 || capacidad <= 0) {
+            throw new IllegalArgumentException("Configuración inválida: ultimaSecuencia=" + ultimaSecuencia
+                    + ", capacidad=" + capacidad);
+        }
+        this.historial = historial;
+        this.capacidad = capacidad;
+        this.reservadas = new AtomicLong(ultimaSecuencia);
+        this.publicadas = new AtomicLong(ultimaSecuencia);
+        RegistroMetricas registro = RegistroMetricas.global();
+        this.publicados = registro.contador("cambios.publicados");
+        this.descartados = registro.contador("cambios.descartados");
+        this.recuperados = registro.contador("cambios.recuperados");
+        this.perdidos = registro.contador("cambios.perdidos");
+        registro.medidor("cambios.secuencia", publicadas::get);
+        registro.medidor("cambios.suscripciones", suscripciones::size);
+    }
+
+    /**
+     * Reserva secuencias consecutivas para los cambios de una escritura.
+     * Cada secuencia reservada debe publicarse o descartarse; mientras
+     * tanto, las suscripciones no avanzan más allá de ella.
+     *
+     * @param cantidad Número de secuencias
+     * @return Primera secuencia reservada
+     */
+    public long reservar(int cantidad) {
+        return reservadas.getAndAdd(cantidad) + 1;
+    }
+
+    /**
+     * Publica los cambios de una escritura confirmada.
+     *
+     * @param eventos Cambios con sus secuencias reservadas
+     */
+    public void publicar(List<EventoCambio> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        for (EventoCambio evento : eventos) {
+            ventana.put(evento.getSecuencia(), evento);
+        }
+        publicados.add(eventos.size());
+        avanzar();
+    }
+
+    /**
+     * Libera las secuencias de una escritura revertida.
+     *
+     * @param eventos Cambios con sus secuencias reservadas
+     */
+    public void descartar(List<EventoCambio> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        for (EventoCambio evento : eventos) {
+            ventana.put(evento.getSecuencia(), DESCARTADO);
+        }
+        descartados.add(eventos.size());
+        avanzar();
+    }
+
+    /**
+     * Suscribe un escucha a los cambios que se publiquen desde ahora.
+     *
+     * @param nombre Nombre de la suscripción, usado en el nombre de su hilo
+     * @param escucha Recibe cada cambio, en su propio hilo y en orden de secuencia
+     * @return La suscripción, para cancelarla
+     */
+    public Suscripcion suscribir(String nombre, Consumer<EventoCambio> escucha) {
+        return suscribir(nombre, publicadas.get(), escucha);
+    }
+
+    /**
+     * Suscribe un escucha a los cambios posteriores a una secuencia. Los
+     * que ya no están en memoria se leen de la tabla de cambios.
+     *
+     * @param nombre Nombre de la suscripción, usado en el nombre de su hilo
+     * @param desde Última secuencia ya procesada por el escucha; 0 para recibir toda la tabla
+     * @param escucha Recibe cada cambio, en su propio hilo y en orden de secuencia
+     * @return La suscripción, para cancelarla
+     */
+    public Suscripcion suscribir(String nombre, long desde, Consumer<EventoCambio> escucha) {
+        Suscripcion suscripcion = new Suscripcion(nombre, Math.max(0, desde), escucha);
+        suscripciones.add(suscripcion);
+        suscripcion.hilo.start();
+        return suscripcion;
+    }
+
+    /**
+     * @return Última secuencia hasta la que todas las anteriores están publicadas o descartadas
+     */
+    public long getUltimaPublicada() {
+        return publicadas.get();
+    }
+
+    /**
+     * Cancela todas las suscripciones.
+     */
+    public void cerrar() {
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.cancelar();
+        }
+    }
+
+    /**
+     * Adelanta la última secuencia publicada mientras la siguiente ya esté
+     * en la ventana. Quien publica guarda antes su cambio, de modo que el
+     * último en publicar de una racha siempre la ve completa.
+     */
+    private void avanzar() {
+        while (true) {
+            long actual = publicadas.get();
+            long hasta = actual;
+            while (ventana.containsKey(hasta + 1)) {
+                hasta++;
+            }
+            if (hasta == actual) {
+                return;
+            }
+            if (publicadas.compareAndSet(actual, hasta)) {
+                ventana.headMap(hasta - capacidad, true).clear();
+                for (Suscripcion suscripcion : suscripciones) {
+                    LockSupport.unpark(suscripcion.hilo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Suscripción a los cambios del bus, atendida por un hilo propio.
+     */
+    public final class Suscripcion {
+
+        private final String nombre;
+        private final Consumer<EventoCambio> escucha;
+        private final Thread hilo;
+        private volatile long secuencia;
+        private volatile boolean activa = true;
+
+        private Suscripcion(String nombre, long desde, Consumer<EventoCambio> escucha) {
+            this.nombre = nombre;
+            this.secuencia = desde;
+            this.escucha = escucha;
+            this.hilo = new Thread(this::atender, "cambios-" + nombre);
+            hilo.setDaemon(true);
+        }
+
+        /**
+         * Deja de entregar cambios. El cambio en curso, si lo hay, termina.
+         */
+        public void cancelar() {
+            activa = false;
+            suscripciones.remove(this);
+            LockSupport.unpark(hilo);
+        }
+
+        /**
+         * @return Nombre de la suscripción
+         */
+        public String getNombre() {
+            return nombre;
+        }
+
+        /**
+         * Última secuencia entregada. Un escucha que quiera continuar tras
+         * reiniciar la aplicación la guarda y se vuelve a suscribir desde ella.
+         *
+         * @return Última secuencia procesada
+         */
+        public long getSecuencia() {
+            return secuencia;
+        }
+
+        /**
+         * @return Cambios publicados que aún no se entregaron
+         */
+        public long getPendientes() {
+            return Math.max(0, publicadas.get() - secuencia);
+        }
+
+        private void atender() {
+            while (activa) {
+                long hasta = publicadas.get();
+                if (secuencia >= hasta) {
+                    LockSupport.parkNanos(this, ESPERA_NANOS);
+                    continue;
+                }
+                EventoCambio evento = ventana.get(secuencia + 1);
+                if (evento == null) {
+                    // Todo lo publicado está en la ventana salvo lo que ya salió de ella
+                    ponerseAlDia(hasta);
+                    continue;
+                }
+                secuencia++;
+                if (evento != DESCARTADO) {
+                    entregar(evento);
+                }
+            }
+        }
+
+        private void ponerseAlDia(long hasta) {
+            if (historial == null) {
+                Long siguiente = ventana.ceilingKey(secuencia + 1);
+                long salto = siguiente == null ? hasta : Math.min(siguiente - 1, hasta);
+                perdidos.add(salto - secuencia);
+                System.out.println("Suscripción " + nombre + ": se perdieron los cambios " + (secuencia + 1)
+                        + " a " + salto);
+                secuencia = salto;
+                return;
+            }
+            List<EventoCambio> eventos = historial.leer(secuencia, hasta, LOTE_RECUPERACION);
+            if (eventos == null) {
+                LockSupport.parkNanos(this, ESPERA_REINTENTO_NANOS);
+                return;
+            }
+            recuperados.add(eventos.size());
+            for (EventoCambio evento : eventos) {
+                if (!activa) {
+                    return;
+                }
+                secuencia = evento.getSecuencia();
+                entregar(evento);
+            }
+            if (eventos.size() < LOTE_RECUPERACION) {
+                secuencia = hasta; // Las secuencias que faltan en la tabla se descartaron
+            }
+        }
+
+        private void entregar(EventoCambio evento) {
+            try {
+                escucha.accept(evento);
+            } catch (RuntimeException e) {
+                // Un escucha defectuoso no debe detener la suscripción
+                System.out.println("Error al entregar " + evento + " a " + nombre + ": " + e.getMessage());
+            }
+        }
+    }
+}
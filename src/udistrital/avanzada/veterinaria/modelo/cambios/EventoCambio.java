@@ -0,0 +1,111 @@
+package udistrital.avanzada.veterinaria.modelo.cambios;
+
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Cambio de una fila de la tabla mascotas, tal como lo registra el DAO en
+ * la tabla de cambios y lo reparte el {@link BusCambios}. La secuencia es
+ * única y creciente; dos cambios de una misma mascota tienen secuencias en
+ * el orden en que se confirmaron.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public final class EventoCambio {
+
+    /**
+     * Tipo de cambio.
+     */
+    public enum Tipo {
+        INSERTADA, MODIFICADA, ELIMINADA
+    }
+
+    private final long secuencia;
+    private final Tipo tipo;
+    private final String idMascota;
+    private final MascotaVO mascota;
+    private final long instante;
+
+    /**
+     * Crea un cambio aún sin secuencia, como lo describe el DAO antes de
+     * registrarlo.
+     *
+     * @param tipo Tipo de cambio
+     * @param idMascota ID de la mascota
+     * @param mascota Estado escrito; null en una baja
+     */
+    public EventoCambio(Tipo tipo, String idMascota, MascotaVO mascota) {
+        this(0, tipo, idMascota, mascota, System.currentTimeMillis());
+    }
+
+    /**
+     * Crea un cambio.
+     *
+     * @param secuencia Posición del cambio en la tabla de cambios
+     * @param tipo Tipo de cambio
+     * @param idMascota ID de la mascota
+     * @param mascota Estado de la mascota; null en una baja
+     * @param instante Momento del cambio, en milisegundos desde la época
+     */
+    public EventoCambio(long secuencia, Tipo tipo, String idMascota, MascotaVO mascota, long instante) {
+        this.secuencia = secuencia;
+        this.tipo = tipo;
+        this.idMascota = idMascota;
+        this.mascota = mascota;
+        this.instante = instante;
+    }
+
+    /**
+     * @param secuencia Secuencia reservada para el cambio
+     * @return Copia de este cambio con la secuencia indicada
+     */
+    public EventoCambio conSecuencia(long secuencia) {
+        return new EventoCambio(secuencia, tipo, idMascota, mascota, instante);
+    }
+
+    /**
+     * @return Posición del cambio en la tabla de cambios
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * @return Tipo de cambio
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * @return ID de la mascota
+     */
+    public String getIdMascota() {
+        return idMascota;
+    }
+
+    /**
+     * Estado de la mascota. En los cambios publicados al escribir es el
+     * estado escrito; en los leídos de la tabla de cambios al ponerse al
+     * día, el que la fila tenía al confirmar el cambio.
+     *
+     * @return Estado de la mascota, o null si fue eliminada o, al publicar
+     *         una inserción por lotes, si el driver no informó si se insertó
+     */
+    public MascotaVO getMascota() {
+        return mascota;
+    }
+
+    /**
+     * @return Momento del cambio, en milisegundos desde la época
+     */
+    public long getInstante() {
+        return instante;
+    }
+
+    @Override
+    public String toString() {
+        return "EventoCambio{" + secuencia + ", " + tipo + ", " + idMascota + '}';
+    }
+}
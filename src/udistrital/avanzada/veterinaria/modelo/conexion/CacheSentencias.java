@@ -0,0 +1,288 @@
+package udistrital.avanzada.veterinaria.modelo.conexion;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de sentencias preparadas de una conexión física, indexada por el
+ * texto SQL, con tamaño acotado y desalojo de la menos usada recientemente.
+ *
+ * Cada llamada a {@link #preparar(String)} entrega un préstamo de la
+ * sentencia: un envoltorio cuyo {@code close()} limpia los parámetros y el
+ * lote, cierra los resultados abiertos y la devuelve a la caché en lugar de
+ * cerrarla, por lo que los DAO la siguen usando en try-with-resources sin
+ * cambios. Si la misma sentencia ya está prestada, se prepara una aparte
+ * que no se guarda. Las sentencias a las que se les cambia la configuración
+ * (tamaño de fetch, máximo de filas, etc.) se cierran al devolverse, para
+ * que el siguiente préstamo no herede esa configuración.
+ *
+ * Una conexión física la usa un solo hilo a la vez, pero los métodos están
+ * sincronizados para que un uso concurrente indebido no corrompa la caché.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class CacheSentencias {
+
+    /**
+     * Capacidad por defecto, en sentencias por conexión.
+     */
+    public static final int CAPACIDAD_POR_DEFECTO = 64;
+
+    private static final Set<String> CAMBIAN_CONFIGURACION = Set.of("setFetchSize", "setFetchDirection",
+            "setMaxRows", "setLargeMaxRows", "setMaxFieldSize", "setQueryTimeout", "setEscapeProcessing",
+            "setPoolable", "setCursorName", "closeOnCompletion");
+    private static final Set<String> DEVUELVEN_RESULTADOS = Set.of("executeQuery", "getResultSet",
+            "getGeneratedKeys");
+
+    private final Connection fisica;
+    private final int capacidad;
+    private final Estadisticas estadisticas;
+    private final LinkedHashMap<String, Entrada> entradas;
+    private boolean cerrada;
+
+    /**
+     * Crea la caché de una conexión física.
+     *
+     * @param fisica Conexión física que prepara las sentencias
+     * @param capacidad Número máximo de sentencias guardadas
+     * @param estadisticas Contadores donde se acumulan aciertos, fallos y desalojos
+     */
+    public CacheSentencias(Connection fisica, int capacidad, Estadisticas estadisticas) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("Capacidad inválida: " + capacidad);
+        }
+        this.fisica = fisica;
+        this.capacidad = capacidad;
+        this.estadisticas = estadisticas;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Presta la sentencia preparada de un SQL, preparándola si no está en la caché.
+     *
+     * @param sql Texto SQL
+     * @return Sentencia lista para usarse; se devuelve a la caché con {@code close()}
+     * @throws SQLException Si no se puede preparar la sentencia
+     */
+    public synchronized PreparedStatement preparar(String sql) throws SQLException {
+        if (cerrada) {
+            return fisica.prepareStatement(sql);
+        }
+        Entrada entrada = entradas.get(sql);
+        if (entrada != null) {
+            if (entrada.prestada) {
+                // Ya en uso en esta conexión: se prepara una independiente, sin guardarla
+                estadisticas.fallos.incrementAndGet();
+                return fisica.prepareStatement(sql);
+            }
+            estadisticas.aciertos.incrementAndGet();
+            return prestar(entrada);
+        }
+
+        estadisticas.fallos.incrementAndGet();
+        entrada = new Entrada(sql, fisica.prepareStatement(sql));
+        entradas.put(sql, entrada);
+        desalojarExceso();
+        return prestar(entrada);
+    }
+
+    /**
+     * Cierra todas las sentencias guardadas. Las prestadas se cierran al devolverse.
+     */
+    public synchronized void cerrar() {
+        cerrada = true;
+        for (Entrada entrada : entradas.values()) {
+            if (!entrada.prestada) {
+                cerrarFisica(entrada);
+            }
+        }
+        entradas.clear();
+    }
+
+    /**
+     * @return Número de sentencias guardadas
+     */
+    public synchronized int getTamano() {
+        return entradas.size();
+    }
+
+    private void desalojarExceso() {
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (entradas.size() > capacidad && it.hasNext()) {
+            Entrada menosUsada = it.next();
+            it.remove();
+            estadisticas.desalojos.incrementAndGet();
+            menosUsada.desalojada = true;
+            if (!menosUsada.prestada) {
+                cerrarFisica(menosUsada);
+            }
+        }
+    }
+
+    private PreparedStatement prestar(Entrada entrada) {
+        entrada.prestada = true;
+        Prestamo prestamo = new Prestamo(entrada);
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, prestamo);
+    }
+
+    private synchronized void devolver(Entrada entrada, List<ResultSet> resultados) {
+        for (ResultSet resultado : resultados) {
+            try {
+                resultado.close();
+            } catch (SQLException e) {
+                entrada.alterada = true;
+            }
+        }
+        try {
+            entrada.sentencia.clearParameters();
+            entrada.sentencia.clearBatch();
+        } catch (SQLException e) {
+            entrada.alterada = true;
+        }
+        entrada.prestada = false;
+        if (entrada.alterada || entrada.desalojada || cerrada) {
+            if (entradas.get(entrada.sql) == entrada) {
+                entradas.remove(entrada.sql);
+            }
+            cerrarFisica(entrada);
+        }
+    }
+
+    private static void cerrarFisica(Entrada entrada) {
+        try {
+            entrada.sentencia.close();
+        } catch (SQLException e) {
+            // La sentencia ya no es utilizable
+        }
+    }
+
+    /**
+     * Sentencia física guardada en la caché.
+     */
+    private static final class Entrada {
+        final String sql;
+        final PreparedStatement sentencia;
+        boolean prestada;
+        boolean alterada;
+        boolean desalojada;
+
+        Entrada(String sql, PreparedStatement sentencia) {
+            this.sql = sql;
+            this.sentencia = sentencia;
+        }
+    }
+
+    /**
+     * Préstamo de una sentencia: delega en la física hasta que se cierra.
+     */
+    private final class Prestamo implements InvocationHandler {
+        private final Entrada entrada;
+        private final List<ResultSet> resultados = new ArrayList<>(1);
+        private boolean cerrado;
+
+        Prestamo(Entrada entrada) {
+            this.entrada = entrada;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            switch (nombre) {
+                case "close":
+                    if (!cerrado) {
+                        cerrado = true;
+                        devolver(entrada, resultados);
+                    }
+                    return null;
+                case "isClosed":
+                    return cerrado || entrada.sentencia.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SentenciaCacheada[" + entrada.sql + "]";
+                default:
+                    if (cerrado) {
+                        throw new SQLException("La sentencia ya fue cerrada");
+                    }
+                    if (CAMBIAN_CONFIGURACION.contains(nombre)) {
+                        entrada.alterada = true;
+                    }
+                    Object resultado = invocar(entrada.sentencia, metodo, args);
+                    if (resultado instanceof ResultSet && DEVUELVEN_RESULTADOS.contains(nombre)) {
+                        resultados.add((ResultSet) resultado);
+                    }
+                    return resultado;
+            }
+        }
+    }
+
+    private static Object invocar(PreparedStatement sentencia, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(sentencia, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Contadores de aciertos, fallos y desalojos, compartidos por las cachés
+     * de todas las conexiones de un mismo origen de datos.
+     */
+    public static final class Estadisticas {
+        private final AtomicLong aciertos = new AtomicLong();
+        private final AtomicLong fallos = new AtomicLong();
+        private final AtomicLong desalojos = new AtomicLong();
+
+        /**
+         * @return Sentencias entregadas desde la caché sin prepararlas
+         */
+        public long getAciertos() {
+            return aciertos.get();
+        }
+
+        /**
+         * @return Sentencias que hubo que preparar
+         */
+        public long getFallos() {
+            return fallos.get();
+        }
+
+        /**
+         * @return Sentencias cerradas por exceder la capacidad
+         */
+        public long getDesalojos() {
+            return desalojos.get();
+        }
+
+        /**
+         * @return Fracción de préstamos atendidos desde la caché, entre 0 y 1
+         */
+        public double getTasaAciertos() {
+            long total = aciertos.get() + fallos.get();
+            return total == 0 ? 0 : (double) aciertos.get() / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CacheSentencias{aciertos=%d, fallos=%d, desalojos=%d, tasa=%.1f%%}",
+                    getAciertos(), getFallos(), getDesalojos(), getTasaAciertos() * 100);
+        }
+    }
+}
@@ -3,25 +3,128 @@ package udistrital.avanzada.veterinaria.modelo.conexion;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.function.ToIntFunction;
+import udistrital.avanzada.veterinaria.modelo.metricas.RegistroMetricas;
 
 public class Conexion {
 
-    private static Connection cn = null;
-    private static String URLBD = "jdbc:mysql://localhost:3307/veterinaria_exotica";
+    private static String URLBD = "jdbc:mysql://localhost:3307/veterinaria_exotica?useCursorFetch=true&rewriteBatchedStatements=true";
     private static String usuario = "root";
     private static String contrasena = "";
+    private static final int POOL_MINIMO = 2;
+    private static final int POOL_MAXIMO = 10;
+    private static final String ARCHIVO_CONSULTAS_LENTAS = "data/consultas_lentas.log";
 
+    /**
+     * Propiedad del sistema con el tiempo, en milisegundos, tras el cual el
+     * pool reporta una conexión prestada como fuga. Si no se define, la
+     * detección de fugas queda desactivada.
+     */
+    public static final String PROPIEDAD_UMBRAL_FUGA = "veterinaria.pool.umbralFugaMs";
+
+    private static volatile PoolConexiones pool = null;
+
+    static {
+        registrarMedidor("pool.conexionesActivas", PoolConexiones::getConexionesActivas);
+        registrarMedidor("pool.conexionesInactivas", PoolConexiones::getConexionesInactivas);
+        registrarMedidor("pool.hilosEnEspera", PoolConexiones::getHilosEnEspera);
+        registrarMedidor("consultas.lentas", p -> p.getConsultasLentas() == null ? 0
+                : (int) p.getConsultasLentas().getTotalLentas());
+        registrarMedidor("consultas.lentasDescartadas", p -> p.getConsultasLentas() == null ? 0
+                : (int) p.getConsultasLentas().getTotalDescartadas());
+    }
+
+    /**
+     * Presta una conexión del pool. Debe devolverse con
+     * {@link #desconectar(Connection)} o cerrándola.
+     *
+     * @return Conexión del pool o null si no se pudo obtener
+     */
     public static Connection getConexion() {
         try {
-cn = DriverManager.getConnection(URLBD, usuario, contrasena);
+            return getPool().obtenerConexion();
         } catch (SQLException ex) {
+            RegistroMetricas.global().contador("pool.fallosConexion").increment();
             System.out.println("No se pudo establecer conexión con la base de datos: " + ex.getMessage());
         }
-        return cn;
+        return null;
     }
 
-    public static void desconectar() {
-        cn = null;
+    /**
+     * Devuelve al pool una conexión obtenida con {@link #getConexion()}.
+     *
+     * @param cn Conexión a devolver
+     */
+    public static void desconectar(Connection cn) {
+        if (cn != null) {
+            getPool().devolverConexion(cn);
+        }
+    }
+
+    /**
+     * Obtiene el pool de conexiones, creándolo en el primer uso.
+     * Permite consultar sus métricas. La detección de fugas se activa con
+     * la propiedad {@value #PROPIEDAD_UMBRAL_FUGA}. Salvo que la propiedad
+     * {@value RegistroConsultasLentas#PROPIEDAD_UMBRAL} sea negativa, el
+     * pool anota las consultas lentas en {@value #ARCHIVO_CONSULTAS_LENTAS}
+     * y consulta su plan con una conexión aparte, fuera del pool.
+     *
+     * @return El pool de conexiones compartido
+     */
+    public static PoolConexiones getPool() {
+        PoolConexiones actual = pool;
+        if (actual == null) {
+            synchronized (Conexion.class) {
+                actual = pool;
+                if (actual == null) {
+                    actual = new PoolConexiones(URLBD, usuario, contrasena, POOL_MINIMO, POOL_MAXIMO, 5000, 60000,
+                            Long.getLong(PROPIEDAD_UMBRAL_FUGA, 0));
+                    long umbralMs = RegistroConsultasLentas.umbralConfiguradoMs();
+                    if (umbralMs >= 0) {
+                        // El plan se consulta con una conexión propia, para no ocupar una del pool
+                        // justo cuando está saturado y las consultas ya son lentas
+                        actual.setConsultasLentas(new RegistroConsultasLentas(ARCHIVO_CONSULTAS_LENTAS, umbralMs,
+                                "EXPLAIN ", () -> DriverManager.getConnection(URLBD, usuario, contrasena)));
+                    }
+                    pool = actual;
+                }
+            }
+        }
+        return actual;
     }
-}
 
+    /**
+     * Reemplaza el pool compartido, por ejemplo para apuntar a una base de
+     * datos embebida en pruebas. El pool anterior se cierra.
+     *
+     * @param nuevoPool Pool a utilizar desde ahora
+     */
+    public static synchronized void setPool(PoolConexiones nuevoPool) {
+        PoolConexiones anterior = pool;
+        pool = nuevoPool;
+        if (anterior != null && anterior != nuevoPool) {
+            anterior.cerrar();
+        }
+    }
+
+    /**
+     * Cierra el pool y todas sus conexiones físicas.
+     */
+    public static synchronized void cerrarPool() {
+        if (pool != null) {
+            pool.cerrar();
+            pool = null;
+        }
+    }
+
+    /**
+     * Publica un valor del pool actual como medidor, sin crear el pool si
+     * aún no existe.
+     */
+    private static void registrarMedidor(String nombre, ToIntFunction<PoolConexiones> valor) {
+        RegistroMetricas.global().medidor(nombre, () -> {
+            PoolConexiones actual = pool;
+            return actual == null ? 0 : valor.applyAsInt(actual);
+        });
+    }
+}
@@ -0,0 +1,540 @@
+package udistrital.avanzada.veterinaria.modelo.conexion;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ * Mantiene entre un mínimo y un máximo de conexiones físicas abiertas,
+ * valida cada conexión al prestarla, descarta las que llevan demasiado tiempo
+ * inactivas y reporta las conexiones que no se devuelven a tiempo (fugas).
+ *
+ * Las conexiones entregadas son envoltorios: invocar {@code close()} sobre
+ * ellas las devuelve al pool en lugar de cerrar el socket, por lo que pueden
+ * usarse directamente en bloques try-with-resources.
+ *
+ * Cada conexión física conserva además sus sentencias preparadas en una
+ * {@link CacheSentencias}: {@code prepareStatement(String)} sobre el
+ * envoltorio reutiliza la sentencia ya preparada para el mismo SQL en
+ * lugar de volver a analizarla.
+ *
+ * Si se le asigna un {@link RegistroConsultasLentas}, todas las sentencias
+ * que se crean sobre los envoltorios se miden y las que superan su umbral
+ * quedan anotadas en el archivo de consultas lentas.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class PoolConexiones {
+
+    private static final int SEGUNDOS_VALIDACION = 2;
+    private static final long PERIODO_MANTENIMIENTO_MS = 5000;
+
+    private final String url;
+    private final String usuario;
+    private final String contrasena;
+    private final int minimo;
+    private final int maximo;
+    private final long tiempoEsperaMs;
+    private final long tiempoInactividadMs;
+    private final long umbralFugaMs;
+    private final int capacidadSentencias;
+
+    private final Semaphore permisos;
+    private final LinkedBlockingDeque<ConexionInactiva> inactivas;
+    private final Map<Connection, Prestamo> prestadas;
+    private final Map<Connection, CacheSentencias> cachesSentencias = new ConcurrentHashMap<>();
+    private final CacheSentencias.Estadisticas estadisticasSentencias = new CacheSentencias.Estadisticas();
+    private final ScheduledExecutorService mantenimiento;
+    private volatile RegistroConsultasLentas consultasLentas;
+    private volatile boolean cerrado;
+
+    private final AtomicLong totalPrestamos = new AtomicLong();
+    private final AtomicLong totalCreadas = new AtomicLong();
+    private final AtomicLong totalDescartadas = new AtomicLong();
+    private final AtomicLong totalEsperasAgotadas = new AtomicLong();
+    private final AtomicLong totalFugasDetectadas = new AtomicLong();
+    private final AtomicLong nanosEsperaAcumulados = new AtomicLong();
+
+    /**
+     * Crea un pool con tiempos por defecto: 5 s de espera al prestar y
+     * 60 s de inactividad máxima, sin detección de fugas.
+     *
+     * @param url URL JDBC de la base de datos
+     * @param usuario Usuario de la base de datos
+     * @param contrasena Contraseña del usuario
+     * @param minimo Número mínimo de conexiones que se mantienen abiertas
+     * @param maximo Número máximo de conexiones simultáneas
+     */
+    public PoolConexiones(String url, String usuario, String contrasena, int minimo, int maximo) {
+        this(url, usuario, contrasena, minimo, maximo, 5000, 60000, 0);
+    }
+
+    /**
+     * Crea un pool de conexiones completamente configurado.
+     *
+     * @param url URL JDBC de la base de datos
+     * @param usuario Usuario de la base de datos
+     * @param contrasena Contraseña del usuario
+     * @param minimo Número mínimo de conexiones que se mantienen abiertas
+     * @param maximo Número máximo de conexiones simultáneas
+     * @param tiempoEsperaMs Tiempo máximo de espera para obtener una conexión
+     * @param tiempoInactividadMs Tiempo tras el cual una conexión inactiva se cierra
+     * @param umbralFugaMs Tiempo tras el cual una conexión prestada se reporta
+     *                     como fuga; 0 desactiva la detección. Activarla
+     *                     guarda la pila de cada préstamo, lo que tiene un
+     *                     costo apreciable por préstamo
+     */
+    public PoolConexiones(String url, String usuario, String contrasena, int minimo, int maximo,
+                          long tiempoEsperaMs, long tiempoInactividadMs, long umbralFugaMs) {
+        this(url, usuario, contrasena, minimo, maximo, tiempoEsperaMs, tiempoInactividadMs, umbralFugaMs,
+                CacheSentencias.CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un pool de conexiones completamente configurado, incluida la
+     * caché de sentencias preparadas.
+     *
+     * @param url URL JDBC de la base de datos
+     * @param usuario Usuario de la base de datos
+     * @param contrasena Contraseña del usuario
+     * @param minimo Número mínimo de conexiones que se mantienen abiertas
+     * @param maximo Número máximo de conexiones simultáneas
+     * @param tiempoEsperaMs Tiempo máximo de espera para obtener una conexión
+     * @param tiempoInactividadMs Tiempo tras el cual una conexión inactiva se cierra
+     * @param umbralFugaMs Tiempo tras el cual una conexión prestada se reporta
+     *                     como fuga; 0 desactiva la detección. Activarla
+     *                     guarda la pila de cada préstamo, lo que tiene un
+     *                     costo apreciable por préstamo
+     * @param capacidadSentencias Sentencias preparadas guardadas por conexión;
+     *                            0 desactiva la caché
+     */
+    public PoolConexiones(String url, String usuario, String contrasena, int minimo, int maximo,
+                          long tiempoEsperaMs, long tiempoInactividadMs, long umbralFugaMs,
+                          int capacidadSentencias) {
+        if (minimo < 0 || maximo <= 0 || minimo > maximo) {
+            throw new IllegalArgumentException("Tamaño de pool inválido: minimo=" + minimo + ", maximo=" + maximo);
+        }
+        this.url = url;
+        this.usuario = usuario;
+        this.contrasena = contrasena;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tiempoEsperaMs = tiempoEsperaMs;
+        this.tiempoInactividadMs = tiempoInactividadMs;
+        this.umbralFugaMs = umbralFugaMs;
+        this.capacidadSentencias = Math.max(0, capacidadSentencias);
+        this.permisos = new Semaphore(maximo, true);
+        this.inactivas = new LinkedBlockingDeque<>();
+        this.prestadas = new ConcurrentHashMap<>();
+        this.mantenimiento = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "pool-conexiones-mantenimiento");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        completarMinimo();
+        mantenimiento.scheduleWithFixedDelay(this::mantener,
+                PERIODO_MANTENIMIENTO_MS, PERIODO_MANTENIMIENTO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Presta una conexión del pool. Si no hay conexiones libres y ya se
+     * alcanzó el máximo, espera hasta el tiempo configurado.
+     *
+     * @return Conexión lista para usarse; se devuelve al pool con {@code close()}
+     * @throws SQLException Si se agota el tiempo de espera o no se puede conectar
+     */
+    public Connection obtenerConexion() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+        long inicio = System.nanoTime();
+        try {
+            if (!permisos.tryAcquire(tiempoEsperaMs, TimeUnit.MILLISECONDS)) {
+                totalEsperasAgotadas.incrementAndGet();
+                throw new SQLException("Tiempo de espera agotado (" + tiempoEsperaMs
+                        + " ms) al solicitar una conexión del pool");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión", e);
+        }
+        nanosEsperaAcumulados.addAndGet(System.nanoTime() - inicio);
+
+        try {
+            Connection fisica = tomarConexionValida();
+            Connection envoltorio = envolver(fisica);
+            prestadas.put(envoltorio, new Prestamo(fisica, umbralFugaMs > 0));
+            totalPrestamos.incrementAndGet();
+            return envoltorio;
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve una conexión al pool. Equivale a invocar {@code close()} sobre ella.
+     *
+     * @param conexion Conexión obtenida previamente con {@link #obtenerConexion()}
+     */
+    public void devolverConexion(Connection conexion) {
+        if (conexion == null) {
+            return;
+        }
+        Prestamo prestamo = prestadas.remove(conexion);
+        if (prestamo == null) {
+            return; // Ya devuelta o ajena al pool
+        }
+        Connection fisica = prestamo.fisica;
+        try {
+            if (cerrado || fisica.isClosed()) {
+                descartar(fisica);
+            } else {
+                if (!fisica.getAutoCommit()) {
+                    fisica.rollback();
+                    fisica.setAutoCommit(true);
+                }
+                inactivas.offerFirst(new ConexionInactiva(fisica));
+            }
+        } catch (SQLException e) {
+            descartar(fisica);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Cierra el pool y todas las conexiones inactivas. Las conexiones
+     * prestadas se cierran al ser devueltas.
+     */
+    public void cerrar() {
+        RegistroConsultasLentas registro = consultasLentas;
+        if (registro != null) {
+            registro.cerrar();
+        }
+        cerrado = true;
+        mantenimiento.shutdownNow();
+        ConexionInactiva inactiva;
+        while ((inactiva = inactivas.pollFirst()) != null) {
+            descartar(inactiva.fisica);
+        }
+    }
+
+    /**
+     * Toma una conexión inactiva válida o crea una nueva.
+     */
+    private Connection tomarConexionValida() throws SQLException {
+        ConexionInactiva inactiva;
+        while ((inactiva = inactivas.pollFirst()) != null) {
+            if (esValida(inactiva.fisica)) {
+                return inactiva.fisica;
+            }
+            descartar(inactiva.fisica);
+        }
+        return crearConexion();
+    }
+
+    private Connection crearConexion() throws SQLException {
+        Connection fisica = DriverManager.getConnection(url, usuario, contrasena);
+        totalCreadas.incrementAndGet();
+        return fisica;
+    }
+
+    private boolean esValida(Connection fisica) {
+        try {
+            return !fisica.isClosed() && fisica.isValid(SEGUNDOS_VALIDACION);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void descartar(Connection fisica) {
+        totalDescartadas.incrementAndGet();
+        CacheSentencias cache = cachesSentencias.remove(fisica);
+        if (cache != null) {
+            cache.cerrar();
+        }
+        try {
+            fisica.close();
+        } catch (SQLException e) {
+            // La conexión ya no es utilizable
+        }
+    }
+
+    /**
+     * Tarea periódica: cierra conexiones inactivas por encima del mínimo,
+     * repone hasta el mínimo y reporta préstamos que exceden el umbral de fuga.
+     * Visible en el paquete para que las pruebas no esperen al periodo.
+     */
+    void mantener() {
+        long ahora = System.currentTimeMillis();
+
+        Iterator<ConexionInactiva> it = inactivas.descendingIterator();
+        while (it.hasNext() && inactivas.size() > minimo) {
+            ConexionInactiva inactiva = it.next();
+            if (ahora - inactiva.desde > tiempoInactividadMs && inactivas.remove(inactiva)) {
+                descartar(inactiva.fisica);
+            }
+        }
+
+        completarMinimo();
+
+        for (Prestamo prestamo : prestadas.values()) {
+            if (umbralFugaMs > 0 && !prestamo.reportado && ahora - prestamo.desde > umbralFugaMs) {
+                prestamo.reportado = true;
+                totalFugasDetectadas.incrementAndGet();
+                System.err.println("Posible fuga de conexión: prestada hace "
+                        + (ahora - prestamo.desde) + " ms por el hilo " + prestamo.hilo);
+                prestamo.origen.printStackTrace();
+            }
+        }
+    }
+
+    private void completarMinimo() {
+        while (!cerrado && inactivas.size() + prestadas.size() < minimo) {
+            try {
+                inactivas.offerLast(new ConexionInactiva(crearConexion()));
+            } catch (SQLException e) {
+                System.out.println("No se pudo abrir conexión para el pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Crea un proxy de la conexión física cuyo {@code close()} la devuelve al pool.
+     */
+    private Connection envolver(Connection fisica) {
+        Connection[] propio = new Connection[1];
+        InvocationHandler manejador = (proxy, metodo, args) -> {
+            switch (metodo.getName()) {
+                case "close":
+                    devolverConexion(propio[0]);
+                    return null;
+                case "isClosed":
+                    return !prestadas.containsKey(propio[0]) || fisica.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPool[" + fisica + "]";
+                case "prepareStatement":
+                    if (capacidadSentencias > 0 && args.length == 1) {
+                        if (!prestadas.containsKey(propio[0])) {
+                            throw new SQLException("La conexión ya fue devuelta al pool");
+                        }
+                        return medir(cachesSentencias.computeIfAbsent(fisica, f ->
+                                new CacheSentencias(f, capacidadSentencias, estadisticasSentencias))
+                                .preparar((String) args[0]), (String) args[0]);
+                    }
+                    // Las demás variantes no se guardan en la caché
+                    return delegar(propio[0], fisica, metodo, args);
+                default:
+                    return delegar(propio[0], fisica, metodo, args);
+            }
+        };
+        propio[0] = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, manejador);
+        return propio[0];
+    }
+
+    /**
+     * Invoca el método en la conexión física mientras siga prestada y mide
+     * las sentencias que cree.
+     */
+    private Object delegar(Connection propio, Connection fisica, Method metodo, Object[] args) throws Throwable {
+        if (!prestadas.containsKey(propio)) {
+            throw new SQLException("La conexión ya fue devuelta al pool");
+        }
+        Object resultado = invocar(fisica, metodo, args);
+        if (resultado instanceof Statement) {
+            return medir((Statement) resultado,
+                    args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+        }
+        return resultado;
+    }
+
+    /**
+     * Pasa la sentencia por el registro de consultas lentas, si hay uno.
+     */
+    private Statement medir(Statement sentencia, String sql) {
+        RegistroConsultasLentas registro = consultasLentas;
+        return registro == null ? sentencia : registro.medir(sentencia, sql);
+    }
+
+    private static Object invocar(Connection fisica, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(fisica, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return Número de conexiones actualmente prestadas
+     */
+    public int getConexionesActivas() {
+        return prestadas.size();
+    }
+
+    /**
+     * @return Número de conexiones abiertas disponibles en el pool
+     */
+    public int getConexionesInactivas() {
+        return inactivas.size();
+    }
+
+    /**
+     * @return Número de hilos esperando una conexión
+     */
+    public int getHilosEnEspera() {
+        return permisos.getQueueLength();
+    }
+
+    /**
+     * @return Tamaño mínimo configurado
+     */
+    public int getMinimo() {
+        return minimo;
+    }
+
+    /**
+     * @return Tamaño máximo configurado
+     */
+    public int getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * @return Total de préstamos atendidos
+     */
+    public long getTotalPrestamos() {
+        return totalPrestamos.get();
+    }
+
+    /**
+     * @return Total de conexiones físicas abiertas desde el inicio
+     */
+    public long getTotalCreadas() {
+        return totalCreadas.get();
+    }
+
+    /**
+     * @return Total de conexiones físicas cerradas por invalidez, inactividad o cierre
+     */
+    public long getTotalDescartadas() {
+        return totalDescartadas.get();
+    }
+
+    /**
+     * @return Total de solicitudes que fallaron por tiempo de espera agotado
+     */
+    public long getTotalEsperasAgotadas() {
+        return totalEsperasAgotadas.get();
+    }
+
+    /**
+     * @return Total de préstamos reportados como posibles fugas
+     */
+    public long getTotalFugasDetectadas() {
+        return totalFugasDetectadas.get();
+    }
+
+    /**
+     * @return Tiempo medio de espera por préstamo en milisegundos
+     */
+    public double getEsperaPromedioMs() {
+        long prestamos = totalPrestamos.get();
+        return prestamos == 0 ? 0 : nanosEsperaAcumulados.get() / 1_000_000.0 / prestamos;
+    }
+
+    /**
+     * @return Aciertos, fallos y desalojos de las cachés de sentencias de todas las conexiones
+     */
+    public CacheSentencias.Estadisticas getEstadisticasSentencias() {
+        return estadisticasSentencias;
+    }
+
+    /**
+     * Asigna el registro en el que se anotan las consultas lentas. El pool
+     * lo cierra al cerrarse.
+     *
+     * @param consultasLentas Registro a utilizar; null deja de medir las sentencias nuevas
+     */
+    public void setConsultasLentas(RegistroConsultasLentas consultasLentas) {
+        this.consultasLentas = consultasLentas;
+    }
+
+    /**
+     * @return Registro de consultas lentas, o null si no se miden las sentencias
+     */
+    public RegistroConsultasLentas getConsultasLentas() {
+        return consultasLentas;
+    }
+
+    /**
+     * Resumen de las métricas del pool.
+     *
+     * @return Cadena con el estado actual del pool
+     */
+    @Override
+    public String toString() {
+        return "PoolConexiones{" +
+                "activas=" + getConexionesActivas() +
+                ", inactivas=" + getConexionesInactivas() +
+                ", enEspera=" + getHilosEnEspera() +
+                ", prestamos=" + getTotalPrestamos() +
+                ", creadas=" + getTotalCreadas() +
+                ", descartadas=" + getTotalDescartadas() +
+                ", esperasAgotadas=" + getTotalEsperasAgotadas() +
+                ", fugas=" + getTotalFugasDetectadas() +
+                ", sentencias=" + estadisticasSentencias +
+                '}';
+    }
+
+    /**
+     * Conexión física disponible junto con el instante en que quedó libre.
+     */
+    private static final class ConexionInactiva {
+        final Connection fisica;
+        final long desde = System.currentTimeMillis();
+
+        ConexionInactiva(Connection fisica) {
+            this.fisica = fisica;
+        }
+    }
+
+    /**
+     * Registro de una conexión prestada, usado para detectar fugas.
+     */
+    private static final class Prestamo {
+        final Connection fisica;
+        final long desde = System.currentTimeMillis();
+        final String hilo = Thread.currentThread().getName();
+        final Throwable origen;
+        volatile boolean reportado;
+
+        Prestamo(Connection fisica, boolean rastrear) {
+            this.fisica = fisica;
+            this.origen = rastrear ? new Throwable("Conexión obtenida aquí") : null;
+        }
+    }
+}
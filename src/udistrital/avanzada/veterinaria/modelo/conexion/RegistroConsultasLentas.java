@@ -0,0 +1,669 @@
+package udistrital.avanzada.veterinaria.modelo.conexion;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de consultas lentas: mide las sentencias ejecutadas a través de
+ * las conexiones del pool y anota en un archivo las que superan un umbral,
+ * con su SQL, los parámetros enlazados, las filas leídas o afectadas y el
+ * tiempo transcurrido. A cada consulta lenta se le adjunta el plan que
+ * devuelve la base de datos para ella ({@code EXPLAIN} en MySQL).
+ * <p>
+ * El hilo que ejecuta la sentencia solo toma tiempos y, si la consulta fue
+ * lenta, deja una copia de los parámetros en una cola acotada; la escritura
+ * del archivo y la consulta del plan las hace un hilo propio. Si la cola
+ * está llena la anotación se descarta y se cuenta, sin bloquear a nadie.
+ * <p>
+ * El tiempo de una consulta incluye la lectura de su resultado hasta que se
+ * cierra el resultado o la sentencia, y las filas se cuentan envolviendo el
+ * resultado. Los recorridos en flujo, con tamaño de fetch configurado, no se
+ * envuelven para no encarecer cada fila: de ellos se anota solo el tiempo
+ * de ejecución.
+ * <p>
+ * El archivo rota por tamaño: al llenarse pasa a llamarse {@code .1}, el
+ * {@code .1} anterior pasa a {@code .2}, y así hasta el número de archivos
+ * configurado; el más antiguo se pierde.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public class RegistroConsultasLentas {
+
+    /**
+     * Propiedad del sistema con el umbral en milisegundos a partir del cual
+     * una consulta se considera lenta; un valor negativo desactiva el registro.
+     */
+    public static final String PROPIEDAD_UMBRAL = "veterinaria.consultasLentas.umbralMs";
+
+    /**
+     * Umbral usado cuando no se define {@value #PROPIEDAD_UMBRAL}.
+     */
+    public static final long UMBRAL_POR_DEFECTO_MS = 200;
+
+    /**
+     * Tamaño máximo por defecto de cada archivo antes de rotar, en bytes.
+     */
+    public static final long TAMANO_MAXIMO_POR_DEFECTO = 1024 * 1024;
+
+    /**
+     * Número por defecto de archivos rotados que se conservan.
+     */
+    public static final int ARCHIVOS_POR_DEFECTO = 5;
+
+    private static final int CAPACIDAD_COLA = 1024;
+    private static final long INTERVALO_PLAN_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final int PLANES_RECORDADOS = 256;
+    private static final int LARGO_MAXIMO_PARAMETRO = 200;
+    private static final Set<String> EJECUTAN = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> ADMITEN_PLAN = Set.of("SELECT", "INSERT", "UPDATE", "DELETE", "REPLACE",
+            "WITH");
+
+    /**
+     * Origen de las conexiones con las que se consulta el plan de ejecución.
+     */
+    @FunctionalInterface
+    public interface FuenteConexion {
+
+        /**
+         * @return Conexión que se cierra al terminar de consultar el plan
+         * @throws SQLException Si no se puede obtener la conexión
+         */
+        Connection abrir() throws SQLException;
+    }
+
+    private final Path archivo;
+    private final long umbralNanos;
+    private final long tamanoMaximo;
+    private final int archivosRotados;
+    private final String prefijoPlan;
+    private final FuenteConexion fuentePlan;
+
+    private final BlockingQueue<ConsultaLenta> pendientes = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+    private final AtomicInteger sinEscribir = new AtomicInteger();
+    private final LongAdder lentas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    private final Thread escritor;
+    private volatile boolean cerrado;
+
+    // Estado que solo usa el hilo escritor
+    private final Map<String, Long> planesRecientes = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> mayor) {
+            return size() > PLANES_RECORDADOS;
+        }
+    };
+    private Writer salida;
+    private long tamanoActual;
+
+    /**
+     * Crea un registro con el tamaño y la cantidad de archivos por defecto.
+     *
+     * @param archivo Archivo de destino; se crea junto con su carpeta si no existe
+     * @param umbralMs Duración a partir de la cual se anota una consulta
+     * @param prefijoPlan Prefijo que convierte una consulta en la de su plan,
+     *                    como {@code "EXPLAIN "}
+     * @param fuentePlan Conexiones para consultar el plan; null para no consultarlo
+     */
+    public RegistroConsultasLentas(String archivo, long umbralMs, String prefijoPlan, FuenteConexion fuentePlan) {
+        this(archivo, umbralMs, TAMANO_MAXIMO_POR_DEFECTO, ARCHIVOS_POR_DEFECTO, prefijoPlan, fuentePlan);
+    }
+
+    /**
+     * Crea un registro completamente configurado.
+     *
+     * @param archivo Archivo de destino; se crea junto con su carpeta si no existe
+     * @param umbralMs Duración a partir de la cual se anota una consulta
+     * @param tamanoMaximo Tamaño en bytes a partir del cual el archivo rota
+     * @param archivosRotados Archivos anteriores que se conservan; 0 descarta
+     *                        el contenido al rotar
+     * @param prefijoPlan Prefijo que convierte una consulta en la de su plan,
+     *                    como {@code "EXPLAIN "}
+     * @param fuentePlan Conexiones para consultar el plan; null para no consultarlo
+     */
+    public RegistroConsultasLentas(String archivo, long umbralMs, long tamanoMaximo, int archivosRotados,
+                                   String prefijoPlan, FuenteConexion fuentePlan) {
+        if (umbralMs < 0 || tamanoMaximo <= 0 || archivosRotados < 0) {
+            throw new IllegalArgumentException("Configuración inválida: umbralMs=" + umbralMs
+                    + ", tamanoMaximo=" + tamanoMaximo + ", archivosRotados=" + archivosRotados);
+        }
+        this.archivo = Paths.get(archivo);
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+        this.tamanoMaximo = tamanoMaximo;
+        this.archivosRotados = archivosRotados;
+        this.prefijoPlan = prefijoPlan;
+        this.fuentePlan = fuentePlan;
+        this.escritor = new Thread(this::escribirPendientes, "consultas-lentas");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Lee el umbral configurado en {@value #PROPIEDAD_UMBRAL}.
+     *
+     * @return Umbral en milisegundos; negativo si el registro está desactivado
+     */
+    public static long umbralConfiguradoMs() {
+        return Long.getLong(PROPIEDAD_UMBRAL, UMBRAL_POR_DEFECTO_MS);
+    }
+
+    /**
+     * Envuelve una sentencia para medir sus ejecuciones. Las sentencias que
+     * abre el propio hilo escritor, al consultar planes, no se miden.
+     *
+     * @param sentencia Sentencia recién creada
+     * @param sql SQL con el que se preparó, o null si es una sentencia simple
+     * @return Envoltorio del mismo tipo JDBC que la sentencia
+     */
+    public Statement medir(Statement sentencia, String sql) {
+        if (cerrado || Thread.currentThread() == escritor) {
+            return sentencia;
+        }
+        Class<?> tipo = sentencia instanceof CallableStatement ? CallableStatement.class
+                : sentencia instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{tipo},
+                new SentenciaMedida(sentencia, sql));
+    }
+
+    /**
+     * Espera a que se escriban las consultas lentas ya anotadas.
+     *
+     * @param tiempoMaximoMs Tiempo máximo de espera
+     * @return true si no quedó nada por escribir
+     */
+    public boolean vaciar(long tiempoMaximoMs) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tiempoMaximoMs);
+        while (sinEscribir.get() > 0) {
+            if (System.nanoTime() - limite > 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escribe lo pendiente, con un segundo como máximo, y detiene el hilo
+     * escritor. Las sentencias medidas después ya no se anotan.
+     */
+    public void cerrar() {
+        if (cerrado) {
+            return;
+        }
+        vaciar(1000);
+        cerrado = true;
+        escritor.interrupt();
+    }
+
+    /**
+     * @return Consultas que superaron el umbral desde el inicio
+     */
+    public long getTotalLentas() {
+        return lentas.sum();
+    }
+
+    /**
+     * @return Consultas lentas que no se anotaron porque la cola estaba llena
+     */
+    public long getTotalDescartadas() {
+        return descartadas.sum();
+    }
+
+    /**
+     * @return Archivo en el que se escribe
+     */
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    private void anotar(String sql, Object[] parametros, int lote, long filas, long nanosEjecucion,
+                        long nanosTotal, Throwable error) {
+        if (nanosTotal < umbralNanos) {
+            return;
+        }
+        lentas.increment();
+        ConsultaLenta consulta = new ConsultaLenta(System.currentTimeMillis(), Thread.currentThread().getName(),
+                sql, parametros, lote, filas, nanosEjecucion, nanosTotal, error == null ? null : error.toString());
+        sinEscribir.incrementAndGet();
+        if (!pendientes.offer(consulta)) {
+            sinEscribir.decrementAndGet();
+            descartadas.increment();
+        }
+    }
+
+    private void escribirPendientes() {
+        while (!cerrado) {
+            ConsultaLenta consulta;
+            try {
+                consulta = pendientes.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                escribir(consulta.formatear(consultarPlan(consulta)));
+            } catch (IOException e) {
+                System.out.println("No se pudo escribir el registro de consultas lentas: " + e.getMessage());
+            } finally {
+                sinEscribir.decrementAndGet();
+            }
+        }
+        try {
+            if (salida != null) {
+                salida.close();
+            }
+        } catch (IOException e) {
+            System.out.println("No se pudo cerrar el registro de consultas lentas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Consulta el plan de la sentencia con sus mismos parámetros. Cada SQL
+     * distinto se explica como mucho una vez cada diez minutos.
+     */
+    private String consultarPlan(ConsultaLenta consulta) {
+        if (fuentePlan == null || consulta.sql == null || !admitePlan(consulta.sql)) {
+            return null;
+        }
+        long ahora = System.currentTimeMillis();
+        Long anterior = planesRecientes.get(consulta.sql);
+        if (anterior != null && ahora - anterior < INTERVALO_PLAN_MS) {
+            return "    (igual al anotado en una entrada anterior)" + System.lineSeparator();
+        }
+        planesRecientes.put(consulta.sql, ahora);
+        StringBuilder plan = new StringBuilder();
+        try (Connection con = fuentePlan.abrir();
+             PreparedStatement ps = con.prepareStatement(prefijoPlan + consulta.sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            for (int i = 0; i < consulta.parametros.length; i++) {
+                Object valor = consulta.parametros[i];
+                if (valor instanceof Number || valor instanceof String || valor instanceof Boolean
+                        || valor instanceof java.util.Date) {
+                    ps.setObject(i + 1, valor);
+                } else {
+                    ps.setNull(i + 1, Types.NULL);
+                }
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData columnas = rs.getMetaData();
+                plan.append("    ");
+                for (int c = 1; c <= columnas.getColumnCount(); c++) {
+                    plan.append(c > 1 ? " | " : "").append(columnas.getColumnLabel(c));
+                }
+                plan.append(System.lineSeparator());
+                while (rs.next()) {
+                    plan.append("    ");
+                    for (int c = 1; c <= columnas.getColumnCount(); c++) {
+                        plan.append(c > 1 ? " | " : "").append(rs.getString(c));
+                    }
+                    plan.append(System.lineSeparator());
+                }
+            }
+        } catch (SQLException e) {
+            return "    (no disponible: " + e.getMessage() + ")" + System.lineSeparator();
+        }
+        return plan.toString();
+    }
+
+    private static boolean admitePlan(String sql) {
+        String recortado = sql.trim();
+        int fin = 0;
+        while (fin < recortado.length() && Character.isLetter(recortado.charAt(fin))) {
+            fin++;
+        }
+        return ADMITEN_PLAN.contains(recortado.substring(0, fin).toUpperCase(Locale.ROOT));
+    }
+
+    private void escribir(String texto) throws IOException {
+        long largo = texto.getBytes(StandardCharsets.UTF_8).length;
+        if (salida == null) {
+            abrirSalida();
+        }
+        if (tamanoActual > 0 && tamanoActual + largo > tamanoMaximo) {
+            rotar();
+        }
+        salida.write(texto);
+        salida.flush();
+        tamanoActual += largo;
+    }
+
+    private void abrirSalida() throws IOException {
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        salida = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        tamanoActual = Files.size(archivo);
+    }
+
+    private void rotar() throws IOException {
+        salida.close();
+        salida = null;
+        for (int i = archivosRotados - 1; i >= 1; i--) {
+            Path origen = rotado(i);
+            if (Files.exists(origen)) {
+                Files.move(origen, rotado(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (archivosRotados > 0) {
+            Files.move(archivo, rotado(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(archivo);
+        }
+        abrirSalida();
+    }
+
+    private Path rotado(int numero) {
+        return archivo.resolveSibling(archivo.getFileName() + "." + numero);
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Envoltorio de una sentencia que guarda los parámetros enlazados y mide
+     * cada ejecución. Una sentencia la usa un solo hilo a la vez, así que su
+     * estado no necesita sincronización.
+     */
+    private final class SentenciaMedida implements InvocationHandler {
+
+        private final Statement sentencia;
+        private final String sql;
+        private Object[] parametros = new Object[8];
+        private int ultimoParametro;
+        private int lote;
+        private boolean enFlujo;
+
+        // Lectura en curso del último executeQuery
+        private LecturaMedida lectura;
+        private String sqlLectura;
+        private long inicioLectura;
+        private long nanosEjecucionLectura;
+        private long filasLeidas;
+
+        SentenciaMedida(Statement sentencia, String sql) {
+            this.sentencia = sentencia;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            switch (nombre) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    terminarLectura();
+                    break;
+                case "clearParameters":
+                    Arrays.fill(parametros, null);
+                    ultimoParametro = 0;
+                    break;
+                case "setFetchSize":
+                    enFlujo = (Integer) args[0] != 0;
+                    break;
+                case "addBatch":
+                    lote++;
+                    break;
+                case "clearBatch":
+                    lote = 0;
+                    break;
+                default:
+                    if (EJECUTAN.contains(nombre)) {
+                        return ejecutar(metodo, args);
+                    }
+                    if (args != null && args.length >= 2 && args[0] instanceof Integer && nombre.startsWith("set")) {
+                        guardarParametro((Integer) args[0], "setNull".equals(nombre) ? null : args[1]);
+                    }
+            }
+            return invocar(sentencia, metodo, args);
+        }
+
+        private void guardarParametro(int indice, Object valor) {
+            if (indice < 1) {
+                return;
+            }
+            if (indice > parametros.length) {
+                parametros = Arrays.copyOf(parametros, Math.max(indice, parametros.length * 2));
+            }
+            parametros[indice - 1] = valor;
+            ultimoParametro = Math.max(ultimoParametro, indice);
+        }
+
+        private Object ejecutar(Method metodo, Object[] args) throws Throwable {
+            terminarLectura();
+            String consulta = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            int enLote = metodo.getName().endsWith("Batch") ? lote : 0;
+            long inicio = System.nanoTime();
+            Object resultado;
+            try {
+                resultado = invocar(sentencia, metodo, args);
+            } catch (Throwable e) {
+                long transcurrido = System.nanoTime() - inicio;
+                anotar(consulta, copiarParametros(transcurrido), enLote, -1, transcurrido, transcurrido, e);
+                throw e;
+            } finally {
+                if (enLote > 0) {
+                    lote = 0;
+                }
+            }
+            long ejecucion = System.nanoTime() - inicio;
+            if (resultado instanceof ResultSet && !enFlujo) {
+                lectura = new LecturaMedida((ResultSet) resultado, this);
+                sqlLectura = consulta;
+                inicioLectura = inicio;
+                nanosEjecucionLectura = ejecucion;
+                filasLeidas = 0;
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        lectura);
+            }
+            anotar(consulta, copiarParametros(ejecucion), enLote, filasAfectadas(resultado), ejecucion, ejecucion,
+                    null);
+            return resultado;
+        }
+
+        void filaLeida(LecturaMedida origen) {
+            if (origen == lectura) {
+                filasLeidas++;
+            }
+        }
+
+        void terminarLectura(LecturaMedida origen) {
+            if (origen == lectura) {
+                terminarLectura();
+            }
+        }
+
+        private void terminarLectura() {
+            if (lectura == null) {
+                return;
+            }
+            lectura = null;
+            long total = System.nanoTime() - inicioLectura;
+            anotar(sqlLectura, copiarParametros(total), 0, filasLeidas, nanosEjecucionLectura, total, null);
+        }
+
+        /**
+         * Copia los parámetros solo si la consulta se va a anotar, para no
+         * crear objetos en las ejecuciones rápidas.
+         */
+        private Object[] copiarParametros(long transcurrido) {
+            return transcurrido < umbralNanos ? null : Arrays.copyOf(parametros, ultimoParametro);
+        }
+
+        private long filasAfectadas(Object resultado) {
+            if (resultado instanceof Number) {
+                return ((Number) resultado).longValue();
+            }
+            long total = -1;
+            if (resultado instanceof int[]) {
+                for (int filas : (int[]) resultado) {
+                    total = Math.max(total, 0) + Math.max(filas, 0);
+                }
+            } else if (resultado instanceof long[]) {
+                for (long filas : (long[]) resultado) {
+                    total = Math.max(total, 0) + Math.max(filas, 0);
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Envoltorio de un resultado que cuenta las filas leídas y avisa a su
+     * sentencia al cerrarse.
+     */
+    private static final class LecturaMedida implements InvocationHandler {
+
+        private final ResultSet resultado;
+        private final SentenciaMedida sentencia;
+
+        LecturaMedida(ResultSet resultado, SentenciaMedida sentencia) {
+            this.resultado = resultado;
+            this.sentencia = sentencia;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "next":
+                    Object hay = invocar(resultado, metodo, args);
+                    if (Boolean.TRUE.equals(hay)) {
+                        sentencia.filaLeida(this);
+                    }
+                    return hay;
+                case "close":
+                    invocar(resultado, metodo, args);
+                    sentencia.terminarLectura(this);
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invocar(resultado, metodo, args);
+            }
+        }
+    }
+
+    /**
+     * Datos de una consulta lenta tal como quedaron al terminar de
+     * ejecutarse; se formatean en el hilo escritor.
+     */
+    private static final class ConsultaLenta {
+
+        private final long instante;
+        private final String hilo;
+        private final String sql;
+        private final Object[] parametros;
+        private final int lote;
+        private final long filas;
+        private final long nanosEjecucion;
+        private final long nanosTotal;
+        private final String error;
+
+        ConsultaLenta(long instante, String hilo, String sql, Object[] parametros, int lote, long filas,
+                      long nanosEjecucion, long nanosTotal, String error) {
+            this.instante = instante;
+            this.hilo = hilo;
+            this.sql = sql;
+            this.parametros = parametros;
+            this.lote = lote;
+            this.filas = filas;
+            this.nanosEjecucion = nanosEjecucion;
+            this.nanosTotal = nanosTotal;
+            this.error = error;
+        }
+
+        String formatear(String plan) {
+            String salto = System.lineSeparator();
+            StringBuilder texto = new StringBuilder();
+            texto.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(instante), ZoneId.systemDefault()))
+                    .append(" [").append(hilo).append("] ")
+                    .append(String.format("%.3f ms (ejecución %.3f ms)", nanosTotal / 1e6, nanosEjecucion / 1e6))
+                    .append(", filas: ").append(filas < 0 ? "?" : String.valueOf(filas));
+            if (lote > 0) {
+                texto.append(", lote: ").append(lote);
+            }
+            texto.append(salto).append("  SQL: ").append(sql).append(salto);
+            if (parametros.length > 0) {
+                texto.append("  Parámetros: ");
+                for (int i = 0; i < parametros.length; i++) {
+                    texto.append(i > 0 ? ", " : "").append(i + 1).append('=').append(describir(parametros[i]));
+                }
+                texto.append(salto);
+            }
+            if (error != null) {
+                texto.append("  Error: ").append(error).append(salto);
+            }
+            if (plan != null) {
+                texto.append("  Plan:").append(salto).append(plan);
+            }
+            return texto.append(salto).toString();
+        }
+
+        private static String describir(Object valor) {
+            if (valor == null) {
+                return "NULL";
+            }
+            if (valor instanceof Number || valor instanceof Boolean) {
+                return valor.toString();
+            }
+            if (valor instanceof String || valor instanceof java.util.Date || valor instanceof Character) {
+                String texto = valor.toString();
+                if (texto.length() > LARGO_MAXIMO_PARAMETRO) {
+                    texto = texto.substring(0, LARGO_MAXIMO_PARAMETRO) + "...";
+                }
+                return "'" + texto + "'";
+            }
+            if (valor instanceof byte[]) {
+                return "<" + ((byte[]) valor).length + " bytes>";
+            }
+            return "<" + valor.getClass().getSimpleName() + ">";
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package udistrital.avanzada.veterinaria.modelo.metricas;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interfaz de gestión con la que {@link RegistroMetricas} se publica en JMX,
+ * para consultar las métricas desde JConsole o VisualVM mientras la
+ * aplicación corre.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+public interface MetricasMXBean {
+
+    /**
+     * @return Resumen de latencias de cada operación medida, ordenadas por nombre
+     */
+    List<ResumenOperacion> getOperaciones();
+
+    /**
+     * @return Valor de cada contador, por nombre
+     */
+    Map<String, Long> getContadores();
+
+    /**
+     * @return Valor actual de cada medidor, por nombre
+     */
+    Map<String, Long> getMedidores();
+
+    /**
+     * Escribe el resumen de todas las métricas en un archivo de texto.
+     *
+     * @param nombreArchivo Archivo de destino; se reemplaza si existe
+     * @throws IOException Si no se puede escribir el archivo
+     */
+    void volcar(String nombreArchivo) throws IOException;
+}
@@ -2,6 +2,7 @@ package udistrital.avanzada.veterinaria.vista.vista;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
@@ -15,10 +16,10 @@ import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
-import javax.swing.table.DefaultTableModel;
 import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
 
 /**
@@ -33,7 +34,7 @@ import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
 public class VistaPrincipal extends JFrame {
 
     // Componentes de la interfaz
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaMascotas modeloTabla;
     private JTable tablaMascotas;
     private JTextField txtIdMascota;
     private JTextField txtApodo;
@@ -48,6 +49,7 @@ public class VistaPrincipal extends JFrame {
     private JComboBox<String> cmbCriterioBusqueda;
     private JTextField txtBusqueda;
     private JLabel lblEstado;
+    private JProgressBar barraOcupado;
 
     // Botones
     private JButton btnAdicionar;
@@ -75,7 +77,8 @@ public class VistaPrincipal extends JFrame {
     private void inicializarComponentes() {
         // Configuración de la ventana principal
         setTitle("Sistema de Gestión de Mascotas Exóticas");
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Cerrar la ventana sale por el controlador, que guarda lo pendiente antes de terminar
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         setSize(1200, 800);
         setLocationRelativeTo(null);
         setLayout(new BorderLayout());
@@ -223,16 +226,11 @@ public class VistaPrincipal extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createTitledBorder("Lista de Mascotas"));
 
-        // Configurar tabla
-        String[] columnas = {"ID", "Apodo", "Clasificación", "Familia", "Género", "Especie", "Tipo Alimento", "Edad", "Peso", "Observaciones"};
-        modeloTabla = new DefaultTableModel(columnas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Tabla de solo lectura
-            }
-        };
+        // Configurar tabla; las filas se cargan por páginas al desplazarse
+        modeloTabla = new ModeloTablaMascotas();
         tablaMascotas = new JTable(modeloTabla);
         tablaMascotas.setSelectionMode(javax.swing.ListSelectionModel.SINGLE_SELECTION);
+        tablaMascotas.getTableHeader().setReorderingAllowed(false);
 
         JScrollPane scrollPane = new JScrollPane(tablaMascotas);
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -240,9 +238,10 @@ public class VistaPrincipal extends JFrame {
         // Panel de búsqueda
         JPanel panelBusqueda = new JPanel(new FlowLayout());
         panelBusqueda.add(new JLabel("Buscar por:"));
-        cmbCriterioBusqueda = new JComboBox<>(new String[]{"Apodo", "Clasificación", "Familia", "Tipo Alimento"});
+        cmbCriterioBusqueda = new JComboBox<>(new String[]{"Apodo", "Clasificación", "Familia", "Tipo Alimento", "Varios criterios"});
         panelBusqueda.add(cmbCriterioBusqueda);
         txtBusqueda = new JTextField(15);
+        txtBusqueda.setToolTipText("Varios criterios: clasificacion=Reptil; edad=1..5; peso=..10; orden=-peso");
         panelBusqueda.add(txtBusqueda);
         btnBuscar = new JButton("Buscar");
         panelBusqueda.add(btnBuscar);
@@ -307,6 +306,12 @@ public class VistaPrincipal extends JFrame {
         panel.setBorder(BorderFactory.createLoweredBevelBorder());
         panel.setBackground(new Color(240, 240, 240));
 
+        barraOcupado = new JProgressBar();
+        barraOcupado.setIndeterminate(true);
+        barraOcupado.setPreferredSize(new Dimension(80, 12));
+        barraOcupado.setVisible(false);
+        panel.add(barraOcupado);
+
         lblEstado = new JLabel("Sistema iniciado correctamente");
         lblEstado.setFont(new Font("Arial", Font.ITALIC, 12));
         panel.add(lblEstado);
@@ -348,7 +353,7 @@ public class VistaPrincipal extends JFrame {
      * 
      * @return Modelo de la tabla
      */
-    public DefaultTableModel getModeloTabla() {
+    public ModeloTablaMascotas getModeloTabla() {
         return modeloTabla;
     }
 
@@ -563,6 +568,16 @@ public class VistaPrincipal extends JFrame {
         lblEstado.setText(mensaje);
     }
 
+    /**
+     * Muestra u oculta el indicador de operación en curso.
+     * 
+     * @param ocupado true mientras haya operaciones pendientes
+     */
+    public void mostrarOcupado(boolean ocupado) {
+        barraOcupado.setVisible(ocupado);
+        setCursor(ocupado ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
     /**
      * Limpia todos los campos del formulario.
      */
@@ -655,21 +670,15 @@ public class VistaPrincipal extends JFrame {
      * @param mascotas Lista de mascotas a mostrar
      */
     public void mostrarMascotas(ArrayList<MascotaVO> mascotas) {
-        modeloTabla.setRowCount(0);
-        for (MascotaVO mascota : mascotas) {
-            Object[] fila = {
-                mascota.getIdMascota(),
-                mascota.getApodo(),
-                mascota.getClasificacion(),
-                mascota.getFamilia(),
-                mascota.getGenero(),
-                mascota.getEspecie(),
-                mascota.getTipoAlimento(),
-                mascota.getEdad(),
-                mascota.getPeso(),
-                mascota.getObservaciones()
-            };
-            modeloTabla.addRow(fila);
-        }
+        modeloTabla.setMascotas(mascotas);
+    }
+
+    /**
+     * Obtiene la mascota de la fila seleccionada en la tabla.
+     * 
+     * @return Mascota seleccionada, o null si no hay selección o su fila aún no está cargada
+     */
+    public MascotaVO getMascotaSeleccionada() {
+        return modeloTabla.getMascotaEn(tablaMascotas.getSelectedRow());
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas de la caché de mascotas: aislamiento de las instancias del
+ * llamador, límite del listado completo, orden del listado frente al de
+ * la base de datos y descarte de lecturas adelantadas por una escritura.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de CacheMascotas")
+public class CacheMascotasTest {
+
+    private static MascotaVO mascota(String id, String apodo) {
+        return new MascotaVO(id, apodo, "Ave", "Psittacidae", "Ara", "Ara macao", "Omnívoro", 2, 1.0, "");
+    }
+
+    @Test
+    @DisplayName("Modificar las mascotas recibidas o entregadas no altera la caché")
+    void testCopiaAlEntrarYSalir() {
+        // Arrange
+        CacheMascotas cache = new CacheMascotas(10, 1, TimeUnit.MINUTES);
+        MascotaVO guardada = mascota("M1", "Rex");
+        cache.guardar(guardada);
+        cache.guardarListado(new ArrayList<>(List.of(mascota("M2", "Kiwi"))));
+
+        // Act
+        guardada.setApodo("Cambiado");
+        cache.obtener("M1").setPeso(99);
+        cache.obtenerListado().get(0).setApodo("Cambiado");
+
+        // Assert
+        assertEquals("Rex", cache.obtener("M1").getApodo());
+        assertEquals(1.0, cache.obtener("M1").getPeso());
+        assertEquals("Kiwi", cache.obtenerListado().get(0).getApodo());
+        assertEquals("Kiwi", cache.obtener("M2").getApodo());
+    }
+
+    @Test
+    @DisplayName("Un listado mayor que su capacidad no se guarda ni expulsa entradas por ID")
+    void testListadoAcotado() {
+        // Arrange
+        CacheMascotas cache = new CacheMascotas(2, 3, 1, TimeUnit.MINUTES);
+        cache.guardar(mascota("M0", "Previa"));
+        ArrayList<MascotaVO> grande = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            grande.add(mascota("M" + i, "Apodo" + i));
+        }
+
+        // Act
+        cache.guardarListado(grande);
+        cache.guardarListado(new ArrayList<>(grande.subList(0, 3)));
+
+        // Assert
+        assertNotNull(cache.obtenerListado());
+        assertEquals(3, cache.obtenerListado().size());
+        assertNotNull(cache.obtener("M0"));
+        assertEquals(0, cache.getExpulsiones());
+        cache.registrada(mascota("M9", "Nueva"));
+        assertNull(cache.obtenerListado(), "El listado superaría su capacidad");
+    }
+
+    @Test
+    @DisplayName("El listado desempata por ID sin distinguir mayúsculas, como la base de datos")
+    void testOrdenComoLaBaseDeDatos() {
+        // Arrange
+        CacheMascotas cache = new CacheMascotas(10, 1, TimeUnit.MINUTES);
+        cache.guardarListado(new ArrayList<>(List.of(mascota("a1", "Rex"), mascota("B2", "Rex"))));
+
+        // Act
+        cache.registrada(mascota("A5", "rex"));
+
+        // Assert
+        List<MascotaVO> listado = cache.obtenerListado();
+        assertEquals("a1", listado.get(0).getIdMascota());
+        assertEquals("A5", listado.get(1).getIdMascota());
+        assertEquals("B2", listado.get(2).getIdMascota());
+    }
+
+    @Test
+    @DisplayName("Una lectura que se cruza con una escritura no deja en caché el estado anterior")
+    void testLecturaCruzadaConEscritura() {
+        // Arrange
+        CacheMascotas cache = new CacheMascotas(10, 1, TimeUnit.MINUTES);
+        long generacion = cache.getGeneracion();
+        MascotaVO leida = mascota("M1", "Rex");
+        ArrayList<MascotaVO> listadoLeido = new ArrayList<>(List.of(leida));
+        MascotaVO cambios = mascota("M1", "Max");
+
+        // Act
+        cache.modificada(cambios);
+        boolean guardada = cache.guardarSiVigente(leida, generacion);
+        boolean listadoGuardado = cache.guardarListadoSiVigente(listadoLeido, generacion);
+
+        // Assert
+        assertFalse(guardada, "La lectura es anterior a la modificación");
+        assertFalse(listadoGuardado, "El listado es anterior a la modificación");
+        assertNull(cache.obtener("M1"));
+        assertNull(cache.obtenerListado());
+        assertTrue(cache.guardarSiVigente(cambios, cache.getGeneracion()));
+        assertEquals("Max", cache.obtener("M1").getApodo());
+    }
+}
@@ -0,0 +1,187 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAO;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas del búfer de escritura diferida: combinación de modificaciones
+ * de una misma mascota, lectura de lo pendiente, reintento tras un fallo,
+ * escritura adelantada por tamaño y escritura al terminar la JVM. Usa un
+ * DAO en memoria que registra los lotes recibidos.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de EscrituraDiferida")
+public class EscrituraDiferidaTest {
+
+    private static final long SIN_PERIODO_MS = 3_600_000;
+
+    @Test
+    @DisplayName("Las modificaciones de una mascota se combinan en una sola escritura")
+    void testCombinaModificaciones() {
+        // Arrange
+        DAOLotes dao = new DAOLotes();
+        EscrituraDiferida escrituras = new EscrituraDiferida(dao, SIN_PERIODO_MS, 100);
+        MascotaVO original = mascota("M1", "Rex", 2.0);
+
+        // Act
+        MascotaVO primera = CacheMascotas.aplicarModificacion(original, mascota("M1", "Rex", 2.5));
+        escrituras.modificar(original, primera);
+        MascotaVO segunda = CacheMascotas.aplicarModificacion(primera, mascota("M1", "Rex", 3.0));
+        escrituras.modificar(primera, segunda);
+        MascotaVO otra = mascota("M2", "Kiwi", 1.0);
+        escrituras.modificar(otra, CacheMascotas.aplicarModificacion(otra, mascota("M2", "Kiwi", 1.2)));
+
+        // Assert
+        assertEquals(2, escrituras.getPendientes());
+        assertSame(segunda, escrituras.pendiente("M1"));
+        assertTrue(escrituras.afecta("peso"));
+        assertFalse(escrituras.afecta("id_mascota", "familia", null));
+        assertTrue(escrituras.vaciar());
+        assertEquals(1, dao.lotes.size());
+        assertEquals(2, dao.lotes.get(0).size());
+        assertEquals(3.0, dao.lotes.get(0).get(0).getPeso(), 0.0);
+        assertEquals(0, escrituras.getPendientes());
+        assertNull(escrituras.pendiente("M1"));
+        escrituras.cerrar();
+    }
+
+    @Test
+    @DisplayName("Solo cuentan como cambiadas las columnas que difieren del estado original")
+    void testColumnasAfectadas() {
+        // Arrange
+        DAOLotes dao = new DAOLotes();
+        EscrituraDiferida escrituras = new EscrituraDiferida(dao, SIN_PERIODO_MS, 100);
+        MascotaVO original = mascota("M1", "Rex", 2.0);
+
+        // Act
+        MascotaVO renombrada = CacheMascotas.aplicarModificacion(original, mascota("M1", "Max", 2.0));
+        escrituras.modificar(original, renombrada);
+        escrituras.modificar(renombrada, CacheMascotas.aplicarModificacion(renombrada, mascota("M1", "Rex", 2.0)));
+
+        // Assert
+        assertFalse(escrituras.afecta("apodo", "peso"));
+        assertEquals(1, escrituras.getPendientes());
+        escrituras.cerrar();
+    }
+
+    @Test
+    @DisplayName("Las listas leídas muestran el estado pendiente")
+    void testSuperponer() {
+        // Arrange
+        EscrituraDiferida escrituras = new EscrituraDiferida(new DAOLotes(), SIN_PERIODO_MS, 100);
+        MascotaVO original = mascota("M2", "Kiwi", 1.0);
+        MascotaVO actualizada = CacheMascotas.aplicarModificacion(original, mascota("M2", "Kiwi", 1.4));
+        escrituras.modificar(original, actualizada);
+        ArrayList<MascotaVO> leidas = new ArrayList<>(Arrays.asList(mascota("M1", "Rex", 2.0), original));
+
+        // Act
+        escrituras.superponer(leidas);
+
+        // Assert
+        assertEquals("M1", leidas.get(0).getIdMascota());
+        assertSame(actualizada, leidas.get(1));
+        escrituras.cerrar();
+    }
+
+    @Test
+    @DisplayName("Si la escritura falla, las modificaciones siguen pendientes")
+    void testReintentoTrasFallo() {
+        // Arrange
+        DAOLotes dao = new DAOLotes();
+        EscrituraDiferida escrituras = new EscrituraDiferida(dao, SIN_PERIODO_MS, 100);
+        MascotaVO original = mascota("M1", "Rex", 2.0);
+        escrituras.modificar(original, CacheMascotas.aplicarModificacion(original, mascota("M1", "Rex", 2.2)));
+
+        // Act
+        dao.fallar = true;
+        boolean primerIntento = escrituras.vaciar();
+        dao.fallar = false;
+        boolean segundoIntento = escrituras.vaciar();
+
+        // Assert
+        assertFalse(primerIntento);
+        assertTrue(segundoIntento);
+        assertEquals(1, dao.lotes.size());
+        assertEquals(0, escrituras.getPendientes());
+        escrituras.cerrar();
+    }
+
+    @Test
+    @DisplayName("Al alcanzar el máximo de pendientes se escribe sin esperar al periodo")
+    void testEscrituraPorTamano() throws Exception {
+        // Arrange
+        DAOLotes dao = new DAOLotes();
+        EscrituraDiferida escrituras = new EscrituraDiferida(dao, SIN_PERIODO_MS, 3);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            MascotaVO original = mascota("M" + i, "Mascota" + i, 1.0);
+            escrituras.modificar(original, CacheMascotas.aplicarModificacion(original,
+                    mascota("M" + i, "Mascota" + i, 2.0)));
+        }
+        long limite = System.currentTimeMillis() + 5000;
+        while (escrituras.getPendientes() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(0, escrituras.getPendientes());
+        assertEquals(1, dao.lotes.size());
+        assertEquals(3, dao.lotes.get(0).size());
+        escrituras.cerrar();
+    }
+
+    @Test
+    @DisplayName("Si la aplicación termina sin cerrar el búfer, el gancho de terminación escribe lo pendiente")
+    void testGanchoDeTerminacion() {
+        // Arrange
+        DAOLotes dao = new DAOLotes();
+        EscrituraDiferida escrituras = new EscrituraDiferida(dao, SIN_PERIODO_MS, 100);
+        MascotaVO original = mascota("M1", "Rex", 2.0);
+        escrituras.modificar(original, CacheMascotas.aplicarModificacion(original, mascota("M1", "Rex", 2.8)));
+        Thread gancho = escrituras.getAlTerminar();
+
+        // Act
+        gancho.run();
+
+        // Assert
+        assertEquals(0, escrituras.getPendientes());
+        assertEquals(1, dao.lotes.size());
+        assertEquals(2.8, dao.lotes.get(0).get(0).getPeso(), 0.0);
+        escrituras.cerrar();
+        assertFalse(Runtime.getRuntime().removeShutdownHook(gancho), "Cerrar debería quitar el gancho");
+    }
+
+    private static MascotaVO mascota(String id, String apodo, double peso) {
+        return new MascotaVO(id, apodo, "Reptil", "Iguanidae", "Iguana", "Iguana iguana", "Herbívoro", 3, peso,
+                "Sin novedad");
+    }
+
+    /**
+     * DAO que guarda en memoria cada lote de modificaciones recibido.
+     */
+    private static final class DAOLotes extends MascotaDAO {
+
+        private final List<List<MascotaVO>> lotes = new CopyOnWriteArrayList<>();
+        private volatile boolean fallar;
+
+        @Override
+        public int modificarMascotasEnLote(List<MascotaVO> mascotas) {
+            if (fallar) {
+                return -1;
+            }
+            lotes.add(new ArrayList<>(mascotas));
+            return mascotas.size();
+        }
+    }
+}
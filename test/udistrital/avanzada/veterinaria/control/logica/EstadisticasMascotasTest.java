@@ -0,0 +1,154 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import udistrital.avanzada.veterinaria.modelo.DAO.AgregadoGrupo;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas de EstadisticasMascotas: los agregados mantenidos con cada alta,
+ * modificación y baja deben coincidir con los que calcularía de nuevo un
+ * GROUP BY sobre el catálogo resultante.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de EstadisticasMascotas")
+public class EstadisticasMascotasTest {
+
+    private static final String[] CLASIFICACIONES = {"Reptil", "Ave", "Mamífero"};
+
+    @Test
+    @DisplayName("Los agregados incrementales coinciden con un recálculo completo")
+    void testMantenimientoIncremental() {
+        // Arrange
+        Random aleatorio = new Random(20);
+        TreeMap<String, MascotaVO> catalogo = new TreeMap<>();
+        for (int i = 0; i < 200; i++) {
+            MascotaVO mascota = mascota(i, aleatorio);
+            catalogo.put(mascota.getIdMascota(), mascota);
+        }
+        EstadisticasMascotas estadisticas = new EstadisticasMascotas();
+        estadisticas.cargar("clasificacion", agrupar(catalogo.values()));
+
+        // Act
+        for (int i = 200; i < 1200; i++) {
+            MascotaVO mascota = mascota(i, aleatorio);
+            MascotaVO anterior = catalogo.get(mascota.getIdMascota());
+            if (anterior == null) {
+                estadisticas.registrada(mascota);
+                catalogo.put(mascota.getIdMascota(), mascota);
+            } else if (aleatorio.nextBoolean()) {
+                MascotaVO actualizada = CacheMascotas.aplicarModificacion(anterior, mascota);
+                estadisticas.modificada(anterior, actualizada);
+                catalogo.put(actualizada.getIdMascota(), actualizada);
+            } else {
+                estadisticas.eliminada(anterior);
+                catalogo.remove(anterior.getIdMascota());
+            }
+        }
+        for (String valor : estadisticas.gruposDesactualizados("clasificacion")) {
+            AgregadoGrupo recalculado = null;
+            for (AgregadoGrupo grupo : agrupar(catalogo.values())) {
+                if (MascotaIndex.clave(grupo.getValor()).equals(MascotaIndex.clave(valor))) {
+                    recalculado = grupo;
+                }
+            }
+            estadisticas.refrescar("clasificacion", valor, recalculado);
+        }
+
+        // Assert
+        assertTrue(estadisticas.gruposDesactualizados("clasificacion").isEmpty());
+        assertEquals(texto(agrupar(catalogo.values())), texto(estadisticas.obtener("clasificacion")));
+        assertNull(estadisticas.obtener("familia"));
+    }
+
+    @Test
+    @DisplayName("Quitar el valor extremo de un grupo lo marca para recalcular")
+    void testExtremosDesactualizados() {
+        // Arrange
+        EstadisticasMascotas estadisticas = new EstadisticasMascotas();
+        estadisticas.cargar("tipo_alimento", new ArrayList<>());
+        MascotaVO joven = new MascotaVO("E1", "Uno", "Ave", "F", "G", "E", "Herbívoro", 1, 2.5, "");
+        MascotaVO mayor = new MascotaVO("E2", "Dos", "Ave", "F", "G", "E", "herbivoro", 9, 1.25, "");
+        MascotaVO medio = new MascotaVO("E3", "Tres", "Ave", "F", "G", "E", "Herbívoro", 5, 2.0, "");
+        estadisticas.registrada(joven);
+        estadisticas.registrada(mayor);
+        estadisticas.registrada(medio);
+
+        // Act
+        AgregadoGrupo antes = estadisticas.obtener("tipo_alimento", "HERBÍVORO");
+        estadisticas.eliminada(medio);
+        boolean vigenteTrasMedio = estadisticas.gruposDesactualizados("tipo_alimento").isEmpty();
+        estadisticas.eliminada(joven);
+
+        // Assert
+        assertEquals(3, antes.getCantidad());
+        assertEquals(5.0, antes.getEdadPromedio(), 1e-9);
+        assertEquals(1.25, antes.getPesoMinimo(), 1e-9);
+        assertEquals(2.5, antes.getPesoMaximo(), 1e-9);
+        assertTrue(vigenteTrasMedio);
+        assertEquals(List.of("Herbívoro"), estadisticas.gruposDesactualizados("tipo_alimento"));
+        estadisticas.eliminada(mayor);
+        assertTrue(estadisticas.obtener("tipo_alimento").isEmpty());
+    }
+
+    private static MascotaVO mascota(int i, Random aleatorio) {
+        String id = "M" + aleatorio.nextInt(300);
+        String clasificacion = CLASIFICACIONES[aleatorio.nextInt(CLASIFICACIONES.length)];
+        if (aleatorio.nextInt(10) == 0) {
+            clasificacion = clasificacion.toUpperCase();
+        }
+        return new MascotaVO(id, "Apodo" + i, clasificacion, "Familia", "Genero", "Especie", "Omnívoro",
+                aleatorio.nextInt(30), aleatorio.nextInt(50000) / 100.0, "");
+    }
+
+    /**
+     * Agrupa el catálogo por clasificación como lo haría la base de datos.
+     */
+    private static List<AgregadoGrupo> agrupar(Iterable<MascotaVO> mascotas) {
+        TreeMap<String, List<MascotaVO>> grupos = new TreeMap<>();
+        for (MascotaVO mascota : mascotas) {
+            grupos.computeIfAbsent(MascotaIndex.clave(mascota.getClasificacion()), k -> new ArrayList<>())
+                    .add(mascota);
+        }
+        List<AgregadoGrupo> agregados = new ArrayList<>();
+        for (List<MascotaVO> grupo : grupos.values()) {
+            long sumaEdad = 0;
+            long sumaPeso = 0;
+            int edadMinima = Integer.MAX_VALUE;
+            int edadMaxima = Integer.MIN_VALUE;
+            double pesoMinimo = Double.MAX_VALUE;
+            double pesoMaximo = -Double.MAX_VALUE;
+            for (MascotaVO mascota : grupo) {
+                sumaEdad += mascota.getEdad();
+                sumaPeso += Math.round(mascota.getPeso() * 100);
+                edadMinima = Math.min(edadMinima, mascota.getEdad());
+                edadMaxima = Math.max(edadMaxima, mascota.getEdad());
+                pesoMinimo = Math.min(pesoMinimo, mascota.getPeso());
+                pesoMaximo = Math.max(pesoMaximo, mascota.getPeso());
+            }
+            agregados.add(new AgregadoGrupo(grupo.get(0).getClasificacion(), grupo.size(), sumaEdad, edadMinima,
+                    edadMaxima, sumaPeso / 100.0, pesoMinimo, pesoMaximo));
+        }
+        return agregados;
+    }
+
+    /**
+     * Representa los agregados sin el valor exacto del grupo, que depende de
+     * qué mascota lo creó primero.
+     */
+    private static List<String> texto(List<AgregadoGrupo> grupos) {
+        List<String> textos = new ArrayList<>();
+        for (AgregadoGrupo grupo : grupos) {
+            textos.add(MascotaIndex.clave(grupo.getValor()) + grupo.toString().replace(grupo.getValor(), ""));
+        }
+        return textos;
+    }
+}
@@ -0,0 +1,173 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import udistrital.avanzada.veterinaria.modelo.DAO.ArchivoAccesoAleatorio;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAO;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+import udistrital.avanzada.veterinaria.modelo.conexion.PoolConexiones;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas de exportación del catálogo completo en memoria constante.
+ * Usa una base de datos H2 en archivo, en modo MySQL, para que las filas
+ * no ocupen el heap de la propia prueba.
+ *
+ * Por defecto el catálogo tiene {@value #MASCOTAS_POR_DEFECTO} mascotas y
+ * la prueba de heap solo verifica la exportación. El catálogo de 5 millones
+ * y la cota del heap, que tardan varios minutos, se activan con
+ * {@code -D}{@value #PROPIEDAD_GRANDES}{@code =true}.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de Exportación - Gestor")
+public class GestorExportacionTest {
+
+    /**
+     * Propiedad del sistema que activa la prueba con el catálogo grande.
+     */
+    static final String PROPIEDAD_GRANDES = "veterinaria.pruebas.grandes";
+    private static final int MASCOTAS_POR_DEFECTO = 20_000;
+    private static final boolean GRANDES = Boolean.getBoolean(PROPIEDAD_GRANDES);
+    private static final int MASCOTAS = GRANDES ? 5_000_000 : MASCOTAS_POR_DEFECTO;
+    private static final long MARGEN_HEAP = 128L * 1024 * 1024;
+
+    private static Path directorio;
+    private static PoolConexiones pool;
+    private static Connection ancla;
+
+    @BeforeAll
+    static void configuracionInicial() throws Exception {
+        directorio = Files.createTempDirectory("veterinaria_exportacion");
+        String url = "jdbc:h2:file:" + directorio.resolve("bd").toAbsolutePath()
+                + ";MODE=MySQL;CACHE_SIZE=16384;LAZY_QUERY_EXECUTION=TRUE";
+        ancla = DriverManager.getConnection(url, "sa", "");
+        try (Statement st = ancla.createStatement()) {
+            st.execute("CREATE TABLE mascotas ("
+                    + "id_mascota VARCHAR(20) PRIMARY KEY, apodo VARCHAR(50) NOT NULL, "
+                    + "clasificacion VARCHAR(30) NOT NULL, familia VARCHAR(50) NOT NULL, "
+                    + "genero VARCHAR(30) NOT NULL, especie VARCHAR(30) NOT NULL, "
+                    + "tipo_alimento VARCHAR(30) NOT NULL, edad INT NOT NULL, "
+                    + "peso DECIMAL(5,2) NOT NULL, observaciones TEXT)");
+            // En InnoDB idx_apodo ya incluye la clave primaria
+            st.execute("CREATE INDEX idx_apodo ON mascotas(apodo, id_mascota)");
+            // Las filas se generan en el servidor, sin pasar por el heap de la prueba
+            st.execute("INSERT INTO mascotas SELECT CONCAT('X', X), CONCAT('Apodo', MOD(X * 7919, " + MASCOTAS + ")), "
+                    + "'Reptil', 'Iguanidae', 'Iguana', 'iguana', 'Herbívoro', 1 + MOD(X, 20), 2.5, "
+                    + "'Exportación masiva' FROM SYSTEM_RANGE(1, " + MASCOTAS + ")");
+        }
+        pool = new PoolConexiones(url, "sa", "", 1, 4, 10000, 60000, 0);
+        Conexion.setPool(pool);
+    }
+
+    @AfterAll
+    static void limpiezaFinal() throws Exception {
+        Conexion.cerrarPool();
+        ancla.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+        }
+    }
+
+    @Test
+    @DisplayName("Exportar el catálogo completo no hace crecer el heap")
+    void testExportarArchivoAccesoAleatorioConHeapAcotado() throws Exception {
+        // Arrange
+        Gestor gestor = new Gestor();
+        long esperadas = contarMascotas();
+        File archivo = directorio.resolve("estado_final.dat").toFile();
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        memoria.gc();
+        long base = memoria.getHeapMemoryUsage().getUsed();
+        AtomicLong maximo = new AtomicLong(base);
+        ScheduledExecutorService muestreo = Executors.newSingleThreadScheduledExecutor();
+        // Tras cada gc el heap usado corresponde a los objetos vivos
+        muestreo.scheduleAtFixedRate(() -> {
+            memoria.gc();
+            maximo.accumulateAndGet(memoria.getHeapMemoryUsage().getUsed(), Math::max);
+        }, 0, 250, TimeUnit.MILLISECONDS);
+
+        // Act
+        boolean exito;
+        try {
+            exito = gestor.crearArchivoAccesoAleatorio(archivo.getPath());
+        } finally {
+            muestreo.shutdownNow();
+        }
+
+        // Assert
+        assertTrue(exito, "La exportación debería completarse");
+        try (ArchivoAccesoAleatorio lector = new ArchivoAccesoAleatorio(archivo.getPath(), false)) {
+            assertEquals(esperadas, lector.getNumeroRegistros(), "La cabecera debería contener todas las mascotas");
+            assertTrue(lector.isOrdenadoPorId(), "Los registros deberían quedar ordenados por ID");
+            MascotaVO buscada = lector.buscarPorId("X4242");
+            assertNotNull(buscada, "La búsqueda por ID debería encontrar la mascota");
+            assertEquals("Apodo" + (4242L * 7919 % MASCOTAS), buscada.getApodo());
+            MascotaVO ultima = lector.leerMascota(lector.getNumeroRegistros() - 1);
+            assertEquals(ultima.getIdMascota(), lector.buscarPorId(ultima.getIdMascota()).getIdMascota(),
+                    "El último registro debería encontrarse por su ID");
+        }
+        if (GRANDES) {
+            // Con el catálogo pequeño todo cabe en el margen y la cota no prueba nada
+            assertTrue(maximo.get() - base < MARGEN_HEAP,
+                    "El heap vivo creció " + (maximo.get() - base) / (1024 * 1024) + " MB durante la exportación");
+        }
+        assertEquals(0, pool.getConexionesActivas(), "La conexión debería devolverse al pool");
+    }
+
+    @Test
+    @DisplayName("Las páginas por cursor recorren el catálogo en orden y sin repetir")
+    void testPaginasPorCursor() {
+        // Arrange
+        MascotaDAO dao = new MascotaDAO();
+        ArrayList<MascotaVO> leidas = new ArrayList<>();
+
+        // Act
+        ArrayList<MascotaVO> pagina = dao.obtenerPaginaMascotas(null, null, 1000);
+        for (int i = 0; i < 5 && !pagina.isEmpty(); i++) {
+            leidas.addAll(pagina);
+            MascotaVO ultima = pagina.get(pagina.size() - 1);
+            pagina = dao.obtenerPaginaMascotas(ultima.getApodo(), ultima.getIdMascota(), 1000);
+        }
+
+        // Assert
+        ArrayList<MascotaVO> esperadas = new ArrayList<>();
+        try (Stream<MascotaVO> todas = dao.streamMascotas(MascotaDAO.TAMANO_FETCH_POR_DEFECTO)) {
+            todas.limit(leidas.size()).forEach(esperadas::add);
+        }
+        assertEquals(5000, leidas.size(), "Deberían leerse cinco páginas completas");
+        for (int i = 0; i < leidas.size(); i++) {
+            assertEquals(esperadas.get(i).getIdMascota(), leidas.get(i).getIdMascota(),
+                    "Las páginas deberían seguir el orden del recorrido completo");
+        }
+        assertEquals(0, pool.getConexionesActivas(), "Cerrar el flujo debería devolver la conexión");
+    }
+
+    private static long contarMascotas() throws Exception {
+        try (Statement st = ancla.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM mascotas")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package udistrital.avanzada.veterinaria.control.logica;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import udistrital.avanzada.veterinaria.modelo.DAO.MascotaDAO;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+import udistrital.avanzada.veterinaria.modelo.conexion.PoolConexiones;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas de la importación en flujo de archivos properties. Usa una base
+ * de datos H2 en memoria, en modo MySQL.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de Importación - ImportadorMascotas")
+public class ImportadorMascotasTest {
+
+    private static final int MASCOTAS = 200_000;
+
+    private static Path directorio;
+    private static Connection ancla;
+
+    @BeforeAll
+    static void configuracionInicial() throws Exception {
+        directorio = Files.createTempDirectory("veterinaria_importacion");
+        String url = "jdbc:h2:mem:importacion;MODE=MySQL";
+        ancla = DriverManager.getConnection(url, "sa", "");
+        try (Statement st = ancla.createStatement()) {
+            st.execute("CREATE TABLE mascotas ("
+                    + "id_mascota VARCHAR(20) PRIMARY KEY, apodo VARCHAR(50) NOT NULL, "
+                    + "clasificacion VARCHAR(30) NOT NULL, familia VARCHAR(50) NOT NULL, "
+                    + "genero VARCHAR(30) NOT NULL, especie VARCHAR(30) NOT NULL, "
+                    + "tipo_alimento VARCHAR(30) NOT NULL, edad INT NOT NULL, "
+                    + "peso DECIMAL(5,2) NOT NULL, observaciones TEXT)");
+        }
+        Conexion.setPool(new PoolConexiones(url, "sa", "", 1, 4));
+    }
+
+    @AfterAll
+    static void limpiezaFinal() throws Exception {
+        Conexion.cerrarPool();
+        ancla.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+        }
+    }
+
+    @Test
+    @DisplayName("El tokenizador respeta comillas, espacios y el último campo libre")
+    void testTokenizador() {
+        // Arrange
+        TokenizadorCSV tokenizador = new TokenizadorCSV();
+
+        // Act
+        int campos = tokenizador.tokenizar(" \"Rex, el \"\"grande\"\"\" , Reptil,, 12 ,resto, con comas", 5);
+
+        // Assert
+        assertEquals(5, campos);
+        assertEquals("Rex, el \"grande\"", tokenizador.campo(0));
+        assertEquals("Reptil", tokenizador.campo(1));
+        assertTrue(tokenizador.estaVacio(2), "El tercer campo debería estar vacío");
+        assertEquals(12, tokenizador.entero(3));
+        assertEquals("resto, con comas", tokenizador.campo(4));
+        assertEquals(-1, tokenizador.tokenizar("\"sin cerrar, Reptil", 5), "Una comilla sin cerrar es un error");
+    }
+
+    @Test
+    @DisplayName("Importar un archivo grande inserta las válidas y rechaza las demás con su motivo")
+    void testImportarConRechazos() throws Exception {
+        // Arrange
+        Path archivo = directorio.resolve("mascotas.properties");
+        try (BufferedWriter salida = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            salida.write("# Mascotas generadas para la prueba\r\n");
+            salida.write("otra.clave=se ignora\n");
+            salida.write("mascota.C1 = \"Ñandú, el veloz\",Ave,Rheidae,Rhea,americana,Omnívoro,\\\n    3,25.5,Corre\\u0020mucho\n");
+            salida.write("mascota.E1=Sin edad,Reptil,Iguanidae,Iguana,iguana,Herbívoro,,2.5,\n");
+            salida.write("mascota.E2=Edad mala,Reptil,Iguanidae,Iguana,iguana,Herbívoro,dos,2.5,\n");
+            salida.write("mascota.E3=Pocos campos,Reptil\n");
+            for (int i = 0; i < MASCOTAS; i++) {
+                salida.write("mascota.M" + i + "=Apodo" + i + ",Reptil,Iguanidae,Iguana,iguana,Herbívoro,"
+                        + (1 + i % 20) + ",2.5,Observación " + i + ", con coma\n");
+            }
+            // Repetida: la base de datos la descarta como duplicada
+            salida.write("mascota.M0=Apodo0,Reptil,Iguanidae,Iguana,iguana,Herbívoro,1,2.5,\n");
+        }
+        Path rechazos = directorio.resolve("rechazadas.properties");
+        List<ResumenImportacion> informes = new ArrayList<>();
+
+        // Act
+        ResumenImportacion resumen = new ImportadorMascotas(new MascotaDAO(), 500, 4, 50_000)
+                .importar(archivo.toString(), rechazos.toString(), informes::add);
+
+        // Assert
+        assertEquals(MASCOTAS + 5, resumen.getLeidas());
+        assertEquals(MASCOTAS + 1, resumen.getInsertadas());
+        assertEquals(1, resumen.getDuplicadas());
+        assertEquals(3, resumen.getRechazadas());
+        assertEquals(0, resumen.getFallidas());
+        assertTrue(resumen.isTerminada());
+        assertEquals(100.0, resumen.getPorcentaje(), 0.001);
+        assertTrue(informes.size() > 1, "Debería informarse el progreso antes del final");
+        for (int i = 1; i < informes.size(); i++) {
+            assertTrue(informes.get(i).getLeidas() >= informes.get(i - 1).getLeidas(),
+                    "El progreso no debería retroceder");
+        }
+        assertSame(resumen, informes.get(informes.size() - 1), "El último informe debería ser el resumen");
+
+        MascotaVO nandu = new MascotaDAO().consultarMascotaPorId("C1");
+        assertNotNull(nandu, "La entrada con comillas y línea continuada debería insertarse");
+        assertEquals("Ñandú, el veloz", nandu.getApodo());
+        assertEquals(3, nandu.getEdad());
+        assertEquals("Corre mucho", nandu.getObservaciones());
+        assertEquals(MASCOTAS + 1, contarMascotas());
+
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertTrue(lineas.contains("# línea 5: datos incompletos: falta la edad"), lineas.toString());
+        assertTrue(lineas.contains("# línea 6: edad no válida: dos"), lineas.toString());
+        assertTrue(lineas.contains("mascota.E3=Pocos campos,Reptil"), lineas.toString());
+    }
+
+    private static long contarMascotas() throws Exception {
+        try (Statement st = ancla.createStatement();
+                ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM mascotas")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas del archivo de acceso aleatorio: actualización de registros en
+ * su lugar o al final del archivo cuando ya no caben.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de ArchivoAccesoAleatorio")
+public class ArchivoAccesoAleatorioTest {
+
+    private Path directorio;
+
+    @BeforeEach
+    void configuracion() throws Exception {
+        directorio = Files.createTempDirectory("veterinaria_acceso_aleatorio");
+    }
+
+    @AfterEach
+    void limpieza() throws Exception {
+        try (var archivos = Files.list(directorio)) {
+            for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(directorio);
+    }
+
+    @Test
+    @DisplayName("Actualizar un registro lo reescribe en su lugar o lo reubica si crece")
+    void testActualizarRegistroAccesoAleatorio() throws Exception {
+        // Arrange
+        String archivo = directorio.resolve("actualizable.dat").toString();
+        try (ArchivoAccesoAleatorio.Escritor escritor = ArchivoAccesoAleatorio.crear(archivo)) {
+            for (int i = 0; i < 100; i++) {
+                escritor.agregar(new MascotaVO(String.format("A%03d", i), "Apodo" + i, "Reptil", "Iguanidae",
+                        "Iguana", "iguana", "Herbívoro", 1, 2.5, "Corta"));
+            }
+        }
+
+        // Act
+        try (ArchivoAccesoAleatorio archivoRw = new ArchivoAccesoAleatorio(archivo, true)) {
+            MascotaVO enSuLugar = archivoRw.leerMascota(10);
+            enSuLugar.setEdad(7);
+            enSuLugar.setObservaciones("Otra");
+            MascotaVO reubicada = archivoRw.leerMascota(50);
+            reubicada.setObservaciones("Observación bastante más larga que la original, que ya no cabe");
+            assertTrue(archivoRw.actualizarMascota(enSuLugar));
+            assertTrue(archivoRw.actualizarMascota(reubicada));
+            assertFalse(archivoRw.actualizarMascota(new MascotaVO("Z999", "No existe", "Ave", "F", "G", "e",
+                    "Omnívoro", 1, 1.0, "")));
+        }
+
+        // Assert
+        try (ArchivoAccesoAleatorio lector = new ArchivoAccesoAleatorio(archivo, false)) {
+            assertEquals(100, lector.getNumeroRegistros());
+            assertEquals(7, lector.buscarPorId("A010").getEdad());
+            assertEquals("Otra", lector.leerMascota(10).getObservaciones());
+            assertEquals("Observación bastante más larga que la original, que ya no cabe",
+                    lector.buscarPorId("A050").getObservaciones());
+            assertEquals("Apodo51", lector.leerMascota(51).getApodo(), "Los demás registros no deberían cambiar");
+            assertNull(lector.buscarPorId("A100"));
+        }
+    }
+}
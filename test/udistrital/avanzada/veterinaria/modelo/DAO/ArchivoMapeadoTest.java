@@ -0,0 +1,78 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas del archivo proyectado en memoria: debe leer los mismos registros
+ * que el archivo de acceso aleatorio y recorrerlos en paralelo sin omitir
+ * ni repetir ninguno.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de ArchivoMapeado")
+public class ArchivoMapeadoTest {
+
+    private Path directorio;
+
+    @BeforeEach
+    void configuracion() throws Exception {
+        directorio = Files.createTempDirectory("veterinaria_mapeado");
+    }
+
+    @AfterEach
+    void limpieza() throws Exception {
+        try (var archivos = Files.list(directorio)) {
+            for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(directorio);
+    }
+
+    @Test
+    @DisplayName("El archivo proyectado en memoria lee lo mismo que el de acceso aleatorio")
+    void testLeerArchivoMapeado() throws Exception {
+        // Arrange
+        String archivo = directorio.resolve("mapeado.dat").toString();
+        try (ArchivoAccesoAleatorio.Escritor escritor = ArchivoAccesoAleatorio.crear(archivo)) {
+            for (int i = 0; i < 20_000; i++) {
+                // Textos con caracteres de dos y tres bytes y pares sustitutos en UTF modificado
+                escritor.agregar(new MascotaVO(String.format("B%05d", i), "Ñandú 🦎 " + i,
+                        i % 3 == 0 ? "Reptil" : "Ave", "Rheidae", "Rhea", "americana", "Omnívoro",
+                        i % 20, 1.5 + i, i % 5 == 0 ? null : "Observación \u0000 " + i));
+            }
+        }
+
+        // Act
+        ArchivoMapeado mapeado = new ArchivoMapeado(archivo);
+        long reptiles = mapeado.contar(registro -> "Reptil".equals(registro.getClasificacion()));
+        AtomicLong recorridos = new AtomicLong();
+        mapeado.recorrerEnParalelo(registro -> recorridos.incrementAndGet());
+
+        // Assert
+        try (ArchivoAccesoAleatorio lector = new ArchivoAccesoAleatorio(archivo, false)) {
+            assertEquals(lector.getNumeroRegistros(), mapeado.getNumeroRegistros());
+            assertTrue(mapeado.isOrdenadoPorId());
+            for (int n = 0; n < lector.getNumeroRegistros(); n += 997) {
+                assertEquals(lector.leerMascota(n).toString(), mapeado.leerMascota(n).toString(),
+                        "El registro " + n + " debería leerse igual");
+            }
+            assertEquals("Ñandú 🦎 4242", mapeado.registro(4242).getApodo());
+            assertEquals("", mapeado.registro(10).getObservaciones());
+            assertEquals(13.5, mapeado.buscarPorId("B00012").getPeso());
+            assertNull(mapeado.buscarPorId("B99999"));
+        }
+        assertEquals(6667, reptiles, "El conteo en paralelo debería cubrir todos los segmentos");
+        assertEquals(20_000, recorridos.get(), "Cada registro debería recorrerse una sola vez");
+    }
+}
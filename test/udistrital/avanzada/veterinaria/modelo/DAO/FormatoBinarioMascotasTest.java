@@ -0,0 +1,72 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas del formato binario de mascotas: los campos escritos se
+ * conservan y al leer con proyección solo se decodifican los pedidos.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de FormatoBinarioMascotas")
+public class FormatoBinarioMascotasTest {
+
+    @Test
+    @DisplayName("El formato binario conserva los campos escritos y lee solo los proyectados")
+    void testFormatoBinarioConProyeccion() throws Exception {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        EnumSet<FormatoBinarioMascotas.Campo> sinAlimento =
+                EnumSet.complementOf(EnumSet.of(FormatoBinarioMascotas.Campo.TIPO_ALIMENTO));
+        try (FormatoBinarioMascotas.Escritor escritor = FormatoBinarioMascotas.escritor(salida, sinAlimento)) {
+            for (int i = 0; i < 1000; i++) {
+                escritor.escribir(new MascotaVO("F" + i, "Ñandú " + i, i % 2 == 0 ? "Ave" : "Reptil",
+                        "Familia" + i % 7, "Genero" + i % 5, "especie", "Omnívoro", i % 30 - 1,
+                        i == 3 ? 3.14159 : 1.25 + i, i % 4 == 0 ? null : "Observación " + i));
+            }
+        }
+
+        // Act
+        ArrayList<MascotaVO> completas = new ArrayList<>();
+        try (FormatoBinarioMascotas.Lector lector = FormatoBinarioMascotas.lector(
+                new ByteArrayInputStream(salida.toByteArray()), EnumSet.allOf(FormatoBinarioMascotas.Campo.class))) {
+            assertEquals(sinAlimento, lector.getCamposEscritos());
+            for (MascotaVO mascota = lector.leer(); mascota != null; mascota = lector.leer()) {
+                completas.add(mascota);
+            }
+        }
+        ArrayList<MascotaVO> proyectadas = new ArrayList<>();
+        try (FormatoBinarioMascotas.Lector lector = FormatoBinarioMascotas.lector(
+                new ByteArrayInputStream(salida.toByteArray()), EnumSet.of(FormatoBinarioMascotas.Campo.FAMILIA))) {
+            for (MascotaVO mascota = lector.leer(); mascota != null; mascota = lector.leer()) {
+                proyectadas.add(mascota);
+            }
+        }
+
+        // Assert
+        assertEquals(1000, completas.size());
+        MascotaVO tercera = completas.get(3);
+        assertEquals("Ñandú 3", tercera.getApodo());
+        assertEquals("Reptil", tercera.getClasificacion());
+        assertEquals("Familia3", tercera.getFamilia());
+        assertEquals(2, tercera.getEdad());
+        assertEquals(3.14159, tercera.getPeso(), "Un peso con más de dos decimales no debería redondearse");
+        assertNull(tercera.getTipoAlimento(), "El tipo de alimento no debería escribirse");
+        assertEquals(-1, completas.get(0).getEdad());
+        assertEquals(1.25, completas.get(0).getPeso());
+        assertNull(completas.get(0).getObservaciones());
+        assertEquals(1000, proyectadas.size());
+        assertEquals("Familia5", proyectadas.get(999).getFamilia(),
+                "El diccionario debería resolverse aunque los demás campos se salten");
+        assertNull(proyectadas.get(999).getApodo(), "Los campos no proyectados no deberían leerse");
+    }
+}
@@ -0,0 +1,267 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+import udistrital.avanzada.veterinaria.modelo.cambios.BusCambios;
+import udistrital.avanzada.veterinaria.modelo.cambios.EventoCambio;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+import udistrital.avanzada.veterinaria.modelo.conexion.PoolConexiones;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas de la captura de cambios del MascotaDAO: cuando la transacción
+ * se confirma pero falla restaurar el modo de la conexión, los cambios
+ * deben publicarse igualmente, o las suscripciones del bus se detendrían
+ * en la primera secuencia sin publicar; la tabla de cambios conserva el
+ * estado que dejó cada cambio y se depura sin perder la última secuencia.
+ * Usa una base de datos H2 embebida en modo MySQL detrás de un driver que
+ * simula los fallos.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de Captura de Cambios - MascotaDAO")
+public class MascotaDAOCambiosTest {
+
+    private static final String URL_H2 = "jdbc:h2:mem:veterinaria_cambios;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static DriverConFallos driver;
+    private static PoolConexiones pool;
+    private static Connection ancla;
+
+    private MascotaDAO dao;
+    private BusCambios bus;
+
+    @BeforeAll
+    static void configuracionInicial() throws Exception {
+        ancla = DriverManager.getConnection(URL_H2, "sa", "");
+        try (Statement st = ancla.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS mascotas ("
+                    + "id_mascota VARCHAR(20) PRIMARY KEY, apodo VARCHAR(50) NOT NULL, "
+                    + "clasificacion VARCHAR(30) NOT NULL, familia VARCHAR(50) NOT NULL, "
+                    + "genero VARCHAR(30) NOT NULL, especie VARCHAR(30) NOT NULL, "
+                    + "tipo_alimento VARCHAR(30) NOT NULL, edad INT NOT NULL, "
+                    + "peso DECIMAL(5,2) NOT NULL, observaciones TEXT)");
+        }
+        driver = new DriverConFallos();
+        DriverManager.registerDriver(driver);
+        pool = new PoolConexiones(DriverConFallos.PREFIJO + URL_H2.substring("jdbc:h2:".length()), "sa", "",
+                1, 4, 10000, 60000, 0);
+        Conexion.setPool(pool);
+    }
+
+    @AfterAll
+    static void limpiezaFinal() throws Exception {
+        Conexion.cerrarPool();
+        DriverManager.deregisterDriver(driver);
+        ancla.close();
+    }
+
+    @BeforeEach
+    void configurar() {
+        CambiosDAO cambiosDAO = new CambiosDAO();
+        bus = new BusCambios(cambiosDAO::leer, cambiosDAO.ultimaSecuencia(), 16);
+        dao = new MascotaDAO();
+        dao.setBusCambios(bus);
+    }
+
+    @Test
+    @DisplayName("Un lote confirmado se publica aunque falle restaurar el autocommit")
+    void testLotePublicadoSiFallaRestaurar() {
+        // Arrange
+        long antes = bus.getUltimaPublicada();
+        DriverConFallos.fallarRestaurar = 1;
+
+        // Act
+        ResultadoLote resultado = dao.insertarMascotasEnLote(List.of(mascota("L1"), mascota("L2")));
+
+        // Assert
+        assertEquals(0, DriverConFallos.fallarRestaurar, "El fallo simulado debería haberse producido");
+        assertTrue(resultado.esExitoso(), "Las filas ya estaban confirmadas");
+        assertEquals(2, resultado.getInsertadas());
+        assertEquals(antes + 2, bus.getUltimaPublicada(), "Los cambios deberían publicarse");
+        assertEquals(0, pool.getConexionesActivas(), "La conexión debería devolverse al pool");
+        bus.cerrar();
+    }
+
+    @Test
+    @DisplayName("Una modificación confirmada se publica aunque falle restaurar el autocommit")
+    void testFilaPublicadaSiFallaRestaurar() {
+        // Arrange
+        dao.insertarMascota(mascota("F1"));
+        long antes = bus.getUltimaPublicada();
+        MascotaVO modificada = mascota("F1");
+        modificada.setPeso(4.5);
+
+        // Act
+        DriverConFallos.fallarRestaurar = 1;
+        boolean exito = dao.modificarMascota(modificada);
+        DriverConFallos.fallarRestaurar = 1;
+        int enLote = dao.modificarMascotasEnLote(List.of(modificada));
+
+        // Assert
+        assertEquals(0, DriverConFallos.fallarRestaurar, "El fallo simulado debería haberse producido");
+        assertTrue(exito, "La modificación ya estaba confirmada");
+        assertEquals(1, enLote, "El lote ya estaba confirmado");
+        assertEquals(antes + 2, bus.getUltimaPublicada(), "Los cambios deberían publicarse");
+        assertEquals(4.5, dao.consultarMascotaPorId("F1").getPeso(), 0.001);
+        bus.cerrar();
+    }
+
+    @Test
+    @DisplayName("Un lote que no se confirma descarta sus secuencias y no bloquea las siguientes")
+    void testLoteRevertidoDescarta() {
+        // Arrange
+        long antes = bus.getUltimaPublicada();
+        DriverConFallos.fallarConfirmar = 1;
+
+        // Act
+        ResultadoLote fallido = dao.insertarMascotasEnLote(List.of(mascota("R1"), mascota("R2")));
+        boolean siguiente = dao.insertarMascota(mascota("R3"));
+
+        // Assert
+        assertEquals(0, DriverConFallos.fallarConfirmar, "El fallo simulado debería haberse producido");
+        assertFalse(fallido.esExitoso());
+        assertTrue(siguiente);
+        assertEquals(antes + 3, bus.getUltimaPublicada(), "Las secuencias descartadas no deberían bloquear el bus");
+        assertFalse(dao.existeMascota("R1"), "El lote debería revertirse completo");
+        bus.cerrar();
+    }
+
+    @Test
+    @DisplayName("La tabla de cambios devuelve el estado que dejó cada cambio, no el actual")
+    void testHistorialConEstadoDelCambio() {
+        // Arrange
+        CambiosDAO cambiosDAO = new CambiosDAO();
+        long antes = bus.getUltimaPublicada();
+        MascotaVO mascota = mascota("H1");
+        dao.insertarMascota(mascota);
+        mascota.setPeso(3.0);
+        dao.modificarMascota(mascota);
+        mascota.setPeso(4.0);
+        dao.modificarMascota(mascota);
+        dao.eliminarMascota("H1");
+
+        // Act
+        List<EventoCambio> historial = cambiosDAO.leer(antes, bus.getUltimaPublicada(), 10);
+
+        // Assert
+        assertEquals(4, historial.size());
+        assertEquals(2.0, historial.get(0).getMascota().getPeso(), 0.001);
+        assertEquals(3.0, historial.get(1).getMascota().getPeso(), 0.001);
+        assertEquals(4.0, historial.get(2).getMascota().getPeso(), 0.001);
+        assertEquals("Iguanidae", historial.get(2).getMascota().getFamilia());
+        assertEquals(EventoCambio.Tipo.ELIMINADA, historial.get(3).getTipo());
+        assertNull(historial.get(3).getMascota(), "Una baja no tiene estado");
+        bus.cerrar();
+    }
+
+    @Test
+    @DisplayName("Depurar borra los cambios antiguos pero conserva la última secuencia")
+    void testDepurarConservaUltima() {
+        // Arrange
+        CambiosDAO cambiosDAO = new CambiosDAO();
+        dao.insertarMascota(mascota("D1"));
+        dao.insertarMascota(mascota("D2"));
+        long ultima = bus.getUltimaPublicada();
+
+        // Act
+        int borrados = cambiosDAO.depurar(System.currentTimeMillis() + 1000);
+
+        // Assert
+        assertTrue(borrados >= 1, "Deberían borrarse los cambios anteriores al último");
+        assertEquals(ultima, cambiosDAO.ultimaSecuencia(), "La secuencia debería continuar tras reiniciar");
+        List<EventoCambio> restantes = cambiosDAO.leer(0, ultima, 100);
+        assertEquals(1, restantes.size());
+        assertEquals("D2", restantes.get(0).getIdMascota());
+        assertEquals(0, cambiosDAO.depurar(System.currentTimeMillis() + 1000));
+        bus.cerrar();
+    }
+
+    private static MascotaVO mascota(String id) {
+        return new MascotaVO(id, "Apodo" + id, "Reptil", "Iguanidae", "Iguana", "Iguana iguana", "Herbívoro", 3,
+                2.0, "Sin novedad");
+    }
+
+    /**
+     * Driver que delega en H2 y hace fallar {@code commit()} o
+     * {@code setAutoCommit(true)} tras una transacción, tantas veces como
+     * indiquen {@link #fallarConfirmar} y {@link #fallarRestaurar}.
+     */
+    private static final class DriverConFallos implements Driver {
+
+        private static final String PREFIJO = "jdbc:fallos:";
+        private static volatile int fallarConfirmar;
+        private static volatile int fallarRestaurar;
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) return null;
+            Connection fisica = DriverManager.getConnection("jdbc:h2:" + url.substring(PREFIJO.length()), info);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, metodo, args) -> {
+                        if (metodo.getName().equals("commit") && fallarConfirmar > 0) {
+                            fallarConfirmar--;
+                            throw new SQLException("Fallo simulado al confirmar");
+                        }
+                        if (metodo.getName().equals("setAutoCommit") && (Boolean) args[0]
+                                && !fisica.getAutoCommit() && fallarRestaurar > 0) {
+                            fallarRestaurar--;
+                            throw new SQLException("Fallo simulado al restaurar el autocommit");
+                        }
+                        try {
+                            return metodo.invoke(fisica, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith(PREFIJO);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
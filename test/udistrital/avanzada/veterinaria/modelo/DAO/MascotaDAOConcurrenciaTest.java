@@ -0,0 +1,106 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+import udistrital.avanzada.veterinaria.modelo.conexion.PoolConexiones;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Prueba de estrés del MascotaDAO compartido entre muchos hilos.
+ * Usa una base de datos H2 embebida en modo MySQL para no depender del servidor.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de Concurrencia - MascotaDAO")
+public class MascotaDAOConcurrenciaTest {
+
+    private static final String URL_PRUEBA = "jdbc:h2:mem:veterinaria_concurrencia;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final int HILOS = 64;
+    private static final int OPERACIONES_POR_HILO = 50;
+    private static final int POOL_MAXIMO = 8;
+
+    private static PoolConexiones pool;
+    private static Connection ancla;
+
+    @BeforeAll
+    static void configuracionInicial() throws Exception {
+        // Mantiene viva la base de datos en memoria y crea el esquema
+        ancla = DriverManager.getConnection(URL_PRUEBA, "sa", "");
+        try (Statement st = ancla.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS mascotas ("
+                    + "id_mascota VARCHAR(20) PRIMARY KEY, apodo VARCHAR(50) NOT NULL, "
+                    + "clasificacion VARCHAR(30) NOT NULL, familia VARCHAR(50) NOT NULL, "
+                    + "genero VARCHAR(30) NOT NULL, especie VARCHAR(30) NOT NULL, "
+                    + "tipo_alimento VARCHAR(30) NOT NULL, edad INT NOT NULL, "
+                    + "peso DECIMAL(5,2) NOT NULL, observaciones TEXT)");
+        }
+        pool = new PoolConexiones(URL_PRUEBA, "sa", "", 2, POOL_MAXIMO, 10000, 60000, 0);
+        Conexion.setPool(pool);
+    }
+
+    @AfterAll
+    static void limpiezaFinal() throws Exception {
+        Conexion.cerrarPool();
+        ancla.close();
+    }
+
+    @Test
+    @DisplayName("64 hilos comparten un DAO sin fugar conexiones")
+    void testDaoCompartidoSinFugas() throws Exception {
+        // Arrange
+        MascotaDAO dao = new MascotaDAO();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+
+        // Act
+        for (int h = 0; h < HILOS; h++) {
+            final int hilo = h;
+            resultados.add(ejecutor.submit(() -> {
+                salida.await();
+                int errores = 0;
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    String id = "H" + hilo + "-" + i;
+                    MascotaVO mascota = new MascotaVO(id, "Apodo" + i, "Reptil", "Iguanidae",
+                            "Iguana", "iguana", "Herbívoro", 1 + i % 10, 2.5, "Prueba de estrés");
+                    if (!dao.insertarMascota(mascota)) errores++;
+                    MascotaVO leida = dao.consultarMascotaPorId(id);
+                    if (leida == null || !id.equals(leida.getIdMascota())) errores++;
+                    if (!dao.existeMascota(id)) errores++;
+                    dao.consultarMascotasPorFamilia("Iguanidae");
+                    if (i % 2 == 0 && !dao.eliminarMascota(id)) errores++;
+                }
+                return errores;
+            }));
+        }
+        salida.countDown();
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(2, TimeUnit.MINUTES), "Los hilos deberían terminar");
+
+        // Assert
+        for (Future<Integer> resultado : resultados) {
+            assertEquals(0, resultado.get().intValue(), "Ninguna operación debería fallar");
+        }
+        assertEquals(HILOS * OPERACIONES_POR_HILO / 2, dao.obtenerTodasLasMascotas().size(),
+                "Deberían quedar las mascotas no eliminadas");
+        assertEquals(0, pool.getConexionesActivas(), "Todas las conexiones deberían devolverse al pool");
+        assertEquals(0, pool.getTotalEsperasAgotadas(), "Ningún hilo debería agotar la espera");
+        assertTrue(pool.getTotalCreadas() <= POOL_MAXIMO, "No deberían abrirse más conexiones que el máximo");
+    }
+}
@@ -0,0 +1,129 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import udistrital.avanzada.veterinaria.modelo.conexion.Conexion;
+import udistrital.avanzada.veterinaria.modelo.conexion.PoolConexiones;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas de MascotaQuery: compilación a SQL, interpretación del texto de
+ * consulta y equivalencia entre la evaluación en memoria y la base de datos.
+ * Usa una base de datos H2 embebida en modo MySQL para no depender del servidor.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de MascotaQuery")
+public class MascotaQueryTest {
+
+    private static final String URL_PRUEBA = "jdbc:h2:mem:veterinaria_consultas;MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static Connection ancla;
+    private static List<MascotaVO> catalogo;
+
+    @BeforeAll
+    static void configuracionInicial() throws Exception {
+        ancla = DriverManager.getConnection(URL_PRUEBA, "sa", "");
+        try (Statement st = ancla.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS mascotas ("
+                    + "id_mascota VARCHAR(20) PRIMARY KEY, apodo VARCHAR(50) NOT NULL, "
+                    + "clasificacion VARCHAR(30) NOT NULL, familia VARCHAR(50) NOT NULL, "
+                    + "genero VARCHAR(30) NOT NULL, especie VARCHAR(30) NOT NULL, "
+                    + "tipo_alimento VARCHAR(30) NOT NULL, edad INT NOT NULL, "
+                    + "peso DECIMAL(5,2) NOT NULL, observaciones TEXT)");
+        }
+        Conexion.setPool(new PoolConexiones(URL_PRUEBA, "sa", "", 1, 4));
+
+        String[] clasificaciones = {"Reptil", "Ave", "Mamífero"};
+        String[] alimentos = {"Carnívoro", "Herbívoro", "Omnívoro", "Insectívoro"};
+        catalogo = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            catalogo.add(new MascotaVO(String.format("Q%03d", i), "Apodo" + (i % 17), clasificaciones[i % 3],
+                    "Familia" + (i % 5), "Genero" + (i % 4), "Especie" + (i % 6), alimentos[i % 4],
+                    i % 20, (i * 37 % 500) / 10.0, i % 9 == 0 ? "Requiere 100% de calor" : "Sin novedad"));
+        }
+        assertTrue(new MascotaDAO().insertarMascotasEnLote(catalogo).esExitoso());
+    }
+
+    @AfterAll
+    static void limpiezaFinal() throws Exception {
+        Conexion.cerrarPool();
+        ancla.close();
+    }
+
+    @Test
+    @DisplayName("Los criterios se compilan a una sentencia parametrizada")
+    void testCompilacion() {
+        // Arrange
+        MascotaQuery consulta = MascotaQuery.TODAS.conClasificacion("Reptil").conEdadEntre(2, null)
+                .conApodo("a_b").ordenadaPor("peso", false).paginada(10, 5);
+        List<Object> parametros = new ArrayList<>();
+
+        // Act
+        String sql = consulta.sql(parametros);
+
+        // Assert
+        assertEquals("SELECT * FROM mascotas WHERE apodo LIKE ? ESCAPE '!' AND clasificacion = ? AND edad >= ?"
+                + " ORDER BY peso DESC, id_mascota DESC LIMIT ? OFFSET ?", sql);
+        assertEquals(List.of("%a!_b%", "Reptil", 2, 5, 10), parametros);
+    }
+
+    @Test
+    @DisplayName("El texto de consulta se interpreta como criterios combinados")
+    void testInterpretar() {
+        // Act
+        MascotaQuery consulta = MascotaQuery.interpretar("clasificacion=Ave; edad=1..5; peso=..10,5; orden=-edad,apodo");
+        List<Object> parametros = new ArrayList<>();
+        String sql = consulta.sql(parametros);
+
+        // Assert
+        assertEquals("SELECT * FROM mascotas WHERE clasificacion = ? AND edad >= ? AND edad <= ? AND peso <= ?"
+                + " ORDER BY edad DESC, apodo ASC, id_mascota ASC", sql);
+        assertEquals(List.of("Ave", 1, 5, 10.5), parametros);
+        assertThrows(IllegalArgumentException.class, () -> MascotaQuery.interpretar("color=rojo"));
+        assertThrows(IllegalArgumentException.class, () -> MascotaQuery.interpretar("edad=uno"));
+    }
+
+    @Test
+    @DisplayName("La evaluación en memoria coincide con la base de datos")
+    void testEvaluacionEquivalente() {
+        // Arrange
+        MascotaDAO dao = new MascotaDAO();
+        List<MascotaQuery> consultas = List.of(
+                MascotaQuery.TODAS,
+                MascotaQuery.TODAS.conClasificacion("reptil").conEdadEntre(3, 12),
+                MascotaQuery.TODAS.conTipoAlimento("Omnívoro").conPesoEntre(5.0, 30.0).ordenadaPor("peso", false),
+                MascotaQuery.TODAS.conObservaciones("100%").ordenadaPor("familia", true).luegoPor("edad", false),
+                MascotaQuery.TODAS.conApodo("apodo1").ordenadaPor("edad", true).paginada(3, 4),
+                MascotaQuery.TODAS.conFamilia("Familia2").conGenero("Genero1").paginada(0, 0));
+
+        for (MascotaQuery consulta : consultas) {
+            // Act
+            ArrayList<MascotaVO> enBase = dao.consultarMascotas(consulta);
+            ArrayList<MascotaVO> enMemoria = consulta.evaluar(catalogo);
+
+            // Assert
+            assertEquals(ids(enBase), ids(enMemoria), consulta.sql(new ArrayList<>()));
+        }
+        assertEquals(MascotaQuery.TODAS.conClasificacion("Ave").evaluar(catalogo).size(),
+                dao.contarMascotas(MascotaQuery.TODAS.conClasificacion("Ave").paginada(0, 3)));
+    }
+
+    private static List<String> ids(List<MascotaVO> mascotas) {
+        List<String> ids = new ArrayList<>();
+        for (MascotaVO mascota : mascotas) {
+            ids.add(mascota.getIdMascota());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,74 @@
+package udistrital.avanzada.veterinaria.modelo.DAO;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.sql.Statement;
+
+/**
+ * Pruebas del registro del resultado de una inserción por lotes, en
+ * particular con los conteos que devuelve Connector/J al reescribir un
+ * sub-lote como un único INSERT de varias filas (rewriteBatchedStatements):
+ * SUCCESS_NO_INFO en todas las filas si se insertó alguna, o 0 en todas si
+ * no se insertó ninguna.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de ResultadoLote")
+public class ResultadoLoteTest {
+
+    private static final int SIN_INFO = Statement.SUCCESS_NO_INFO;
+
+    @Test
+    @DisplayName("Un sub-lote reescrito se resuelve fila a fila con las claves conocidas")
+    void testSubloteReescrito() {
+        // Arrange
+        ResultadoLote resultado = new ResultadoLote(5);
+
+        // Act
+        resultado.registrar(0, new int[]{SIN_INFO, SIN_INFO, SIN_INFO}, new boolean[]{true, false, true});
+        resultado.registrar(3, new int[]{0, 0}, new boolean[]{false, false});
+
+        // Assert
+        assertEquals(ResultadoLote.Estado.INSERTADA, resultado.getEstado(0));
+        assertEquals(ResultadoLote.Estado.DUPLICADA, resultado.getEstado(1));
+        assertEquals(ResultadoLote.Estado.INSERTADA, resultado.getEstado(2));
+        assertEquals(ResultadoLote.Estado.DUPLICADA, resultado.getEstado(3));
+        assertEquals(2, resultado.getInsertadas());
+        assertEquals(3, resultado.getDuplicadas());
+        assertEquals(0, resultado.getSinInformacion());
+        assertTrue(resultado.esExitoso());
+    }
+
+    @Test
+    @DisplayName("Los conteos informados por el controlador prevalecen sobre las claves conocidas")
+    void testConteosInformados() {
+        // Arrange
+        ResultadoLote resultado = new ResultadoLote(3);
+
+        // Act
+        resultado.registrar(0, new int[]{1, 0, 1}, new boolean[]{true, true, false});
+
+        // Assert
+        assertEquals(ResultadoLote.Estado.INSERTADA, resultado.getEstado(0));
+        assertEquals(ResultadoLote.Estado.DUPLICADA, resultado.getEstado(1));
+        assertEquals(ResultadoLote.Estado.INSERTADA, resultado.getEstado(2));
+    }
+
+    @Test
+    @DisplayName("Sin información de las claves, las filas quedan sin información")
+    void testSinClavesConocidas() {
+        // Arrange
+        ResultadoLote resultado = new ResultadoLote(2);
+
+        // Act
+        resultado.registrar(0, new int[]{SIN_INFO, Statement.EXECUTE_FAILED});
+
+        // Assert
+        assertEquals(ResultadoLote.Estado.SIN_INFORMACION, resultado.getEstado(0));
+        assertEquals(ResultadoLote.Estado.FALLIDA, resultado.getEstado(1));
+        assertFalse(resultado.esExitoso());
+    }
+}
@@ -0,0 +1,154 @@
+package udistrital.avanzada.veterinaria.modelo.cambios;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pruebas del bus de cambios: entrega en orden de secuencia aunque las
+ * escrituras se confirmen desordenadas, puesta al día desde la tabla de
+ * cambios y orden por mascota con varios hilos publicando. La tabla de
+ * cambios se simula con una lista en memoria.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de BusCambios")
+public class BusCambiosTest {
+
+    @Test
+    @DisplayName("Un cambio no se entrega hasta que las secuencias anteriores se publican o descartan")
+    void testOrdenPorSecuencia() throws Exception {
+        // Arrange
+        BusCambios bus = new BusCambios(null, 0, 16);
+        List<EventoCambio> recibidos = new CopyOnWriteArrayList<>();
+        BusCambios.Suscripcion suscripcion = bus.suscribir("orden", recibidos::add);
+        List<EventoCambio> primera = reservar(bus, "M1");
+        List<EventoCambio> segunda = reservar(bus, "M2");
+        List<EventoCambio> tercera = reservar(bus, "M1");
+
+        // Act
+        bus.publicar(tercera);
+        Thread.sleep(100);
+        int antesDeLaPrimera = recibidos.size();
+        bus.publicar(primera);
+        bus.descartar(segunda);
+
+        // Assert
+        assertEquals(0, antesDeLaPrimera);
+        esperar(() -> recibidos.size() == 2);
+        assertEquals(1, recibidos.get(0).getSecuencia());
+        assertEquals(3, recibidos.get(1).getSecuencia());
+        assertEquals(3, suscripcion.getSecuencia());
+        assertEquals(0, suscripcion.getPendientes());
+        bus.cerrar();
+    }
+
+    @Test
+    @DisplayName("Una suscripción desde una secuencia antigua se pone al día con la tabla de cambios")
+    void testPuestaAlDia() throws Exception {
+        // Arrange
+        List<EventoCambio> tabla = new CopyOnWriteArrayList<>();
+        BusCambios bus = new BusCambios((desde, hasta, maximo) -> {
+            List<EventoCambio> leidos = new ArrayList<>();
+            for (EventoCambio evento : tabla) {
+                if (evento.getSecuencia() > desde && evento.getSecuencia() <= hasta && leidos.size() < maximo) {
+                    leidos.add(evento);
+                }
+            }
+            return leidos;
+        }, 0, 4);
+        for (int i = 0; i < 20; i++) {
+            List<EventoCambio> eventos = reservar(bus, "M" + i);
+            if (i % 5 == 4) {
+                bus.descartar(eventos); // Transacción revertida: no llega a la tabla
+            } else {
+                tabla.addAll(eventos);
+                bus.publicar(eventos);
+            }
+        }
+
+        // Act
+        List<EventoCambio> recibidos = new CopyOnWriteArrayList<>();
+        BusCambios.Suscripcion suscripcion = bus.suscribir("reinicio", 2, recibidos::add);
+        esperar(() -> suscripcion.getSecuencia() == 20);
+
+        // Assert
+        assertEquals(14, recibidos.size());
+        long anterior = 2;
+        for (EventoCambio evento : recibidos) {
+            assertTrue(evento.getSecuencia() > anterior);
+            assertTrue(evento.getSecuencia() % 5 != 0);
+            anterior = evento.getSecuencia();
+        }
+        bus.cerrar();
+    }
+
+    @Test
+    @DisplayName("Con varios hilos publicando, los cambios de cada mascota llegan en orden")
+    void testOrdenPorMascotaConVariosHilos() throws Exception {
+        // Arrange
+        int hilos = 4;
+        int cambiosPorHilo = 2000;
+        BusCambios bus = new BusCambios(null, 0, 1 << 16);
+        List<EventoCambio> recibidos = new CopyOnWriteArrayList<>();
+        bus.suscribir("concurrencia", recibidos::add);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Thread> escritores = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            String idMascota = "M" + h;
+            Thread escritor = new Thread(() -> {
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < cambiosPorHilo; i++) {
+                    bus.publicar(reservar(bus, idMascota));
+                }
+            });
+            escritor.start();
+            escritores.add(escritor);
+        }
+
+        // Act
+        inicio.countDown();
+        for (Thread escritor : escritores) {
+            escritor.join();
+        }
+        esperar(() -> recibidos.size() == hilos * cambiosPorHilo);
+
+        // Assert
+        Map<String, Long> ultimaPorMascota = new HashMap<>();
+        long anterior = 0;
+        for (EventoCambio evento : recibidos) {
+            assertEquals(anterior + 1, evento.getSecuencia());
+            Long previa = ultimaPorMascota.put(evento.getIdMascota(), evento.getInstante());
+            assertTrue(previa == null || previa <= evento.getInstante());
+            anterior = evento.getSecuencia();
+        }
+        bus.cerrar();
+    }
+
+    private static List<EventoCambio> reservar(BusCambios bus, String idMascota) {
+        long secuencia = bus.reservar(1);
+        return List.of(new EventoCambio(secuencia, EventoCambio.Tipo.MODIFICADA, idMascota, null,
+                System.nanoTime()));
+    }
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicion.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertTrue(condicion.getAsBoolean(), "Tiempo de espera agotado");
+    }
+}
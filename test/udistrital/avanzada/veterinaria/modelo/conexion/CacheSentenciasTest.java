@@ -0,0 +1,120 @@
+package udistrital.avanzada.veterinaria.modelo.conexion;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Pruebas de la caché de sentencias preparadas que usa el pool de conexiones.
+ * Usa una base de datos H2 embebida en modo MySQL para no depender del servidor.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de CacheSentencias")
+public class CacheSentenciasTest {
+
+    private static final String URL_PRUEBA = "jdbc:h2:mem:veterinaria_sentencias;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String SQL_CONSULTA = "SELECT valor FROM datos WHERE clave = ?";
+
+    private Connection fisica;
+    private CacheSentencias.Estadisticas estadisticas;
+    private CacheSentencias cache;
+
+    @BeforeEach
+    void configuracion() throws Exception {
+        fisica = DriverManager.getConnection(URL_PRUEBA, "sa", "");
+        try (Statement st = fisica.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS datos (clave INT PRIMARY KEY, valor VARCHAR(20))");
+            st.execute("MERGE INTO datos KEY (clave) VALUES (1, 'uno'), (2, 'dos'), (3, 'tres')");
+        }
+        estadisticas = new CacheSentencias.Estadisticas();
+        cache = new CacheSentencias(fisica, 2, estadisticas);
+    }
+
+    @AfterEach
+    void limpieza() throws Exception {
+        cache.cerrar();
+        fisica.close();
+    }
+
+    @Test
+    @DisplayName("La misma consulta se prepara una sola vez")
+    void testReutilizaSentencia() throws Exception {
+        // Act
+        for (int clave = 1; clave <= 3; clave++) {
+            try (PreparedStatement ps = cache.preparar(SQL_CONSULTA)) {
+                ps.setInt(1, clave);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                }
+            }
+        }
+
+        // Assert
+        assertEquals(1, estadisticas.getFallos());
+        assertEquals(2, estadisticas.getAciertos());
+        assertEquals(1, cache.getTamano());
+    }
+
+    @Test
+    @DisplayName("Una sentencia en uso no se presta dos veces")
+    void testSentenciaAnidada() throws Exception {
+        // Act
+        try (PreparedStatement externa = cache.preparar(SQL_CONSULTA);
+                PreparedStatement interna = cache.preparar(SQL_CONSULTA)) {
+            externa.setInt(1, 1);
+            interna.setInt(1, 2);
+            try (ResultSet rsExterna = externa.executeQuery(); ResultSet rsInterna = interna.executeQuery()) {
+                // Assert
+                assertTrue(rsExterna.next());
+                assertTrue(rsInterna.next());
+                assertEquals("uno", rsExterna.getString(1));
+                assertEquals("dos", rsInterna.getString(1));
+            }
+        }
+        assertEquals(2, estadisticas.getFallos());
+        assertEquals(1, cache.getTamano());
+    }
+
+    @Test
+    @DisplayName("Se desaloja la sentencia menos usada al exceder la capacidad")
+    void testDesalojo() throws Exception {
+        // Act
+        cache.preparar("SELECT 1").close();
+        cache.preparar("SELECT 2").close();
+        cache.preparar("SELECT 1").close();
+        cache.preparar("SELECT 3").close();
+        cache.preparar("SELECT 1").close();
+
+        // Assert
+        assertEquals(1, estadisticas.getDesalojos());
+        assertEquals(2, cache.getTamano());
+        assertEquals(2, estadisticas.getAciertos());
+    }
+
+    @Test
+    @DisplayName("Una sentencia con configuración alterada no se reutiliza")
+    void testSentenciaAlterada() throws Exception {
+        // Act
+        try (PreparedStatement ps = cache.preparar(SQL_CONSULTA)) {
+            ps.setMaxRows(1);
+        }
+        PreparedStatement segunda = cache.preparar(SQL_CONSULTA);
+        int maximoFilas = segunda.getMaxRows();
+        segunda.close();
+
+        // Assert
+        assertEquals(0, maximoFilas);
+        assertEquals(2, estadisticas.getFallos());
+        assertThrows(java.sql.SQLException.class, () -> segunda.setInt(1, 1));
+    }
+}
@@ -0,0 +1,130 @@
+package udistrital.avanzada.veterinaria.modelo.conexion;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Pruebas del pool de conexiones: espera acotada al prestar, cierre de
+ * conexiones inactivas, validación al prestar y reporte de fugas. La tarea
+ * de mantenimiento se invoca directamente para no esperar a su periodo.
+ * Usa una base de datos H2 embebida en modo MySQL para no depender del servidor.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de PoolConexiones")
+public class PoolConexionesTest {
+
+    private static final String URL_PRUEBA = "jdbc:h2:mem:veterinaria_pool;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private PoolConexiones pool;
+
+    @AfterEach
+    void limpieza() {
+        if (pool != null) {
+            pool.cerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Con el pool agotado, el préstamo falla tras el tiempo de espera")
+    void testTiempoEsperaAgotado() throws Exception {
+        // Arrange
+        pool = new PoolConexiones(URL_PRUEBA, "sa", "", 0, 1, 100, 60000, 0);
+        Connection prestada = pool.obtenerConexion();
+
+        // Act
+        long inicio = System.nanoTime();
+        assertThrows(SQLException.class, pool::obtenerConexion);
+        long esperaMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        // Assert
+        assertTrue(esperaMs >= 90, "Esperó solo " + esperaMs + " ms");
+        assertEquals(1, pool.getTotalEsperasAgotadas());
+        prestada.close();
+        try (Connection otra = pool.obtenerConexion()) {
+            assertTrue(otra.isValid(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Las conexiones inactivas por encima del mínimo se cierran")
+    void testCierraInactivas() throws Exception {
+        // Arrange
+        pool = new PoolConexiones(URL_PRUEBA, "sa", "", 1, 3, 1000, 1, 0);
+        Connection[] prestadas = new Connection[3];
+        for (int i = 0; i < prestadas.length; i++) {
+            prestadas[i] = pool.obtenerConexion();
+        }
+        for (Connection prestada : prestadas) {
+            prestada.close();
+        }
+        Thread.sleep(20);
+
+        // Act
+        pool.mantener();
+
+        // Assert
+        assertEquals(1, pool.getConexionesInactivas());
+        assertEquals(2, pool.getTotalDescartadas());
+    }
+
+    @Test
+    @DisplayName("Una conexión inactiva que dejó de ser válida se reemplaza al prestar")
+    void testValidaAlPrestar() throws Exception {
+        // Arrange
+        pool = new PoolConexiones(URL_PRUEBA, "sa", "", 0, 1, 1000, 60000, 0);
+        Connection fisica;
+        try (Connection prestada = pool.obtenerConexion()) {
+            fisica = prestada.unwrap(Connection.class);
+        }
+        fisica.close();
+
+        // Act
+        try (Connection prestada = pool.obtenerConexion()) {
+            // Assert
+            assertTrue(prestada.isValid(1));
+            assertNotSame(fisica, prestada.unwrap(Connection.class), "Se prestó la conexión cerrada");
+        }
+        assertEquals(2, pool.getTotalCreadas());
+        assertEquals(1, pool.getTotalDescartadas());
+    }
+
+    @Test
+    @DisplayName("Un préstamo que supera el umbral se reporta una sola vez como fuga")
+    void testReportaFugas() throws Exception {
+        // Arrange
+        pool = new PoolConexiones(URL_PRUEBA, "sa", "", 0, 1, 1000, 60000, 1);
+        Connection prestada = pool.obtenerConexion();
+        Thread.sleep(20);
+
+        // Act
+        pool.mantener();
+        pool.mantener();
+
+        // Assert
+        assertEquals(1, pool.getTotalFugasDetectadas());
+        prestada.close();
+    }
+
+    @Test
+    @DisplayName("Por defecto no se rastrean fugas")
+    void testSinDeteccionPorDefecto() throws Exception {
+        // Arrange
+        pool = new PoolConexiones(URL_PRUEBA, "sa", "", 0, 1);
+        Connection prestada = pool.obtenerConexion();
+        Thread.sleep(20);
+
+        // Act
+        pool.mantener();
+
+        // Assert
+        assertEquals(0, pool.getTotalFugasDetectadas());
+        prestada.close();
+    }
+}
@@ -0,0 +1,137 @@
+package udistrital.avanzada.veterinaria.modelo.conexion;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Pruebas del registro de consultas lentas conectado al pool: contenido de
+ * cada anotación, umbral y rotación del archivo.
+ * Usa una base de datos H2 embebida en modo MySQL para no depender del servidor.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de RegistroConsultasLentas")
+public class RegistroConsultasLentasTest {
+
+    private static final String URL_PRUEBA = "jdbc:h2:mem:veterinaria_lentas;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String SQL_CONSULTA = "SELECT valor FROM datos WHERE clave > ?";
+
+    private PoolConexiones pool;
+    private Path carpeta;
+
+    @BeforeEach
+    void configuracion() throws Exception {
+        pool = new PoolConexiones(URL_PRUEBA, "sa", "", 1, 2);
+        carpeta = Files.createTempDirectory("consultas_lentas");
+        try (Connection con = pool.obtenerConexion(); Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS datos (clave INT PRIMARY KEY, valor VARCHAR(20))");
+            st.execute("MERGE INTO datos KEY (clave) VALUES (1, 'uno'), (2, 'dos'), (3, 'tres')");
+        }
+    }
+
+    @AfterEach
+    void limpieza() throws Exception {
+        pool.cerrar();
+        try (var archivos = Files.list(carpeta)) {
+            for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(carpeta);
+    }
+
+    @Test
+    @DisplayName("Se anotan el SQL, los parámetros, las filas leídas y el plan")
+    void testAnotaConsulta() throws Exception {
+        // Arrange
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(carpeta.resolve("lentas.log").toString(),
+                0, "EXPLAIN ", pool::obtenerConexion);
+        pool.setConsultasLentas(registro);
+
+        // Act
+        try (Connection con = pool.obtenerConexion(); PreparedStatement ps = con.prepareStatement(SQL_CONSULTA)) {
+            ps.setInt(1, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    assertNotNull(rs.getString(1));
+                }
+            }
+        }
+        assertTrue(registro.vaciar(5000));
+
+        // Assert
+        String contenido = new String(Files.readAllBytes(registro.getArchivo()), StandardCharsets.UTF_8);
+        assertTrue(contenido.contains("SQL: " + SQL_CONSULTA), contenido);
+        assertTrue(contenido.contains("Parámetros: 1=1"), contenido);
+        assertTrue(contenido.contains("filas: 2"), contenido);
+        assertTrue(contenido.contains("Plan:"), contenido);
+        assertEquals(1, registro.getTotalLentas());
+        assertEquals(0, registro.getTotalDescartadas());
+    }
+
+    @Test
+    @DisplayName("Las consultas por debajo del umbral no se anotan")
+    void testUmbral() throws Exception {
+        // Arrange
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(carpeta.resolve("lentas.log").toString(),
+                60_000, "EXPLAIN ", pool::obtenerConexion);
+        pool.setConsultasLentas(registro);
+
+        // Act
+        try (Connection con = pool.obtenerConexion(); PreparedStatement ps = con.prepareStatement(SQL_CONSULTA)) {
+            ps.setInt(1, 0);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+            }
+        }
+        assertTrue(registro.vaciar(5000));
+
+        // Assert
+        assertEquals(0, registro.getTotalLentas());
+        assertFalse(Files.exists(registro.getArchivo()));
+    }
+
+    @Test
+    @DisplayName("El archivo rota por tamaño y conserva solo los archivos configurados")
+    void testRotacion() throws Exception {
+        // Arrange
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(carpeta.resolve("lentas.log").toString(),
+                0, 400, 2, "EXPLAIN ", null);
+        pool.setConsultasLentas(registro);
+
+        // Act
+        try (Connection con = pool.obtenerConexion()) {
+            for (int i = 0; i < 20; i++) {
+                try (PreparedStatement ps = con.prepareStatement("UPDATE datos SET valor = ? WHERE clave = ?")) {
+                    ps.setString(1, "valor" + i);
+                    ps.setInt(2, 1 + i % 3);
+                    assertEquals(1, ps.executeUpdate());
+                }
+            }
+        }
+        assertTrue(registro.vaciar(5000));
+
+        // Assert
+        Path archivo = registro.getArchivo();
+        assertTrue(Files.exists(archivo));
+        assertTrue(Files.exists(archivo.resolveSibling("lentas.log.1")));
+        assertTrue(Files.exists(archivo.resolveSibling("lentas.log.2")));
+        assertFalse(Files.exists(archivo.resolveSibling("lentas.log.3")));
+        assertTrue(Files.size(archivo) <= 400);
+        String ultima = new String(Files.readAllBytes(archivo), StandardCharsets.UTF_8);
+        assertTrue(ultima.contains("1='valor19'"), ultima);
+        assertTrue(ultima.contains("filas: 1"), ultima);
+    }
+}
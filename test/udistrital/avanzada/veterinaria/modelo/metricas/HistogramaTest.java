@@ -0,0 +1,125 @@
+package udistrital.avanzada.veterinaria.modelo.metricas;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Pruebas del histograma de latencias y del registro de métricas:
+ * precisión de los percentiles, registro concurrente sin pérdidas y
+ * publicación en JMX.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de Histograma y RegistroMetricas")
+public class HistogramaTest {
+
+    @Test
+    @DisplayName("Los percentiles se calculan con error relativo acotado")
+    void testPrecisionPercentiles() {
+        // Arrange
+        Random aleatorio = new Random(21);
+        long[] valores = new long[100_000];
+        Histograma histograma = new Histograma("prueba");
+        for (int i = 0; i < valores.length; i++) {
+            // Distribución de cola larga, de nanosegundos a decenas de milisegundos
+            valores[i] = (long) Math.exp(7 + aleatorio.nextGaussian() * 2.5);
+            histograma.registrar(valores[i]);
+        }
+        Arrays.sort(valores);
+
+        // Act
+        ResumenOperacion resumen = histograma.instantanea();
+
+        // Assert
+        assertEquals(valores.length, resumen.getCantidad());
+        assertPercentil(valores, 0.5, resumen.getP50Ms());
+        assertPercentil(valores, 0.99, resumen.getP99Ms());
+        assertPercentil(valores, 0.999, resumen.getP999Ms());
+        assertEquals(valores[valores.length - 1] / 1e6, resumen.getMaximoMs(), 1e-9);
+        assertEquals(valores[0] / 1e6, resumen.getMinimoMs(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Cada valor cae en una cubeta que lo contiene")
+    void testCubetas() {
+        for (long valor = 0; valor < 1_000_000; valor += 7) {
+            int indice = Histograma.indice(valor);
+            assertTrue(valor <= Histograma.limiteSuperior(indice), "valor " + valor);
+            assertTrue(indice == 0 || valor > Histograma.limiteSuperior(indice - 1), "valor " + valor);
+        }
+        assertTrue(Histograma.limiteSuperior(Histograma.indice(Long.MAX_VALUE)) >= Long.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("Los registros concurrentes no se pierden")
+    void testRegistroConcurrente() throws Exception {
+        // Arrange
+        RegistroMetricas registro = new RegistroMetricas();
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int h = 0; h < 8; h++) {
+            hilos.execute(() -> {
+                Histograma histograma = registro.histograma("concurrente");
+                for (int i = 1; i <= 50_000; i++) {
+                    histograma.registrar(i);
+                    registro.contador("llamadas").increment();
+                }
+            });
+        }
+        hilos.shutdown();
+        assertTrue(hilos.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert
+        ResumenOperacion resumen = registro.histograma("concurrente").instantanea();
+        assertEquals(400_000, resumen.getCantidad());
+        assertEquals(25_000.5 / 1e6, resumen.getPromedioMs(), 1e-12);
+        assertEquals(50_000 / 1e6, resumen.getMaximoMs(), 1e-12);
+        assertEquals(400_000L, (long) registro.getContadores().get("llamadas"));
+    }
+
+    @Test
+    @DisplayName("El registro global se publica en JMX con percentiles por operación")
+    void testPublicacionJmx() throws Exception {
+        // Arrange
+        RegistroMetricas registro = RegistroMetricas.global();
+        registro.histograma("prueba.jmx").registrar(TimeUnit.MILLISECONDS.toNanos(3));
+        registro.medidor("prueba.medidor", () -> 42);
+
+        // Act
+        assertTrue(registro.registrarEnJmx());
+        assertTrue(registro.registrarEnJmx());
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        CompositeData[] operaciones = (CompositeData[]) servidor.getAttribute(
+                new ObjectName(RegistroMetricas.NOMBRE_JMX), "Operaciones");
+
+        // Assert
+        CompositeData prueba = null;
+        for (CompositeData operacion : operaciones) {
+            if ("prueba.jmx".equals(operacion.get("nombre"))) {
+                prueba = operacion;
+            }
+        }
+        assertNotNull(prueba);
+        assertEquals(1L, prueba.get("cantidad"));
+        assertEquals(3.0, (Double) prueba.get("p99Ms"), 3.0 / 32);
+        assertEquals(42L, (long) registro.getMedidores().get("prueba.medidor"));
+    }
+
+    private static void assertPercentil(long[] ordenados, double fraccion, double obtenidoMs) {
+        long exacto = ordenados[(int) Math.ceil(fraccion * ordenados.length) - 1];
+        assertEquals(exacto / 1e6, obtenidoMs, exacto / 1e6 / 32 + 1e-9, "percentil " + fraccion);
+    }
+}
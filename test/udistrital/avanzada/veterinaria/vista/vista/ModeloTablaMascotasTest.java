@@ -0,0 +1,213 @@
+package udistrital.avanzada.veterinaria.vista.vista;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import udistrital.avanzada.veterinaria.modelo.modelo.MascotaVO;
+
+/**
+ * Pruebas de la actualización fila a fila del modelo de la tabla: tras
+ * cada alta, modificación o baja, las filas cargadas deben coincidir con
+ * las que devolvería la fuente, sin volver a pedir las páginas que se
+ * pueden deducir. La fuente es una lista ordenada en memoria.
+ *
+ * @author AndGar03, SanSantax
+ * @version 2.0
+ * @since 2024
+ */
+@DisplayName("Pruebas de ModeloTablaMascotas")
+public class ModeloTablaMascotasTest {
+
+    private static final int TAMANO = ModeloTablaMascotas.TAMANO_PAGINA;
+    private static final Comparator<MascotaVO> ORDEN = Comparator.comparing(MascotaVO::getApodo)
+            .thenComparing(MascotaVO::getIdMascota);
+
+    private List<MascotaVO> fuente;
+    private ModeloTablaMascotas modelo;
+    private List<TableModelEvent> eventos;
+    private int ventanasPedidas;
+
+    @BeforeEach
+    void configuracion() throws Exception {
+        fuente = new ArrayList<>();
+        for (int i = 0; i < 2 * TAMANO + 50; i++) {
+            fuente.add(mascota(String.format("M%04d", i), String.format("Apodo%04d", i * 2)));
+        }
+        eventos = new ArrayList<>();
+        enEdt(() -> {
+            modelo = new ModeloTablaMascotas();
+            modelo.setFuente((desde, cantidad, anterior) -> {
+                ventanasPedidas++;
+                return new ArrayList<>(fuente.subList(desde, Math.min(desde + cantidad, fuente.size())));
+            }, fuente.size());
+            modelo.addTableModelListener(eventos::add);
+        });
+    }
+
+    @Test
+    @DisplayName("Un alta desplaza las filas de las páginas cargadas siguientes")
+    void testInsertarDesplazaPaginas() throws Exception {
+        // Arrange
+        cargarPaginas(0, 1, 2);
+        MascotaVO nueva = mascota("N0001", "Apodo0101");
+        int pedidasAntes = ventanasPedidas;
+
+        // Act
+        fuente.add(51, nueva);
+        enEdt(() -> modelo.insertar(nueva, ORDEN));
+
+        // Assert
+        assertEquals(TableModelEvent.INSERT, ultimoEvento().getType());
+        assertEquals(51, ultimoEvento().getFirstRow());
+        assertEquals(3, modelo.getPaginasCargadas());
+        comprobarFilas();
+        assertEquals(pedidasAntes, ventanasPedidas);
+    }
+
+    @Test
+    @DisplayName("Una baja antes de una página sin cargar descarta las páginas desplazadas")
+    void testEliminarConPaginaSinCargar() throws Exception {
+        // Arrange
+        cargarPaginas(0, 2);
+        MascotaVO eliminada = fuente.get(10);
+
+        // Act
+        fuente.remove(10);
+        enEdt(() -> modelo.eliminar(eliminada, ORDEN));
+
+        // Assert
+        assertEquals(TableModelEvent.DELETE, ultimoEvento().getType());
+        assertEquals(10, ultimoEvento().getFirstRow());
+        assertEquals(0, modelo.getPaginasCargadas());
+        comprobarFilas();
+    }
+
+    @Test
+    @DisplayName("Una modificación que no cambia el orden actualiza solo su fila")
+    void testReemplazar() throws Exception {
+        // Arrange
+        cargarPaginas(0, 1);
+        MascotaVO modificada = mascota(fuente.get(TAMANO + 3).getIdMascota(), fuente.get(TAMANO + 3).getApodo());
+        modificada.setPeso(9.5);
+
+        // Act
+        fuente.set(TAMANO + 3, modificada);
+        boolean[] reemplazada = new boolean[1];
+        enEdt(() -> reemplazada[0] = modelo.reemplazar(modificada));
+
+        // Assert
+        assertTrue(reemplazada[0]);
+        assertEquals(TableModelEvent.UPDATE, ultimoEvento().getType());
+        assertEquals(TAMANO + 3, ultimoEvento().getFirstRow());
+        assertEquals(TAMANO + 3, ultimoEvento().getLastRow());
+        comprobarFilas();
+    }
+
+    @Test
+    @DisplayName("Un alta en una zona sin cargar conserva las páginas anteriores")
+    void testInsertarFueraDePaginasCargadas() throws Exception {
+        // Arrange
+        cargarPaginas(0);
+        MascotaVO nueva = mascota("N0002", "Apodo0801");
+        int posicion = 401;
+
+        // Act
+        fuente.add(posicion, nueva);
+        enEdt(() -> modelo.insertar(nueva, ORDEN));
+
+        // Assert
+        assertEquals(TableModelEvent.UPDATE, ultimoEvento().getType());
+        assertEquals(1, modelo.getPaginasCargadas());
+        assertEquals(fuente.size(), modelo.getRowCount());
+        comprobarFilas();
+    }
+
+    @Test
+    @DisplayName("Una página que falla se reintenta y, si sigue fallando, se informa el error")
+    void testReintentaYEntregaElError() throws Exception {
+        // Arrange
+        int[] fallosRestantes = {ModeloTablaMascotas.MAXIMO_REINTENTOS};
+        List<Exception> errores = new ArrayList<>();
+        enEdt(() -> {
+            modelo.setRetardoReintento(1);
+            modelo.setManejadorErrores(errores::add);
+            modelo.setFuente((desde, cantidad, anterior) -> {
+                ventanasPedidas++;
+                if (desde == 0 && fallosRestantes[0]-- > 0) {
+                    throw new Exception("Sin conexión");
+                }
+                return desde == TAMANO ? null : new ArrayList<>(fuente.subList(desde, desde + cantidad));
+            }, fuente.size());
+        });
+
+        // Act
+        esperarA(() -> modelo.getMascotaEn(0) != null
+                && "Error al cargar".equals(modelo.getValueAt(TAMANO, 1)));
+
+        // Assert
+        assertEquals(1, errores.size(), "Solo la página que agotó los reintentos debería informarse");
+        assertTrue(errores.get(0).getMessage().contains(String.valueOf(TAMANO + 1)));
+        enEdt(() -> assertSame(fuente.get(0), modelo.getMascotaEn(0)));
+        int pedidas = ventanasPedidas;
+        enEdt(() -> modelo.getValueAt(TAMANO, 1));
+        assertEquals(pedidas, ventanasPedidas, "Una página fallida no debería pedirse en cada repintado");
+    }
+
+    /**
+     * Pide las filas en el EDT hasta que se cumpla la condición o pasen dos segundos.
+     */
+    private void esperarA(BooleanSupplier condicion) throws Exception {
+        boolean[] cumplida = new boolean[1];
+        long limite = System.nanoTime() + 2_000_000_000L;
+        while (!cumplida[0] && System.nanoTime() < limite) {
+            enEdt(() -> cumplida[0] = condicion.getAsBoolean());
+            Thread.sleep(5);
+        }
+        assertTrue(cumplida[0], "La condición no se cumplió a tiempo");
+    }
+
+    private void cargarPaginas(int... paginas) throws Exception {
+        enEdt(() -> {
+            for (int pagina : paginas) {
+                modelo.getMascotaEn(pagina * TAMANO);
+            }
+        });
+        enEdt(() -> { }); // Las páginas se aplican en el EDT después de cargarse
+    }
+
+    /**
+     * Carga todas las páginas que falten y compara cada fila con la fuente.
+     */
+    private void comprobarFilas() throws Exception {
+        assertEquals(fuente.size(), modelo.getRowCount());
+        for (int fila = 0; fila < fuente.size(); fila += TAMANO) {
+            int inicio = fila;
+            enEdt(() -> modelo.getMascotaEn(inicio));
+        }
+        enEdt(() -> {
+            for (int fila = 0; fila < fuente.size(); fila++) {
+                assertSame(fuente.get(fila), modelo.getMascotaEn(fila), "Fila " + fila);
+            }
+        });
+    }
+
+    private TableModelEvent ultimoEvento() {
+        return eventos.get(eventos.size() - 1);
+    }
+
+    private static void enEdt(Runnable accion) throws Exception {
+        SwingUtilities.invokeAndWait(accion);
+    }
+
+    private static MascotaVO mascota(String id, String apodo) {
+        return new MascotaVO(id, apodo, "Ave", "Psittacidae", "Ara", "Ara macao", "Herbívoro", 4, 1.2,
+                "Sin novedad");
+    }
+}